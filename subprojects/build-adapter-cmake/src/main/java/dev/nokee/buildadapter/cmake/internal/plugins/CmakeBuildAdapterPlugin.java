@@ -24,6 +24,7 @@ import dev.nokee.core.exec.CommandLineTool;
 import dev.nokee.core.exec.LoggingEngine;
 import dev.nokee.core.exec.ProcessBuilderEngine;
 import dev.nokee.platform.nativebase.internal.ConfigurationUtils;
+import dev.nokee.runtime.base.internal.tools.ToolProbeCacheService;
 import dev.nokee.runtime.base.internal.tools.ToolRepository;
 import dev.nokee.runtime.nativebase.internal.locators.CmakeLocator;
 import dev.nokee.runtime.nativebase.internal.locators.MSBuildLocator;
@@ -50,12 +51,13 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import static dev.nokee.utils.DeferUtils.asToStringObject;
+import static dev.nokee.utils.ProviderUtils.forUseAtConfigurationTime;
 
 public abstract class CmakeBuildAdapterPlugin implements Plugin<Settings> {
 	@SneakyThrows
 	@Override
 	public void apply(Settings settings) {
-		val repository = new ToolRepository();
+		val repository = new ToolRepository(forUseAtConfigurationTime(ToolProbeCacheService.registerIfAbsent(settings.getGradle(), getProviders())).get().getCache());
 		repository.register("cmake", new CmakeLocator());
 		repository.register("make", new MakeLocator());
 		repository.register("msbuild", new MSBuildLocator(() -> CommandLineTool.of(repository.findAll("vswhere").iterator().next().getPath())));
@@ -15,6 +15,7 @@
  */
 package dev.nokee.buildadapter.xcode.internal.plugins;
 
+import com.google.common.cache.CacheStats;
 import dev.nokee.buildadapter.xcode.internal.reporting.JsonReportContext;
 import dev.nokee.buildadapter.xcode.internal.reporting.Report;
 import dev.nokee.buildadapter.xcode.internal.reporting.ReportContext;
@@ -31,8 +32,10 @@ import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.UntrackedTask;
 import org.gradle.api.tasks.options.Option;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.io.OutputStreamWriter;
+import java.util.concurrent.TimeUnit;
 
 import static dev.nokee.utils.ProviderUtils.finalizeValueOnRead;
 import static dev.nokee.utils.ProviderUtils.ifPresentOrElse;
@@ -55,6 +58,9 @@ public /*final*/ abstract class InspectXcodeTask extends DefaultTask {
 	@Internal
 	protected abstract Property<XCTargetReference> getXcodeTarget();
 
+	@Internal
+	public abstract Property<XCLoaderService> getLoaderService();
+
 	@Internal
 	protected abstract Property<ReportContext> getReportContext();
 
@@ -69,7 +75,7 @@ public /*final*/ abstract class InspectXcodeTask extends DefaultTask {
 			}
 		})));
 		getXcodeTarget().set(zip(() -> objects.listProperty(Object.class),
-			getXcodeProject().map(XCProjectReference::load),
+			getLoaderService().zip(getXcodeProject(), (loaderService, project) -> loaderService.load(project)),
 			getTargetFlag(),
 			(project, targetName) -> project.getTargets().stream().filter(t -> t.getName().equals(targetName)).findFirst().orElse(null)));
 	}
@@ -78,8 +84,25 @@ public /*final*/ abstract class InspectXcodeTask extends DefaultTask {
 	void doInspect() {
 		ifPresentOrElse(
 			getXcodeTarget(),
-			targetReference -> new XCTargetReport(targetReference.load()).report(getReportContext().get()),
-			() -> new XCProjectReport(getXcodeProject().get().load()).report(getReportContext().get()));
+			targetReference -> new XCTargetReport(getLoaderService().get().load(targetReference), getCacheStatistics()).report(getReportContext().get()),
+			() -> new XCProjectReport(getLoaderService().get().load(getXcodeProject().get()), getCacheStatistics()).report(getReportContext().get()));
+	}
+
+	// Must be called after loading the inspected model, so the statistics account for it
+	@Nullable
+	private CacheStats getCacheStatistics() {
+		return getLoaderService().map(XCLoaderService::getStatistics).getOrNull();
+	}
+
+	private static void reportCacheStatistics(ReportContext context, @Nullable CacheStats statistics) {
+		if (statistics != null) {
+			context.attributeGroup("cache", it -> {
+				it.attribute("hits", String.valueOf(statistics.hitCount()));
+				it.attribute("misses", String.valueOf(statistics.missCount()));
+				it.attribute("evictions", String.valueOf(statistics.evictionCount()));
+				it.attribute("load time (ms)", String.valueOf(TimeUnit.NANOSECONDS.toMillis(statistics.totalLoadTime())));
+			});
+		}
 	}
 
 	/**
@@ -87,9 +110,11 @@ public /*final*/ abstract class InspectXcodeTask extends DefaultTask {
 	 */
 	private static final class XCProjectReport implements Report {
 		private final XCProject project;
+		@Nullable private final CacheStats cacheStatistics;
 
-		public XCProjectReport(XCProject project) {
+		public XCProjectReport(XCProject project, @Nullable CacheStats cacheStatistics) {
 			this.project = project;
+			this.cacheStatistics = cacheStatistics;
 		}
 
 		@Override
@@ -97,6 +122,7 @@ public /*final*/ abstract class InspectXcodeTask extends DefaultTask {
 			context.beginDocument();
 			context.attribute("name", project.getName());
 			context.attribute("targets", project.getTargets().stream().map(XCTargetReference::getName).collect(toList()));
+			reportCacheStatistics(context, cacheStatistics);
 			context.endDocument();
 		}
 	}
@@ -106,21 +132,24 @@ public /*final*/ abstract class InspectXcodeTask extends DefaultTask {
 	 */
 	private static final class XCTargetReport implements Report {
 		private final XCTarget target;
+		@Nullable private final CacheStats cacheStatistics;
 
-		public XCTargetReport(XCTarget target) {
+		public XCTargetReport(XCTarget target, @Nullable CacheStats cacheStatistics) {
 			this.target = target;
+			this.cacheStatistics = cacheStatistics;
 		}
 
 		@Override
 		public void report(ReportContext context) {
 			context.beginDocument();
-			context.attribute("Project name", target.getProject().load().getName());
+			context.attribute("Project name", target.getProject().getName());
 			context.attribute("name", target.getName());
 			context.attribute("dependencies", target.getDependencies().stream().map(it -> it.getProject().getName() + ":" + it.getName() + " (" + (target.getProject().equals(it.getProject()) ? "local" : "remote") + ")").collect(toList()));
 			context.attribute("inputFiles", target.getInputFiles().stream().map(Object::toString).collect(toList()));
 			context.attributeGroup("product", it -> {
 				it.attribute("location", target.getOutputFile().toString());
 			});
+			reportCacheStatistics(context, cacheStatistics);
 			context.endDocument();
 		}
 	}
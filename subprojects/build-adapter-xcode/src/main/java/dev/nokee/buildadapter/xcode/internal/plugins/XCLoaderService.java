@@ -15,13 +15,78 @@
  */
 package dev.nokee.buildadapter.xcode.internal.plugins;
 
+import com.google.common.cache.CacheStats;
 import dev.nokee.xcode.XCCache;
+import dev.nokee.xcode.XCProject;
+import dev.nokee.xcode.XCProjectReference;
+import dev.nokee.xcode.XCTarget;
+import dev.nokee.xcode.XCTargetReference;
+import dev.nokee.xcode.XCWorkspace;
+import dev.nokee.xcode.XCWorkspaceReference;
+import lombok.val;
+import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.services.BuildService;
 import org.gradle.api.services.BuildServiceParameters;
 
-public abstract class XCLoaderService implements BuildService<BuildServiceParameters.None>, AutoCloseable {
+import java.util.Collection;
+import java.util.Set;
+
+public abstract class XCLoaderService implements BuildService<XCLoaderService.Parameters>, AutoCloseable {
+	private final XCCache cache;
+	private final XCProjectPrefetcher prefetcher;
+
+	interface Parameters extends BuildServiceParameters {
+		DirectoryProperty getCacheDirectory();
+	}
+
+	public XCLoaderService() {
+		val cacheDirectory = getParameters().getCacheDirectory();
+		if (cacheDirectory.isPresent()) {
+			cache = XCCache.newCache(cacheDirectory.get().getAsFile().toPath());
+		} else {
+			cache = XCCache.newCache();
+		}
+		prefetcher = new XCProjectPrefetcher(cache);
+	}
+
+	public XCWorkspace load(XCWorkspaceReference reference) {
+		return reference.load(cache);
+	}
+
+	public XCProject load(XCProjectReference reference) {
+		return reference.load(cache);
+	}
+
+	public XCTarget load(XCTargetReference reference) {
+		return reference.load(cache);
+	}
+
+	/**
+	 * Loads the specified projects and all projects they reference.
+	 *
+	 * @param projects  the projects to start from, must not be null
+	 * @return all reachable projects in breadth-first order, never null
+	 */
+	public Set<XCProjectReference> loadAllProjects(Collection<XCProjectReference> projects) {
+		return prefetcher.loadAllProjects(projects);
+	}
+
+	/**
+	 * Loads the targets of the specified projects in parallel, in the background.
+	 *
+	 * @param projects  the projects to prefetch, must not be null
+	 */
+	public void prefetch(Collection<XCProjectReference> projects) {
+		prefetcher.prefetchAllTargets(projects);
+	}
+
+	public CacheStats getStatistics() {
+		return cache.getStatistics();
+	}
+
 	@Override
 	public void close() {
-		XCCache.clear();
+		prefetcher.close();
+		cache.close();
 	}
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.buildadapter.xcode.internal.plugins;
+
+import com.google.common.annotations.VisibleForTesting;
+import dev.nokee.xcode.XCCache;
+import dev.nokee.xcode.XCProjectReference;
+import dev.nokee.xcode.XCTargetReference;
+import lombok.val;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Loads Xcode projects and their targets in parallel on a dedicated fork-join pool.
+ * The loaded model is kept by the specified {@link XCCache}, so later sequential loads find warm entries.
+ */
+final class XCProjectPrefetcher implements AutoCloseable {
+	private static final Logger LOGGER = Logging.getLogger(XCProjectPrefetcher.class);
+	private final ForkJoinPool pool = new ForkJoinPool();
+	private final Loader loader;
+
+	XCProjectPrefetcher(XCCache cache) {
+		this(new Loader() {
+			@Override
+			public List<XCProjectReference> loadProjectReferences(XCProjectReference project) {
+				return project.load(cache).getProjectReferences();
+			}
+
+			@Override
+			public Set<XCTargetReference> loadTargets(XCProjectReference project) {
+				return project.load(cache).getTargets();
+			}
+
+			@Override
+			public void load(XCTargetReference target) {
+				target.load(cache);
+			}
+		});
+	}
+
+	@VisibleForTesting
+	XCProjectPrefetcher(Loader loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * Loads the specified projects and all projects they reference, one level of references at a time.
+	 * Projects failing to load are still returned, without their references, the failure surfaces again when the project is loaded by its consumer.
+	 *
+	 * @param projects  the projects to start from, must not be null
+	 * @return all reachable projects in breadth-first order, never null
+	 */
+	public Set<XCProjectReference> loadAllProjects(Collection<XCProjectReference> projects) {
+		val result = new LinkedHashSet<XCProjectReference>();
+		List<XCProjectReference> level = new ArrayList<>(projects);
+		while (!level.isEmpty()) {
+			val newProjects = level.stream().filter(result::add).collect(Collectors.toList());
+			level = pool.submit(() -> newProjects.parallelStream().flatMap(it -> loadProjectReferences(it).stream()).collect(Collectors.toList())).join();
+		}
+		return result;
+	}
+
+	/**
+	 * Starts loading all targets of the specified projects in the background.
+	 * Failures are ignored here, they surface again when the target is loaded by its consumer.
+	 *
+	 * @param projects  the projects to prefetch, must not be null
+	 */
+	public void prefetchAllTargets(Collection<XCProjectReference> projects) {
+		pool.execute(() -> projects.parallelStream().flatMap(it -> loadTargets(it).stream()).forEach(this::prefetch));
+	}
+
+	private List<XCProjectReference> loadProjectReferences(XCProjectReference project) {
+		try {
+			return loader.loadProjectReferences(project);
+		} catch (RuntimeException e) {
+			LOGGER.debug(String.format("Could not load the references of Xcode %s.", project), e);
+			return Collections.emptyList();
+		}
+	}
+
+	private Set<XCTargetReference> loadTargets(XCProjectReference project) {
+		try {
+			return loader.loadTargets(project);
+		} catch (RuntimeException e) {
+			LOGGER.debug(String.format("Could not prefetch Xcode %s.", project), e);
+			return Collections.emptySet();
+		}
+	}
+
+	private void prefetch(XCTargetReference target) {
+		try {
+			loader.load(target);
+		} catch (RuntimeException e) {
+			LOGGER.debug(String.format("Could not prefetch Xcode target '%s' of %s.", target.getName(), target.getProject()), e);
+		}
+	}
+
+	@Override
+	public void close() {
+		pool.shutdownNow();
+	}
+
+	interface Loader {
+		List<XCProjectReference> loadProjectReferences(XCProjectReference project);
+
+		Set<XCTargetReference> loadTargets(XCProjectReference project);
+
+		void load(XCTargetReference target);
+	}
+}
@@ -15,6 +15,7 @@
  */
 package dev.nokee.buildadapter.xcode.internal.plugins;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import dev.nokee.buildadapter.xcode.internal.GradleBuildLayout;
 import dev.nokee.buildadapter.xcode.internal.GradleProjectPathService;
@@ -95,7 +96,10 @@ public class XcodeBuildAdapterPlugin implements Plugin<Settings> {
 		settings.getPluginManager().apply("dev.nokee.cocoapods-support");
 		settings.getGradle().rootProject(new RedirectProjectBuildDirectoryToRootBuildDirectory());
 
-		forUseAtConfigurationTime(registerBuildServiceIfAbsent(settings.getGradle(), XCLoaderService.class)).get();
+		// Parsed pbxproj are keyed by content hash, so they can be shared by all builds of the user home
+		val loaderService = forUseAtConfigurationTime(registerBuildServiceIfAbsent(settings.getGradle(), XCLoaderService.class, it -> {
+			it.getCacheDirectory().set(new File(settings.getGradle().getGradleUserHomeDir(), "caches/nokee/xcode-projects"));
+		}));
 
 		settings.getExtensions().getByType(ModelConfigurer.class).configure(new XcodeBuildLayoutRule(GradleBuildLayout.forSettings(settings), providers));
 		settings.getExtensions().getByType(ModelConfigurer.class).configure(new XcodeProjectPathRule(new GradleProjectPathService(settings.getSettingsDir().toPath())));
@@ -103,7 +107,10 @@ public class XcodeBuildAdapterPlugin implements Plugin<Settings> {
 		val allWorkspaceLocations = forUseAtConfigurationTime(providers.of(AllXCWorkspaceLocationsValueSource.class, forParameters(it -> it.getSearchDirectory().set(settings.getSettingsDir()))));
 		val selectedWorkspaceLocation = allWorkspaceLocations.map(new SelectXCWorkspaceLocationTransformation());
 
-		val workspace = forUseAtConfigurationTime(providers.of(XCWorkspaceDataValueSource.class, forParameters(it -> it.getWorkspace().set(selectedWorkspaceLocation)))).getOrNull();
+		val workspace = forUseAtConfigurationTime(providers.of(XCWorkspaceDataValueSource.class, forParameters(it -> {
+			it.getWorkspace().set(selectedWorkspaceLocation);
+			it.getLoaderService().set(loaderService);
+		}))).getOrNull();
 
 		val projects = new ArrayList<XCProjectReference>();
 		if (workspace == null) {
@@ -115,7 +122,12 @@ public class XcodeBuildAdapterPlugin implements Plugin<Settings> {
 		} else {
 			projects.addAll(workspace.getProjectLocations());
 		}
-		val actualProjects = forUseAtConfigurationTime(providers.of(AllXCProjectWithinProjectValueSource.class, forParameters(it -> it.getProjectLocations().addAll(projects)))).get();
+		val actualProjects = forUseAtConfigurationTime(providers.of(AllXCProjectWithinProjectValueSource.class, forParameters(it -> {
+			it.getProjectLocations().addAll(projects);
+			it.getLoaderService().set(loaderService);
+		}))).get();
+		// Warm up the targets while the settings and projects are evaluated, see forXcodeProject
+		loaderService.get().prefetch(ImmutableList.copyOf(actualProjects));
 
 		val settingsEntity = settings.getExtensions().getByType(ModelLookup.class).get(ModelPath.root());
 		actualProjects.forEach(project -> {
@@ -125,6 +137,7 @@ public class XcodeBuildAdapterPlugin implements Plugin<Settings> {
 		if (workspace != null) {
 			val service = forUseAtConfigurationTime(registerBuildServiceIfAbsent(settings, XcodeImplicitDependenciesService.class, it -> {
 				it.getLocation().set(workspace.toReference());
+				it.getLoaderService().set(loaderService);
 			}));
 			settings.getGradle().rootProject(forXcodeWorkspace(workspace, composite(
 				(XcodebuildExecTask task) -> task.getSdk().set(fromCommandLine("sdk")),
@@ -143,11 +156,14 @@ public class XcodeBuildAdapterPlugin implements Plugin<Settings> {
 
 			@SuppressWarnings("unchecked")
 			final Provider<XcodeImplicitDependenciesService> service = project.getProviders().provider(() -> (BuildServiceRegistration<XcodeImplicitDependenciesService, XcodeImplicitDependenciesService.Parameters>) project.getGradle().getSharedServices().getRegistrations().findByName("implicitDependencies")).flatMap(BuildServiceRegistration::getService);
+			@SuppressWarnings("unchecked")
+			final Provider<XCLoaderService> loaderService = project.getProviders().provider(() -> (BuildServiceRegistration<XCLoaderService, XCLoaderService.Parameters>) project.getGradle().getSharedServices().getRegistrations().findByName(XCLoaderService.class.getSimpleName())).flatMap(BuildServiceRegistration::getService);
 			val projectPathService = new GradleProjectPathService(project.getRootDir().toPath());
 
 			project.getExtensions().getByType(ModelConfigurer.class).configure(ModelActionWithInputs.of(ModelComponentReference.of(XCProjectComponent.class), (entity, xcProject) -> {
 				val xcodeProject = forUseAtConfigurationTime(project.getProviders().of(XCProjectDataValueSource.class, forParameters(it -> {
 					it.getProject().set(reference);
+					it.getLoaderService().set(loaderService);
 				}))).get();
 				xcodeProject.getTargets().forEach(target -> {
 					project.getExtensions().getByType(ModelRegistry.class).register(ModelRegistration.builder()
@@ -160,6 +176,8 @@ public class XcodeBuildAdapterPlugin implements Plugin<Settings> {
 					.as(InspectXcodeTask.class)
 					.configure(task -> {
 						task.getXcodeProject().set(reference);
+						task.getLoaderService().set(loaderService);
+						task.usesService(loaderService);
 					});
 			}));
 
@@ -175,7 +193,7 @@ public class XcodeBuildAdapterPlugin implements Plugin<Settings> {
 					})
 					.configure(configuration -> {
 						configuration.getDependencies().addAllLater(finalizeValueOnRead(project.getObjects().listProperty(Dependency.class).value(service.map(it -> {
-							return target.load().getInputFiles().stream().map(it::findTarget).filter(Objects::nonNull).map(t -> {
+							return loaderService.get().load(target).getInputFiles().stream().map(it::findTarget).filter(Objects::nonNull).map(t -> {
 								val dep = (ProjectDependency) project.getDependencies().create(project.project(":" + it.asProjectPath(t.getProject())));
 								dep.capabilities(capabilities -> {
 									capabilities.requireCapability("net.nokeedev.xcode:" + t.getProject().getName() + "-" + t.getName() + ":1.0");
@@ -184,7 +202,7 @@ public class XcodeBuildAdapterPlugin implements Plugin<Settings> {
 							}).collect(Collectors.toList());
 						}).orElse(Collections.emptyList()))));
 						configuration.getDependencies().addAllLater(finalizeValueOnRead(project.getObjects().listProperty(Dependency.class).value(project.provider(() -> {
-							return target.load().getDependencies().stream().map(t -> {
+							return loaderService.get().load(target).getDependencies().stream().map(t -> {
 								val dep = (ProjectDependency) project.getDependencies().create(project.project(projectPathService.toProjectPath(t.getProject()).toString()));
 								dep.capabilities(capabilities -> {
 									capabilities.requireCapability("net.nokeedev.xcode:" + t.getProject().getName() + "-" + t.getName() + ":1.0");
@@ -203,7 +221,7 @@ public class XcodeBuildAdapterPlugin implements Plugin<Settings> {
 						task.getDerivedDataPath().set(project.getLayout().getBuildDirectory().dir(temporaryDirectoryPath(task) + "/derivedData"));
 						task.getOutputDirectory().set(project.getLayout().getBuildDirectory().dir("derivedData/" + target.getName()));
 						task.getInputDerivedData().from(derivedData);
-						task.getInputFiles().from((Callable<Object>) () -> target.load().getInputFiles().stream().filter(it -> it.getType() != XCFileReference.XCFileType.BUILT_PRODUCT).map(it -> it.resolve(new XCFileReference.ResolveContext() {
+						task.getInputFiles().from((Callable<Object>) () -> XCFileReference.resolveAll(loaderService.get().load(target).getInputFiles().stream().filter(it -> it.getType() != XCFileReference.XCFileType.BUILT_PRODUCT).collect(Collectors.toList()), new XCFileReference.ResolveContext() {
 							@Override
 							public Path getBuiltProductDirectory() {
 								// TODO: The following is only an approximation of what the BUILT_PRODUCT_DIR would be, use -showBuildSettings
@@ -238,7 +256,7 @@ public class XcodeBuildAdapterPlugin implements Plugin<Settings> {
 										return new File(task.getBuildSettings().get().get(name)).toPath();
 								}
 							}
-						})).collect(Collectors.toList()));
+						}));
 						task.getInputFiles().finalizeValueOnRead();
 						action.execute(task);
 					});
@@ -260,6 +278,7 @@ public class XcodeBuildAdapterPlugin implements Plugin<Settings> {
 			project.getExtensions().getByType(ModelConfigurer.class).configure(ModelActionWithInputs.of(ModelComponentReference.of(XCProjectComponent.class), (entity, xcProject) -> {
 				val xcodeProject = forUseAtConfigurationTime(project.getProviders().of(XCProjectDataValueSource.class, forParameters(it -> {
 					it.getProject().set(xcProject.get());
+					it.getLoaderService().set(loaderService);
 				}))).get();
 				xcodeProject.getSchemeNames().forEach(schemeName -> {
 					project.getTasks().register("build" + StringUtils.capitalize(schemeName), XcodeProjectSchemeExecTask.class, task -> {
@@ -293,13 +312,14 @@ public class XcodeBuildAdapterPlugin implements Plugin<Settings> {
 	public static abstract class XCWorkspaceDataValueSource implements ValueSource<XCWorkspace, XCWorkspaceDataValueSource.Parameters> {
 		interface Parameters extends ValueSourceParameters {
 			Property<XCWorkspaceReference> getWorkspace();
+			Property<XCLoaderService> getLoaderService();
 		}
 
 		@Nullable
 		@Override
 		public XCWorkspace obtain() {
 			if (getParameters().getWorkspace().isPresent()) {
-				return getParameters().getWorkspace().get().load();
+				return getParameters().getLoaderService().get().load(getParameters().getWorkspace().get());
 			} else {
 				return null;
 			}
@@ -309,13 +329,14 @@ public class XcodeBuildAdapterPlugin implements Plugin<Settings> {
 	public static abstract class XCProjectDataValueSource implements ValueSource<XCProject, XCProjectDataValueSource.Parameters> {
 		interface Parameters extends ValueSourceParameters {
 			Property<XCProjectReference> getProject();
+			Property<XCLoaderService> getLoaderService();
 		}
 
 		@Nullable
 		@Override
 		public XCProject obtain() {
 			if (getParameters().getProject().isPresent()) {
-				return getParameters().getProject().get().load();
+				return getParameters().getLoaderService().get().load(getParameters().getProject().get());
 			} else {
 				return null;
 			}
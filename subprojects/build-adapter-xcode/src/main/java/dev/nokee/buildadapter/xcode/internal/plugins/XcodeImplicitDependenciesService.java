@@ -18,7 +18,6 @@ package dev.nokee.buildadapter.xcode.internal.plugins;
 import dev.nokee.xcode.XCFileReference;
 import dev.nokee.xcode.XCProjectReference;
 import dev.nokee.xcode.XCTarget;
-import dev.nokee.xcode.XCTargetReference;
 import dev.nokee.xcode.XCWorkspaceReference;
 import lombok.val;
 import org.apache.commons.io.FilenameUtils;
@@ -40,14 +39,16 @@ public abstract class XcodeImplicitDependenciesService implements BuildService<X
 
 	interface Parameters extends BuildServiceParameters {
 		Property<XCWorkspaceReference> getLocation();
+		Property<XCLoaderService> getLoaderService();
 	}
 
 	private final List<XCTarget> targets;
 	private final Map<XCProjectReference, String> projectPaths;
 
 	public XcodeImplicitDependenciesService() {
-		val workspace = getParameters().getLocation().get().load();
-		targets = workspace.getProjectLocations().stream().map(XCProjectReference::load).flatMap(it -> it.getTargets().stream()).map(XCTargetReference::load).collect(Collectors.toList());
+		val loaderService = getParameters().getLoaderService().get();
+		val workspace = loaderService.load(getParameters().getLocation().get());
+		targets = workspace.getProjectLocations().stream().map(loaderService::load).flatMap(it -> it.getTargets().stream()).map(loaderService::load).collect(Collectors.toList());
 		projectPaths = workspace.getProjectLocations().stream().collect(Collectors.toMap(Function.identity(), project -> {
 			// TODO: What happen if a workspace reference project in parent directory? It would break the project mapping.
 			val relativePath = workspace.getLocation().getParent().relativize(project.getLocation());
@@ -20,7 +20,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import dev.nokee.utils.FileSystemLocationUtils;
-import dev.nokee.xcode.AsciiPropertyListReader;
+import dev.nokee.xcode.StreamingAsciiPropertyListReader;
 import dev.nokee.xcode.XCBuildSettings;
 import dev.nokee.xcode.XCProjectReference;
 import dev.nokee.xcode.project.PBXObjectReference;
@@ -28,6 +28,7 @@ import dev.nokee.xcode.project.PBXProj;
 import dev.nokee.xcode.project.PBXProjReader;
 import dev.nokee.xcode.project.PBXProjWriter;
 import lombok.val;
+import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.output.NullOutputStream;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.ConfigurableFileCollection;
@@ -59,6 +60,9 @@ import static dev.nokee.buildadapter.xcode.internal.plugins.XCBuildSettingsUtils
 import static dev.nokee.utils.ProviderUtils.disallowChanges;
 import static dev.nokee.utils.ProviderUtils.finalizeValueOnRead;
 import static dev.nokee.utils.ProviderUtils.ifPresent;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
 
 public abstract class XcodeTargetExecTask extends DefaultTask implements XcodebuildExecTask {
 	@Inject
@@ -140,7 +144,7 @@ public abstract class XcodeTargetExecTask extends DefaultTask implements Xcodebu
 		});
 
 		PBXProj proj;
-		try (val reader = new PBXProjReader(new AsciiPropertyListReader(Files.newBufferedReader(isolatedProjectLocation.resolve("project.pbxproj"))))) {
+		try (val reader = new PBXProjReader(new StreamingAsciiPropertyListReader(Files.newBufferedReader(isolatedProjectLocation.resolve("project.pbxproj"))))) {
 			proj = reader.read();
 		}
 		val builder = PBXProj.builder();
@@ -168,8 +172,8 @@ public abstract class XcodeTargetExecTask extends DefaultTask implements Xcodebu
 				}
 			}
 		}).build();
-		try (val writer = new PBXProjWriter(Files.newBufferedWriter(isolatedProjectLocation.resolve("project.pbxproj")))) {
-			writer.write(isolatedProject);
+		try (val writer = new PBXProjWriter(Files.newByteChannel(isolatedProjectLocation.resolve("project.pbxproj"), CREATE, TRUNCATE_EXISTING, WRITE))) {
+			writer.write(isolatedProject, FilenameUtils.removeExtension(isolatedProjectLocation.getFileName().toString()));
 		}
 
 		ExecResult result = null;
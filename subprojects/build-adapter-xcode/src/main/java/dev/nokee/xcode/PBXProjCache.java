@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hashing;
+import dev.nokee.utils.internal.PersistentEntryStore;
+import dev.nokee.xcode.project.PBXProj;
+import dev.nokee.xcode.project.PBXProjReader;
+import lombok.val;
+
+import javax.annotation.Nullable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Persistent cache of parsed {@code project.pbxproj} keyed by the content hash of the file.
+ *
+ * Each entry holds the target names followed by the {@link PBXProjSerializer serialized} {@link PBXProj}.
+ * On a hit, only the target names are read, the {@link PBXProj} is read when first requested.
+ * Entries are immutable as their key is the content hash, so concurrent builds can share the cache directory.
+ * Entries unused for a week are deleted when the cache is closed.
+ */
+final class PBXProjCache {
+	private static final ImmutableSet<String> TARGET_ISA = ImmutableSet.of("PBXAggregateTarget", "PBXLegacyTarget", "PBXNativeTarget");
+	private static final Duration MAX_UNUSED_ENTRY_AGE = Duration.ofDays(7);
+	@Nullable private final PersistentEntryStore store;
+
+	private PBXProjCache(@Nullable PersistentEntryStore store) {
+		this.store = store;
+	}
+
+	/**
+	 * Returns a cache that always parses the {@code project.pbxproj}.
+	 *
+	 * @return a cache without persistence, never null
+	 */
+	public static PBXProjCache noCache() {
+		return new PBXProjCache(null);
+	}
+
+	/**
+	 * Returns a cache persisting its entries in the specified directory.
+	 *
+	 * @param directory  the cache directory, created when missing, must not be null
+	 * @return a persistent cache, never null
+	 */
+	public static PBXProjCache inDirectory(Path directory) {
+		return new PBXProjCache(PersistentEntryStore.inDirectory(directory, ".bin"));
+	}
+
+	/**
+	 * Loads the specified {@code project.pbxproj} using the cache when possible.
+	 *
+	 * @param pbxprojFile  the {@code project.pbxproj} file to load, must not be null
+	 * @return the cache entry of the file, never null
+	 */
+	public Entry load(Path pbxprojFile) {
+		try {
+			final byte[] content = Files.readAllBytes(pbxprojFile);
+			if (store == null) {
+				return newEntry(parse(content));
+			}
+
+			final String key = Hashing.sha256().hashBytes(content).toString();
+			final ImmutableSet<String> targetNames = store.read(key, in -> readTargetNames(new DataInputStream(in)));
+			if (targetNames != null) {
+				return new Entry(targetNames, () -> readPBXProj(store, key, content));
+			}
+
+			final Entry result = newEntry(parse(content));
+			store.write(key, out -> writeEntry(new DataOutputStream(out), result));
+			return result;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Deletes the entries unused for a week.
+	 */
+	public void close() {
+		if (store != null) {
+			store.deleteUnusedEntries(MAX_UNUSED_ENTRY_AGE);
+		}
+	}
+
+	private static Entry newEntry(PBXProj pbxproj) {
+		val targetNames = pbxproj.getObjects().stream().filter(it -> TARGET_ISA.contains(it.isa())).map(it -> it.getFields().get("name").toString()).collect(ImmutableSet.toImmutableSet());
+		return new Entry(targetNames, () -> pbxproj);
+	}
+
+	private static PBXProj parse(byte[] content) throws IOException {
+		try (val reader = new PBXProjReader(new StreamingAsciiPropertyListReader(ByteBuffer.wrap(content)))) {
+			return reader.read();
+		}
+	}
+
+	private static PBXProj readPBXProj(PersistentEntryStore store, String key, byte[] content) {
+		final PBXProj result = store.read(key, in -> {
+			final DataInputStream pbxprojIn = new DataInputStream(in);
+			readTargetNames(pbxprojIn);
+			return PBXProjSerializer.read(pbxprojIn);
+		});
+		if (result != null) {
+			return result;
+		}
+
+		// The entry was removed or corrupted since the hit, the content is still in memory
+		try {
+			return parse(content);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static ImmutableSet<String> readTargetNames(DataInputStream in) throws IOException {
+		val builder = ImmutableSet.<String>builder();
+		final int count = in.readInt();
+		for (int i = 0; i < count; ++i) {
+			builder.add(in.readUTF());
+		}
+		return builder.build();
+	}
+
+	private static void writeEntry(DataOutputStream out, Entry entry) throws IOException {
+		out.writeInt(entry.getTargetNames().size());
+		for (String targetName : entry.getTargetNames()) {
+			out.writeUTF(targetName);
+		}
+		PBXProjSerializer.write(entry.getPBXProj(), out);
+		out.flush();
+	}
+
+	public static final class Entry {
+		private final ImmutableSet<String> targetNames;
+		private final Supplier<PBXProj> pbxproj;
+
+		private Entry(ImmutableSet<String> targetNames, Supplier<PBXProj> pbxproj) {
+			this.targetNames = targetNames;
+			this.pbxproj = Suppliers.memoize(pbxproj::get);
+		}
+
+		public ImmutableSet<String> getTargetNames() {
+			return targetNames;
+		}
+
+		public PBXProj getPBXProj() {
+			return pbxproj.get();
+		}
+	}
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import dev.nokee.xcode.project.PBXObjectFields;
+import dev.nokee.xcode.project.PBXObjectReference;
+import dev.nokee.xcode.project.PBXObjects;
+import dev.nokee.xcode.project.PBXProj;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary form of {@link PBXProj} used by the persistent project cache.
+ * All strings (global IDs, isa, keys and values) are written once in a string table and referenced by index,
+ * which keeps the entries small as a pbxproj repeats the same keys and global IDs many times.
+ */
+final class PBXProjSerializer {
+	private static final int MAGIC = 0x50425850; // PBXP
+	private static final int VERSION = 1;
+
+	private static final byte STRING = 0;
+	private static final byte LIST = 1;
+	private static final byte DICT = 2;
+	private static final byte TRUE = 3;
+	private static final byte FALSE = 4;
+	private static final byte INTEGER = 5;
+	private static final byte REAL = 6;
+	private static final byte DATA = 7;
+	private static final byte DATE = 8;
+
+	private PBXProjSerializer() {}
+
+	public static void write(PBXProj pbxproj, DataOutput out) throws IOException {
+		final StringTable strings = new StringTable();
+		final ByteArrayOutputStream body = new ByteArrayOutputStream();
+		final DataOutputStream bodyOut = new DataOutputStream(body);
+
+		writeNullableString(pbxproj.getRootObject(), strings, bodyOut);
+		bodyOut.writeInt(pbxproj.getObjects().size());
+		for (PBXObjectReference object : pbxproj.getObjects()) {
+			bodyOut.writeInt(strings.indexOf(object.getGlobalID()));
+			bodyOut.writeInt(object.getFields().size());
+			for (Map.Entry<String, Object> field : object.getFields().entrySet()) {
+				bodyOut.writeInt(strings.indexOf(field.getKey()));
+				writeValue(field.getValue(), strings, bodyOut);
+			}
+		}
+		bodyOut.flush();
+
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(strings.values.size());
+		for (String value : strings.values) {
+			// Not using writeUTF as shell scripts can exceed its 64KB limit
+			final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+		out.write(body.toByteArray());
+	}
+
+	public static PBXProj read(DataInput in) throws IOException {
+		if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+			throw new IOException("Unsupported pbxproj cache entry format.");
+		}
+
+		final String[] strings = new String[in.readInt()];
+		for (int i = 0; i < strings.length; ++i) {
+			final byte[] bytes = new byte[in.readInt()];
+			in.readFully(bytes);
+			strings[i] = new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		final PBXProj.Builder builder = PBXProj.builder().rootObject(readNullableString(strings, in));
+		final PBXObjects.Builder objects = PBXObjects.builder();
+		final int objectCount = in.readInt();
+		for (int i = 0; i < objectCount; ++i) {
+			final String gid = strings[in.readInt()];
+			final PBXObjectFields.Builder fields = PBXObjectFields.builder();
+			final int fieldCount = in.readInt();
+			for (int j = 0; j < fieldCount; ++j) {
+				fields.putField(strings[in.readInt()], readValue(strings, in));
+			}
+			objects.add(new PBXObjectReference(gid, fields.build()));
+		}
+		return builder.objects(objects.build()).build();
+	}
+
+	private static void writeNullableString(String value, StringTable strings, DataOutput out) throws IOException {
+		out.writeInt(value == null ? -1 : strings.indexOf(value));
+	}
+
+	private static String readNullableString(String[] strings, DataInput in) throws IOException {
+		final int index = in.readInt();
+		return index < 0 ? null : strings[index];
+	}
+
+	private static void writeValue(Object value, StringTable strings, DataOutput out) throws IOException {
+		if (value instanceof String) {
+			out.writeByte(STRING);
+			out.writeInt(strings.indexOf((String) value));
+		} else if (value instanceof List) {
+			final List<?> values = (List<?>) value;
+			out.writeByte(LIST);
+			out.writeInt(values.size());
+			for (Object it : values) {
+				writeValue(it, strings, out);
+			}
+		} else if (value instanceof Map) {
+			final Map<?, ?> values = (Map<?, ?>) value;
+			out.writeByte(DICT);
+			out.writeInt(values.size());
+			for (Map.Entry<?, ?> it : values.entrySet()) {
+				out.writeInt(strings.indexOf(it.getKey().toString()));
+				writeValue(it.getValue(), strings, out);
+			}
+		} else if (value instanceof Boolean) {
+			out.writeByte((Boolean) value ? TRUE : FALSE);
+		} else if (value instanceof Long || value instanceof Integer) {
+			out.writeByte(INTEGER);
+			out.writeLong(((Number) value).longValue());
+		} else if (value instanceof Float) {
+			out.writeByte(REAL);
+			out.writeFloat((Float) value);
+		} else if (value instanceof byte[]) {
+			out.writeByte(DATA);
+			out.writeInt(((byte[]) value).length);
+			out.write((byte[]) value);
+		} else if (value instanceof LocalDateTime) {
+			out.writeByte(DATE);
+			out.writeInt(strings.indexOf(value.toString()));
+		} else {
+			throw new IOException(String.format("Unsupported pbxproj value of type '%s'.", value == null ? "null" : value.getClass().getName()));
+		}
+	}
+
+	private static Object readValue(String[] strings, DataInput in) throws IOException {
+		final byte tag = in.readByte();
+		switch (tag) {
+			case STRING:
+				return strings[in.readInt()];
+			case LIST: {
+				final int size = in.readInt();
+				final ImmutableList.Builder<Object> builder = ImmutableList.builderWithExpectedSize(size);
+				for (int i = 0; i < size; ++i) {
+					builder.add(readValue(strings, in));
+				}
+				return builder.build();
+			}
+			case DICT: {
+				final int size = in.readInt();
+				final ImmutableMap.Builder<String, Object> builder = ImmutableMap.builderWithExpectedSize(size);
+				for (int i = 0; i < size; ++i) {
+					final String key = strings[in.readInt()];
+					builder.put(key, readValue(strings, in));
+				}
+				return builder.build();
+			}
+			case TRUE:
+				return true;
+			case FALSE:
+				return false;
+			case INTEGER:
+				return in.readLong();
+			case REAL:
+				return in.readFloat();
+			case DATA: {
+				final byte[] result = new byte[in.readInt()];
+				in.readFully(result);
+				return result;
+			}
+			case DATE:
+				return LocalDateTime.parse(strings[in.readInt()]);
+			default:
+				throw new IOException(String.format("Unknown pbxproj cache value tag '%d'.", tag));
+		}
+	}
+
+	private static final class StringTable {
+		private final Map<String, Integer> indices = new HashMap<>();
+		private final List<String> values = new ArrayList<>();
+
+		private int indexOf(String value) {
+			return indices.computeIfAbsent(value, it -> {
+				values.add(it);
+				return values.size() - 1;
+			});
+		}
+	}
+}
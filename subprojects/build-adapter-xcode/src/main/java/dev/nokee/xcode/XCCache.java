@@ -15,24 +15,95 @@
  */
 package dev.nokee.xcode;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
 
+/**
+ * Loading cache of the Xcode model, owned by a single build service for the duration of a build.
+ *
+ * Loads of different keys proceed in parallel while concurrent loads of the same key coalesce into a single load.
+ * Values are softly referenced, so huge projects can be reclaimed under memory pressure and reloaded on next use.
+ * Loads through {@link #noCache()} are still coalesced but nothing is retained.
+ */
 public final class XCCache {
-	private static final ConcurrentMap<Object, Object> cache = new ConcurrentHashMap<>();
+	private static final XCCache NO_CACHE = new XCCache(CacheBuilder.newBuilder().maximumSize(0), PBXProjCache.noCache());
+	private final Cache<Object, Object> cache;
+	private final PBXProjCache pbxprojCache;
+
+	private XCCache(CacheBuilder<Object, Object> cacheBuilder, PBXProjCache pbxprojCache) {
+		this.cache = cacheBuilder.build();
+		this.pbxprojCache = pbxprojCache;
+	}
+
+	/**
+	 * Returns a cache retaining nothing, for loads happening outside of a build service.
+	 *
+	 * @return a cache retaining nothing, never null
+	 */
+	public static XCCache noCache() {
+		return NO_CACHE;
+	}
+
+	/**
+	 * Creates a cache retaining the loaded model in memory only.
+	 *
+	 * @return a new cache, never null
+	 */
+	public static XCCache newCache() {
+		return new XCCache(CacheBuilder.newBuilder().softValues().recordStats(), PBXProjCache.noCache());
+	}
+
+	/**
+	 * Creates a cache also persisting the parsed {@code project.pbxproj} in the specified directory.
+	 * The persisted entries are keyed by the file content hash, so they can be reused across builds.
+	 *
+	 * @param directory  the cache directory, must not be null
+	 * @return a new cache, never null
+	 */
+	public static XCCache newCache(Path directory) {
+		return new XCCache(CacheBuilder.newBuilder().softValues().recordStats(), PBXProjCache.inDirectory(directory));
+	}
+
+	/**
+	 * Discards all entries and deletes the unused persisted entries.
+	 */
+	public void close() {
+		cache.invalidateAll();
+		pbxprojCache.close();
+	}
+
+	/**
+	 * Returns a snapshot of the hit, miss and load time statistics of this cache.
+	 *
+	 * @return the cache statistics, never null
+	 */
+	public CacheStats getStatistics() {
+		return cache.stats();
+	}
 
-	public static void clear() {
-		cache.clear();
+	PBXProjCache.Entry loadPBXProj(Path pbxprojFile) {
+		return pbxprojCache.load(pbxprojFile);
 	}
 
-	static synchronized <KEY, VALUE> VALUE cacheIfAbsent(KEY key, Function<? super KEY, ? extends VALUE> factory) {
-		@SuppressWarnings("unchecked")
-		VALUE result = (VALUE) cache.get(key);
-		if (result == null) {
-			result = factory.apply(key);
-			cache.put(key, result);
+	<KEY, VALUE> VALUE cacheIfAbsent(KEY key, Function<? super KEY, ? extends VALUE> factory) {
+		try {
+			@SuppressWarnings("unchecked")
+			VALUE result = (VALUE) cache.get(key, () -> factory.apply(key));
+			return result;
+		} catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
 		}
-		return result;
 	}
 }
@@ -15,15 +15,23 @@
  */
 package dev.nokee.xcode;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
 import lombok.EqualsAndHashCode;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 public abstract class XCFileReference {
 	public abstract Path resolve(ResolveContext context);
 
+	abstract Path resolve(BatchResolver resolver);
+
 	public abstract XCFileType getType();
 
 	public interface ResolveContext {
@@ -41,13 +49,38 @@ public abstract class XCFileReference {
 	}
 
 	public static XCFileReference builtProduct(String path) {
+		return builtProduct(SharedPath.of(null, Objects.requireNonNull(path), it -> it));
+	}
+
+	static XCFileReference builtProduct(SharedPath path) {
 		return new BuiltProductReference(Objects.requireNonNull(path));
 	}
 
 	public static XCFileReference fromBuildSetting(String buildSetting, String path) {
+		return fromBuildSetting(buildSetting, SharedPath.of(null, Objects.requireNonNull(path), it -> it));
+	}
+
+	static XCFileReference fromBuildSetting(String buildSetting, SharedPath path) {
 		return new BuildSettingFileReference(Objects.requireNonNull(buildSetting), Objects.requireNonNull(path));
 	}
 
+	/**
+	 * Resolves all references against the same context.
+	 * Each build setting, the built product directory and each shared parent directory are resolved only once for the whole batch.
+	 *
+	 * @param references  the file references to resolve, must not be null
+	 * @param context  the resolution context, must not be null
+	 * @return the resolved paths in the same order as the references, never null
+	 */
+	public static List<Path> resolveAll(Iterable<? extends XCFileReference> references, ResolveContext context) {
+		final BatchResolver resolver = new BatchResolver(context);
+		final ImmutableList.Builder<Path> result = ImmutableList.builder();
+		for (XCFileReference reference : references) {
+			result.add(reference.resolve(resolver));
+		}
+		return result.build();
+	}
+
 	@EqualsAndHashCode(callSuper = false)
 	private static final class AbsoluteFileReference extends XCFileReference {
 		private final Path path;
@@ -61,6 +94,11 @@ public abstract class XCFileReference {
 			return path;
 		}
 
+		@Override
+		Path resolve(BatchResolver resolver) {
+			return path;
+		}
+
 		@Override
 		public XCFileType getType() {
 			return XCFileType.ABSOLUTE;
@@ -74,15 +112,20 @@ public abstract class XCFileReference {
 
 	@EqualsAndHashCode(callSuper = false)
 	private static final class BuiltProductReference extends XCFileReference {
-		private final String path;
+		private final SharedPath path;
 
-		private BuiltProductReference(String path) {
+		private BuiltProductReference(SharedPath path) {
 			this.path = path;
 		}
 
 		@Override
 		public Path resolve(ResolveContext context) {
-			return context.getBuiltProductDirectory().resolve(path);
+			return context.getBuiltProductDirectory().resolve(path.toString());
+		}
+
+		@Override
+		Path resolve(BatchResolver resolver) {
+			return resolver.resolveBuiltProduct(path);
 		}
 
 		@Override
@@ -98,17 +141,22 @@ public abstract class XCFileReference {
 
 	@EqualsAndHashCode(callSuper = false)
 	private static final class BuildSettingFileReference extends XCFileReference {
-		private String buildSetting;
-		private final String path;
+		private final String buildSetting;
+		private final SharedPath path;
 
-		private BuildSettingFileReference(String buildSetting, String path) {
+		private BuildSettingFileReference(String buildSetting, SharedPath path) {
 			this.buildSetting = buildSetting;
 			this.path = path;
 		}
 
 		@Override
 		public Path resolve(ResolveContext context) {
-			return context.get(buildSetting).resolve(path);
+			return context.get(buildSetting).resolve(path.toString());
+		}
+
+		@Override
+		Path resolve(BatchResolver resolver) {
+			return resolver.resolve(buildSetting, path);
 		}
 
 		@Override
@@ -121,4 +169,114 @@ public abstract class XCFileReference {
 			return "$(" + buildSetting + ")/" + path;
 		}
 	}
+
+	/**
+	 * Relative path as a chain of segments, the parent directories are shared between all files of the same group.
+	 */
+	static final class SharedPath {
+		@Nullable private final SharedPath parent;
+		private final String segment;
+		private final int hashCode;
+
+		private SharedPath(@Nullable SharedPath parent, String segment) {
+			this.parent = parent;
+			this.segment = segment;
+			this.hashCode = 31 * Objects.hashCode(parent) + segment.hashCode();
+		}
+
+		/**
+		 * Appends each segment of the specified path.
+		 *
+		 * @param parent  the parent path, may be null
+		 * @param path  the slash-separated path to append, must not be null
+		 * @param interner  the interner for the segment names, must not be null
+		 * @return the appended path, or the parent path if there is no segment to append
+		 */
+		@Nullable
+		static SharedPath append(@Nullable SharedPath parent, String path, Interner<String> interner) {
+			SharedPath result = parent;
+			int start = 0;
+			if (parent == null && path.startsWith("/")) {
+				result = new SharedPath(null, ""); // keeps the leading slash of absolute paths
+				start = 1;
+			}
+			while (start <= path.length()) {
+				int end = path.indexOf('/', start);
+				if (end < 0) {
+					end = path.length();
+				}
+				if (end > start) {
+					result = new SharedPath(result, interner.intern(path.substring(start, end)));
+				}
+				start = end + 1;
+			}
+			return result;
+		}
+
+		private static SharedPath of(@Nullable SharedPath parent, String path, Interner<String> interner) {
+			return Objects.requireNonNull(append(parent, path, interner), "'path' must not be empty");
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof SharedPath)) {
+				return false;
+			}
+			final SharedPath that = (SharedPath) o;
+			return hashCode == that.hashCode && segment.equals(that.segment) && Objects.equals(parent, that.parent);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public String toString() {
+			if (parent == null) {
+				return segment;
+			}
+			return parent + "/" + segment;
+		}
+	}
+
+	// Not thread-safe, one instance per batch
+	static final class BatchResolver {
+		private final ResolveContext context;
+		private final Map<String, Path> buildSettings = new HashMap<>();
+		private final Map<String, Map<SharedPath, Path>> buildSettingPaths = new HashMap<>();
+		private final Map<SharedPath, Path> builtProductPaths = new HashMap<>();
+		@Nullable private Path builtProductDirectory;
+
+		private BatchResolver(ResolveContext context) {
+			this.context = context;
+		}
+
+		public Path resolve(String buildSetting, SharedPath path) {
+			final Path base = buildSettings.computeIfAbsent(buildSetting, context::get);
+			return resolve(buildSettingPaths.computeIfAbsent(buildSetting, it -> new HashMap<>()), base, path);
+		}
+
+		public Path resolveBuiltProduct(SharedPath path) {
+			if (builtProductDirectory == null) {
+				builtProductDirectory = context.getBuiltProductDirectory();
+			}
+			return resolve(builtProductPaths, builtProductDirectory, path);
+		}
+
+		private static Path resolve(Map<SharedPath, Path> paths, Path base, @Nullable SharedPath path) {
+			if (path == null) {
+				return base;
+			}
+			Path result = paths.get(path);
+			if (result == null) {
+				result = resolve(paths, base, path.parent).resolve(path.segment);
+				paths.put(path, result);
+			}
+			return result;
+		}
+	}
 }
@@ -15,6 +15,7 @@
  */
 package dev.nokee.xcode;
 
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import dev.nokee.xcode.objects.PBXProject;
@@ -23,6 +24,7 @@ import lombok.EqualsAndHashCode;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import static dev.nokee.xcode.XCTargetReference.walk;
 
@@ -32,16 +34,19 @@ public final class XCProject {
 	private final Path location;
 	private final ImmutableSet<XCTargetReference> targets;
 	private final ImmutableSet<String> schemeNames;
-	private transient final PBXProject project;
-	private transient XCTargetReference.XCFileReferences references;
+	private transient final Supplier<PBXProject> project;
+	private transient final Supplier<XCTargetReference.XCFileReferences> references;
 
 	// friends with XCProjectReference
-	XCProject(String name, Path location, ImmutableSet<XCTargetReference> targets, ImmutableSet<String> schemeNames, PBXProject project) {
+	// The project model is decoded on first use, loading a project only for its targets or schemes doesn't decode it
+	XCProject(String name, Path location, ImmutableSet<XCTargetReference> targets, ImmutableSet<String> schemeNames, Supplier<PBXProject> project) {
 		this.name = name;
 		this.location = location;
 		this.targets = targets;
 		this.schemeNames = schemeNames;
-		this.project = project;
+		this.project = Suppliers.memoize(project::get);
+		// Memoized as projects are loaded concurrently, see XCLoaderService#prefetch
+		this.references = Suppliers.memoize(() -> walk(this.project.get()));
 	}
 
 	public String getName() {
@@ -53,7 +58,7 @@ public final class XCProject {
 	}
 
 	public List<XCProjectReference> getProjectReferences() {
-		return project.getProjectReferences().stream()
+		return project.get().getProjectReferences().stream()
 			.map(PBXProject.ProjectReference::getProjectReference)
 			.map(it -> getFileReferences().get(it))
 			.map(it -> it.resolve(new XCFileReference.ResolveContext() {
@@ -83,13 +88,10 @@ public final class XCProject {
 	}
 
 	PBXProject getModel() {
-		return project;
+		return project.get();
 	}
 
 	XCTargetReference.XCFileReferences getFileReferences() {
-		if (references == null) {
-			references = walk(project);
-		}
-		return references;
+		return references.get();
 	}
 }
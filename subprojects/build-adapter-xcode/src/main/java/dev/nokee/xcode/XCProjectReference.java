@@ -17,9 +17,7 @@ package dev.nokee.xcode;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Streams;
 import dev.nokee.xcode.project.PBXObjectUnarchiver;
-import dev.nokee.xcode.project.PBXProjReader;
 import lombok.EqualsAndHashCode;
 import lombok.val;
 import org.apache.commons.io.FilenameUtils;
@@ -62,32 +60,29 @@ public final class XCProjectReference implements Serializable {
 	}
 
 	public XCProject load() {
-		return XCCache.cacheIfAbsent(this, key -> {
-			try (val reader = new PBXProjReader(new AsciiPropertyListReader(Files.newBufferedReader(getLocation().resolve("project.pbxproj"))))) {
-				val pbxproj = reader.read();
-				val proj = new PBXObjectUnarchiver().decode(pbxproj);
+		return load(XCCache.noCache());
+	}
 
-				val targetIsa = ImmutableSet.of("PBXAggregateTarget", "PBXLegacyTarget", "PBXNativeTarget");
-				val targets = Streams.stream(pbxproj.getObjects()).filter(it -> targetIsa.contains(it.isa())).map(it -> it.getFields().get("name").toString()).map(name -> XCTargetReference.of(this, name)).collect(ImmutableSet.toImmutableSet());
+	public XCProject load(XCCache cache) {
+		return cache.cacheIfAbsent(this, key -> {
+			val pbxproj = cache.loadPBXProj(getLocation().resolve("project.pbxproj"));
+			val targets = pbxproj.getTargetNames().stream().map(name -> XCTargetReference.of(this, name)).collect(ImmutableSet.toImmutableSet());
 
-				val it = getLocation().resolve("xcshareddata/xcschemes");
-				val builder = ImmutableSet.<String>builder();
-				if (Files.isDirectory(it)) {
-					try (final DirectoryStream<Path> xcodeSchemeStream = Files.newDirectoryStream(it, "*.xcscheme")) {
-						for (Path xcodeSchemeFile : xcodeSchemeStream) {
-							builder.add(removeExtension(xcodeSchemeFile.getFileName().toString()));
-						}
-					} catch (IOException e) {
-						throw new UncheckedIOException(e);
+			val it = getLocation().resolve("xcshareddata/xcschemes");
+			val builder = ImmutableSet.<String>builder();
+			if (Files.isDirectory(it)) {
+				try (final DirectoryStream<Path> xcodeSchemeStream = Files.newDirectoryStream(it, "*.xcscheme")) {
+					for (Path xcodeSchemeFile : xcodeSchemeStream) {
+						builder.add(removeExtension(xcodeSchemeFile.getFileName().toString()));
 					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
 				}
-				val schemeNames = builder.build();
-
-				// TODO: Add support for implicit scheme: xcodebuild -list -project `getLocation()` -json
-				return new XCProject(getName(), getLocation(), targets, schemeNames, proj);
-			} catch (IOException e) {
-				throw new UncheckedIOException(e);
 			}
+			val schemeNames = builder.build();
+
+			// TODO: Add support for implicit scheme: xcodebuild -list -project `getLocation()` -json
+			return new XCProject(getName(), getLocation(), targets, schemeNames, () -> new PBXObjectUnarchiver().decodeLazily(pbxproj.getPBXProj()));
 		});
 	}
 }
@@ -17,7 +17,8 @@ package dev.nokee.xcode;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Iterables;
 import dev.nokee.xcode.objects.PBXContainerItemProxy;
 import dev.nokee.xcode.objects.PBXProject;
@@ -32,6 +33,7 @@ import lombok.val;
 import javax.annotation.Nullable;
 import java.io.Serializable;
 import java.nio.file.Path;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -63,13 +65,17 @@ public final class XCTargetReference implements Serializable {
 	}
 
 	public XCTarget load() {
-		return XCCache.cacheIfAbsent(this, key -> {
-			val p = project.load();
+		return load(XCCache.noCache());
+	}
+
+	public XCTarget load(XCCache cache) {
+		return cache.cacheIfAbsent(this, key -> {
+			val p = project.load(cache);
 			val proj = p.getModel();
 
 			val target = Objects.requireNonNull(Iterables.find(proj.getTargets(), it -> it.getName().equals(name)));
 
-			val resolver = p.getFileReferences();//walk(proj);
+			val resolver = p.getFileReferences();
 
 			// Assuming PBXFileReference only
 			val inputFiles = findInputFiles(target).map(resolver::get).collect(Collectors.toList());
@@ -79,7 +85,7 @@ public final class XCTargetReference implements Serializable {
 			val outputFile = target.getProductReference().map(resolver::get).orElse(null);
 			// TODO: Handle cross-project reference
 			val dependencies = target.getDependencies().stream()
-				.map(it -> it.getTarget().map(this::toTargetReference).orElseGet(() -> toTargetReference(it.getTargetProxy())))
+				.map(it -> it.getTarget().map(this::toTargetReference).orElseGet(() -> toTargetReference(resolver, it.getTargetProxy())))
 				.collect(ImmutableList.toImmutableList());
 
 			return new XCTarget(name, project, inputFiles, dependencies, outputFile);
@@ -90,14 +96,14 @@ public final class XCTargetReference implements Serializable {
 		return XCTargetReference.of(project, target.getName());
 	}
 
-	private XCTargetReference toTargetReference(PBXContainerItemProxy targetProxy) {
+	private XCTargetReference toTargetReference(XCFileReferences fileReferences, PBXContainerItemProxy targetProxy) {
 		checkArgument(PBXContainerItemProxy.ProxyType.TARGET_REFERENCE.equals(targetProxy.getProxyType()), "'targetProxy' is expected to be a target reference");
 
 		if (targetProxy.getContainerPortal() instanceof PBXProject) {
 			return XCTargetReference.of(project, targetProxy.getRemoteInfo()
 				.orElseThrow(XCTargetReference::missingRemoteInfoException));
 		} else if (targetProxy.getContainerPortal() instanceof PBXFileReference) {
-			return XCTargetReference.of(XCProjectReference.of(project.load().getFileReferences().get((PBXFileReference) targetProxy.getContainerPortal()).resolve(new XCFileReference.ResolveContext() {
+			return XCTargetReference.of(XCProjectReference.of(fileReferences.get((PBXFileReference) targetProxy.getContainerPortal()).resolve(new XCFileReference.ResolveContext() {
 				@Override
 				public Path getBuiltProductDirectory() {
 					throw new UnsupportedOperationException("Should not call");
@@ -132,74 +138,52 @@ public final class XCTargetReference implements Serializable {
 		});
 	}
 
-	private static final class FileNode {
+	// Location of a group, relative to the nearest non-group source tree
+	private static final class GroupLocation {
 		private final PBXSourceTree sourceTree;
-		@Nullable private final FileNode previous;
-		@Nullable private final String path;
+		@Nullable private final XCFileReference.SharedPath path;
 
-		private FileNode(PBXSourceTree sourceTree, @Nullable FileNode previous, @Nullable String path) {
+		private GroupLocation(PBXSourceTree sourceTree, @Nullable XCFileReference.SharedPath path) {
 			this.sourceTree = sourceTree;
-			this.previous = previous;
 			this.path = path;
 		}
 	}
 
+	/**
+	 * Indexes all file references of the specified project in a single walk of the group tree.
+	 * The location of each group is computed once and shared by all its children.
+	 *
+	 * @param project  the project to index, must not be null
+	 * @return the file references of the project, never null
+	 */
 	public static XCFileReferences walk(PBXProject project) {
 		val builder = XCFileReferences.builder();
-		walk(builder, new FileNode(SOURCE_ROOT, null, null), project.getMainGroup());
+		walk(builder, new GroupLocation(SOURCE_ROOT, null), project.getMainGroup());
 		return builder.build();
 	}
 
-	private static void walk(XCFileReferences.Builder builder, FileNode previousNodes, PBXGroup group) {
-		val node = new FileNode(group.getSourceTree(), previousNodes, group.getPath().orElse(null));
+	private static void walk(XCFileReferences.Builder builder, GroupLocation parent, PBXGroup group) {
+		val location = builder.locate(parent, group.getSourceTree(), group.getPath().orElse(null));
 		for (GroupChild child : group.getChildren()) {
 			// TODO: Should have some support for PBXVariantGroup or XCVersionGroup
 			if (child instanceof PBXGroup) {
-				walk(builder, node, (PBXGroup) child);
+				walk(builder, location, (PBXGroup) child);
 			} else if (child instanceof PBXFileReference) {
-				walk(builder, node, (PBXFileReference) child);
+				val fileRef = (PBXFileReference) child;
+				builder.put(fileRef, builder.locate(location, fileRef.getSourceTree(), fileRef.getPath().orElse(null)));
 			}
 		}
 	}
 
-	private static void walk(XCFileReferences.Builder builder, FileNode previousNodes, PBXFileReference fileRef) {
-		builder.put(fileRef, parse(new FileNode(fileRef.getSourceTree(), previousNodes, fileRef.getPath().orElse(null))));
-	}
-
-	private static XCFileReference parse(FileNode node) {
-		String path = null;
-		do {
-			if (node.path != null) {
-				if (path == null) {
-					path = node.path;
-				} else {
-					path = node.path + "/" + path;
-				}
-			}
-
-			if (GROUP.equals(node.sourceTree)) {
-				// continue looping
-			} else if (ABSOLUTE.equals(node.sourceTree)) {
-				return XCFileReference.absoluteFile(path);
-			} else if (BUILT_PRODUCTS_DIR.equals(node.sourceTree)) {
-				return XCFileReference.builtProduct(path);
-			} else {
-				return XCFileReference.fromBuildSetting(node.sourceTree.toString(), path);
-			}
-		} while ((node = node.previous) != null);
-
-		throw new RuntimeException("Something went wrong.");
-	}
-
 	public static final class XCFileReferences {
-		private final Map<Integer, XCFileReference> fileRefs;
+		private final Map<PBXFileReference, XCFileReference> fileRefs;
 
-		public XCFileReferences(Map<Integer, XCFileReference> fileRefs) {
+		private XCFileReferences(Map<PBXFileReference, XCFileReference> fileRefs) {
 			this.fileRefs = fileRefs;
 		}
 
 		public XCFileReference get(PBXFileReference fileRef) {
-			return Objects.requireNonNull(fileRefs.get(System.identityHashCode(fileRef)));
+			return Objects.requireNonNull(fileRefs.get(fileRef));
 		}
 
 		public static Builder builder() {
@@ -207,15 +191,34 @@ public final class XCTargetReference implements Serializable {
 		}
 
 		public static final class Builder {
-			private final ImmutableMap.Builder<Integer, XCFileReference> fileRefs = ImmutableMap.builder();
+			// PBXFileReference is a value object, identical references may live in different groups
+			private final Map<PBXFileReference, XCFileReference> fileRefs = new IdentityHashMap<>();
+			private final Interner<String> interner = Interners.newStrongInterner();
+
+			private GroupLocation locate(GroupLocation parent, PBXSourceTree sourceTree, @Nullable String path) {
+				if (GROUP.equals(sourceTree)) {
+					return path == null ? parent : new GroupLocation(parent.sourceTree, XCFileReference.SharedPath.append(parent.path, path, interner));
+				}
+				return new GroupLocation(sourceTree, path == null ? null : XCFileReference.SharedPath.append(null, path, interner));
+			}
+
+			private Builder put(PBXFileReference fileRef, GroupLocation location) {
+				if (ABSOLUTE.equals(location.sourceTree)) {
+					return put(fileRef, XCFileReference.absoluteFile(Objects.requireNonNull(location.path).toString()));
+				} else if (BUILT_PRODUCTS_DIR.equals(location.sourceTree)) {
+					return put(fileRef, XCFileReference.builtProduct(location.path));
+				} else {
+					return put(fileRef, XCFileReference.fromBuildSetting(interner.intern(location.sourceTree.toString()), location.path));
+				}
+			}
 
 			public Builder put(PBXFileReference fileRef, XCFileReference file) {
-				fileRefs.put(System.identityHashCode(fileRef), file);
+				fileRefs.put(fileRef, file);
 				return this;
 			}
 
 			public XCFileReferences build() {
-				return new XCFileReferences(fileRefs.build());
+				return new XCFileReferences(new IdentityHashMap<>(fileRefs));
 			}
 		}
 	}
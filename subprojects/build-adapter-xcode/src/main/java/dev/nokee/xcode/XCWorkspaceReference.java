@@ -48,7 +48,11 @@ public final class XCWorkspaceReference implements Serializable {
 	}
 
 	public XCWorkspace load() {
-		return XCCache.cacheIfAbsent(this, key -> {
+		return load(XCCache.noCache());
+	}
+
+	public XCWorkspace load(XCCache cache) {
+		return cache.cacheIfAbsent(this, key -> {
 			val layout = new XCWorkspaceLayout(getLocation());
 
 			List<XCProjectReference> projects = null;
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.buildadapter.xcode.internal.plugins;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import dev.nokee.xcode.XCProjectReference;
+import dev.nokee.xcode.XCTargetReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+final class XCProjectPrefetcherTest {
+	@TempDir Path testDirectory;
+	final Map<XCProjectReference, List<XCProjectReference>> projectReferences = new HashMap<>();
+	final XCProjectPrefetcher subject = new XCProjectPrefetcher(new XCProjectPrefetcher.Loader() {
+		@Override
+		public List<XCProjectReference> loadProjectReferences(XCProjectReference project) {
+			final List<XCProjectReference> result = projectReferences.get(project);
+			if (result == null) {
+				throw new IllegalStateException("Could not load " + project);
+			}
+			return result;
+		}
+
+		@Override
+		public Set<XCTargetReference> loadTargets(XCProjectReference project) {
+			return ImmutableSet.of();
+		}
+
+		@Override
+		public void load(XCTargetReference target) {}
+	});
+
+	@AfterEach
+	void closePrefetcher() {
+		subject.close();
+	}
+
+	@Test
+	void returnsProjectsInBreadthFirstOrder() {
+		final XCProjectReference a = project("A");
+		final XCProjectReference b = project("B");
+		final XCProjectReference c = project("C");
+		final XCProjectReference d = project("D");
+		final XCProjectReference e = project("E");
+		references(a, b, c);
+		references(b, d);
+		references(c, e);
+		references(d);
+		references(e);
+
+		assertThat(subject.loadAllProjects(ImmutableList.of(a)), contains(a, b, c, d, e));
+	}
+
+	@Test
+	void returnsCrossReferencedProjectsOnlyOnce() {
+		final XCProjectReference a = project("A");
+		final XCProjectReference b = project("B");
+		final XCProjectReference c = project("C");
+		references(a, c);
+		references(b, c);
+		references(c);
+
+		assertThat(subject.loadAllProjects(ImmutableList.of(a, b, a)), contains(a, b, c));
+	}
+
+	@Test
+	void stopsOnReferenceCycles() {
+		final XCProjectReference a = project("A");
+		final XCProjectReference b = project("B");
+		references(a, b);
+		references(b, a);
+
+		assertThat(subject.loadAllProjects(ImmutableList.of(a)), contains(a, b));
+	}
+
+	@Test
+	void keepsLoadingOtherProjectsWhenProjectFailsToLoad() {
+		final XCProjectReference a = project("A");
+		final XCProjectReference broken = project("Broken");
+		final XCProjectReference b = project("B");
+		final XCProjectReference c = project("C");
+		references(a, broken, b);
+		references(b, c);
+		references(c);
+
+		assertThat(subject.loadAllProjects(ImmutableList.of(a)), contains(a, broken, b, c));
+	}
+
+	private XCProjectReference project(String name) {
+		try {
+			return XCProjectReference.of(Files.createDirectory(testDirectory.resolve(name + ".xcodeproj")));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void references(XCProjectReference project, XCProjectReference... references) {
+		projectReferences.put(project, ImmutableList.copyOf(references));
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import dev.nokee.xcode.project.PBXObjectReference;
+import dev.nokee.xcode.project.PBXProj;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class PBXProjSerializerTest {
+	PBXProj subject = PBXProj.builder().rootObject("ROOT").objects(o -> {
+		o.add(PBXObjectReference.of("ROOT", it -> it.putField("isa", "PBXProject").putField("targets", ImmutableList.of("TARGET"))));
+		o.add(PBXObjectReference.of("TARGET", it -> it.putField("isa", "PBXNativeTarget").putField("name", "App")
+			.putField("buildSettings", ImmutableMap.of("PRODUCT_NAME", "App", "ENABLE_BITCODE", false))
+			.putField("shellScript", Strings.repeat("echo 'a long script'\n", 5000))
+			.putField("buildActionMask", 2147483647L)));
+	}).build();
+
+	PBXProj roundtrip(PBXProj pbxproj) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			PBXProjSerializer.write(pbxproj, out);
+		}
+		return PBXProjSerializer.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+	}
+
+	@Test
+	void preservesRootObject() throws IOException {
+		assertThat(roundtrip(subject).getRootObject(), equalTo("ROOT"));
+	}
+
+	@Test
+	void preservesObjectsAndFields() throws IOException {
+		final PBXProj result = roundtrip(subject);
+		assertThat(result.getObjects().size(), is(2));
+		for (PBXObjectReference expected : subject.getObjects()) {
+			final PBXObjectReference actual = result.getObjects().getById(expected.getGlobalID());
+			assertThat(actual.getFields().entrySet(), equalTo(expected.getFields().entrySet()));
+		}
+	}
+
+	@Test
+	void rejectsUnknownFormat() {
+		assertThrows(IOException.class, () -> PBXProjSerializer.read(new DataInputStream(new ByteArrayInputStream(new byte[] {0, 0, 0, 0, 0, 0, 0, 1}))));
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class XCCacheTest {
+	XCCache subject = XCCache.newCache();
+	ExecutorService executor = Executors.newFixedThreadPool(2);
+
+	@AfterEach
+	void closeCache() {
+		subject.close();
+		executor.shutdownNow();
+	}
+
+	@Test
+	void returnsCachedValueOnSubsequentLoads() {
+		final AtomicInteger loadCount = new AtomicInteger();
+		assertThat(subject.cacheIfAbsent("key", it -> "value-" + loadCount.incrementAndGet()), equalTo("value-1"));
+		assertThat(subject.cacheIfAbsent("key", it -> "value-" + loadCount.incrementAndGet()), equalTo("value-1"));
+		assertThat(loadCount.get(), equalTo(1));
+	}
+
+	@Test
+	void recordsHitsAndMisses() {
+		subject.cacheIfAbsent("a", it -> "A");
+		subject.cacheIfAbsent("a", it -> "A");
+		subject.cacheIfAbsent("b", it -> "B");
+
+		assertThat(subject.getStatistics().hitCount(), equalTo(1L));
+		assertThat(subject.getStatistics().missCount(), equalTo(2L));
+	}
+
+	@Test
+	void coalescesConcurrentLoadsOfSameKey() throws Exception {
+		final CountDownLatch loading = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger loadCount = new AtomicInteger();
+		final Future<String> first = executor.submit(() -> subject.cacheIfAbsent("key", it -> {
+			loadCount.incrementAndGet();
+			loading.countDown();
+			await(release);
+			return "value";
+		}));
+		await(loading);
+		final Future<String> second = executor.submit(() -> subject.cacheIfAbsent("key", it -> "value-" + loadCount.incrementAndGet()));
+		release.countDown();
+
+		assertThat(first.get(5, TimeUnit.SECONDS), equalTo("value"));
+		assertThat(second.get(5, TimeUnit.SECONDS), equalTo("value"));
+		assertThat(loadCount.get(), equalTo(1));
+	}
+
+	@Test
+	void loadsDifferentKeysInParallel() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		final Future<String> blocked = executor.submit(() -> subject.cacheIfAbsent("slow", it -> {
+			await(release);
+			return "slow";
+		}));
+
+		// Would time out if loads were serialized behind the slow key
+		assertThat(executor.submit(() -> subject.cacheIfAbsent("fast", it -> "fast")).get(5, TimeUnit.SECONDS), equalTo("fast"));
+		release.countDown();
+		assertThat(blocked.get(5, TimeUnit.SECONDS), equalTo("slow"));
+	}
+
+	@Test
+	void allowsNestedLoadsOfOtherKeys() {
+		assertThat(subject.cacheIfAbsent("target", it -> subject.cacheIfAbsent("project", k -> "project") + "/target"), equalTo("project/target"));
+	}
+
+	@Test
+	void rethrowsLoadFailuresWithoutCachingThem() {
+		final IllegalStateException failure = new IllegalStateException();
+		assertThat(assertThrows(IllegalStateException.class, () -> subject.cacheIfAbsent("key", it -> { throw failure; })), is(failure));
+		assertThat(subject.cacheIfAbsent("key", it -> "value"), equalTo("value"));
+	}
+
+	@Test
+	void doesNotShareEntriesBetweenCaches() {
+		final XCCache other = XCCache.newCache();
+		try {
+			subject.cacheIfAbsent("key", it -> "value");
+			assertThat(other.cacheIfAbsent("key", it -> "other-value"), equalTo("other-value"));
+		} finally {
+			other.close();
+		}
+	}
+
+	@Test
+	void closingOneCacheDoesNotAffectOthers() {
+		final XCCache other = XCCache.newCache();
+		other.cacheIfAbsent("key", it -> "other-value");
+		subject.cacheIfAbsent("key", it -> "value");
+		other.close();
+
+		assertThat(subject.cacheIfAbsent("key", it -> "new-value"), equalTo("value"));
+	}
+
+	@Test
+	void noCacheRetainsNothing() {
+		final AtomicInteger loadCount = new AtomicInteger();
+		XCCache.noCache().cacheIfAbsent("key", it -> loadCount.incrementAndGet());
+		XCCache.noCache().cacheIfAbsent("key", it -> loadCount.incrementAndGet());
+		assertThat(loadCount.get(), equalTo(2));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			if (!latch.await(5, TimeUnit.SECONDS)) {
+				throw new IllegalStateException("Timed out");
+			}
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import dev.nokee.xcode.objects.PBXProject;
+import dev.nokee.xcode.objects.files.GroupChild;
+import dev.nokee.xcode.objects.files.PBXFileReference;
+import dev.nokee.xcode.objects.files.PBXGroup;
+import dev.nokee.xcode.objects.files.PBXSourceTree;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static dev.nokee.xcode.objects.files.PBXSourceTree.ABSOLUTE;
+import static dev.nokee.xcode.objects.files.PBXSourceTree.BUILT_PRODUCTS_DIR;
+import static dev.nokee.xcode.objects.files.PBXSourceTree.GROUP;
+import static dev.nokee.xcode.objects.files.PBXSourceTree.SDKROOT;
+import static dev.nokee.xcode.objects.files.PBXSourceTree.SOURCE_ROOT;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+final class XCFileReferenceTest {
+	Interner<String> interner = Interners.newStrongInterner();
+
+	@Test
+	void sharesParentDirectoriesBetweenSiblingFiles() {
+		final XCFileReference.SharedPath group = XCFileReference.SharedPath.append(null, "Sources/App", interner);
+		final XCFileReference.SharedPath main = XCFileReference.SharedPath.append(group, "main.m", interner);
+		final XCFileReference.SharedPath header = XCFileReference.SharedPath.append(group, "main.h", interner);
+
+		assertThat(main.toString(), equalTo("Sources/App/main.m"));
+		assertThat(header.toString(), equalTo("Sources/App/main.h"));
+	}
+
+	@Test
+	void sharedPathsAreEqualRegardlessOfHowTheyWereSplit() {
+		assertThat(XCFileReference.SharedPath.append(XCFileReference.SharedPath.append(null, "a", interner), "b/c", interner),
+			equalTo(XCFileReference.SharedPath.append(null, "a/b/c", interner)));
+		assertThat(XCFileReference.SharedPath.append(null, "a//b/", interner), equalTo(XCFileReference.SharedPath.append(null, "a/b", interner)));
+		assertThat(XCFileReference.SharedPath.append(null, "a/b", interner), not(equalTo(XCFileReference.SharedPath.append(null, "b/a", interner))));
+	}
+
+	@Test
+	void keepsLeadingSlashOfAbsolutePaths() {
+		assertThat(XCFileReference.SharedPath.append(null, "/usr/include", interner).toString(), equalTo("/usr/include"));
+	}
+
+	@Test
+	void returnsParentWhenNothingToAppend() {
+		final XCFileReference.SharedPath parent = XCFileReference.SharedPath.append(null, "a", interner);
+		assertThat(XCFileReference.SharedPath.append(parent, "", interner), sameInstance(parent));
+	}
+
+	@Test
+	void referencesFromStringAndFromSharedPathAreEqual() {
+		assertThat(XCFileReference.builtProduct(XCFileReference.SharedPath.append(XCFileReference.SharedPath.append(null, "Foo.framework", interner), "Headers", interner)),
+			equalTo(XCFileReference.builtProduct("Foo.framework/Headers")));
+		assertThat(XCFileReference.fromBuildSetting("SOURCE_ROOT", XCFileReference.SharedPath.append(null, "a/b.c", interner)),
+			equalTo(XCFileReference.fromBuildSetting("SOURCE_ROOT", "a/b.c")));
+	}
+
+	@Test
+	void resolvesBatchInOrderWithEachBuildSettingQueriedOnce() {
+		final List<String> queries = new ArrayList<>();
+		final XCFileReference.ResolveContext context = new XCFileReference.ResolveContext() {
+			@Override
+			public Path getBuiltProductDirectory() {
+				queries.add("BUILT_PRODUCTS_DIR");
+				return Paths.get("/derived/Build/Products/Debug");
+			}
+
+			@Override
+			public Path get(String name) {
+				queries.add(name);
+				return Paths.get("/src");
+			}
+		};
+
+		final List<Path> result = XCFileReference.resolveAll(Arrays.asList(
+			XCFileReference.fromBuildSetting("SOURCE_ROOT", "App/main.m"),
+			XCFileReference.builtProduct("Foo.framework"),
+			XCFileReference.fromBuildSetting("SOURCE_ROOT", "App/main.h"),
+			XCFileReference.absoluteFile("/usr/include/stdio.h")), context);
+
+		assertThat(result, contains(Paths.get("/src/App/main.m"), Paths.get("/derived/Build/Products/Debug/Foo.framework"),
+			Paths.get("/src/App/main.h"), Paths.get("/usr/include/stdio.h")));
+		assertThat(queries, contains("SOURCE_ROOT", "BUILT_PRODUCTS_DIR"));
+	}
+
+	@Test
+	void resolvesSameAsSingleResolution() {
+		final XCFileReference.ResolveContext context = new XCFileReference.ResolveContext() {
+			@Override
+			public Path getBuiltProductDirectory() {
+				return Paths.get("/products");
+			}
+
+			@Override
+			public Path get(String name) {
+				return Paths.get("/" + name.toLowerCase());
+			}
+		};
+		final List<XCFileReference> references = Arrays.asList(XCFileReference.fromBuildSetting("SDKROOT", "usr/lib/libz.tbd"),
+			XCFileReference.builtProduct("a/b/c.a"), XCFileReference.fromBuildSetting("SOURCE_ROOT", "../Shared/x.swift"));
+
+		final List<Path> expected = new ArrayList<>();
+		references.forEach(it -> expected.add(it.resolve(context)));
+		assertThat(XCFileReference.resolveAll(references, context), equalTo(expected));
+	}
+
+	@Test
+	void walksGroupTreeSameAsPerFileParse() {
+		final PBXFileReference mainFile = file("main.m", GROUP);
+		final PBXFileReference appDelegateFile = file("AppDelegate.m", GROUP);
+		final PBXFileReference infoPlistFile = file("Support/Info.plist", SOURCE_ROOT);
+		final PBXFileReference utilFile = file("util.c", GROUP);
+		final PBXFileReference stdioFile = file("stdio.h", GROUP);
+		final PBXFileReference typesFile = file("types.h", GROUP);
+		final PBXFileReference libFile = file("/opt/lib/libfoo.a", ABSOLUTE);
+		final PBXFileReference generatedFile = file("Generated.h", GROUP);
+		final PBXFileReference productFile = file("App.app", BUILT_PRODUCTS_DIR);
+		final PBXFileReference frameworkFile = file("Foundation.framework", GROUP);
+		final PBXProject project = PBXProject.builder().mainGroup(group(null, GROUP,
+			group("Sources", GROUP,
+				mainFile,
+				group("App/Nested", GROUP, appDelegateFile, infoPlistFile),
+				namedGroup("Utilities", utilFile)),
+			group("/usr/include", ABSOLUTE, stdioFile, group("sys", GROUP, typesFile)),
+			libFile,
+			group("Generated", BUILT_PRODUCTS_DIR, generatedFile),
+			namedGroup("Products", productFile),
+			group("System/Library/Frameworks", SDKROOT, frameworkFile))).build();
+
+		final XCTargetReference.XCFileReferences subject = XCTargetReference.walk(project);
+
+		final Map<PBXFileReference, XCFileReference> expected = new IdentityHashMap<>();
+		parseEachFile(expected, new FileNode(SOURCE_ROOT, null, null), project.getMainGroup());
+		assertThat(expected.size(), equalTo(10));
+		expected.forEach((fileRef, file) -> assertThat(subject.get(fileRef), equalTo(file)));
+
+		assertThat(subject.get(appDelegateFile), equalTo(XCFileReference.fromBuildSetting("SOURCE_ROOT", "Sources/App/Nested/AppDelegate.m")));
+		assertThat(subject.get(infoPlistFile), equalTo(XCFileReference.fromBuildSetting("SOURCE_ROOT", "Support/Info.plist")));
+		assertThat(subject.get(utilFile), equalTo(XCFileReference.fromBuildSetting("SOURCE_ROOT", "Sources/util.c")));
+		assertThat(subject.get(typesFile), equalTo(XCFileReference.absoluteFile("/usr/include/sys/types.h")));
+		assertThat(subject.get(libFile), equalTo(XCFileReference.absoluteFile("/opt/lib/libfoo.a")));
+		assertThat(subject.get(generatedFile), equalTo(XCFileReference.builtProduct("Generated/Generated.h")));
+		assertThat(subject.get(productFile), equalTo(XCFileReference.builtProduct("App.app")));
+		assertThat(subject.get(frameworkFile), equalTo(XCFileReference.fromBuildSetting("SDKROOT", "System/Library/Frameworks/Foundation.framework")));
+	}
+
+	@Test
+	void indexesIdenticalFileReferencesOfDifferentGroupsSeparately() {
+		final PBXFileReference first = file("main.m", GROUP);
+		final PBXFileReference second = file("main.m", GROUP);
+		final PBXProject project = PBXProject.builder().mainGroup(group(null, GROUP,
+			group("First", GROUP, first),
+			group("Second", GROUP, second))).build();
+
+		final XCTargetReference.XCFileReferences subject = XCTargetReference.walk(project);
+
+		assertThat(subject.get(first), equalTo(XCFileReference.fromBuildSetting("SOURCE_ROOT", "First/main.m")));
+		assertThat(subject.get(second), equalTo(XCFileReference.fromBuildSetting("SOURCE_ROOT", "Second/main.m")));
+	}
+
+	private static PBXFileReference file(String path, PBXSourceTree sourceTree) {
+		return PBXFileReference.builder().path(path).sourceTree(sourceTree).build();
+	}
+
+	private static PBXGroup group(@Nullable String path, PBXSourceTree sourceTree, GroupChild... children) {
+		final PBXGroup.Builder builder = PBXGroup.builder().sourceTree(sourceTree).children(Arrays.asList(children));
+		if (path != null) {
+			builder.path(path);
+		}
+		return builder.build();
+	}
+
+	private static PBXGroup namedGroup(String name, GroupChild... children) {
+		return PBXGroup.builder().name(name).sourceTree(GROUP).children(Arrays.asList(children)).build();
+	}
+
+	//region Per-file parse, as the file references were indexed before the shared group walk
+	private static final class FileNode {
+		private final PBXSourceTree sourceTree;
+		@Nullable private final FileNode previous;
+		@Nullable private final String path;
+
+		private FileNode(PBXSourceTree sourceTree, @Nullable FileNode previous, @Nullable String path) {
+			this.sourceTree = sourceTree;
+			this.previous = previous;
+			this.path = path;
+		}
+	}
+
+	private static void parseEachFile(Map<PBXFileReference, XCFileReference> result, FileNode previousNodes, PBXGroup group) {
+		final FileNode node = new FileNode(group.getSourceTree(), previousNodes, group.getPath().orElse(null));
+		for (GroupChild child : group.getChildren()) {
+			if (child instanceof PBXGroup) {
+				parseEachFile(result, node, (PBXGroup) child);
+			} else if (child instanceof PBXFileReference) {
+				final PBXFileReference fileRef = (PBXFileReference) child;
+				result.put(fileRef, parse(new FileNode(fileRef.getSourceTree(), node, fileRef.getPath().orElse(null))));
+			}
+		}
+	}
+
+	private static XCFileReference parse(FileNode node) {
+		String path = null;
+		do {
+			if (node.path != null) {
+				if (path == null) {
+					path = node.path;
+				} else {
+					path = node.path + "/" + path;
+				}
+			}
+
+			if (GROUP.equals(node.sourceTree)) {
+				// continue looping
+			} else if (ABSOLUTE.equals(node.sourceTree)) {
+				return XCFileReference.absoluteFile(path);
+			} else if (BUILT_PRODUCTS_DIR.equals(node.sourceTree)) {
+				return XCFileReference.builtProduct(path);
+			} else {
+				return XCFileReference.fromBuildSetting(node.sourceTree.toString(), path);
+			}
+		} while ((node = node.previous) != null);
+
+		throw new RuntimeException("Something went wrong.");
+	}
+	//endregion
+}
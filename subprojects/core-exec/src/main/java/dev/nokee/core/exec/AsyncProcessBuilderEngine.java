@@ -0,0 +1,180 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.core.exec;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.val;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Executes command line tools reusing the output pump threads between invocations.
+ * The standard and error outputs are drained by tasks of a shared executor and the completion is observed asynchronously.
+ * This is not I/O multiplexing, each running process still occupies two blocking drain tasks until its outputs are closed.
+ * The executor is deliberately unbounded, as bounding it would stall processes blocked on a full output pipe.
+ * On JDK 21+, the shared executor uses virtual threads, otherwise it reuses a cached pool of daemon threads.
+ * On JDK 9+, the process completion is observed through {@code Process#onExit()}.
+ * Each submitted invocation returns a handle wrapping a {@link CompletableFuture} so callers can fan out invocations and join them.
+ */
+public class AsyncProcessBuilderEngine implements CommandLineToolExecutionEngine<AsyncProcessBuilderEngine.Handle> {
+	private static final int BUFFER_SIZE = 8192;
+	private final Executor executor;
+
+	public AsyncProcessBuilderEngine() {
+		this(SharedExecutor.INSTANCE);
+	}
+
+	public AsyncProcessBuilderEngine(Executor executor) {
+		this.executor = executor;
+	}
+
+	@Override
+	public Handle submit(CommandLineToolInvocation invocation) {
+		try {
+			val process = StartedProcess.start(invocation);
+			process.getProcess().getOutputStream().close();
+
+			val standardOutput = drain(process.getProcess().getInputStream(), process.getStandardOutput());
+			val errorOutput = drain(process.getProcess().getErrorStream(), process.getErrorOutput());
+			val result = CompletableFuture.allOf(standardOutput, errorOutput, onExit(process.getProcess()))
+				.whenComplete((it, failure) -> process.closeOutputs())
+				.thenApply(it -> process.toResult());
+			return new Handle(process.getProcess(), result);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private CompletableFuture<Void> drain(InputStream inStream, OutputStream outStream) {
+		return CompletableFuture.runAsync(() -> {
+			try (InputStream ignored = inStream) {
+				final byte[] buffer = new byte[BUFFER_SIZE];
+				int length;
+				while ((length = inStream.read(buffer)) != -1) {
+					outStream.write(buffer, 0, length);
+				}
+				outStream.flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, executor);
+	}
+
+	private CompletableFuture<?> onExit(Process process) {
+		if (SharedExecutor.ON_EXIT_METHOD != null) {
+			try {
+				return (CompletableFuture<?>) SharedExecutor.ON_EXIT_METHOD.invoke(process);
+			} catch (IllegalAccessException | InvocationTargetException e) {
+				// fall back to waiting for the process on the executor
+			}
+		}
+		return CompletableFuture.runAsync(() -> {
+			try {
+				process.waitFor();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
+
+	public static final class Handle implements CommandLineToolExecutionHandle {
+		private final Process process;
+		private final CompletableFuture<CommandLineToolExecutionResult> result;
+
+		private Handle(Process process, CompletableFuture<CommandLineToolExecutionResult> result) {
+			this.process = process;
+			this.result = result;
+		}
+
+		/**
+		 * Returns the future completed with the execution result once the process exited and its outputs were fully captured.
+		 *
+		 * @return a future of the execution result, never null
+		 */
+		public CompletableFuture<CommandLineToolExecutionResult> getResult() {
+			return result;
+		}
+
+		public CommandLineToolExecutionResult waitFor() {
+			try {
+				return result.get();
+			} catch (InterruptedException | ExecutionException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		public CommandLineToolExecutionResult waitFor(long timeout, TimeUnit unit) {
+			try {
+				return result.get(timeout, unit);
+			} catch (InterruptedException | ExecutionException | TimeoutException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		public CommandLineToolExecutionResult waitFor(Duration duration) {
+			return waitFor(duration.toMillis(), TimeUnit.MILLISECONDS);
+		}
+
+		/**
+		 * Forcibly terminates the process, the result completes once its outputs are closed.
+		 */
+		public void destroy() {
+			process.destroyForcibly();
+		}
+	}
+
+	private static final class SharedExecutor {
+		static final ExecutorService INSTANCE = newExecutor();
+		static final Method ON_EXIT_METHOD = findMethod(Process.class, "onExit");
+
+		private static ExecutorService newExecutor() {
+			val newVirtualThreadPerTaskExecutor = findMethod(Executors.class, "newVirtualThreadPerTaskExecutor");
+			if (newVirtualThreadPerTaskExecutor != null) {
+				try {
+					return (ExecutorService) newVirtualThreadPerTaskExecutor.invoke(null);
+				} catch (IllegalAccessException | InvocationTargetException e) {
+					// fall back to platform threads
+				}
+			}
+
+			// Idle threads are kept around to avoid creating threads for each short-lived invocation
+			return Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("nokee-process-io-%d").setDaemon(true).build());
+		}
+
+		private static Method findMethod(Class<?> type, String name) {
+			try {
+				return type.getMethod(name);
+			} catch (NoSuchMethodException e) {
+				return null;
+			}
+		}
+	}
+}
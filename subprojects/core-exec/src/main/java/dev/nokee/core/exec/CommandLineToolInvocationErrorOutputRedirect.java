@@ -17,8 +17,10 @@ package dev.nokee.core.exec;
 
 import dev.nokee.core.exec.internal.CommandLineToolInvocationErrorOutputRedirectDuplicateToSystemErrorStreamImpl;
 import dev.nokee.core.exec.internal.CommandLineToolInvocationErrorOutputRedirectForwardImpl;
+import dev.nokee.core.exec.internal.LineForwardingOutputStream;
 
 import java.io.OutputStream;
+import java.util.function.Consumer;
 
 /**
  * Represents how to redirect the error output of the command line tool invocation.
@@ -45,6 +47,17 @@ public interface CommandLineToolInvocationErrorOutputRedirect {
 		return new CommandLineToolInvocationErrorOutputRedirectForwardImpl(outputStream);
 	}
 
+	/**
+	 * Creates a redirection that forward each line of the process error output to the specified consumer as the process writes them.
+	 * The lines are forwarded without their end of line.
+	 *
+	 * @param lineConsumer a consumer that will receive each line of the process's error output.
+	 * @return a {@link CommandLineToolInvocationErrorOutputRedirect} instance that redirect the process error output, line by line, to the specified consumer, never null.
+	 */
+	static CommandLineToolInvocationErrorOutputRedirect forwardLinesTo(Consumer<? super String> lineConsumer) {
+		return new CommandLineToolInvocationErrorOutputRedirectForwardImpl(new LineForwardingOutputStream(lineConsumer));
+	}
+
 	// TODO: Add factory method for appendToFile(File)
 	// TODO: Add factory method for writeToFile(File) -> it will replace the file
 	// TODO: Add factory method for discard() -> null all output -> open question, should it be available in the executionResult?
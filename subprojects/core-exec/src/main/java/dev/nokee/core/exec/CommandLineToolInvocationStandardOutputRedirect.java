@@ -17,8 +17,10 @@ package dev.nokee.core.exec;
 
 import dev.nokee.core.exec.internal.CommandLineToolInvocationStandardOutputRedirectDuplicateToSystemOutputStreamImpl;
 import dev.nokee.core.exec.internal.CommandLineToolInvocationStandardOutputRedirectForwardImpl;
+import dev.nokee.core.exec.internal.LineForwardingOutputStream;
 
 import java.io.OutputStream;
+import java.util.function.Consumer;
 
 /**
  * Represents how to redirect the standard output of the command line tool invocation.
@@ -45,6 +47,17 @@ public interface CommandLineToolInvocationStandardOutputRedirect {
 		return new CommandLineToolInvocationStandardOutputRedirectForwardImpl(outputStream);
 	}
 
+	/**
+	 * Creates a redirection that forward each line of the process standard output to the specified consumer as the process writes them.
+	 * The lines are forwarded without their end of line.
+	 *
+	 * @param lineConsumer a consumer that will receive each line of the process's standard output.
+	 * @return a {@link CommandLineToolInvocationStandardOutputRedirect} instance that redirect the process standard output, line by line, to the specified consumer, never null.
+	 */
+	static CommandLineToolInvocationStandardOutputRedirect forwardLinesTo(Consumer<? super String> lineConsumer) {
+		return new CommandLineToolInvocationStandardOutputRedirectForwardImpl(new LineForwardingOutputStream(lineConsumer));
+	}
+
 	// TODO: Add factory method for appendToFile(File)
 	// TODO: Add factory method for writeToFile(File) -> it will replace the file
 	// TODO: Add factory method for discard() -> null all output -> open question, should it be available in the executionResult?
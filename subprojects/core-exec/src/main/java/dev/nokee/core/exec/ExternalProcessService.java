@@ -0,0 +1,162 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.core.exec;
+
+import dev.nokee.core.exec.internal.CommandLineToolOutputStreamsIntertwineImpl;
+import dev.nokee.core.exec.internal.RoundRobinPermits;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import static dev.nokee.utils.BuildServiceUtils.registerBuildServiceIfAbsent;
+import static dev.nokee.utils.ProviderUtils.forUseAtConfigurationTime;
+
+/**
+ * Bounds the number of external processes running concurrently across all tasks of a build.
+ * Waiting invocations are served round-robin between their owners, usually one per task, so a task submitting many invocations cannot starve the others.
+ * Use {@code -Pnokee.max-concurrent-processes=N} to change the bound, it defaults to the number of processors.
+ * The captured output spilled to disk is deleted when the service closes at the end of the build.
+ */
+public abstract class ExternalProcessService implements BuildService<ExternalProcessService.Parameters>, AutoCloseable {
+	private static final Logger LOGGER = Logger.getLogger(ExternalProcessService.class.getName());
+	public static final String MAX_CONCURRENT_PROCESSES_PROPERTY_NAME = "nokee.max-concurrent-processes";
+	private static final AtomicLong NEXT_OWNER_ID = new AtomicLong();
+	private final RoundRobinPermits permits;
+	private final Metrics metrics = new Metrics();
+
+	public interface Parameters extends BuildServiceParameters {
+		Property<Integer> getMaxConcurrentProcesses();
+	}
+
+	public ExternalProcessService() {
+		this.permits = new RoundRobinPermits(getParameters().getMaxConcurrentProcesses().getOrElse(Runtime.getRuntime().availableProcessors()));
+	}
+
+	/**
+	 * Creates a new owner identifier, invocations of the same owner are queued together.
+	 *
+	 * @return a unique owner identifier
+	 */
+	public static long newOwnerId() {
+		return NEXT_OWNER_ID.incrementAndGet();
+	}
+
+	/**
+	 * Runs the specified action once a process slot is available for the specified owner.
+	 *
+	 * @param ownerId  the owner of the invocation, see {@link #newOwnerId()}
+	 * @param displayName  the invocation display name used for reporting, must not be null
+	 * @param action  the action starting and waiting for the external process, must not be null
+	 */
+	public void run(long ownerId, String displayName, Runnable action) {
+		final long queuedTime = System.nanoTime();
+		try {
+			permits.acquire(ownerId);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+
+		final long startTime = System.nanoTime();
+		try {
+			action.run();
+		} finally {
+			permits.release();
+			final long endTime = System.nanoTime();
+			metrics.record(startTime - queuedTime, endTime - startTime);
+			LOGGER.fine(() -> String.format("Process '%s' waited %d ms and ran %d ms.", displayName, Duration.ofNanos(startTime - queuedTime).toMillis(), Duration.ofNanos(endTime - startTime).toMillis()));
+		}
+	}
+
+	public Metrics getMetrics() {
+		return metrics;
+	}
+
+	@Override
+	public void close() {
+		if (metrics.getInvocationCount() > 0) {
+			LOGGER.info(() -> String.format("Executed %d external processes, waited %d ms and ran %d ms in total (longest %d ms).", metrics.getInvocationCount(), metrics.getTotalWaitTime().toMillis(), metrics.getTotalRunTime().toMillis(), metrics.getMaxRunTime().toMillis()));
+		}
+		CommandLineToolOutputStreamsIntertwineImpl.deleteSpillFiles();
+	}
+
+	public static Provider<ExternalProcessService> registerIfAbsent(Gradle gradle, ProviderFactory providers) {
+		return registerBuildServiceIfAbsent(gradle, ExternalProcessService.class, it -> {
+			it.getMaxConcurrentProcesses().set(property(providers, MAX_CONCURRENT_PROCESSES_PROPERTY_NAME).map(Integer::parseInt));
+		});
+	}
+
+	/**
+	 * Creates a worker engine bounded by the specified service.
+	 * Tasks should reuse the engine for all invocations of a task action and declare the service usage.
+	 *
+	 * @param objects  the object factory of the task, must not be null
+	 * @param processService  the service bounding the processes, see {@link #registerIfAbsent(Gradle, ProviderFactory)}
+	 * @return a new engine, never null
+	 */
+	public static GradleWorkerExecutorEngine newEngine(ObjectFactory objects, Provider<ExternalProcessService> processService) {
+		final GradleWorkerExecutorEngine result = objects.newInstance(GradleWorkerExecutorEngine.class);
+		result.getProcessService().set(processService);
+		return result;
+	}
+
+	private static Provider<String> property(ProviderFactory providers, String name) {
+		return forUseAtConfigurationTime(providers.systemProperty(name)).orElse(forUseAtConfigurationTime(providers.gradleProperty(name)));
+	}
+
+	/**
+	 * Wall-time statistics of the external processes executed through this service.
+	 */
+	public static final class Metrics {
+		private final LongAdder invocationCount = new LongAdder();
+		private final LongAdder totalWaitTime = new LongAdder();
+		private final LongAdder totalRunTime = new LongAdder();
+		private final LongAccumulator maxRunTime = new LongAccumulator(Math::max, 0);
+
+		private void record(long waitTime, long runTime) {
+			invocationCount.increment();
+			totalWaitTime.add(waitTime);
+			totalRunTime.add(runTime);
+			maxRunTime.accumulate(runTime);
+		}
+
+		public long getInvocationCount() {
+			return invocationCount.sum();
+		}
+
+		public Duration getTotalWaitTime() {
+			return Duration.ofNanos(totalWaitTime.sum());
+		}
+
+		public Duration getTotalRunTime() {
+			return Duration.ofNanos(totalRunTime.sum());
+		}
+
+		public Duration getMaxRunTime() {
+			return Duration.ofNanos(maxRunTime.get());
+		}
+	}
+}
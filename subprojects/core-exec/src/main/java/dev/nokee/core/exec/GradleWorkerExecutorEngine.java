@@ -15,10 +15,10 @@
  */
 package dev.nokee.core.exec;
 
+import com.google.common.annotations.VisibleForTesting;
 import dev.nokee.core.exec.internal.CommandLineToolInvocationOutputRedirectInternal;
 import dev.nokee.core.exec.internal.CommandLineToolOutputStreams;
-import dev.nokee.core.exec.internal.CommandLineToolOutputStreamsImpl;
-import lombok.RequiredArgsConstructor;
+import dev.nokee.core.exec.internal.CommandLineToolOutputStreamsIntertwineImpl;
 import org.gradle.api.GradleException;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
@@ -29,31 +29,123 @@ import org.gradle.workers.WorkQueue;
 import org.gradle.workers.WorkerExecutor;
 
 import javax.inject.Inject;
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Executes command line tools as Gradle work actions.
+ * All invocations submitted to the same engine instance share a single work queue.
+ * When a {@link ExternalProcessService} is configured, the number of concurrent processes is bounded across the build
+ * and the invocations of this engine are queued fairly against the invocations of the other engines.
+ * Each handle reports the outcome of its own invocation.
+ */
 public abstract class GradleWorkerExecutorEngine implements CommandLineToolExecutionEngine<GradleWorkerExecutorEngine.Handle> {
+	// Work actions run without isolation, so they complete the invocations of this class loader
+	private static final AtomicLong NEXT_INVOCATION_ID = new AtomicLong();
+	private static final Map<Long, CompletableFuture<Void>> PENDING_INVOCATIONS = new ConcurrentHashMap<>();
+	private final long ownerId = ExternalProcessService.newOwnerId();
+	private WorkQueue workQueue;
+
 	@Inject
 	protected abstract WorkerExecutor getWorkerExecutor();
 
+	public abstract Property<ExternalProcessService> getProcessService();
+
 	@Override
 	public Handle submit(CommandLineToolInvocation invocation) {
-		WorkQueue workQueue = getWorkerExecutor().noIsolation();
-		workQueue.submit(GradleWorkerExecutorEngineWorkAction.class, it -> {
-			it.getCommandLine().add(invocation.getTool().getExecutable());
-			it.getCommandLine().addAll(invocation.getArguments().get());
-			it.getStandardOutputRedirect().set(invocation.getStandardOutputRedirect());
-			it.getErrorOutputRedirect().set(invocation.getErrorOutputRedirect());
-			it.getEnvironmentVariables().set(invocation.getEnvironmentVariables());
-		});
-		return new Handle(workQueue);
+		final Handle result = new Handle(getWorkQueue(), NEXT_INVOCATION_ID.incrementAndGet());
+		try {
+			result.workQueue.submit(GradleWorkerExecutorEngineWorkAction.class, it -> {
+				it.getCommandLine().add(invocation.getTool().getExecutable());
+				it.getCommandLine().addAll(invocation.getArguments().get());
+				it.getStandardOutputRedirect().set(invocation.getStandardOutputRedirect());
+				it.getErrorOutputRedirect().set(invocation.getErrorOutputRedirect());
+				it.getEnvironmentVariables().set(invocation.getEnvironmentVariables());
+				it.getProcessService().set(getProcessService());
+				it.getOwnerId().set(ownerId);
+				it.getInvocationId().set(result.invocationId);
+			});
+		} catch (RuntimeException e) {
+			PENDING_INVOCATIONS.remove(result.invocationId);
+			throw e;
+		}
+		return result;
+	}
+
+	// Called by the work action, the invocation is unknown when its handle already gave up on it
+	static void complete(long invocationId, Throwable failure) {
+		final CompletableFuture<Void> completion = PENDING_INVOCATIONS.remove(invocationId);
+		if (completion != null) {
+			if (failure == null) {
+				completion.complete(null);
+			} else {
+				completion.completeExceptionally(failure);
+			}
+		}
+	}
+
+	@VisibleForTesting
+	static boolean isPending(long invocationId) {
+		return PENDING_INVOCATIONS.containsKey(invocationId);
+	}
+
+	private synchronized WorkQueue getWorkQueue() {
+		if (workQueue == null) {
+			workQueue = getWorkerExecutor().noIsolation();
+		}
+		return workQueue;
 	}
 
-	@RequiredArgsConstructor
 	public static class Handle implements CommandLineToolExecutionHandle {
 		private final WorkQueue workQueue;
+		private final long invocationId;
+		private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+		@VisibleForTesting
+		Handle(WorkQueue workQueue, long invocationId) {
+			this.workQueue = workQueue;
+			this.invocationId = invocationId;
+			PENDING_INVOCATIONS.put(invocationId, completion);
+		}
 
+		/**
+		 * Waits for all invocations submitted to the engine, then reports the outcome of this handle's invocation only.
+		 * The invocation failure is rethrown.
+		 * When the invocation never ran, for example because the work action could not be created or the build was cancelled,
+		 * the failure of the work queue is rethrown instead.
+		 */
 		public void await() {
-			workQueue.await();
+			try {
+				workQueue.await();
+			} catch (RuntimeException e) {
+				if (PENDING_INVOCATIONS.remove(invocationId, completion)) {
+					throw e;
+				}
+				// Another invocation failed, this invocation's outcome is reported below
+			}
+
+			if (PENDING_INVOCATIONS.remove(invocationId, completion)) {
+				throw new IllegalStateException("Command line tool invocation did not run.");
+			}
+
+			try {
+				completion.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				} else if (e.getCause() instanceof Error) {
+					throw (Error) e.getCause();
+				}
+				throw new RuntimeException(e.getCause());
+			}
 		}
 	}
 
@@ -62,6 +154,9 @@ public abstract class GradleWorkerExecutorEngine implements CommandLineToolExecu
 		Property<CommandLineToolInvocationStandardOutputRedirect> getStandardOutputRedirect();
 		Property<CommandLineToolInvocationErrorOutputRedirect> getErrorOutputRedirect();
 		Property<CommandLineToolInvocationEnvironmentVariables> getEnvironmentVariables();
+		Property<ExternalProcessService> getProcessService();
+		Property<Long> getOwnerId();
+		Property<Long> getInvocationId();
 	}
 
 	public static abstract class GradleWorkerExecutorEngineWorkAction implements WorkAction<GradleWorkerExecutorEngineWorkParameters> {
@@ -70,12 +165,26 @@ public abstract class GradleWorkerExecutorEngine implements CommandLineToolExecu
 
 		@Override
 		public void execute() {
-			ByteArrayOutputStream logs = new ByteArrayOutputStream();
+			try {
+				if (getParameters().getProcessService().isPresent()) {
+					getParameters().getProcessService().get().run(getParameters().getOwnerId().get(), String.join(" ", getParameters().getCommandLine().get()), this::exec);
+				} else {
+					exec();
+				}
+			} catch (RuntimeException | Error e) {
+				complete(getParameters().getInvocationId().get(), e);
+				throw e;
+			}
+			complete(getParameters().getInvocationId().get(), null);
+		}
+
+		private void exec() {
+			CommandLineToolOutputStreamsIntertwineImpl logs = new CommandLineToolOutputStreamsIntertwineImpl();
 			try {
 				getExecOperations().exec(spec -> {
 					spec.commandLine(getParameters().getCommandLine().get());
 
-					CommandLineToolOutputStreams streams = new CommandLineToolOutputStreamsImpl(logs, logs);
+					CommandLineToolOutputStreams streams = logs;
 					if (getParameters().getStandardOutputRedirect().get() instanceof CommandLineToolInvocationOutputRedirectInternal) {
 						streams = ((CommandLineToolInvocationOutputRedirectInternal) getParameters().getStandardOutputRedirect().get()).redirect(streams);
 					}
@@ -87,8 +196,21 @@ public abstract class GradleWorkerExecutorEngine implements CommandLineToolExecu
 					spec.setEnvironment(getParameters().getEnvironmentVariables().get().getAsMap());
 				});
 			} catch (GradleException e) {
-				throw new ExecException("An error happen while executing command, here is the output:\n" + logs.toString());
+				throw new ExecException("An error happen while executing command, here is the output:\n" + outputOf(logs));
+			} finally {
+				logs.close();
+			}
+		}
+
+		private static String outputOf(CommandLineToolOutputStreamsIntertwineImpl logs) {
+			try {
+				// Commit any output not yet flushed by Gradle
+				logs.getStandardOutput().flush();
+				logs.getErrorOutput().flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
 			}
+			return logs.getOutputContent().getAsString();
 		}
 	}
 }
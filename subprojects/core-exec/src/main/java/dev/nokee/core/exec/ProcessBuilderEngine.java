@@ -15,11 +15,6 @@
  */
 package dev.nokee.core.exec;
 
-import dev.nokee.core.exec.internal.CommandLineToolInvocationOutputRedirectInternal;
-import dev.nokee.core.exec.internal.CommandLineToolOutputStreams;
-import dev.nokee.core.exec.internal.CommandLineToolOutputStreamsIntertwineImpl;
-import dev.nokee.core.exec.internal.DefaultCommandLineToolExecutionResult;
-import lombok.RequiredArgsConstructor;
 import lombok.val;
 import org.apache.commons.exec.PumpStreamHandler;
 
@@ -27,52 +22,36 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.time.Duration;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Supplier;
 
 public class ProcessBuilderEngine implements CommandLineToolExecutionEngine<ProcessBuilderEngine.Handle> {
 	@Override
 	public Handle submit(CommandLineToolInvocation invocation) {
-		ProcessBuilder processBuilder = new ProcessBuilder();
-		processBuilder.command().add(invocation.getTool().getExecutable());
-		processBuilder.command().addAll(invocation.getArguments().get());
-		invocation.getWorkingDirectory().ifPresent(processBuilder::directory);
-		processBuilder.environment().putAll(invocation.getEnvironmentVariables().getAsMap());
 		try {
-			Process process = processBuilder.start();
+			val process = StartedProcess.start(invocation);
 
-			val endStreams = new CommandLineToolOutputStreamsIntertwineImpl();
-			CommandLineToolOutputStreams streams = endStreams;
-			if (invocation.getStandardOutputRedirect() instanceof CommandLineToolInvocationOutputRedirectInternal) {
-				streams = ((CommandLineToolInvocationOutputRedirectInternal) invocation.getStandardOutputRedirect()).redirect(streams);
-			}
-			if (invocation.getErrorOutputRedirect() instanceof CommandLineToolInvocationOutputRedirectInternal) {
-				streams = ((CommandLineToolInvocationOutputRedirectInternal) invocation.getErrorOutputRedirect()).redirect(streams);
-			}
-
-			PumpStreamHandler streamHandler = new PumpStreamHandler(streams.getStandardOutput(), streams.getErrorOutput());
-			streamHandler.setProcessOutputStream(process.getInputStream());
-			streamHandler.setProcessErrorStream(process.getErrorStream());
+			PumpStreamHandler streamHandler = new PumpStreamHandler(process.getStandardOutput(), process.getErrorOutput());
+			streamHandler.setProcessOutputStream(process.getProcess().getInputStream());
+			streamHandler.setProcessErrorStream(process.getProcess().getErrorStream());
 			streamHandler.start();
-			return new Handle(process, streamHandler, endStreams::getStandardOutputContent, endStreams::getErrorOutputContent, endStreams::getOutputContent, () -> String.join(" ", processBuilder.command()));
+			return new Handle(process, streamHandler);
 		} catch (IOException e) {
 			throw new UncheckedIOException(e);
 		}
 	}
 
-	@RequiredArgsConstructor
 	public static class Handle implements CommandLineToolExecutionHandle {
-		private final Process process;
+		private final StartedProcess process;
 		private final PumpStreamHandler streamHandler;
-		private final Supplier<CommandLineToolLogContent> standardOutput;
-		private final Supplier<CommandLineToolLogContent> errorOutput;
-		private final Supplier<CommandLineToolLogContent> output;
-		private final Supplier<String> displayName;
+
+		private Handle(StartedProcess process, PumpStreamHandler streamHandler) {
+			this.process = process;
+			this.streamHandler = streamHandler;
+		}
 
 		public CommandLineToolExecutionResult waitFor() {
 			try {
-				process.waitFor();
-				streamHandler.stop();
-				return new DefaultCommandLineToolExecutionResult(process.exitValue(), standardOutput.get(), errorOutput.get(), output.get(), displayName);
+				process.getProcess().waitFor();
+				return result();
 			} catch (InterruptedException | IOException e) {
 				throw new RuntimeException(e);
 			}
@@ -80,9 +59,8 @@ public class ProcessBuilderEngine implements CommandLineToolExecutionEngine<Proc
 
 		public CommandLineToolExecutionResult waitFor(long timeout, TimeUnit unit) {
 			try {
-				process.waitFor(timeout, unit);
-				streamHandler.stop();
-				return new DefaultCommandLineToolExecutionResult(process.exitValue(), standardOutput.get(), errorOutput.get(), output.get(), displayName);
+				process.getProcess().waitFor(timeout, unit);
+				return result();
 			} catch (InterruptedException | IOException e) {
 				throw new RuntimeException(e);
 			}
@@ -90,12 +68,17 @@ public class ProcessBuilderEngine implements CommandLineToolExecutionEngine<Proc
 
 		public CommandLineToolExecutionResult waitFor(Duration duration) {
 			try {
-				process.waitFor(duration.toMillis(), TimeUnit.MILLISECONDS);
-				streamHandler.stop();
-				return new DefaultCommandLineToolExecutionResult(process.exitValue(), standardOutput.get(), errorOutput.get(), output.get(), displayName);
+				process.getProcess().waitFor(duration.toMillis(), TimeUnit.MILLISECONDS);
+				return result();
 			} catch (InterruptedException | IOException e) {
 				throw new RuntimeException(e);
 			}
 		}
+
+		private CommandLineToolExecutionResult result() throws IOException {
+			streamHandler.stop();
+			process.closeOutputs();
+			return process.toResult();
+		}
 	}
 }
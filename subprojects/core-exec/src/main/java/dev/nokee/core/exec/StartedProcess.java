@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.core.exec;
+
+import dev.nokee.core.exec.internal.CommandLineToolInvocationOutputRedirectInternal;
+import dev.nokee.core.exec.internal.CommandLineToolOutputStreams;
+import dev.nokee.core.exec.internal.CommandLineToolOutputStreamsIntertwineImpl;
+import dev.nokee.core.exec.internal.DefaultCommandLineToolExecutionResult;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.Supplier;
+
+/**
+ * Process started for an invocation, its outputs are captured and redirected as requested by the invocation.
+ * Shared by the engines executing command line tools through {@link ProcessBuilder}.
+ */
+final class StartedProcess {
+	private final Process process;
+	private final CommandLineToolOutputStreamsIntertwineImpl capturedStreams;
+	private final CommandLineToolOutputStreams streams;
+	private final Supplier<String> displayName;
+
+	private StartedProcess(Process process, CommandLineToolOutputStreamsIntertwineImpl capturedStreams, CommandLineToolOutputStreams streams, Supplier<String> displayName) {
+		this.process = process;
+		this.capturedStreams = capturedStreams;
+		this.streams = streams;
+		this.displayName = displayName;
+	}
+
+	public static StartedProcess start(CommandLineToolInvocation invocation) throws IOException {
+		ProcessBuilder processBuilder = new ProcessBuilder();
+		processBuilder.command().add(invocation.getTool().getExecutable());
+		processBuilder.command().addAll(invocation.getArguments().get());
+		invocation.getWorkingDirectory().ifPresent(processBuilder::directory);
+		processBuilder.environment().putAll(invocation.getEnvironmentVariables().getAsMap());
+		Process process = processBuilder.start();
+
+		CommandLineToolOutputStreamsIntertwineImpl capturedStreams = new CommandLineToolOutputStreamsIntertwineImpl();
+		CommandLineToolOutputStreams streams = capturedStreams;
+		if (invocation.getStandardOutputRedirect() instanceof CommandLineToolInvocationOutputRedirectInternal) {
+			streams = ((CommandLineToolInvocationOutputRedirectInternal) invocation.getStandardOutputRedirect()).redirect(streams);
+		}
+		if (invocation.getErrorOutputRedirect() instanceof CommandLineToolInvocationOutputRedirectInternal) {
+			streams = ((CommandLineToolInvocationOutputRedirectInternal) invocation.getErrorOutputRedirect()).redirect(streams);
+		}
+		return new StartedProcess(process, capturedStreams, streams, () -> String.join(" ", processBuilder.command()));
+	}
+
+	public Process getProcess() {
+		return process;
+	}
+
+	/**
+	 * Returns the stream receiving the process standard output, after redirection.
+	 *
+	 * @return an output stream, never null
+	 */
+	public OutputStream getStandardOutput() {
+		return streams.getStandardOutput();
+	}
+
+	/**
+	 * Returns the stream receiving the process error output, after redirection.
+	 *
+	 * @return an output stream, never null
+	 */
+	public OutputStream getErrorOutput() {
+		return streams.getErrorOutput();
+	}
+
+	/**
+	 * Releases the captured outputs, must be called once the process outputs were fully drained.
+	 */
+	public void closeOutputs() {
+		capturedStreams.close();
+	}
+
+	/**
+	 * Returns the result of the exited process.
+	 *
+	 * @return the execution result, never null
+	 */
+	public CommandLineToolExecutionResult toResult() {
+		return new DefaultCommandLineToolExecutionResult(process.exitValue(), capturedStreams.getStandardOutputContent(), capturedStreams.getErrorOutputContent(), capturedStreams.getOutputContent(), displayName);
+	}
+}
@@ -16,33 +16,80 @@
 package dev.nokee.core.exec.internal;
 
 import dev.nokee.core.exec.CommandLineToolLogContent;
+import lombok.val;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Predicate;
 
 import static dev.nokee.core.exec.CommandLineToolLogContent.of;
-import static java.util.stream.Collectors.joining;
 
+/**
+ * Captures the standard and error output while preserving their relative order.
+ * Output is only committed on flush, each flush records a segment of the stream that was flushed.
+ * Each stream is kept in memory up to the spill threshold, then spilled to a temporary file.
+ * Spilled content is only read back when the log content is queried.
+ * The temporary files are deleted once this instance and all log contents it returned are unreachable.
+ */
 public final class CommandLineToolOutputStreamsIntertwineImpl implements CommandLineToolOutputStreams {
+	private static final int DEFAULT_SPILL_THRESHOLD = 4 * 1024 * 1024;
 	private final List<OutputSegment> outputSegments = new ArrayList<>();
 	private final Object lock = new Object();
-	private final SegmentingOutputStream out = new SegmentingOutputStream(OutputType.OUT);
-	private final SegmentingOutputStream err = new SegmentingOutputStream(OutputType.ERR);
+	private final SegmentingOutputStream out;
+	private final SegmentingOutputStream err;
+
+	public CommandLineToolOutputStreamsIntertwineImpl() {
+		this(DEFAULT_SPILL_THRESHOLD);
+	}
+
+	public CommandLineToolOutputStreamsIntertwineImpl(int spillThreshold) {
+		this.out = new SegmentingOutputStream(new SpillableOutputBuffer(spillThreshold));
+		this.err = new SegmentingOutputStream(new SpillableOutputBuffer(spillThreshold));
+	}
+
+	/**
+	 * Deletes the output spilled to disk by all instances, their spilled content can no longer be read.
+	 * Owners of the build lifecycle call it when the build finishes.
+	 */
+	public static void deleteSpillFiles() {
+		SpillableOutputBuffer.deleteSpillFiles();
+	}
 
 	public CommandLineToolLogContent getStandardOutputContent() {
-		return of(outputSegments.stream().filter(OutputType.OUT).map(OutputSegment::getAsString).collect(joining()));
+		return out.getCommittedContent();
 	}
 
 	public CommandLineToolLogContent getErrorOutputContent() {
-		return of(outputSegments.stream().filter(OutputType.ERR).map(OutputSegment::getAsString).collect(joining()));
+		return err.getCommittedContent();
 	}
 
 	public CommandLineToolLogContent getOutputContent() {
-		return of(outputSegments.stream().map(OutputSegment::getAsString).collect(joining()));
+		final List<OutputSegment> segments;
+		synchronized (lock) {
+			segments = new ArrayList<>(outputSegments);
+		}
+
+		if (out.buffer.isSpilled() || err.buffer.isSpilled()) {
+			return new SpilledCommandLineToolLogContent(() -> asString(segments));
+		}
+		return of(asString(segments));
+	}
+
+	private static String asString(List<OutputSegment> segments) {
+		val result = new StringBuilder();
+		for (OutputSegment segment : segments) {
+			result.append(segment.getAsString());
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Releases the spill file handles once the process output ended.
+	 * The captured content stays readable, further writes are rejected.
+	 */
+	public void close() {
+		out.buffer.close();
+		err.buffer.close();
 	}
 
 	@Override
@@ -56,51 +103,68 @@ public final class CommandLineToolOutputStreamsIntertwineImpl implements Command
 	}
 
 	private class SegmentingOutputStream extends OutputStream {
-		private final OutputType type;
-		private OutputSegment currentSegment;
+		private final SpillableOutputBuffer buffer;
+		private long committedSize = 0;
 
-		SegmentingOutputStream(OutputType type) {
-			this.type = type;
-			this.currentSegment = new OutputSegment(type);
+		SegmentingOutputStream(SpillableOutputBuffer buffer) {
+			this.buffer = buffer;
 		}
 
 		@Override
-		public void write(int b) throws IOException {
-			currentSegment.append(b);
+		public void write(int b) {
+			buffer.write(b);
 		}
 
 		@Override
-		public void flush() throws IOException {
+		public void write(byte[] b, int off, int len) {
+			buffer.write(b, off, len);
+		}
+
+		@Override
+		public void flush() {
 			synchronized (lock) {
-				outputSegments.add(currentSegment);
-				currentSegment = new OutputSegment(type);
+				val size = buffer.size();
+				if (size == committedSize) {
+					return;
+				}
+
+				// Consecutive flushes of the same stream extend the last segment
+				val lastSegment = outputSegments.isEmpty() ? null : outputSegments.get(outputSegments.size() - 1);
+				if (lastSegment != null && lastSegment.stream == this) {
+					outputSegments.set(outputSegments.size() - 1, new OutputSegment(this, lastSegment.start, size));
+				} else {
+					outputSegments.add(new OutputSegment(this, committedSize, size));
+				}
+				committedSize = size;
 			}
 		}
-	}
 
-	private enum OutputType implements Predicate<OutputSegment> {
-		OUT, ERR;
+		CommandLineToolLogContent getCommittedContent() {
+			final long size;
+			synchronized (lock) {
+				size = committedSize;
+			}
 
-		@Override
-		public boolean test(OutputSegment outputSegment) {
-			return outputSegment.type == this;
+			if (buffer.isSpilled()) {
+				return new SpilledCommandLineToolLogContent(() -> buffer.readString(0, size));
+			}
+			return of(buffer.readString(0, size));
 		}
 	}
 
 	private static final class OutputSegment {
-		private final OutputType type;
-		private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-
-		OutputSegment(OutputType type) {
-			this.type = type;
-		}
-
-		void append(int b) {
-			buffer.write(b);
+		private final SegmentingOutputStream stream;
+		private final long start;
+		private final long end;
+
+		OutputSegment(SegmentingOutputStream stream, long start, long end) {
+			this.stream = stream;
+			this.start = start;
+			this.end = end;
 		}
 
 		String getAsString() {
-			return buffer.toString();
+			return stream.buffer.readString(start, end);
 		}
 	}
 }
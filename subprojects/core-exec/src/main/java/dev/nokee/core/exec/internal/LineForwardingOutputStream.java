@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.core.exec.internal;
+
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Forwards each line written to this stream as soon as its end of line is written.
+ * The end of line, either {@code \n} or {@code \r\n}, is not part of the forwarded line.
+ * Flushing the stream forwards the pending unterminated line, if any.
+ * Only the current line is buffered.
+ */
+public final class LineForwardingOutputStream extends OutputStream {
+	private final Consumer<? super String> lineConsumer;
+	private byte[] line = new byte[256];
+	private int lineLength = 0;
+
+	public LineForwardingOutputStream(Consumer<? super String> lineConsumer) {
+		this.lineConsumer = lineConsumer;
+	}
+
+	@Override
+	public synchronized void write(int b) {
+		if (b == '\n') {
+			forwardLine();
+		} else {
+			if (lineLength == line.length) {
+				line = Arrays.copyOf(line, line.length * 2);
+			}
+			line[lineLength++] = (byte) b;
+		}
+	}
+
+	@Override
+	public synchronized void write(byte[] b, int off, int len) {
+		int startOfLine = off;
+		for (int i = off; i < off + len; ++i) {
+			if (b[i] == '\n') {
+				append(b, startOfLine, i - startOfLine);
+				forwardLine();
+				startOfLine = i + 1;
+			}
+		}
+		append(b, startOfLine, off + len - startOfLine);
+	}
+
+	@Override
+	public synchronized void flush() {
+		if (lineLength > 0) {
+			forwardLine();
+		}
+	}
+
+	private void append(byte[] b, int off, int len) {
+		if (lineLength + len > line.length) {
+			line = Arrays.copyOf(line, Math.max(lineLength + len, line.length * 2));
+		}
+		System.arraycopy(b, off, line, lineLength, len);
+		lineLength += len;
+	}
+
+	private void forwardLine() {
+		int length = lineLength;
+		if (length > 0 && line[length - 1] == '\r') {
+			--length;
+		}
+		lineLength = 0;
+		lineConsumer.accept(new String(line, 0, length, Charset.defaultCharset()));
+	}
+}
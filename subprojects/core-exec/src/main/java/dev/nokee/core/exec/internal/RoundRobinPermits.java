@@ -0,0 +1,99 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.core.exec.internal;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Counting semaphore handing out permits round-robin between owners.
+ * Waiters of the same owner are served in order, but an owner queuing many acquisitions cannot starve the other owners.
+ */
+public final class RoundRobinPermits {
+	private final Object lock = new Object();
+	private final Map<Object, Queue<CountDownLatch>> waitersByOwner = new LinkedHashMap<>();
+	private int availablePermits;
+
+	public RoundRobinPermits(int permits) {
+		if (permits < 1) {
+			throw new IllegalArgumentException(String.format("Permits must be at least 1, but was %d.", permits));
+		}
+		this.availablePermits = permits;
+	}
+
+	public void acquire(Object owner) throws InterruptedException {
+		final CountDownLatch waiter = new CountDownLatch(1);
+		synchronized (lock) {
+			if (availablePermits > 0 && waitersByOwner.isEmpty()) {
+				availablePermits--;
+				return;
+			}
+			waitersByOwner.computeIfAbsent(owner, it -> new ArrayDeque<>()).add(waiter);
+		}
+
+		try {
+			waiter.await();
+		} catch (InterruptedException e) {
+			synchronized (lock) {
+				if (!remove(owner, waiter)) {
+					// The permit was granted concurrently, give it to the next waiter
+					release();
+				}
+			}
+			throw e;
+		}
+	}
+
+	public void release() {
+		synchronized (lock) {
+			final Iterator<Map.Entry<Object, Queue<CountDownLatch>>> iter = waitersByOwner.entrySet().iterator();
+			if (!iter.hasNext()) {
+				availablePermits++;
+				return;
+			}
+
+			// Move the served owner at the end of the line
+			final Map.Entry<Object, Queue<CountDownLatch>> entry = iter.next();
+			iter.remove();
+			final CountDownLatch waiter = entry.getValue().remove();
+			if (!entry.getValue().isEmpty()) {
+				waitersByOwner.put(entry.getKey(), entry.getValue());
+			}
+			waiter.countDown();
+		}
+	}
+
+	private boolean remove(Object owner, CountDownLatch waiter) {
+		final Queue<CountDownLatch> waiters = waitersByOwner.get(owner);
+		if (waiters == null || !waiters.remove(waiter)) {
+			return false;
+		}
+		if (waiters.isEmpty()) {
+			waitersByOwner.remove(owner);
+		}
+		return true;
+	}
+
+	public int getAvailablePermits() {
+		synchronized (lock) {
+			return availablePermits;
+		}
+	}
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.core.exec.internal;
+
+import com.google.common.annotations.VisibleForTesting;
+import lombok.val;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only byte storage kept in memory up to a threshold, then spilled to a temporary file.
+ * The bytes can be read back by range while the buffer is still being written and after it's closed.
+ * The temporary file is deleted once the buffer, and thus every log content reading from it, is unreachable.
+ * Unreachable files are deleted when another buffer spills or closes, the remaining files are deleted at the end of the build.
+ */
+final class SpillableOutputBuffer {
+	private static final int INITIAL_CAPACITY = 8 * 1024;
+	private final int spillThreshold;
+	private byte[] buffer = new byte[0];
+	private long size = 0;
+	private SpillFile spillFile = null;
+	private OutputStream spillStream = null;
+	private boolean closed = false;
+
+	SpillableOutputBuffer(int spillThreshold) {
+		this.spillThreshold = spillThreshold;
+	}
+
+	public synchronized void write(int b) {
+		if (!closed && spillFile == null && size < spillThreshold) {
+			ensureCapacity((int) size + 1);
+			buffer[(int) size++] = (byte) b;
+		} else {
+			write(new byte[] {(byte) b}, 0, 1);
+		}
+	}
+
+	public synchronized void write(byte[] b, int off, int len) {
+		if (closed) {
+			throw new IllegalStateException("Cannot write to a closed output buffer.");
+		}
+
+		try {
+			if (spillFile == null && size + len > spillThreshold) {
+				spill();
+			}
+
+			if (spillStream != null) {
+				spillStream.write(b, off, len);
+			} else {
+				ensureCapacity((int) size + len);
+				System.arraycopy(b, off, buffer, (int) size, len);
+			}
+			size += len;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > buffer.length) {
+			buffer = Arrays.copyOf(buffer, Math.min(Math.max(capacity, Math.max(INITIAL_CAPACITY, buffer.length * 2)), spillThreshold));
+		}
+	}
+
+	private void spill() throws IOException {
+		spillFile = SpillFile.create(this);
+		spillStream = new BufferedOutputStream(new FileOutputStream(spillFile.file), INITIAL_CAPACITY * 8);
+		spillStream.write(buffer, 0, (int) size);
+		buffer = null;
+	}
+
+	/**
+	 * Releases the spill file handle, the written bytes stay readable.
+	 * Further writes are rejected.
+	 */
+	public synchronized void close() {
+		SpillFile.deleteUnreachableFiles();
+		if (!closed) {
+			closed = true;
+			if (spillStream != null) {
+				try {
+					spillStream.close();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				} finally {
+					spillStream = null;
+				}
+			}
+		}
+	}
+
+	public synchronized long size() {
+		return size;
+	}
+
+	public synchronized boolean isSpilled() {
+		return spillFile != null;
+	}
+
+	/**
+	 * Deletes the spill files of all buffers, including the buffers still reachable.
+	 * Their output can no longer be read afterward.
+	 */
+	static void deleteSpillFiles() {
+		SpillFile.deleteUnreachableFiles();
+		SpillFile.deleteLiveFiles();
+	}
+
+	@VisibleForTesting
+	synchronized File getSpillFile() {
+		return spillFile == null ? null : spillFile.file;
+	}
+
+	/**
+	 * Decodes the bytes in the specified range using the platform charset, same as the process would print them.
+	 *
+	 * @param start  the first byte offset, inclusive
+	 * @param end  the last byte offset, exclusive
+	 * @return the decoded bytes, never null
+	 */
+	public String readString(long start, long end) {
+		if (end - start > Integer.MAX_VALUE) {
+			throw new UnsupportedOperationException(String.format("Cannot read %d bytes of captured output as a string.", end - start));
+		}
+		val result = new ByteArrayOutputStream((int) (end - start));
+		writeTo(start, end, result);
+		return new String(result.toByteArray(), Charset.defaultCharset());
+	}
+
+	public synchronized void writeTo(long start, long end, OutputStream outStream) {
+		try {
+			if (spillFile == null) {
+				outStream.write(buffer, (int) start, (int) (end - start));
+			} else {
+				if (spillStream != null) {
+					spillStream.flush();
+				}
+				try (RandomAccessFile file = new RandomAccessFile(spillFile.file, "r")) {
+					file.seek(start);
+					final byte[] bytes = new byte[(int) Math.min(end - start, INITIAL_CAPACITY * 8)];
+					long remaining = end - start;
+					while (remaining > 0) {
+						final int length = file.read(bytes, 0, (int) Math.min(remaining, bytes.length));
+						if (length < 0) {
+							break;
+						}
+						outStream.write(bytes, 0, length);
+						remaining -= length;
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	// Deletes the file once its buffer is phantom reachable, the registry only holds the files of live buffers.
+	// Like WeakHashMap, the queue is drained by the callers instead of a dedicated thread.
+	private static final class SpillFile extends PhantomReference<SpillableOutputBuffer> {
+		private static final ReferenceQueue<SpillableOutputBuffer> QUEUE = new ReferenceQueue<>();
+		private static final Set<SpillFile> LIVE_FILES = ConcurrentHashMap.newKeySet();
+
+		private final File file;
+
+		private SpillFile(SpillableOutputBuffer owner, File file) {
+			super(owner, QUEUE);
+			this.file = file;
+		}
+
+		static SpillFile create(SpillableOutputBuffer owner) throws IOException {
+			deleteUnreachableFiles();
+			val result = new SpillFile(owner, File.createTempFile("nokee-exec-", ".log"));
+			LIVE_FILES.add(result);
+			return result;
+		}
+
+		private void delete() {
+			LIVE_FILES.remove(this);
+			file.delete();
+		}
+
+		static void deleteUnreachableFiles() {
+			Reference<? extends SpillableOutputBuffer> reference;
+			while ((reference = QUEUE.poll()) != null) {
+				((SpillFile) reference).delete();
+			}
+		}
+
+		static void deleteLiveFiles() {
+			LIVE_FILES.forEach(SpillFile::delete);
+		}
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.core.exec.internal;
+
+import dev.nokee.core.exec.CommandLineToolLogContent;
+import dev.nokee.core.exec.CommandLineToolOutputParser;
+
+import java.lang.ref.SoftReference;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Log content backed by spilled output, it's only decoded when queried.
+ * The decoded content is softly referenced so large outputs can be reclaimed and read again from disk.
+ */
+final class SpilledCommandLineToolLogContent implements CommandLineToolLogContent {
+	private final Supplier<String> contentSupplier;
+	private SoftReference<CommandLineToolLogContent> delegate = new SoftReference<>(null);
+
+	SpilledCommandLineToolLogContent(Supplier<String> contentSupplier) {
+		this.contentSupplier = contentSupplier;
+	}
+
+	private synchronized CommandLineToolLogContent delegate() {
+		CommandLineToolLogContent result = delegate.get();
+		if (result == null) {
+			result = CommandLineToolLogContent.of(contentSupplier.get());
+			delegate = new SoftReference<>(result);
+		}
+		return result;
+	}
+
+	@Override
+	public <T> T parse(CommandLineToolOutputParser<T> parser) {
+		return delegate().parse(parser);
+	}
+
+	@Override
+	public String getAsString() {
+		return delegate().getAsString();
+	}
+
+	@Override
+	public CommandLineToolLogContent withNormalizedEndOfLine() {
+		return delegate().withNormalizedEndOfLine();
+	}
+
+	@Override
+	public CommandLineToolLogContent drop(int i) {
+		return delegate().drop(i);
+	}
+
+	@Override
+	public CommandLineToolLogContent withAnsiControlCharactersInterpreted() {
+		return delegate().withAnsiControlCharactersInterpreted();
+	}
+
+	@Override
+	public List<String> getLines() {
+		return delegate().getLines();
+	}
+
+	@Override
+	public CommandLineToolLogContent visitEachLine(Consumer<LineDetails> visitor) {
+		return delegate().visitEachLine(visitor);
+	}
+
+	// Only equal to other spilled content, the in-memory content doesn't know about this type
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof SpilledCommandLineToolLogContent)) {
+			return false;
+		}
+		return delegate().equals(((SpilledCommandLineToolLogContent) o).delegate());
+	}
+
+	@Override
+	public int hashCode() {
+		return delegate().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return delegate().toString();
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.core.exec
+
+import spock.lang.IgnoreIf
+import spock.lang.Specification
+import spock.lang.Subject
+import spock.util.environment.OperatingSystem
+
+import java.util.concurrent.CompletableFuture
+
+import static dev.nokee.core.exec.CommandLineToolInvocationStandardOutputRedirect.forwardLinesTo
+
+@IgnoreIf({OperatingSystem.current.windows}) // For now.
+@Subject(AsyncProcessBuilderEngine)
+class AsyncProcessBuilderEngineFunctionalTest extends Specification {
+	def engine = new AsyncProcessBuilderEngine()
+
+	def "capture standard output by default"() {
+		expect:
+		CommandLine.of("bash", "-c", "echo 'bob'").execute(engine).waitFor().standardOutput.asString == 'bob\n'
+	}
+
+	def "capture error output"() {
+		expect:
+		CommandLine.of("bash", "-c", "echo 'bob' >&2").execute(engine).waitFor().errorOutput.asString == 'bob\n'
+	}
+
+	def "capture the exit value in the result"() {
+		expect:
+		CommandLine.of("true").execute(engine).waitFor().exitValue == 0
+		CommandLine.of("false").execute(engine).waitFor().exitValue == 1
+	}
+
+	def "can fan out invocations and join their results"() {
+		when:
+		def handles = (1..50).collect { CommandLine.of("bash", "-c", "echo ${it}").execute(engine) }
+		CompletableFuture.allOf(handles*.result as CompletableFuture[]).join()
+
+		then:
+		handles.collect { it.result.join().standardOutput.asString.trim() } == (1..50).collect { it.toString() }
+	}
+
+	def "forwards output lines while capturing"() {
+		given:
+		def lines = []
+
+		when:
+		def result = CommandLine.of("bash", "-c", "echo first; echo second").newInvocation()
+			.redirectStandardOutput(forwardLinesTo { lines.add(it) })
+			.buildAndSubmit(engine)
+			.waitFor()
+
+		then:
+		lines == ['first', 'second']
+		result.standardOutput.asString == 'first\nsecond\n'
+	}
+
+	def "does not wait on standard input"() {
+		expect:
+		CommandLine.of("cat").execute(engine).waitFor().exitValue == 0
+	}
+}
@@ -102,4 +102,54 @@ class CommandLineToolOutputStreamIntertwineImplTest extends Specification {
 		streams.errorOutputContent.asString == "Goodbye, world!${System.lineSeparator()}"
 		streams.outputContent.asString == "Goodbye, world!${System.lineSeparator()}Hello, world!${System.lineSeparator()}"
 	}
+
+	def "can capture output spilled to disk"() {
+		given:
+		def streams = new CommandLineToolOutputStreamsIntertwineImpl(16)
+		def out = new PrintWriter(streams.standardOutput)
+		def err = new PrintWriter(streams.errorOutput)
+
+		when:
+		writeln(out, 'Hello, world!')
+		writeln(err, 'Goodbye, world!')
+		writeln(out, 'Hey, world!')
+		writeln(err, 'Oh, world!')
+
+		then:
+		streams.standardOutputContent.asString == "Hello, world!${System.lineSeparator()}Hey, world!${System.lineSeparator()}"
+		streams.errorOutputContent.asString == "Goodbye, world!${System.lineSeparator()}Oh, world!${System.lineSeparator()}"
+		streams.outputContent.asString == "Hello, world!${System.lineSeparator()}Goodbye, world!${System.lineSeparator()}Hey, world!${System.lineSeparator()}Oh, world!${System.lineSeparator()}"
+		streams.outputContent.lines == ['Hello, world!', 'Goodbye, world!', 'Hey, world!', 'Oh, world!']
+	}
+
+	def "spilled output content is a snapshot of the committed output"() {
+		given:
+		def streams = new CommandLineToolOutputStreamsIntertwineImpl(4)
+		def out = new PrintWriter(streams.standardOutput)
+
+		when:
+		write(out, 'Hello, world!')
+		def content = streams.standardOutputContent
+		write(out, 'Hey, world!')
+		out.print('uncommitted')
+
+		then:
+		content.asString == 'Hello, world!'
+		streams.standardOutputContent.asString == 'Hello, world!Hey, world!'
+	}
+
+	def "spilled output content equality is symmetric"() {
+		given:
+		def streams = new CommandLineToolOutputStreamsIntertwineImpl(4)
+		def out = new PrintWriter(streams.standardOutput)
+		write(out, 'Hello, world!')
+		def spilled = streams.standardOutputContent
+		def plain = CommandLineToolLogContent.of('Hello, world!')
+
+		expect:
+		spilled == streams.standardOutputContent
+		spilled.hashCode() == streams.standardOutputContent.hashCode()
+		!spilled.equals(plain)
+		!plain.equals(spilled)
+	}
 }
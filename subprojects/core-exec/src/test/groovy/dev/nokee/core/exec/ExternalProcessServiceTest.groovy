@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.core.exec
+
+import spock.lang.Specification
+import spock.lang.Subject
+import spock.lang.Timeout
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import static dev.nokee.internal.testing.util.ProjectTestUtils.rootProject
+
+@Subject(ExternalProcessService)
+class ExternalProcessServiceTest extends Specification {
+	def executor = Executors.newCachedThreadPool()
+
+	def cleanup() {
+		executor.shutdownNow()
+	}
+
+	private static ExternalProcessService newService(int maxConcurrentProcesses) {
+		return rootProject().gradle.sharedServices.registerIfAbsent('externalProcess', ExternalProcessService) {
+			it.parameters.maxConcurrentProcesses.set(maxConcurrentProcesses)
+		}.get()
+	}
+
+	@Timeout(10)
+	def "bounds concurrent actions to the maximum concurrent processes"() {
+		given:
+		def service = newService(2)
+		def running = new AtomicInteger()
+		def maxRunning = new AtomicInteger()
+		def release = new CountDownLatch(1)
+		def done = new CountDownLatch(6)
+
+		when:
+		6.times { i ->
+			executor.submit {
+				try {
+					service.run(ExternalProcessService.newOwnerId(), "process-${i}") {
+						maxRunning.accumulateAndGet(running.incrementAndGet()) { a, b -> Math.max(a, b) }
+						release.await()
+						running.decrementAndGet()
+					}
+				} finally {
+					done.countDown()
+				}
+			}
+		}
+		while (running.get() < 2) {
+			Thread.sleep(10)
+		}
+		Thread.sleep(100)
+
+		then:
+		running.get() == 2
+
+		when:
+		release.countDown()
+
+		then:
+		done.await(5, TimeUnit.SECONDS)
+		maxRunning.get() == 2
+		service.metrics.invocationCount == 6
+	}
+
+	@Timeout(10)
+	def "releases the permit when the action throws"() {
+		given:
+		def service = newService(1)
+		def ownerId = ExternalProcessService.newOwnerId()
+		def failure = new RuntimeException('process failed')
+
+		when:
+		service.run(ownerId, 'failing') { throw failure }
+
+		then:
+		def ex = thrown(RuntimeException)
+		ex.is(failure)
+
+		when:
+		def ran = executor.submit {
+			service.run(ownerId, 'next') {}
+		}
+		ran.get(5, TimeUnit.SECONDS)
+
+		then:
+		noExceptionThrown()
+		service.metrics.invocationCount == 2
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.core.exec
+
+import org.gradle.workers.WorkQueue
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.util.concurrent.atomic.AtomicLong
+
+@Subject(GradleWorkerExecutorEngine.Handle)
+class GradleWorkerExecutorEngineHandleTest extends Specification {
+	private static final AtomicLong NEXT_ID = new AtomicLong(Long.MIN_VALUE)
+	def workQueue = Mock(WorkQueue)
+	def invocationId = NEXT_ID.incrementAndGet()
+	def subject = new GradleWorkerExecutorEngine.Handle(workQueue, invocationId)
+
+	def "completes when the invocation succeeds"() {
+		given:
+		workQueue.await() >> { GradleWorkerExecutorEngine.complete(invocationId, null) }
+
+		when:
+		subject.await()
+
+		then:
+		noExceptionThrown()
+		!GradleWorkerExecutorEngine.isPending(invocationId)
+	}
+
+	def "rethrows the invocation failure"() {
+		given:
+		def failure = new ExecException('tool failed')
+		workQueue.await() >> {
+			GradleWorkerExecutorEngine.complete(invocationId, failure)
+			throw new RuntimeException('queue failed')
+		}
+
+		when:
+		subject.await()
+
+		then:
+		def ex = thrown(ExecException)
+		ex.is(failure)
+	}
+
+	def "ignores failures of other invocations of the queue"() {
+		given:
+		workQueue.await() >> {
+			GradleWorkerExecutorEngine.complete(invocationId, null)
+			throw new RuntimeException('other invocation failed')
+		}
+
+		when:
+		subject.await()
+
+		then:
+		noExceptionThrown()
+	}
+
+	def "rethrows the queue failure when the invocation never ran"() {
+		given:
+		def failure = new RuntimeException('could not create work action')
+		workQueue.await() >> { throw failure }
+
+		when:
+		subject.await()
+
+		then:
+		def ex = thrown(RuntimeException)
+		ex.is(failure)
+		!GradleWorkerExecutorEngine.isPending(invocationId)
+	}
+
+	def "fails instead of waiting when the queue completes without running the invocation"() {
+		when:
+		subject.await()
+
+		then:
+		thrown(IllegalStateException)
+		!GradleWorkerExecutorEngine.isPending(invocationId)
+	}
+}
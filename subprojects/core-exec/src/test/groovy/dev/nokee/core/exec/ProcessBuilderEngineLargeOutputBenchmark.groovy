@@ -0,0 +1,65 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.core.exec
+
+import spock.lang.IgnoreIf
+import spock.lang.Requires
+import spock.lang.Specification
+import spock.util.environment.OperatingSystem
+
+import java.util.concurrent.atomic.AtomicLong
+
+import static dev.nokee.core.exec.CommandLineToolInvocationStandardOutputRedirect.forwardLinesTo
+
+/**
+ * Run with {@code -Dnokee.benchmark=true}, it spawns a process writing 1 GB to the standard output.
+ */
+@IgnoreIf({OperatingSystem.current.windows})
+@Requires({ Boolean.getBoolean('nokee.benchmark') })
+class ProcessBuilderEngineLargeOutputBenchmark extends Specification {
+	static final long ONE_GIGABYTE = 1024L * 1024 * 1024
+	static final int LINE_LENGTH = 128
+
+	def "captures 1 GB of output with bounded heap"() {
+		given:
+		def lineCount = new AtomicLong()
+		def peakUsedMemory = new AtomicLong()
+		def runtime = Runtime.runtime
+		System.gc()
+		def usedMemoryBefore = runtime.totalMemory() - runtime.freeMemory()
+
+		when:
+		def startTime = System.nanoTime()
+		def result = CommandLine.of('bash', '-c', "yes '${'x' * (LINE_LENGTH - 1)}' | head -c ${ONE_GIGABYTE}")
+			.newInvocation()
+			.redirectStandardOutput(forwardLinesTo {
+				if (lineCount.incrementAndGet() % 100_000 == 0) {
+					peakUsedMemory.accumulateAndGet(runtime.totalMemory() - runtime.freeMemory(), { a, b -> Math.max(a, b) })
+				}
+			})
+			.buildAndSubmit(new ProcessBuilderEngine())
+			.waitFor()
+		def elapsedTime = (System.nanoTime() - startTime) / 1_000_000_000
+
+		then:
+		result.exitValue == 0
+		lineCount.get() == ONE_GIGABYTE / LINE_LENGTH
+
+		and:
+		println "Captured 1 GB in ${elapsedTime}s (${(ONE_GIGABYTE / (1024 * 1024)) / elapsedTime} MB/s), peak heap growth ${(peakUsedMemory.get() - usedMemoryBefore) / (1024 * 1024)} MB"
+		(peakUsedMemory.get() - usedMemoryBefore) < 256L * 1024 * 1024
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.core.exec.internal
+
+import spock.lang.Specification
+import spock.lang.Subject
+
+@Subject(LineForwardingOutputStream)
+class LineForwardingOutputStreamTest extends Specification {
+	def lines = []
+	def stream = new LineForwardingOutputStream({ lines.add(it) })
+
+	def "forwards each line as soon as it is terminated"() {
+		when:
+		stream.write('Hello, world!\nGoodbye, '.bytes)
+
+		then:
+		lines == ['Hello, world!']
+
+		when:
+		stream.write('world!\r\n'.bytes)
+
+		then:
+		lines == ['Hello, world!', 'Goodbye, world!']
+	}
+
+	def "forwards empty lines"() {
+		when:
+		stream.write('\n\nHey\n'.bytes)
+
+		then:
+		lines == ['', '', 'Hey']
+	}
+
+	def "can forward single bytes"() {
+		when:
+		'Hey\nOh\n'.bytes.each { stream.write(it as int) }
+
+		then:
+		lines == ['Hey', 'Oh']
+	}
+
+	def "forwards pending line on flush"() {
+		when:
+		stream.write('Hello, world!\nGoodbye'.bytes)
+		stream.flush()
+
+		then:
+		lines == ['Hello, world!', 'Goodbye']
+
+		when:
+		stream.flush()
+
+		then:
+		lines == ['Hello, world!', 'Goodbye']
+	}
+}
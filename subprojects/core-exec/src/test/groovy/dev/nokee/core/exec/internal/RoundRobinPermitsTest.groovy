@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.core.exec.internal
+
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.TimeUnit
+
+@Subject(RoundRobinPermits)
+class RoundRobinPermitsTest extends Specification {
+	def "acquires available permits without waiting"() {
+		given:
+		def permits = new RoundRobinPermits(2)
+
+		when:
+		permits.acquire('a')
+		permits.acquire('b')
+
+		then:
+		permits.availablePermits == 0
+
+		when:
+		permits.release()
+
+		then:
+		permits.availablePermits == 1
+	}
+
+	def "serves waiting owners round-robin"() {
+		given:
+		def permits = new RoundRobinPermits(1)
+		def order = new CopyOnWriteArrayList<String>()
+		permits.acquire('holder')
+
+		when:
+		def threads = ['A1', 'A2', 'A3', 'B1', 'B2', 'C1'].collect { request ->
+			def thread = Thread.start {
+				permits.acquire(request.take(1))
+				order.add(request)
+				permits.release()
+			}
+			waitUntilWaiting(thread)
+			thread
+		}
+		permits.release()
+		threads*.join(TimeUnit.SECONDS.toMillis(5))
+
+		then:
+		order == ['A1', 'B1', 'C1', 'A2', 'B2', 'A3']
+		permits.availablePermits == 1
+	}
+
+	def "returns the permit when interrupted while waiting"() {
+		given:
+		def permits = new RoundRobinPermits(1)
+		def interrupted = false
+		permits.acquire('holder')
+
+		when:
+		def thread = Thread.start {
+			try {
+				permits.acquire('waiter')
+			} catch (InterruptedException ignored) {
+				interrupted = true
+			}
+		}
+		waitUntilWaiting(thread)
+		thread.interrupt()
+		thread.join(TimeUnit.SECONDS.toMillis(5))
+		permits.release()
+
+		then:
+		interrupted
+		permits.availablePermits == 1
+	}
+
+	def "throws exception for non-positive permits"() {
+		when:
+		new RoundRobinPermits(0)
+
+		then:
+		def ex = thrown(IllegalArgumentException)
+		ex.message == 'Permits must be at least 1, but was 0.'
+	}
+
+	private static void waitUntilWaiting(Thread thread) {
+		while (thread.state != Thread.State.WAITING) {
+			Thread.sleep(1)
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.core.exec.internal
+
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.nio.charset.Charset
+
+@Subject(SpillableOutputBuffer)
+class SpillableOutputBufferTest extends Specification {
+	def "keeps output in memory below the threshold"() {
+		given:
+		def buffer = new SpillableOutputBuffer(16)
+
+		when:
+		write(buffer, 'Hello, world!')
+
+		then:
+		!buffer.spilled
+		buffer.readString(0, 13) == 'Hello, world!'
+	}
+
+	def "can read spilled output once closed"() {
+		given:
+		def buffer = new SpillableOutputBuffer(4)
+
+		when:
+		write(buffer, 'Hello, world!')
+		buffer.close()
+
+		then:
+		buffer.spilled
+		buffer.readString(0, 13) == 'Hello, world!'
+		buffer.readString(7, 12) == 'world'
+	}
+
+	def "rejects writes once closed"() {
+		given:
+		def buffer = new SpillableOutputBuffer(4)
+		buffer.close()
+
+		when:
+		buffer.write(97)
+
+		then:
+		thrown(IllegalStateException)
+	}
+
+	def "deletes spill file once the buffer is unreachable and another buffer closes"() {
+		given:
+		def file = newSpilledBuffer()
+
+		expect:
+		file.exists()
+		waitUntilDeleted(file)
+	}
+
+	def "deletes spill files of reachable buffers at the end of the build"() {
+		given:
+		def buffer = new SpillableOutputBuffer(4)
+		write(buffer, 'Hello, world!')
+		buffer.close()
+
+		expect:
+		buffer.spillFile.exists()
+
+		when:
+		SpillableOutputBuffer.deleteSpillFiles()
+
+		then:
+		!buffer.spillFile.exists()
+	}
+
+	// The buffer must not be referenced by the feature method, so it can be collected
+	private static File newSpilledBuffer() {
+		def buffer = new SpillableOutputBuffer(4)
+		write(buffer, 'Hello, world!')
+		buffer.close()
+		return buffer.spillFile
+	}
+
+	private static boolean waitUntilDeleted(File file) {
+		for (int i = 0; i < 100 && file.exists(); ++i) {
+			System.gc()
+			Thread.sleep(100)
+			new SpillableOutputBuffer(4).close() // drains the unreachable spill files
+		}
+		return !file.exists()
+	}
+
+	private static void write(SpillableOutputBuffer buffer, String s) {
+		def bytes = s.getBytes(Charset.defaultCharset())
+		buffer.write(bytes, 0, bytes.length)
+	}
+}
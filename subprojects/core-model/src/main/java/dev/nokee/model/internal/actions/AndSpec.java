@@ -34,6 +34,10 @@ final class AndSpec implements Spec<DomainObjectIdentity>, ModelSpec {
 		this.specs = specs;
 	}
 
+	public Set<ModelSpec> getSpecs() {
+		return specs;
+	}
+
 	@Override
 	public ModelSpec and(ModelSpec other) {
 		return new AndSpec(consolidate(this, other));
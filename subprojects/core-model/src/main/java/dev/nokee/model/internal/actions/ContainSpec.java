@@ -26,6 +26,10 @@ final class ContainSpec implements ModelSpec, Spec<DomainObjectIdentity> {
 		this.value = value;
 	}
 
+	public Object get() {
+		return value;
+	}
+
 	@Override
 	public boolean isSatisfiedBy(DomainObjectIdentity identity) {
 		return identity.getAll(value.getClass()).contains(value);
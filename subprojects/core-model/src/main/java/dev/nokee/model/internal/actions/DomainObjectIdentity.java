@@ -22,6 +22,7 @@ import com.google.common.collect.MultimapBuilder;
 import com.google.common.collect.SetMultimap;
 import lombok.val;
 
+import java.util.Collection;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -63,6 +64,15 @@ final class DomainObjectIdentity {
 		return value;
 	}
 
+	/**
+	 * Returns all identity entries regardless of their type.
+	 *
+	 * @return all identity entries, never null
+	 */
+	public Collection<Object> getAll() {
+		return values.values();
+	}
+
 	public <T> DomainObjectIdentity with(T value) {
 		Objects.requireNonNull(value);
 		if (value instanceof Iterable) {
@@ -92,6 +102,71 @@ final class DomainObjectIdentity {
 		return new DomainObjectIdentity(result);
 	}
 
+	/**
+	 * Returns true if this identity has the specified entry.
+	 *
+	 * @param value  the entry to check, must not be null
+	 * @return {@code true} if this identity has the entry or {@code false} otherwise
+	 */
+	public boolean contains(Object value) {
+		Objects.requireNonNull(value);
+		return values.containsEntry(value.getClass(), value);
+	}
+
+	/**
+	 * Returns a builder starting from the entries of this identity.
+	 * Use the builder to apply multiple changes while copying the entries only once.
+	 *
+	 * @return a builder of identity, never null
+	 */
+	public Builder toBuilder() {
+		return new Builder(values);
+	}
+
+	/**
+	 * Returns a builder starting from an empty identity.
+	 *
+	 * @return a builder of identity, never null
+	 */
+	public static Builder builder() {
+		return EMPTY.toBuilder();
+	}
+
+	public static final class Builder {
+		private final SetMultimap<Class<?>, Object> values;
+
+		private Builder(SetMultimap<Class<?>, Object> values) {
+			this.values = MultimapBuilder.hashKeys().hashSetValues().build(values);
+		}
+
+		public Builder with(Object value) {
+			Objects.requireNonNull(value);
+			if (value instanceof Iterable) {
+				return with((Iterable<?>) value);
+			}
+			values.replaceValues(value.getClass(), ImmutableSet.of(value));
+			return this;
+		}
+
+		public Builder with(Iterable<?> value) {
+			Objects.requireNonNull(value);
+			if (!Iterables.isEmpty(value)) {
+				values.replaceValues(Iterables.getFirst(value, null).getClass(), value);
+			}
+			return this;
+		}
+
+		public Builder plus(Object value) {
+			Objects.requireNonNull(value);
+			values.put(value.getClass(), value);
+			return this;
+		}
+
+		public DomainObjectIdentity build() {
+			return new DomainObjectIdentity(values);
+		}
+	}
+
 	@Override
 	public String toString() {
 		return values.toString();
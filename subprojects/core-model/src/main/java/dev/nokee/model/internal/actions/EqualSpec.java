@@ -26,6 +26,10 @@ final class EqualSpec implements ModelSpec, Spec<DomainObjectIdentity> {
 		this.value = value;
 	}
 
+	public Object get() {
+		return value;
+	}
+
 	@Override
 	public boolean isSatisfiedBy(DomainObjectIdentity element) {
 		return element.get(value.getClass()).map(value::equals).orElse(false);
@@ -15,17 +15,18 @@
  */
 package dev.nokee.model.internal.actions;
 
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import dev.nokee.model.internal.core.ModelAction;
 import dev.nokee.model.internal.core.ModelActionWithInputs;
 import dev.nokee.model.internal.core.ModelComponent;
 import dev.nokee.model.internal.core.ModelComponentReference;
+import dev.nokee.model.internal.core.ModelComponentType;
 import dev.nokee.model.internal.core.ModelEntityId;
 import dev.nokee.model.internal.core.ModelNode;
 import dev.nokee.model.internal.core.ModelProjection;
 import dev.nokee.model.internal.core.ParentComponent;
+import dev.nokee.model.internal.registry.ModelConfigurationProfiler;
 import dev.nokee.model.internal.registry.ModelConfigurer;
 import dev.nokee.model.internal.state.ModelState;
 import dev.nokee.model.internal.tags.ModelComponentTag;
@@ -36,11 +37,9 @@ import org.gradle.api.plugins.ExtensionAware;
 import org.gradle.api.plugins.PluginAware;
 import org.gradle.api.specs.Spec;
 
-import java.util.ArrayList;
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -50,13 +49,24 @@ import static dev.nokee.model.internal.core.ModelComponentType.componentOf;
 
 @SuppressWarnings("unchecked")
 public final class ModelActionSystem<T extends ExtensionAware & PluginAware> implements Plugin<T> {
+	private static final ModelComponentType<ActionSelectorComponent> SELECTOR_COMPONENT_TYPE = componentOf(ActionSelectorComponent.class);
+	private static final ModelComponentType<ModelSpecComponent> SPEC_COMPONENT_TYPE = componentOf(ModelSpecComponent.class);
+	private static final ModelComponentType<ModelActionComponent> ACTION_COMPONENT_TYPE = componentOf(ModelActionComponent.class);
+	private static final ModelComponentType<ExecutedActionComponent> EXECUTED_ACTION_COMPONENT_TYPE = componentOf(ExecutedActionComponent.class);
+	private static final ModelComponentType<ParentComponent> PARENT_COMPONENT_TYPE = componentOf(ParentComponent.class);
+	private static final ModelComponentType<ModelState> STATE_COMPONENT_TYPE = componentOf(ModelState.class);
 	private final ReentrantAvoidance reentrant = new ReentrantAvoidance();
-	private final List<ModelNode> allActionEntities = new ArrayList<>();
-	private final List<ModelNode> allConfigurableEntities = new ArrayList<>();
+	private final SelectorIndex<ModelNode> allActionEntities = new SelectorIndex<>();
+	private final SelectorIndex<ModelNode> allConfigurableEntities = new SelectorIndex<>();
+	private ModelConfigurationProfiler profiler = ModelConfigurationProfiler.disabled();
 
 	@Override
 	public void apply(T target) {
 		val configurer = target.getExtensions().getByType(ModelConfigurer.class);
+		val profiler = target.getExtensions().findByType(ModelConfigurationProfiler.class);
+		if (profiler != null) {
+			this.profiler = profiler;
+		}
 
 		// Rules to execute actions
 		configurer.configure(ModelActionWithInputs.of(ModelTags.referenceOf(ModelActionTag.class), this::trackActions));
@@ -65,27 +75,36 @@ public final class ModelActionSystem<T extends ExtensionAware & PluginAware> imp
 		configurer.configure(ModelActionWithInputs.of(ModelComponentReference.of(ModelSpecComponent.class), ModelComponentReference.of(ModelActionComponent.class), this::onActionAdded));
 
 		// Rules to keep identity up-to-date
+		//   The first rule publishes the whole identity when the entity becomes configurable, the other rules skip what it already covers
+		configurer.configure(ModelActionWithInputs.of(ModelTags.referenceOf(ConfigurableTag.class), this::updateSelectorForSelf));
 		configurer.configure(ModelActionWithInputs.of(ModelTags.referenceOf(ConfigurableTag.class), ModelComponentReference.of(ModelProjection.class), this::updateSelectorForProjection));
 		configurer.configure(ModelActionWithInputs.of(ModelTags.referenceOf(ConfigurableTag.class), ModelComponentReference.of(ParentComponent.class), this::updateSelectorForParent));
 		configurer.configure(ModelActionWithInputs.of(ModelTags.referenceOf(ConfigurableTag.class), ModelComponentReference.of(ModelState.class), this::updateSelectorForState));
-		configurer.configure(ModelActionWithInputs.of(ModelTags.referenceOf(ConfigurableTag.class), ModelComponentReference.of(ParentComponent.class), this::updateSelectorForAncestors));
-		configurer.configure(ModelActionWithInputs.of(ModelTags.referenceOf(ConfigurableTag.class), this::updateSelectorForSelf));
 	}
 
 	// ComponentFromEntity<MatchingSpecificationComponent> (readonly) all
 	// ComponentFromEntity<ActionComponent> (readonly) all
 	// ComponentFromEntity<ExecutedActionComponent> (read-write) self
 	private void onIdentityChanged(ModelNode entity, ActionSelectorComponent component) {
-		allActions(reentrant.andDeferredActions(entity, filter(actionMatching(component),
+		val keys = SelectorKey.keysOf(component.get());
+		if (allConfigurableEntities.contains(entity)) {
+			allConfigurableEntities.put(entity, keys);
+		}
+
+		allActions(keys, reentrant.andDeferredActions(entity, filter(actionMatching(component),
 			whileIgnoringExecuted(entity, executeAction(entity)))));
 	}
 
-	private static Consumer<ModelNode> executeAction(ModelNode entity) {
-		return it -> it.getComponent(componentOf(ModelActionComponent.class)).get().execute(entity);
+	private Consumer<ModelNode> executeAction(ModelNode entity) {
+		return it -> {
+			val action = it.getComponent(ACTION_COMPONENT_TYPE).get();
+			profiler.execute(action, entity, action::execute);
+		};
 	}
 
-	private void allActions(Consumer<? super Iterable<ModelNode>> action) {
-		action.accept(ImmutableList.copyOf(allActionEntities));
+	// Only actions keyed by one of the identity keys, or actions that can't be keyed, can match the identity
+	private void allActions(Set<SelectorKey> identityKeys, Consumer<? super Iterable<ModelNode>> action) {
+		action.accept(allActionEntities.getAny(identityKeys));
 	}
 
 	private static Consumer<Iterable<ModelNode>> filter(Predicate<? super ModelNode> filter, Consumer<? super Iterable<ModelNode>> action) {
@@ -121,92 +140,128 @@ public final class ModelActionSystem<T extends ExtensionAware & PluginAware> imp
 	}
 
 	private static Set<ModelEntityId> executedActions(ModelNode entity) {
-		return entity.find(ExecutedActionComponent.class).map(ExecutedActionComponent::get).orElse(Collections.emptySet());
+		val executedActions = entity.getComponentOrNull(EXECUTED_ACTION_COMPONENT_TYPE);
+		return executedActions == null ? Collections.emptySet() : executedActions.get();
 	}
 	//endregion
 
 	private static Predicate<ModelNode> actionMatching(ActionSelectorComponent component) {
 		return it -> {
-			val identity = it.findComponent(componentOf(ModelSpecComponent.class));
-			return identity.map(actionIdentityComponent -> ((Spec<DomainObjectIdentity>) actionIdentityComponent.get()).isSatisfiedBy(component.get())).orElse(false);
+			val identity = it.getComponentOrNull(SPEC_COMPONENT_TYPE);
+			return identity != null && ((Spec<DomainObjectIdentity>) identity.get()).isSatisfiedBy(component.get());
 		};
 	}
 
 	private void trackActions(ModelNode entity, ModelComponentTag<ModelActionTag> tag) {
-		allActionEntities.add(entity);
+		val spec = entity.getComponentOrNull(SPEC_COMPONENT_TYPE);
+		val key = spec == null ? null : SelectorKey.keyOf(spec.get());
+		allActionEntities.put(entity, key == null ? Collections.emptySet() : Collections.singleton(key));
 	}
 
 	private void trackConfigurableEntities(ModelNode entity, ModelComponentTag<ConfigurableTag> tag) {
-		allConfigurableEntities.add(entity);
+		val selector = entity.getComponentOrNull(SELECTOR_COMPONENT_TYPE);
+		allConfigurableEntities.put(entity, selector == null ? Collections.emptySet() : SelectorKey.keysOf(selector.get()));
 	}
 
 	// ComponentFromEntity<ActionSelectorComponent> read-write self
 	private void updateSelectorForState(ModelNode entity, ModelComponentTag<ConfigurableTag> tag, ModelState state) {
-		entity.addComponent(new ActionSelectorComponent(entity.findComponent(componentOf(ActionSelectorComponent.class))
-			.map(ActionSelectorComponent::get)
-			.map(it -> it.with(state))
-			.orElseGet(() -> DomainObjectIdentity.of(state))));
+		val selector = entity.getComponentOrNull(SELECTOR_COMPONENT_TYPE);
+		if (selector == null || !selector.get().contains(state)) {
+			entity.addComponent(new ActionSelectorComponent(selector == null ? DomainObjectIdentity.of(state) : selector.get().with(state)));
+		}
 	}
 
+	// ComponentFromEntity<ParentComponent> read-only all
+	// ComponentFromEntity<ActionSelectorComponent> read-only all
 	// ComponentFromEntity<ActionSelectorComponent> read-write self
 	private void updateSelectorForParent(ModelNode entity, ModelComponentTag<ConfigurableTag> tag, ParentComponent parent) {
-		entity.addComponent(new ActionSelectorComponent(entity.findComponent(componentOf(ActionSelectorComponent.class))
-			.map(ActionSelectorComponent::get)
-			.map(it -> it.with(new ParentRef(parent.get().getId())))
-			.orElseGet(() -> DomainObjectIdentity.of(new ParentRef(parent.get().getId())))));
+		val selector = entity.getComponentOrNull(SELECTOR_COMPONENT_TYPE);
+		val parentRef = new ParentRef(parent.get().getId());
+		if (selector == null || !selector.get().contains(parentRef)) {
+			val builder = selector == null ? DomainObjectIdentity.builder() : selector.get().toBuilder();
+			entity.addComponent(new ActionSelectorComponent(builder.with(parentRef).with(ancestorsOf(parent)).build()));
+		}
 	}
 
 	// ComponentFromEntity<ActionSelectorComponent> read-write self
 	private void updateSelectorForProjection(ModelNode entity, ModelComponentTag<ConfigurableTag> tag, ModelProjection projection) {
-		entity.addComponent(new ActionSelectorComponent(entity.findComponent(componentOf(ActionSelectorComponent.class))
-			.map(ActionSelectorComponent::get)
-			.map(it -> it.plus(projection.getType()))
-			.orElseGet(() -> DomainObjectIdentity.of(projection.getType()))));
+		val selector = entity.getComponentOrNull(SELECTOR_COMPONENT_TYPE);
+		if (selector == null || !selector.get().contains(projection.getType())) {
+			entity.addComponent(new ActionSelectorComponent(selector == null ? DomainObjectIdentity.of(projection.getType()) : selector.get().plus(projection.getType())));
+		}
 	}
 
 	// ComponentFromEntity<ParentComponent> read-only all
+	// ComponentFromEntity<ActionSelectorComponent> read-only all
 	// ComponentFromEntity<ActionSelectorComponent> read-write self
-	private void updateSelectorForAncestors(ModelNode entity, ModelComponentTag<ConfigurableTag> tag, ParentComponent parent) {
-		val ancestors = ImmutableSet.<AncestorRef>builder();
-		Optional<ParentComponent> parentComponent = Optional.of(parent);
-		while(parentComponent.isPresent()) {
-			ancestors.add(new AncestorRef(parentComponent.get().get().getId()));
-			parentComponent = parentComponent.flatMap(it -> it.get().findComponent(componentOf(ParentComponent.class)));
+	private void updateSelectorForSelf(ModelNode entity, ModelComponentTag<ConfigurableTag> tag) {
+		val selector = entity.getComponentOrNull(SELECTOR_COMPONENT_TYPE);
+		val builder = selector == null ? DomainObjectIdentity.builder() : selector.get().toBuilder();
+		builder.with(new SelfRef(entity.getId()));
+
+		val state = entity.getComponentOrNull(STATE_COMPONENT_TYPE);
+		if (state != null) {
+			builder.with(state);
+		}
+
+		val parent = entity.getComponentOrNull(PARENT_COMPONENT_TYPE);
+		if (parent != null) {
+			builder.with(new ParentRef(parent.get().getId())).with(ancestorsOf(parent));
 		}
 
-		entity.addComponent(new ActionSelectorComponent(entity.findComponent(componentOf(ActionSelectorComponent.class))
-			.map(ActionSelectorComponent::get)
-			.map(it -> it.with(ancestors.build()))
-			.orElseGet(() -> DomainObjectIdentity.of(ancestors.build()))));
+		entity.getComponents().forEach(it -> {
+			if (it instanceof ModelProjection) {
+				builder.plus(((ModelProjection) it).getType());
+			}
+		});
+
+		entity.addComponent(new ActionSelectorComponent(builder.build()));
 	}
 
-	// ComponentFromEntity<ActionSelectorComponent> read-write self
-	private void updateSelectorForSelf(ModelNode entity, ModelComponentTag<ConfigurableTag> tag) {
-		entity.addComponent(new ActionSelectorComponent(entity.findComponent(componentOf(ActionSelectorComponent.class))
-			.map(ActionSelectorComponent::get)
-			.map(it -> it.with(new SelfRef(entity.getId())))
-			.orElseGet(() -> DomainObjectIdentity.of(new SelfRef(entity.getId())))));
+	// The parent's selector already holds its ancestors, so only orphan configurable parents requires walking the hierarchy
+	private static Set<AncestorRef> ancestorsOf(ParentComponent parent) {
+		val result = ImmutableSet.<AncestorRef>builder().add(new AncestorRef(parent.get().getId()));
+		val grandParent = parent.get().getComponentOrNull(PARENT_COMPONENT_TYPE);
+		if (grandParent != null) {
+			val parentSelector = parent.get().getComponentOrNull(SELECTOR_COMPONENT_TYPE);
+			val parentAncestors = parentSelector == null ? Collections.<AncestorRef>emptySet() : parentSelector.get().getAll(AncestorRef.class);
+			if (parentAncestors.isEmpty()) {
+				ParentComponent parentComponent = grandParent;
+				while (parentComponent != null) {
+					result.add(new AncestorRef(parentComponent.get().getId()));
+					parentComponent = parentComponent.get().getComponentOrNull(PARENT_COMPONENT_TYPE);
+				}
+			} else {
+				result.addAll(parentAncestors);
+			}
+		}
+		return result.build();
 	}
 
 	// ComponentFromEntity<ActionSelectorComponent> (readonly) all
 	// ComponentFromEntity<ExecutedActionComponent> (read-write) all
 	private void onActionAdded(ModelNode entity, ModelSpecComponent identity, ModelActionComponent component) {
-		allEntities(filter(onlyMatching(identity),
+		allEntities(SelectorKey.keyOf(identity.get()), filter(onlyMatching(identity),
 			it -> it.forEach(reentrant.ifPossible(entity, updateExecutedAfter(entity, executeAction(component))))));
 	}
 
-	private static Consumer<ModelNode> executeAction(ModelActionComponent component) {
-		return it -> component.get().execute(it);
+	private Consumer<ModelNode> executeAction(ModelActionComponent component) {
+		return it -> profiler.execute(component.get(), it, component.get()::execute);
 	}
 
-	private void allEntities(Consumer<? super Iterable<ModelNode>> action) {
-		action.accept(ImmutableList.copyOf(allConfigurableEntities));
+	// Only entities with the spec key can match the spec, opaque specs needs to look at all entities
+	private void allEntities(@Nullable SelectorKey specKey, Consumer<? super Iterable<ModelNode>> action) {
+		if (specKey == null) {
+			action.accept(allConfigurableEntities.getAll());
+		} else {
+			action.accept(allConfigurableEntities.get(specKey));
+		}
 	}
 
 	private static Predicate<ModelNode> onlyMatching(ModelSpecComponent component) {
 		return entity -> {
-			val selector = entity.findComponent(componentOf(ActionSelectorComponent.class));
-			return selector.map(t -> ((Spec<DomainObjectIdentity>) component.get()).isSatisfiedBy(t.get())).orElse(false);
+			val selector = entity.getComponentOrNull(SELECTOR_COMPONENT_TYPE);
+			return selector != null && ((Spec<DomainObjectIdentity>) component.get()).isSatisfiedBy(selector.get());
 		};
 	}
 
@@ -215,10 +270,8 @@ public final class ModelActionSystem<T extends ExtensionAware & PluginAware> imp
 		return ModelActionWithInputs.of(ModelTags.referenceOf(ConfigurableTag.class), ModelComponentReference.of(componentType), new ModelActionWithInputs.A2<ModelComponentTag<ConfigurableTag>, T>() {
 			@Override
 			public void execute(ModelNode entity, ModelComponentTag<ConfigurableTag> tag, T component) {
-				entity.addComponent(new ActionSelectorComponent(entity.findComponent(componentOf(ActionSelectorComponent.class))
-					.map(ActionSelectorComponent::get)
-					.map(it -> it.with(valueOf(component)))
-					.orElseGet(() -> DomainObjectIdentity.of(valueOf(component)))));
+				val selector = entity.getComponentOrNull(SELECTOR_COMPONENT_TYPE);
+				entity.addComponent(new ActionSelectorComponent(selector == null ? DomainObjectIdentity.of(valueOf(component)) : selector.get().with(valueOf(component))));
 			}
 
 			private Object valueOf(T component) {
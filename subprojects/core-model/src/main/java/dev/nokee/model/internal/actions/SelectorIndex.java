@@ -0,0 +1,137 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.model.internal.actions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index elements by {@link SelectorKey} while preserving their insertion order.
+ * Elements without keys are only returned when looking up multiple keys or all elements.
+ *
+ * @param <T>  the indexed element type
+ */
+final class SelectorIndex<T> {
+	private final Map<T, Entry<T>> entries = new HashMap<>();
+	private final List<Entry<T>> allEntries = new ArrayList<>();
+	private final Map<SelectorKey, Set<Entry<T>>> entriesByKey = new HashMap<>();
+	private final Set<Entry<T>> unkeyedEntries = new LinkedHashSet<>();
+
+	/**
+	 * Adds or re-keys the specified element.
+	 * A re-keyed element keeps its original insertion order.
+	 *
+	 * @param element  the element to index, must not be null
+	 * @param keys  the element's keys, must not be null
+	 */
+	public void put(T element, Collection<SelectorKey> keys) {
+		Entry<T> entry = entries.get(element);
+		if (entry == null) {
+			entry = new Entry<>(element, allEntries.size());
+			entries.put(element, entry);
+			allEntries.add(entry);
+		} else {
+			for (SelectorKey key : entry.keys) {
+				entriesByKey.get(key).remove(entry);
+			}
+			unkeyedEntries.remove(entry);
+		}
+
+		entry.keys = keys;
+		if (keys.isEmpty()) {
+			unkeyedEntries.add(entry);
+		} else {
+			for (SelectorKey key : keys) {
+				entriesByKey.computeIfAbsent(key, __ -> new LinkedHashSet<>()).add(entry);
+			}
+		}
+	}
+
+	/**
+	 * Returns true if the specified element was indexed.
+	 *
+	 * @param element  the element to check
+	 * @return {@code true} if the element is indexed or {@code false} otherwise
+	 */
+	public boolean contains(T element) {
+		return entries.containsKey(element);
+	}
+
+	/**
+	 * Returns all elements in insertion order.
+	 *
+	 * @return all elements, never null
+	 */
+	public List<T> getAll() {
+		final List<T> result = new ArrayList<>(allEntries.size());
+		for (Entry<T> entry : allEntries) {
+			result.add(entry.element);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns all elements having the specified key in insertion order.
+	 *
+	 * @param key  the key to look up, must not be null
+	 * @return the matching elements, never null
+	 */
+	public List<T> get(SelectorKey key) {
+		return sorted(entriesByKey.getOrDefault(key, Collections.emptySet()));
+	}
+
+	/**
+	 * Returns all elements having any of the specified keys, including unkeyed elements, in insertion order.
+	 *
+	 * @param keys  the keys to look up, must not be null
+	 * @return the matching elements, never null
+	 */
+	public List<T> getAny(Collection<SelectorKey> keys) {
+		final Set<Entry<T>> result = new LinkedHashSet<>(unkeyedEntries);
+		for (SelectorKey key : keys) {
+			result.addAll(entriesByKey.getOrDefault(key, Collections.emptySet()));
+		}
+		return sorted(result);
+	}
+
+	private List<T> sorted(Collection<Entry<T>> entries) {
+		final List<Entry<T>> sortedEntries = new ArrayList<>(entries);
+		sortedEntries.sort(Comparator.comparingInt(it -> it.ordinal));
+		final List<T> result = new ArrayList<>(sortedEntries.size());
+		for (Entry<T> entry : sortedEntries) {
+			result.add(entry.element);
+		}
+		return result;
+	}
+
+	private static final class Entry<T> {
+		private final T element;
+		private final int ordinal;
+		private Collection<SelectorKey> keys = Collections.emptySet();
+
+		private Entry(T element, int ordinal) {
+			this.element = element;
+			this.ordinal = ordinal;
+		}
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.model.internal.actions;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.reflect.TypeToken;
+import dev.nokee.model.internal.state.ModelState;
+import dev.nokee.model.internal.type.ModelType;
+import lombok.EqualsAndHashCode;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.ParameterizedType;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Represent a facet of a {@link DomainObjectIdentity} that can be looked up by key.
+ * An identity has a key for each of its entries, each raw type its types are subtype of and each state it is at least.
+ * A spec has at most one key that any satisfying identity must have.
+ */
+@EqualsAndHashCode
+final class SelectorKey {
+	private static final ClassValue<Set<Class<?>>> RAW_TYPE_HIERARCHY = new ClassValue<Set<Class<?>>>() {
+		@Override
+		@SuppressWarnings("UnstableApiUsage")
+		protected Set<Class<?>> computeValue(Class<?> type) {
+			// Interfaces don't extend Object, yet Object is a supertype of every types
+			return ImmutableSet.<Class<?>>builder().addAll(TypeToken.of(type).getTypes().rawTypes()).add(Object.class).build();
+		}
+	};
+	private final Kind kind;
+	private final Object value;
+
+	private SelectorKey(Kind kind, Object value) {
+		this.kind = kind;
+		this.value = value;
+	}
+
+	private enum Kind {
+		Value, SubtypeOf, StateAtLeast
+	}
+
+	/**
+	 * Returns all keys of the specified identity.
+	 *
+	 * @param identity  the identity to compute the keys, must not be null
+	 * @return the keys of the identity, never null
+	 */
+	public static Set<SelectorKey> keysOf(DomainObjectIdentity identity) {
+		final Set<SelectorKey> result = new LinkedHashSet<>();
+		for (Object value : identity.getAll()) {
+			result.add(new SelectorKey(Kind.Value, value));
+			if (value instanceof ModelType) {
+				for (Class<?> rawType : RAW_TYPE_HIERARCHY.get(((ModelType<?>) value).getRawType())) {
+					result.add(new SelectorKey(Kind.SubtypeOf, rawType));
+				}
+			} else if (value instanceof ModelState) {
+				for (ModelState state : ModelState.values()) {
+					if (((ModelState) value).isAtLeast(state)) {
+						result.add(new SelectorKey(Kind.StateAtLeast, state));
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the key any identity satisfying the specified spec must have.
+	 * Entry keys are preferred as they are the most selective, followed by type and state keys.
+	 *
+	 * @param spec  the spec to compute the key, must not be null
+	 * @return the key of the spec or null if the spec cannot be keyed
+	 */
+	@Nullable
+	public static SelectorKey keyOf(ModelSpec spec) {
+		if (spec instanceof EqualSpec) {
+			return new SelectorKey(Kind.Value, ((EqualSpec) spec).get());
+		} else if (spec instanceof ContainSpec) {
+			return new SelectorKey(Kind.Value, ((ContainSpec) spec).get());
+		} else if (spec instanceof WithTypeSpec) {
+			final ModelType<?> type = ((WithTypeSpec) spec).getType();
+			// Only class and parameterized type have a raw type all subtypes are assignable to
+			if (type.getType() instanceof Class || type.getType() instanceof ParameterizedType) {
+				return new SelectorKey(Kind.SubtypeOf, type.getRawType());
+			}
+		} else if (spec instanceof StateAtLeastSpec) {
+			return new SelectorKey(Kind.StateAtLeast, ((StateAtLeastSpec) spec).getState());
+		} else if (spec instanceof AndSpec) {
+			SelectorKey result = null;
+			for (ModelSpec it : ((AndSpec) spec).getSpecs()) {
+				final SelectorKey key = keyOf(it);
+				if (key != null && (result == null || key.kind.ordinal() < result.kind.ordinal())) {
+					result = key;
+				}
+			}
+			return result;
+		}
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return kind + "(" + value + ")";
+	}
+}
@@ -33,6 +33,10 @@ final class StateAtLeastSpec implements Spec<DomainObjectIdentity>, ModelSpec {
 		this.state = state;
 	}
 
+	public ModelState getState() {
+		return state;
+	}
+
 	@Override
 	public boolean isSatisfiedBy(DomainObjectIdentity identity) {
 		return identity.get(ModelState.class).map(it -> it.isAtLeast(state)).orElse(false);
@@ -38,6 +38,16 @@ public final class Ancestors implements Iterable<AncestorRef> {
 		return ancestors.iterator();
 	}
 
+	/**
+	 * Returns the ancestors of a child of the entity having these ancestors.
+	 *
+	 * @param parentRef  the reference to the entity having these ancestors, must not be null
+	 * @return the ancestors of the child entity, never null
+	 */
+	public Ancestors withParent(AncestorRef parentRef) {
+		return new Ancestors(ImmutableSet.<AncestorRef>builderWithExpectedSize(ancestors.size() + 1).add(parentRef).addAll(ancestors).build());
+	}
+
 	public static Ancestors of(AncestorRef firstRef, AncestorRef... otherRefs) {
 		return new Ancestors(ImmutableSet.<AncestorRef>builder().add(firstRef).add(otherRefs).build());
 	}
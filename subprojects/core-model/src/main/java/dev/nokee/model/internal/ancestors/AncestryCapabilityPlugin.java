@@ -22,6 +22,7 @@ import dev.nokee.model.internal.core.ModelNode;
 import dev.nokee.model.internal.core.ParentComponent;
 import dev.nokee.model.internal.core.ParentUtils;
 import dev.nokee.model.internal.registry.ModelConfigurer;
+import lombok.val;
 import org.gradle.api.Plugin;
 import org.gradle.api.plugins.ExtensionAware;
 import org.gradle.api.plugins.PluginAware;
@@ -32,7 +33,15 @@ public abstract class AncestryCapabilityPlugin<T extends ExtensionAware & Plugin
 		target.getExtensions().getByType(ModelConfigurer.class).configure(ModelActionWithInputs.of(ModelComponentReference.of(ParentComponent.class), AncestryCapabilityPlugin::calculateAncestorsFromParent));
 	}
 
+	// Reuse the parent's ancestors instead of walking the whole hierarchy for each entity
 	private static void calculateAncestorsFromParent(ModelNode entity, ParentComponent parent) {
-		entity.addComponent(new AncestorsComponent(new Ancestors(ParentUtils.stream(parent).map(AncestorRef::of).collect(ImmutableSet.toImmutableSet()))));
+		val parentAncestors = parent.get().getOrNull(AncestorsComponent.class);
+		if (parentAncestors != null) {
+			entity.addComponent(new AncestorsComponent(parentAncestors.get().withParent(AncestorRef.of(parent.get()))));
+		} else if (!parent.get().has(ParentComponent.class)) {
+			entity.addComponent(new AncestorsComponent(Ancestors.of(AncestorRef.of(parent.get()))));
+		} else {
+			entity.addComponent(new AncestorsComponent(new Ancestors(ParentUtils.stream(parent).map(AncestorRef::of).collect(ImmutableSet.toImmutableSet()))));
+		}
 	}
 }
@@ -16,6 +16,8 @@
 package dev.nokee.model.internal.core;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import lombok.val;
 
 import java.util.Arrays;
@@ -31,9 +33,11 @@ import static java.lang.System.arraycopy;
  */
 public final class Bits implements Iterable<Bit> {
 	private static final Bits EMPTY_BITS = new Bits();
+	private static final Interner<Bits> INTERNER = Interners.newWeakInterner();
 	private static final int bitsPerSegment = 64;
 
 	private final long[] bits;
+	private int hash = 0; // lazily computed, zero means not yet computed
 
 	private Bits() {
 		this.bits = new long[0];
@@ -66,6 +70,14 @@ public final class Bits implements Iterable<Bit> {
 	 */
 	public Bits and(Bits other) {
 		Objects.requireNonNull(other);
+
+		// Avoid allocation when the result is one of the operand
+		if (other.containsAll(this)) {
+			return this;
+		} else if (containsAll(other)) {
+			return other;
+		}
+
 		int commonWords = Math.min(bits.length, other.bits.length);
 		long[] newBits = new long[commonWords];
 		for (int i = 0; commonWords > i; i++) {
@@ -85,6 +97,19 @@ public final class Bits implements Iterable<Bit> {
 	 */
 	public Bits or(Bits other) {
 		Objects.requireNonNull(other);
+
+		// Avoid allocation when the result is one of the operand
+		if (containsAll(other)) {
+			return this;
+		} else if (other.containsAll(this)) {
+			return other;
+		}
+
+		// Shortcut on one word bitsets
+		if (bits.length == 1 && other.bits.length == 1) {
+			return new Bits(bits[0] | other.bits[0]);
+		}
+
 		long[] bits = this.bits;
 		long[] otherBits = other.bits;
 		int otherBitsLength = otherBits.length;
@@ -248,14 +273,33 @@ public final class Bits implements Iterable<Bit> {
 	 */
 	@Override
 	public int hashCode() {
-		final int word = length() / bitsPerSegment;
+		if (hash != 0) {
+			return hash;
+		}
+
+		// only hash the significant words so equal bit sets of different word count share the same hash
+		final int word = (length() + bitsPerSegment - 1) / bitsPerSegment;
 		int hash = 0;
-		for (int i = 0; i < word && word != 0; i++) {
+		for (int i = 0; i < word; i++) {
 			hash = 127 * hash + (int) (bits[i] ^ (bits[i] >>> 32));
 		}
+		this.hash = hash;
 		return hash;
 	}
 
+	/**
+	 * Returns a canonical representation of this bit set.
+	 * Equal bit sets, e.g. signatures of entities sharing the same components, share the same canonical instance.
+	 *
+	 * @return the canonical bit set equal to this bit set, never null
+	 */
+	public Bits intern() {
+		if (bits.length == 0) {
+			return EMPTY_BITS;
+		}
+		return INTERNER.intern(this);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -408,6 +452,98 @@ public final class Bits implements Iterable<Bit> {
 		}
 	}
 
+	/**
+	 * Creates a mutable bit set builder.
+	 * The builder stores two words inline, e.g. 128 bits, before growing.
+	 *
+	 * @return a new bit set builder, never null
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * A mutable bit set, modified in-place, to accumulate bits without allocating intermediate {@link Bits}.
+	 */
+	public static final class Builder {
+		private long[] words = new long[2];
+
+		private Builder() {}
+
+		/**
+		 * Sets, in-place, all bits set in the specified bit set.
+		 *
+		 * @param other  the bits to set, must not be null
+		 * @return this builder, never null
+		 */
+		public Builder or(Bits other) {
+			Objects.requireNonNull(other);
+			long[] otherBits = other.bits;
+			ensureCapacity(otherBits.length);
+			for (int i = 0; i < otherBits.length; ++i) {
+				words[i] |= otherBits[i];
+			}
+			return this;
+		}
+
+		/**
+		 * Sets, in-place, the specified nth bit.
+		 *
+		 * @param index  the bit index to set, must be positive
+		 * @return this builder, never null
+		 */
+		public Builder set(int index) {
+			Preconditions.checkArgument(index >= 0, "Bit 'index' (%s) must be positive.", index);
+			ensureCapacity(index / bitsPerSegment + 1);
+			words[index / bitsPerSegment] |= (1L << (index % bitsPerSegment));
+			return this;
+		}
+
+		/**
+		 * Returns true if all bits set in the specified bit set are also set in this builder.
+		 *
+		 * @param other  a bit set, must not be null
+		 * @return {@code true} if this builder is a super set of the specified bit set, or {@code false} otherwise
+		 */
+		public boolean containsAll(Bits other) {
+			Objects.requireNonNull(other);
+			long[] otherBits = other.bits;
+			for (int i = 0; i < otherBits.length; ++i) {
+				long word = i < words.length ? words[i] : 0L;
+				if ((word & otherBits[i]) != otherBits[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Unsets all bits of this builder.
+		 *
+		 * @return this builder, never null
+		 */
+		public Builder clear() {
+			Arrays.fill(words, 0L);
+			return this;
+		}
+
+		/**
+		 * Returns an immutable bit set of the current bits.
+		 * This builder can still be used afterward.
+		 *
+		 * @return a bit set of the current bits, never null
+		 */
+		public Bits build() {
+			return ofBits(words);
+		}
+
+		private void ensureCapacity(int wordCount) {
+			if (words.length < wordCount) {
+				words = Arrays.copyOf(words, Math.max(wordCount, words.length * 2));
+			}
+		}
+	}
+
 	private static final class BitIterator implements Iterator<Bit> {
 		private final long[] bits;
 		private final int bitCount;
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.model.internal.core;
+
+import com.google.common.collect.ImmutableSet;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Sparse set of an entity's components keyed by component type.
+ * Components live in a small open-addressing table sized by the entity's own component count,
+ * so the storage doesn't depend on how many component types were ever created.
+ * The insertion order is kept for iteration.
+ */
+final class ModelComponentStorage {
+	private static final int INITIAL_CAPACITY = 16; // must be a power of two
+	private ModelComponentType<?>[] keys = new ModelComponentType<?>[INITIAL_CAPACITY];
+	private ModelComponent[] values = new ModelComponent[INITIAL_CAPACITY];
+	private ModelComponentType<?>[] types = new ModelComponentType<?>[INITIAL_CAPACITY / 2];
+	private int size = 0;
+
+	@Nullable
+	public ModelComponent get(ModelComponentType<?> componentType) {
+		final int mask = keys.length - 1;
+		for (int index = indexOf(componentType, mask); ; index = (index + 1) & mask) {
+			final ModelComponentType<?> key = keys[index];
+			if (key == componentType) {
+				return values[index];
+			} else if (key == null) {
+				return null;
+			}
+		}
+	}
+
+	public boolean contains(ModelComponentType<?> componentType) {
+		return get(componentType) != null;
+	}
+
+	/**
+	 * Adds or replaces the component for the specified type.
+	 * Replacing a component keeps the original insertion order.
+	 *
+	 * @param componentType  the component type, must not be null
+	 * @param component  the component, must not be null
+	 */
+	public void put(ModelComponentType<?> componentType, ModelComponent component) {
+		final int mask = keys.length - 1;
+		int index = indexOf(componentType, mask);
+		while (keys[index] != null) {
+			if (keys[index] == componentType) {
+				values[index] = component;
+				return;
+			}
+			index = (index + 1) & mask;
+		}
+
+		keys[index] = componentType;
+		values[index] = component;
+		if (size == types.length) {
+			types = Arrays.copyOf(types, size * 2);
+		}
+		types[size++] = componentType;
+
+		// Keep the load factor at or below 1/2 so probe sequences stay short
+		if (size * 2 > keys.length) {
+			rehash(keys.length * 2);
+		}
+	}
+
+	private void rehash(int capacity) {
+		final ModelComponentType<?>[] oldKeys = keys;
+		final ModelComponent[] oldValues = values;
+		keys = new ModelComponentType<?>[capacity];
+		values = new ModelComponent[capacity];
+		final int mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; ++i) {
+			if (oldKeys[i] != null) {
+				int index = indexOf(oldKeys[i], mask);
+				while (keys[index] != null) {
+					index = (index + 1) & mask;
+				}
+				keys[index] = oldKeys[i];
+				values[index] = oldValues[i];
+			}
+		}
+	}
+
+	// Component type hash codes are sequential, spread them over the table
+	private static int indexOf(ModelComponentType<?> componentType, int mask) {
+		return (componentType.hashCode() * 0x9E3779B9) >>> 16 & mask;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Visits each component type in insertion order without allocating.
+	 *
+	 * @param action  the action to execute for each component type, must not be null
+	 */
+	public void forEachType(Consumer<? super ModelComponentType<?>> action) {
+		for (int i = 0; i < size; ++i) {
+			action.accept(types[i]);
+		}
+	}
+
+	public Set<ModelComponentType<?>> types() {
+		return ImmutableSet.copyOf(Arrays.asList(types).subList(0, size));
+	}
+
+	public Stream<ModelComponent> stream() {
+		final ModelComponentType<?>[] types = this.types;
+		return Arrays.stream(types, 0, size).map(this::get);
+	}
+}
@@ -22,7 +22,13 @@ import lombok.val;
 import java.lang.reflect.Type;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Represent the type of a component.
+ * Component types and their bits are shared by every model registry of the build.
+ * They are allocated through concurrent maps, class values and atomic counters so projects can be configured in parallel.
+ */
 @SuppressWarnings("unchecked")
 public abstract class ModelComponentType<T> {
 	private static final ConcurrentHashMap<Type, Bits> assignedComponentTypes = new ConcurrentHashMap<>();
@@ -30,7 +36,7 @@ public abstract class ModelComponentType<T> {
 		return assignedComponentTypes.computeIfAbsent(type, ModelComponentType::computeComponentBits);
 	}
 	private static Bits computeComponentBits(Type type) {
-		return Bits.nthBit(typeIndex++);
+		return Bits.nthBit(typeIndex.getAndIncrement());
 	}
 
 	private static final ConcurrentHashMap<Type, Bits> assignedComponentTypeFamilies = new ConcurrentHashMap<>();
@@ -47,7 +53,7 @@ public abstract class ModelComponentType<T> {
 			return visitor.result;
 		}
 	}
-	private static int typeIndex = 0;
+	private static final AtomicInteger typeIndex = new AtomicInteger();
 
 	private static final class TypeVisitor implements ModelType.Visitor<Object> {
 		private Bits result = Bits.empty();
@@ -63,7 +69,20 @@ public abstract class ModelComponentType<T> {
 		}
 	}
 
-	private static final ConcurrentHashMap<Type, ModelComponentType<?>> knownComponentTypes = new ConcurrentHashMap<>();
+	// Component and projection types of the same class are cached separately, so the first lookup cannot decide the kind of the other.
+	// The bits maps above still reference the class, this cache only avoids hashing it on every lookup.
+	private static final ClassValue<ModelComponentType<?>> knownComponentTypes = new ClassValue<ModelComponentType<?>>() {
+		@Override
+		protected ModelComponentType<?> computeValue(Class<?> type) {
+			return new ComponentType<>(type);
+		}
+	};
+	private static final ClassValue<ModelComponentType<?>> knownProjectionTypes = new ClassValue<ModelComponentType<?>>() {
+		@Override
+		protected ModelComponentType<?> computeValue(Class<?> type) {
+			return new ProjectionType<>(type);
+		}
+	};
 
 	public abstract boolean isSupertypeOf(ModelComponentType<?> componentType);
 
@@ -81,16 +100,16 @@ public abstract class ModelComponentType<T> {
 
 	public static <T> ModelComponentType<T> componentOf(Class<T> type) {
 		Objects.requireNonNull(type);
-		return (ModelComponentType<T>) knownComponentTypes.computeIfAbsent(type, t -> new ComponentType<>(type));
+		return (ModelComponentType<T>) knownComponentTypes.get(type);
 	}
 
 	public static <T> ModelComponentType<ModelProjection> projectionOf(Class<T> type) {
 		Objects.requireNonNull(type);
-		return (ModelComponentType<ModelProjection>) knownComponentTypes.computeIfAbsent(type, t -> new ProjectionType<>(type));
+		return (ModelComponentType<ModelProjection>) knownProjectionTypes.get(type);
 	}
 
-	private static int id = 0;
-	private final int hashCode = id++;
+	private static final AtomicInteger nextHashCode = new AtomicInteger();
+	private final int hashCode = nextHashCode.getAndIncrement();
 
 	@Override
 	public boolean equals(Object o) {
@@ -137,6 +156,9 @@ public abstract class ModelComponentType<T> {
 
 	private static class ProjectionType<T> extends ModelComponentType<ModelProjection> {
 		private final Class<T> value;
+		// Racy single-check caching, bits are immutable and computing them is idempotent
+		private volatile Bits familyBits;
+		private volatile Bits bits;
 
 		private ProjectionType(Class<T> value) {
 			this.value = value;
@@ -150,14 +172,23 @@ public abstract class ModelComponentType<T> {
 			return false;
 		}
 
+		// Cached as projection bits are queried on every component added event
 		@Override
 		public Bits familyBits() {
-			return componentFamilyBits(value).or(componentBits(ModelProjection.class));
+			Bits result = familyBits;
+			if (result == null) {
+				familyBits = result = componentFamilyBits(value).or(componentBits(ModelProjection.class));
+			}
+			return result;
 		}
 
 		@Override
 		public Bits bits() {
-			return componentBits(value).or(componentBits(ModelProjection.class));
+			Bits result = bits;
+			if (result == null) {
+				bits = result = componentBits(value).or(componentBits(ModelProjection.class));
+			}
+			return result;
 		}
 
 		@Override
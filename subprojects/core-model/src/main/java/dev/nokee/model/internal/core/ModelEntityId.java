@@ -17,12 +17,14 @@ package dev.nokee.model.internal.core;
 
 import lombok.EqualsAndHashCode;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Represent an entity at its simplest form.
  */
 @EqualsAndHashCode
 public final class ModelEntityId {
-	private static long nextId = 0;
+	private static final AtomicLong nextId = new AtomicLong();
 	private final long id;
 
 	private ModelEntityId(long id) {
@@ -43,11 +45,12 @@ public final class ModelEntityId {
 
 	/**
 	 * Returns the next available entity id.
+	 * Ids are allocated without locking, so projects configured in parallel never contend on this method.
 	 *
 	 * @return an entity id, never null
 	 */
-	public synchronized static ModelEntityId nextId() {
-		return new ModelEntityId(nextId++);
+	public static ModelEntityId nextId() {
+		return new ModelEntityId(nextId.getAndIncrement());
 	}
 
 	@Override
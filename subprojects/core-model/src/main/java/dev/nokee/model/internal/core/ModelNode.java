@@ -24,11 +24,10 @@ import dev.nokee.model.internal.registry.ModelRegistry;
 import dev.nokee.model.internal.state.ModelStates;
 import lombok.val;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
+import javax.annotation.Nullable;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.StringJoiner;
 import java.util.stream.Stream;
 
 /**
@@ -55,7 +54,7 @@ import java.util.stream.Stream;
 public final class ModelNode {
 	private static final ModelComponentType<ModelNodeListenerComponent> LISTENER_COMPONENT_TYPE = ModelComponentType.componentOf(ModelNodeListenerComponent.class);
 	private final ModelEntityId id = ModelEntityId.nextId();
-	private final Map<ModelComponentType<?>, ModelComponent> components = new LinkedHashMap<>();
+	private final ModelComponentStorage components = new ModelComponentStorage();
 	private ModelNodeListener listener = null;
 
 	// Represent all components this entity has.
@@ -82,7 +81,7 @@ public final class ModelNode {
 		if (oldComponent == null || !oldComponent.equals(component)) {
 			components.put(componentType, component);
 			if (oldComponent == null) {
-				componentBits = componentBits.or(componentType.familyBits());
+				addComponentBits(componentType);
 			}
 			notifyComponentAdded(component);
 		}
@@ -94,12 +93,20 @@ public final class ModelNode {
 		val oldComponent = components.get(componentType);
 		if (oldComponent == null) {
 			components.put(componentType, component);
-			componentBits = componentBits.or(componentType.familyBits());
+			addComponentBits(componentType);
 			notifyComponentAdded(component);
 		}
 		return component;
 	}
 
+	// Entities with the same components share the same interned signature
+	private void addComponentBits(ModelComponentType<?> componentType) {
+		val newComponentBits = componentBits.or(componentType.familyBits());
+		if (newComponentBits != componentBits) {
+			componentBits = newComponentBits.intern();
+		}
+	}
+
 	private void notifyComponentAdded(ModelComponent newComponent) {
 		if (listener == null) {
 			val listener = ((ModelNodeListenerComponent) components.get(LISTENER_COMPONENT_TYPE));
@@ -113,7 +120,7 @@ public final class ModelNode {
 	}
 
 	public ModelComponentTypes getComponentTypes() {
-		return new ModelComponentTypes(components.keySet());
+		return new ModelComponentTypes(components.types());
 	}
 
 	public <T extends ModelComponent> T get(Class<T> type) {
@@ -121,9 +128,13 @@ public final class ModelNode {
 	}
 
 	public <T> T getComponent(ModelComponentType<T> componentType) {
-		return findComponent(componentType).orElseThrow(() -> {
-			return new RuntimeException(String.format("No components of type '%s'. Available: %s", componentType, components.keySet().stream().map(Objects::toString).collect(Collectors.joining(", "))));
-		});
+		val result = getComponentOrNull(componentType);
+		if (result == null) {
+			val availableTypes = new StringJoiner(", ");
+			components.forEachType(it -> availableTypes.add(it.toString()));
+			throw new RuntimeException(String.format("No components of type '%s'. Available: %s", componentType, availableTypes));
+		}
+		return result;
 	}
 
 	public <T extends ModelComponent> Optional<T> find(Class<T> type) {
@@ -131,13 +142,38 @@ public final class ModelNode {
 	}
 
 	public <T> Optional<T> findComponent(ModelComponentType<T> componentType) {
-		@SuppressWarnings("unchecked")
-		val result = (T) components.get(componentType);
-		return Optional.ofNullable(result);
+		return Optional.ofNullable(getComponentOrNull(componentType));
+	}
+
+	/**
+	 * Returns the component of the specified type if present.
+	 * Prefer this method over {@link #find(Class)} in hot code paths as it doesn't allocate.
+	 *
+	 * @param type  the component type to return, must not be null
+	 * @param <T>  the component type
+	 * @return the component or null if absent
+	 */
+	@Nullable
+	public <T extends ModelComponent> T getOrNull(Class<T> type) {
+		return getComponentOrNull(ModelComponentType.componentOf(type));
+	}
+
+	/**
+	 * Returns the component of the specified type if present.
+	 * Prefer this method over {@link #findComponent(ModelComponentType)} in hot code paths as it doesn't allocate.
+	 *
+	 * @param componentType  the component type to return, must not be null
+	 * @param <T>  the component type
+	 * @return the component or null if absent
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public <T> T getComponentOrNull(ModelComponentType<T> componentType) {
+		return (T) components.get(componentType);
 	}
 
 	public boolean hasComponent(ModelComponentType<?> componentType) {
-		return components.containsKey(componentType);
+		return components.contains(componentType);
 	}
 
 	public <T extends ModelComponent> boolean has(Class<T> type) {
@@ -150,16 +186,18 @@ public final class ModelNode {
 
 	public <T extends ModelComponent> void setComponent(T component) {
 		val componentType = component.getComponentType();
-		if (!components.containsKey(componentType)) {
+		if (!components.contains(componentType)) {
 			throw new RuntimeException();
 		}
 		components.put(componentType, component);
-		componentBits = components.keySet().stream().map(ModelComponentType::familyBits).reduce(Bits.empty(), Bits::or);
+		val builder = Bits.builder();
+		components.forEachType(type -> builder.or(type.familyBits()));
+		componentBits = builder.build().intern();
 		notifyComponentAdded(component);
 	}
 
 	public Stream<ModelComponent> getComponents() {
-		return components.values().stream();
+		return components.stream();
 	}
 
 	@Override
@@ -24,9 +24,12 @@ import dev.nokee.model.internal.core.ModelPropertyRegistrationFactory;
 import dev.nokee.model.internal.names.NamesCapabilityPlugin;
 import dev.nokee.model.internal.properties.ModelPropertiesCapabilityPlugin;
 import dev.nokee.model.internal.registry.DefaultModelRegistry;
+import dev.nokee.model.internal.registry.ModelConfigurationProfiler;
+import dev.nokee.model.internal.registry.ModelConfigurationStatistics;
 import dev.nokee.model.internal.registry.ModelConfigurer;
 import dev.nokee.model.internal.registry.ModelLookup;
 import dev.nokee.model.internal.registry.ModelRegistry;
+import dev.nokee.model.internal.tasks.ModelProfileTask;
 import dev.nokee.model.internal.tasks.ModelReportTask;
 import dev.nokee.utils.ActionUtils;
 import dev.nokee.utils.TaskUtils;
@@ -37,20 +40,26 @@ import org.gradle.api.initialization.Settings;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.plugins.ExtensionAware;
 import org.gradle.api.plugins.PluginAware;
+import org.gradle.api.provider.ProviderFactory;
 
 import javax.inject.Inject;
 
+import static dev.nokee.utils.ProviderUtils.forUseAtConfigurationTime;
+
 public class ModelBasePlugin<T extends PluginAware & ExtensionAware> implements Plugin<T> {
+	private static final String PROFILE_PROPERTY_NAME = "nokee.model-profile";
 	private final PluginTargetSupport pluginScopes = PluginTargetSupport.builder()
 		.withPluginId("dev.nokee.model-base")
 		.forTarget(Settings.class, this::applyToSettings)
 		.forTarget(Project.class, this::applyToProject)
 		.build();
 	private final ObjectFactory objects;
+	private final ProviderFactory providers;
 
 	@Inject
-	ModelBasePlugin(ObjectFactory objects) {
+	ModelBasePlugin(ObjectFactory objects, ProviderFactory providers) {
 		this.objects = objects;
+		this.providers = providers;
 	}
 
 	@Override
@@ -59,10 +68,12 @@ public class ModelBasePlugin<T extends PluginAware & ExtensionAware> implements
 	}
 
 	private <S extends PluginAware & ExtensionAware> void applyToAllTarget(S target) {
-		val modelRegistry = new DefaultModelRegistry(objects::newInstance);
+		val modelRegistry = new DefaultModelRegistry(objects::newInstance, newProfiler());
 		target.getExtensions().add(ModelRegistry.class, "__NOKEE_modelRegistry", modelRegistry);
 		target.getExtensions().add(ModelLookup.class, "__NOKEE_modelLookup", modelRegistry);
 		target.getExtensions().add(ModelConfigurer.class, "__NOKEE_modelConfigurer", modelRegistry);
+		target.getExtensions().add(ModelConfigurationStatistics.class, "__NOKEE_modelConfigurationStatistics", modelRegistry.getStatistics());
+		target.getExtensions().add(ModelConfigurationProfiler.class, "__NOKEE_modelConfigurationProfiler", modelRegistry.getProfiler());
 		target.getExtensions().add(ModelPropertyRegistrationFactory.class, "__NOKEE_modelPropertyRegistrationFactory", new ModelPropertyRegistrationFactory());
 
 		modelRegistry.configure(new AttachDisplayNameToGradleProperty());
@@ -75,6 +86,15 @@ public class ModelBasePlugin<T extends PluginAware & ExtensionAware> implements
 		target.getPluginManager().apply(NamesCapabilityPlugin.class);
 	}
 
+	// Opt-in as profiling slows down the configuration, e.g. -Pnokee.model-profile=true
+	private ModelConfigurationProfiler newProfiler() {
+		val enabled = forUseAtConfigurationTime(providers.systemProperty(PROFILE_PROPERTY_NAME)).orElse(forUseAtConfigurationTime(providers.gradleProperty(PROFILE_PROPERTY_NAME))).map(Boolean::parseBoolean).getOrElse(false);
+		if (enabled) {
+			return ModelConfigurationProfiler.enabled();
+		}
+		return ModelConfigurationProfiler.disabled();
+	}
+
 	private void applyToSettings(Settings settings) {
 		applyToAllTarget(settings);
 	}
@@ -85,6 +105,10 @@ public class ModelBasePlugin<T extends PluginAware & ExtensionAware> implements
 		applyToAllTarget(project);
 
 		project.getTasks().register("nokeeModel", ModelReportTask.class, TaskUtils.configureDescription("Displays the configuration model of %s.", project));
+		project.getTasks().register("modelProfile", ModelProfileTask.class, task -> {
+			task.setDescription(String.format("Exports the configuration rules profile of %s, requires -P%s=true.", project, PROFILE_PROPERTY_NAME));
+			task.getOutputDirectory().convention(project.getLayout().getBuildDirectory().dir("reports/model-profile"));
+		});
 
 		project.getExtensions().getByType(ModelLookup.class).get(ModelPath.root()).addComponent(new IdentifierComponent(ProjectIdentifier.of(project)));
 	}
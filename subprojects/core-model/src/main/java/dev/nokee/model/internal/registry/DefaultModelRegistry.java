@@ -16,14 +16,10 @@
 package dev.nokee.model.internal.registry;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Multimap;
 import dev.nokee.internal.reflect.Instantiator;
 import dev.nokee.model.DomainObjectProvider;
 import dev.nokee.model.internal.ModelElementFactory;
 import dev.nokee.model.internal.core.BindManagedProjectionService;
-import dev.nokee.model.internal.core.Bits;
 import dev.nokee.model.internal.core.DescendantNodes;
 import dev.nokee.model.internal.core.HasInputs;
 import dev.nokee.model.internal.core.ModelAction;
@@ -58,19 +54,35 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
+/**
+ * Model registry of a single project.
+ *
+ * The registry state is confined to the thread configuring its project, so it uses plain collections.
+ * Projects configured in parallel each own a registry, the only state shared between registries are the thread-safe entity id allocation and component type registry.
+ */
 public final class DefaultModelRegistry implements ModelRegistry, ModelConfigurer, ModelLookup {
+	private static final ModelComponentType<ModelProjection> PROJECTION_COMPONENT_TYPE = ModelComponentType.componentOf(ModelProjection.class);
 	private final Instantiator instantiator;
 	private final List<ModelNode> entities = new ArrayList<>();
+	private final ModelEntityIndex index = new ModelEntityIndex();
 	private final Map<ModelPath, ModelNode> nodes = new LinkedHashMap<>();
 	private final List<ModelAction> configurations = new ArrayList<>();
 	private final NodeStateListener nodeStateListener = new NodeStateListener();
 	private final BindManagedProjectionService bindingService;
 	private final ModelNode rootNode;
 	private final ModelElementFactory elementFactory;
-	private final Multimap<ModelComponentType<?>, ModelAction> config = ArrayListMultimap.create();
+	private final ModelConfigurationStatistics statistics = new ModelConfigurationStatistics();
+	private final ModelConfigurationProfiler profiler;
+	private final ModelActionDispatchTable dispatchTable;
 
 	public DefaultModelRegistry(Instantiator instantiator) {
+		this(instantiator, ModelConfigurationProfiler.disabled());
+	}
+
+	public DefaultModelRegistry(Instantiator instantiator, ModelConfigurationProfiler profiler) {
 		this.instantiator = instantiator;
+		this.profiler = profiler;
+		this.dispatchTable = new ModelActionDispatchTable(statistics, profiler);
 		this.elementFactory = new ModelElementFactory(instantiator);
 		this.bindingService = new BindManagedProjectionService(instantiator);
 		configure(ModelActionWithInputs.of(ModelComponentReference.of(ModelPathComponent.class), ModelComponentReference.of(ModelState.class), new ModelActionWithInputs.A2<ModelPathComponent, ModelState>() {
@@ -115,6 +127,7 @@ public final class DefaultModelRegistry implements ModelRegistry, ModelConfigure
 		val path = ModelPath.root();
 		val entity = new ModelNode();
 		entities.add(entity);
+		index.add(entity);
 		entity.addComponent(new ModelNodeListenerComponent(nodeStateListener));
 		entity.addComponent(new ModelPathComponent(path));
 		return entity;
@@ -133,6 +146,7 @@ public final class DefaultModelRegistry implements ModelRegistry, ModelConfigure
 	public ModelNode instantiate(ModelRegistration registration) {
 		val node = new ModelNode(nodeStateListener);
 		entities.add(node);
+		index.add(node);
 		return newNode(node, registration);
 	}
 
@@ -170,8 +184,7 @@ public final class DefaultModelRegistry implements ModelRegistry, ModelConfigure
 
 	@Override
 	public Result query(ModelSpec spec) {
-		val result = entities.stream().filter(spec::isSatisfiedBy).collect(ImmutableList.toImmutableList());
-		return new ModelLookupDefaultResult(result);
+		return new ModelLookupDefaultResult(index.query(spec));
 	}
 
 	@Override
@@ -181,7 +194,7 @@ public final class DefaultModelRegistry implements ModelRegistry, ModelConfigure
 
 	@Override
 	public boolean anyMatch(ModelSpec spec) {
-		return entities.stream().anyMatch(spec::isSatisfiedBy);
+		return index.anyMatch(spec);
 	}
 
 	@Override
@@ -189,36 +202,49 @@ public final class DefaultModelRegistry implements ModelRegistry, ModelConfigure
 		Objects.requireNonNull(configuration);
 		Preconditions.checkArgument(configuration instanceof HasInputs);
 		configurations.add(configuration);
+		statistics.ruleRegistered();
 		((HasInputs) configuration).getInputs().stream().distinct().forEach(input -> {
-			config.put(input.getType(), configuration);
+			dispatchTable.add(input.getType(), configuration);
 		});
 
 		val size = entities.size();
 		for (int i = 0; i < size; i++) {
 			val node = entities.get(i);
-			configuration.execute(node);
+			profiler.execute(configuration, node);
 		}
 	}
 
+	/**
+	 * Returns the counters of the configuration rules dispatching of this registry.
+	 *
+	 * @return the configuration statistics, never null
+	 */
+	public ModelConfigurationStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Returns the profiler of the configuration rules of this registry.
+	 *
+	 * @return the configuration profiler, never null
+	 */
+	public ModelConfigurationProfiler getProfiler() {
+		return profiler;
+	}
+
 	private final class NodeStateListener implements ModelNodeListener {
 		@Override
 		public void projectionAdded(ModelNode node, ModelComponent newComponent) {
-			List<ModelAction> c = null;
+			index.onComponentAdded(node, newComponent);
+
+			final ModelComponentType<?> componentType;
 			if (newComponent instanceof ModelProjection) {
-				c = new ArrayList<>(config.get(ModelComponentType.componentOf(ModelProjection.class)));
+				componentType = PROJECTION_COMPONENT_TYPE;
 			} else {
-				c = new ArrayList<>(config.get(newComponent.getComponentType()));
+				componentType = newComponent.getComponentType();
 			}
 
-			Bits newComponentBits = newComponent.getComponentType().familyBits();
-			c.removeIf(configuration -> !newComponentBits.intersects(((HasInputs) configuration).getInputBits()) || !node.getComponentBits().containsAll(((HasInputs) configuration).getInputBits()));
-
-			for (int i = 0; i < c.size(); ++i) {
-				val configuration = c.get(i);
-				if (newComponentBits.intersects(((HasInputs) configuration).getInputBits())) { // recheck condition in case something changes
-					configuration.execute(node);
-				}
-			}
+			dispatchTable.dispatch(node, componentType, newComponent.getComponentType().familyBits());
 		}
 	}
 }
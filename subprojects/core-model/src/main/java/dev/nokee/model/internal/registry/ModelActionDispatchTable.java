@@ -0,0 +1,99 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.model.internal.registry;
+
+import dev.nokee.model.internal.core.Bits;
+import dev.nokee.model.internal.core.HasInputs;
+import dev.nokee.model.internal.core.ModelAction;
+import dev.nokee.model.internal.core.ModelComponentType;
+import dev.nokee.model.internal.core.ModelNode;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dispatches component added events to the configuration rules listening to the component type.
+ *
+ * Each component type owns an append-only array of rules with their input bits.
+ * Dispatching iterates a snapshot of the array, so rules registered while dispatching are skipped (they are executed when configured), without copying the rules on each event.
+ */
+final class ModelActionDispatchTable {
+	private final Map<ModelComponentType<?>, Rules> rulesByComponentType = new HashMap<>();
+	private final ModelConfigurationStatistics statistics;
+	private final ModelConfigurationProfiler profiler;
+
+	ModelActionDispatchTable(ModelConfigurationStatistics statistics, ModelConfigurationProfiler profiler) {
+		this.statistics = statistics;
+		this.profiler = profiler;
+	}
+
+	/**
+	 * Registers the specified rule for the specified component type.
+	 *
+	 * @param componentType  the component type triggering the rule, must not be null
+	 * @param rule  the rule to execute, must implement {@link HasInputs}
+	 */
+	public void add(ModelComponentType<?> componentType, ModelAction rule) {
+		rulesByComponentType.computeIfAbsent(componentType, __ -> new Rules()).add(rule, ((HasInputs) rule).getInputBits());
+	}
+
+	/**
+	 * Executes all rules of the specified component type that became satisfied by the new component.
+	 *
+	 * @param node  the entity receiving the new component, must not be null
+	 * @param componentType  the dispatching component type, must not be null
+	 * @param newComponentBits  the family bits of the new component, must not be null
+	 */
+	public void dispatch(ModelNode node, ModelComponentType<?> componentType, Bits newComponentBits) {
+		statistics.componentAdded();
+		final Rules rules = rulesByComponentType.get(componentType);
+		if (rules == null) {
+			return;
+		}
+
+		// Snapshot the rules and the entity signature before executing any rule, rules are only appended and bits are immutable
+		final ModelAction[] actions = rules.actions;
+		final Bits[] inputBits = rules.inputBits;
+		final int size = rules.size;
+		final Bits nodeBits = node.getComponentBits();
+
+		statistics.rulesEvaluated(size);
+		for (int i = 0; i < size; ++i) {
+			if (newComponentBits.intersects(inputBits[i]) && nodeBits.containsAll(inputBits[i])) {
+				statistics.ruleExecuted();
+				profiler.execute(actions[i], node);
+			}
+		}
+	}
+
+	private static final class Rules {
+		private ModelAction[] actions = new ModelAction[4];
+		private Bits[] inputBits = new Bits[4];
+		private int size = 0;
+
+		// Only append so in-flight dispatches can keep iterating their snapshot
+		private void add(ModelAction action, Bits bits) {
+			if (size == actions.length) {
+				actions = Arrays.copyOf(actions, size * 2);
+				inputBits = Arrays.copyOf(inputBits, size * 2);
+			}
+			actions[size] = action;
+			inputBits[size] = bits;
+			++size;
+		}
+	}
+}
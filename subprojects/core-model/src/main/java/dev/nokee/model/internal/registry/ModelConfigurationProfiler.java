@@ -0,0 +1,371 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.model.internal.registry;
+
+import dev.nokee.model.internal.core.ModelAction;
+import dev.nokee.model.internal.core.ModelNode;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Opt-in instrumentation of the model configuration rules.
+ * Records the invocation count, cumulative and self time as well as allocations of each rule keyed by the rule's display name.
+ * It also records each execution as a trace event and each rule stack as a collapsed stack for flame graphs.
+ * Only the most recent trace events are kept, see {@link #enabled(int)}.
+ *
+ * Rules and entities are kept by reference while recording, their display names are only computed when the profile is queried.
+ * A disabled profiler only executes the rules.
+ * The profiler is confined to the thread configuring the project, like the model registry.
+ */
+public final class ModelConfigurationProfiler {
+	private static final int DEFAULT_MAX_TRACE_EVENTS = 100_000;
+	private static final ModelConfigurationProfiler DISABLED = new ModelConfigurationProfiler(false, 0);
+	private final boolean enabled;
+	private final int maxTraceEvents;
+	private final long startTime = System.nanoTime();
+	private final Map<Object, RuleProfile> profiles = new IdentityHashMap<>();
+	private final Deque<TraceEvent> traceEvents = new ArrayDeque<>();
+	private long droppedTraceEventCount = 0;
+	private final StackNode rootStack = new StackNode(null, null);
+	private final Deque<Frame> frames = new ArrayDeque<>();
+
+	private ModelConfigurationProfiler(boolean enabled, int maxTraceEvents) {
+		this.enabled = enabled;
+		this.maxTraceEvents = maxTraceEvents;
+	}
+
+	/**
+	 * Returns a profiler that doesn't record anything.
+	 *
+	 * @return a disabled profiler, never null
+	 */
+	public static ModelConfigurationProfiler disabled() {
+		return DISABLED;
+	}
+
+	/**
+	 * Returns a new profiler recording every rule executions and keeping the most recent 100,000 trace events.
+	 *
+	 * @return an enabled profiler, never null
+	 */
+	public static ModelConfigurationProfiler enabled() {
+		return enabled(DEFAULT_MAX_TRACE_EVENTS);
+	}
+
+	/**
+	 * Returns a new profiler recording every rule executions and keeping the specified number of most recent trace events.
+	 * Rule profiles and collapsed stacks are aggregated, they are not affected by this limit.
+	 *
+	 * @param maxTraceEvents  the maximum number of trace events to keep, must not be negative
+	 * @return an enabled profiler, never null
+	 */
+	public static ModelConfigurationProfiler enabled(int maxTraceEvents) {
+		if (maxTraceEvents < 0) {
+			throw new IllegalArgumentException("The maximum number of trace events must not be negative.");
+		}
+		return new ModelConfigurationProfiler(true, maxTraceEvents);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Executes the specified rule on the specified entity while recording its execution if enabled.
+	 *
+	 * @param rule  the rule to execute, must not be null
+	 * @param entity  the entity to execute the rule on, must not be null
+	 */
+	public void execute(ModelAction rule, ModelNode entity) {
+		if (!enabled) {
+			rule.execute(entity);
+		} else {
+			record(rule, entity, rule::execute);
+		}
+	}
+
+	/**
+	 * Executes the specified rule execution on the specified entity while recording its execution if enabled.
+	 * Use this method for rules that aren't a {@link ModelAction}.
+	 *
+	 * @param rule  the rule to execute, its {@code toString()} is used as display name, must not be null
+	 * @param entity  the entity to execute the rule on, must not be null
+	 * @param execution  the rule execution, must not be null
+	 */
+	public void execute(Object rule, ModelNode entity, Consumer<? super ModelNode> execution) {
+		if (!enabled) {
+			execution.accept(entity);
+		} else {
+			record(rule, entity, execution);
+		}
+	}
+
+	private void record(Object rule, ModelNode entity, Consumer<? super ModelNode> execution) {
+		final Frame parent = frames.peek();
+		final Frame frame = new Frame(rule, parent == null ? rootStack : parent.stack, parent);
+		frames.push(frame);
+		final long allocatedBytesBefore = AllocationCounter.currentThreadAllocatedBytes();
+		final long start = System.nanoTime();
+		try {
+			execution.accept(entity);
+		} finally {
+			final long duration = System.nanoTime() - start;
+			final long allocatedBytes = Math.max(0, AllocationCounter.currentThreadAllocatedBytes() - allocatedBytesBefore);
+			frames.pop();
+			final long selfTime = duration - frame.childrenTime;
+			final long selfAllocatedBytes = allocatedBytes - frame.childrenAllocatedBytes;
+			if (frame.parent != null) {
+				frame.parent.childrenTime += duration;
+				frame.parent.childrenAllocatedBytes += allocatedBytes;
+			}
+
+			profiles.computeIfAbsent(rule, RuleProfile::new).record(duration, selfTime, selfAllocatedBytes);
+			recordTraceEvent(new TraceEvent(rule, entity, start - startTime, duration, frames.size()));
+			frame.stack.selfTime += selfTime;
+		}
+	}
+
+	private void recordTraceEvent(TraceEvent event) {
+		if (maxTraceEvents == 0) {
+			++droppedTraceEventCount;
+			return;
+		}
+		if (traceEvents.size() == maxTraceEvents) {
+			traceEvents.removeFirst();
+			++droppedTraceEventCount;
+		}
+		traceEvents.addLast(event);
+	}
+
+	/**
+	 * Returns the profile of each executed rule ordered by decreasing self time.
+	 *
+	 * @return the rule profiles, never null
+	 */
+	public List<RuleProfile> getRuleProfiles() {
+		final Map<String, RuleProfile> profilesByName = new LinkedHashMap<>();
+		for (RuleProfile profile : profiles.values()) {
+			profilesByName.computeIfAbsent(profile.getName(), RuleProfile::new).merge(profile);
+		}
+		final List<RuleProfile> result = new ArrayList<>(profilesByName.values());
+		result.sort(Comparator.comparingLong(RuleProfile::getSelfTimeNanos).reversed());
+		return result;
+	}
+
+	/**
+	 * Returns the most recent rule executions in completion order.
+	 *
+	 * @return the trace events, never null
+	 */
+	public List<TraceEvent> getTraceEvents() {
+		return Collections.unmodifiableList(new ArrayList<>(traceEvents));
+	}
+
+	/**
+	 * Returns the number of rule executions evicted from, or never added to, the trace events.
+	 *
+	 * @return the number of dropped trace events
+	 */
+	public long getDroppedTraceEventCount() {
+		return droppedTraceEventCount;
+	}
+
+	/**
+	 * Returns the self time of each rule stack.
+	 * The stack frames are the rule display names separated by semicolons, outermost first.
+	 *
+	 * @return the self time in nanoseconds of each stack, never null
+	 */
+	public Map<String, Long> getCollapsedStacks() {
+		final Map<String, Long> result = new LinkedHashMap<>();
+		for (StackNode child : rootStack.children.values()) {
+			child.collapseInto(null, result);
+		}
+		return Collections.unmodifiableMap(result);
+	}
+
+	private static final class Frame {
+		private final StackNode stack;
+		private final Frame parent;
+		private long childrenTime = 0;
+		private long childrenAllocatedBytes = 0;
+
+		private Frame(Object rule, StackNode parentStack, Frame parent) {
+			this.stack = parentStack.children.computeIfAbsent(rule, it -> new StackNode(it, parentStack));
+			this.parent = parent;
+		}
+	}
+
+	// Call tree node keyed by rule instance, the collapsed stack names are only computed on query
+	private static final class StackNode {
+		private final Object rule;
+		private final StackNode parent;
+		private final Map<Object, StackNode> children = new IdentityHashMap<>();
+		private long selfTime = 0;
+
+		private StackNode(Object rule, StackNode parent) {
+			this.rule = rule;
+			this.parent = parent;
+		}
+
+		private void collapseInto(String parentStack, Map<String, Long> result) {
+			// Semicolons separate the frames in collapsed stacks
+			final String frameName = String.valueOf(rule).replace(';', ',');
+			final String stack = parentStack == null ? frameName : parentStack + ";" + frameName;
+			result.merge(stack, selfTime, Long::sum);
+			for (StackNode child : children.values()) {
+				child.collapseInto(stack, result);
+			}
+		}
+	}
+
+	public static final class RuleProfile {
+		private final Object rule;
+		private long invocationCount = 0;
+		private long cumulativeTimeNanos = 0;
+		private long selfTimeNanos = 0;
+		private long allocatedBytes = 0;
+
+		private RuleProfile(Object rule) {
+			this.rule = rule;
+		}
+
+		private void record(long duration, long selfTime, long selfAllocatedBytes) {
+			++invocationCount;
+			cumulativeTimeNanos += duration;
+			selfTimeNanos += selfTime;
+			allocatedBytes += selfAllocatedBytes;
+		}
+
+		private void merge(RuleProfile other) {
+			invocationCount += other.invocationCount;
+			cumulativeTimeNanos += other.cumulativeTimeNanos;
+			selfTimeNanos += other.selfTimeNanos;
+			allocatedBytes += other.allocatedBytes;
+		}
+
+		public String getName() {
+			return String.valueOf(rule);
+		}
+
+		public long getInvocationCount() {
+			return invocationCount;
+		}
+
+		/**
+		 * Returns the time spent in the rule, including nested rules.
+		 *
+		 * @return the cumulative time in nanoseconds
+		 */
+		public long getCumulativeTimeNanos() {
+			return cumulativeTimeNanos;
+		}
+
+		/**
+		 * Returns the time spent in the rule, excluding nested rules.
+		 *
+		 * @return the self time in nanoseconds
+		 */
+		public long getSelfTimeNanos() {
+			return selfTimeNanos;
+		}
+
+		/**
+		 * Returns the bytes allocated by the rule, excluding nested rules.
+		 * Always zero when the JVM doesn't support measuring thread allocations.
+		 *
+		 * @return the allocated bytes
+		 */
+		public long getAllocatedBytes() {
+			return allocatedBytes;
+		}
+	}
+
+	public static final class TraceEvent {
+		private final Object rule;
+		private final ModelNode entity;
+		private final long startNanos;
+		private final long durationNanos;
+		private final int depth;
+
+		private TraceEvent(Object rule, ModelNode entity, long startNanos, long durationNanos, int depth) {
+			this.rule = rule;
+			this.entity = entity;
+			this.startNanos = startNanos;
+			this.durationNanos = durationNanos;
+			this.depth = depth;
+		}
+
+		public String getName() {
+			return String.valueOf(rule);
+		}
+
+		public String getEntity() {
+			return String.valueOf(entity);
+		}
+
+		/**
+		 * Returns the start of the execution relative to the profiler creation.
+		 *
+		 * @return the start in nanoseconds
+		 */
+		public long getStartNanos() {
+			return startNanos;
+		}
+
+		public long getDurationNanos() {
+			return durationNanos;
+		}
+
+		public int getDepth() {
+			return depth;
+		}
+	}
+
+	// Thread allocation counters are a HotSpot extension, fallback to no allocation tracking on other JVMs
+	private static final class AllocationCounter {
+		private static final com.sun.management.ThreadMXBean THREAD_BEAN = threadBean();
+
+		private static com.sun.management.ThreadMXBean threadBean() {
+			try {
+				final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+				if (bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+					return (com.sun.management.ThreadMXBean) bean;
+				}
+			} catch (LinkageError e) {
+				// com.sun.management isn't available
+			}
+			return null;
+		}
+
+		private static long currentThreadAllocatedBytes() {
+			if (THREAD_BEAN == null || !THREAD_BEAN.isThreadAllocatedMemoryEnabled()) {
+				return 0;
+			}
+			return THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+	}
+}
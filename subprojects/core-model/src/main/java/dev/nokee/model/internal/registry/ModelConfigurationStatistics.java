@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.model.internal.registry;
+
+/**
+ * Counters of the model configuration rules dispatching.
+ */
+public final class ModelConfigurationStatistics {
+	private long registeredRuleCount = 0;
+	private long componentAddedCount = 0;
+	private long evaluatedRuleCount = 0;
+	private long executedRuleCount = 0;
+
+	void ruleRegistered() {
+		++registeredRuleCount;
+	}
+
+	void componentAdded() {
+		++componentAddedCount;
+	}
+
+	void rulesEvaluated(int count) {
+		evaluatedRuleCount += count;
+	}
+
+	void ruleExecuted() {
+		++executedRuleCount;
+	}
+
+	/**
+	 * Returns the number of configuration rules registered.
+	 *
+	 * @return the number of configuration rules registered, never negative
+	 */
+	public long getRegisteredRuleCount() {
+		return registeredRuleCount;
+	}
+
+	/**
+	 * Returns the number of component added events dispatched to the configuration rules.
+	 *
+	 * @return the number of component added events, never negative
+	 */
+	public long getComponentAddedCount() {
+		return componentAddedCount;
+	}
+
+	/**
+	 * Returns the number of configuration rules inspected while dispatching component added events.
+	 *
+	 * @return the number of inspected configuration rules, never negative
+	 */
+	public long getEvaluatedRuleCount() {
+		return evaluatedRuleCount;
+	}
+
+	/**
+	 * Returns the number of configuration rules executed in response to component added events.
+	 *
+	 * @return the number of executed configuration rules, never negative
+	 */
+	public long getExecutedRuleCount() {
+		return executedRuleCount;
+	}
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.model.internal.registry;
+
+import dev.nokee.model.internal.core.Bits;
+import dev.nokee.model.internal.core.HasInputs;
+import dev.nokee.model.internal.core.ModelComponent;
+import dev.nokee.model.internal.core.ModelNode;
+import dev.nokee.model.internal.core.ModelPath;
+import dev.nokee.model.internal.core.ModelPathComponent;
+import dev.nokee.model.internal.core.ModelSpec;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Indexes the registry entities by archetype, e.g. their component bits signature, as well as by path and parent path.
+ * The index only narrows down the candidate entities for a {@link ModelSpec}, the spec is always evaluated on each candidate.
+ */
+final class ModelEntityIndex {
+	private static final Comparator<Entry> BY_REGISTRATION_ORDER = Comparator.comparingInt(it -> it.ordinal);
+	private final List<Entry> entities = new ArrayList<>();
+	private final Map<ModelNode, Entry> entries = new HashMap<>();
+	private final Map<Bits, Archetype> archetypes = new LinkedHashMap<>();
+	private final Map<ModelPath, Set<Entry>> byPath = new HashMap<>();
+	private final Map<ModelPath, Set<Entry>> byParentPath = new HashMap<>();
+
+	/**
+	 * Adds the specified entity to this index.
+	 * The entity is indexed using its current components.
+	 *
+	 * @param entity  the entity to index, must not be null
+	 */
+	public void add(ModelNode entity) {
+		final Entry entry = new Entry(entity, entities.size());
+		entities.add(entry);
+		entries.put(entity, entry);
+		entity.getComponents().forEach(entry::onComponentAdded);
+	}
+
+	/**
+	 * Updates the index of the specified entity when a component was added or changed.
+	 * Entities not yet added to this index are ignored, they will be fully indexed when added.
+	 *
+	 * @param entity  the entity that changed, must not be null
+	 * @param component  the added or changed component, must not be null
+	 */
+	public void onComponentAdded(ModelNode entity, ModelComponent component) {
+		final Entry entry = entries.get(entity);
+		if (entry != null) {
+			entry.onComponentAdded(component);
+		}
+	}
+
+	/**
+	 * Returns all entities that satisfy the specified spec in registration order.
+	 *
+	 * @param spec  the spec to match, must not be null
+	 * @return a list of matching entities, never null
+	 */
+	public List<ModelNode> query(ModelSpec spec) {
+		final List<ModelNode> result = new ArrayList<>();
+		if (spec.getPath().isPresent() || spec.getParent().isPresent() || spec instanceof HasInputs) {
+			final List<Entry> candidates = new ArrayList<>();
+			candidates(spec, candidates);
+			candidates.sort(BY_REGISTRATION_ORDER);
+			for (Entry candidate : candidates) {
+				if (spec.isSatisfiedBy(candidate.entity)) {
+					result.add(candidate.entity);
+				}
+			}
+		} else {
+			for (int i = 0; i < entities.size(); ++i) {
+				final ModelNode entity = entities.get(i).entity;
+				if (spec.isSatisfiedBy(entity)) {
+					result.add(entity);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true if any entity satisfies the specified spec.
+	 *
+	 * @param spec  the spec to match, must not be null
+	 * @return {@code true} if an entity matches the spec or {@code false} otherwise
+	 */
+	public boolean anyMatch(ModelSpec spec) {
+		final List<Entry> candidates = new ArrayList<>();
+		candidates(spec, candidates);
+		for (int i = 0; i < candidates.size(); ++i) {
+			if (spec.isSatisfiedBy(candidates.get(i).entity)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void candidates(ModelSpec spec, List<Entry> result) {
+		final Bits inputBits = spec instanceof HasInputs ? ((HasInputs) spec).getInputBits() : Bits.empty();
+		if (spec.getPath().isPresent()) {
+			candidates(byPath.getOrDefault(spec.getPath().get(), Collections.emptySet()), inputBits, result);
+		} else if (spec.getParent().isPresent()) {
+			candidates(byParentPath.getOrDefault(spec.getParent().get(), Collections.emptySet()), inputBits, result);
+		} else if (!inputBits.isEmpty()) {
+			for (Archetype archetype : archetypes.values()) {
+				if (archetype.bits.containsAll(inputBits)) {
+					result.addAll(archetype.entities);
+				}
+			}
+		} else {
+			result.addAll(entities);
+		}
+	}
+
+	private static void candidates(Collection<Entry> entries, Bits inputBits, List<Entry> result) {
+		for (Entry entry : entries) {
+			if (entry.entity.getComponentBits().containsAll(inputBits)) {
+				result.add(entry);
+			}
+		}
+	}
+
+	private final class Entry {
+		private final ModelNode entity;
+		private final int ordinal;
+		@Nullable private Archetype archetype;
+		@Nullable private ModelPath path;
+
+		private Entry(ModelNode entity, int ordinal) {
+			this.entity = entity;
+			this.ordinal = ordinal;
+		}
+
+		private void onComponentAdded(ModelComponent component) {
+			final Bits bits = entity.getComponentBits();
+			if (archetype == null || !archetype.bits.equals(bits)) {
+				if (archetype != null) {
+					archetype.entities.remove(this);
+				}
+				archetype = archetypes.computeIfAbsent(bits, Archetype::new);
+				archetype.entities.add(this);
+			}
+
+			if (component instanceof ModelPathComponent) {
+				final ModelPath newPath = ((ModelPathComponent) component).get();
+				if (!newPath.equals(path)) {
+					if (path != null) {
+						entriesAt(byPath, path).remove(this);
+						path.getParent().ifPresent(it -> entriesAt(byParentPath, it).remove(this));
+					}
+					path = newPath;
+					entriesAt(byPath, newPath).add(this);
+					newPath.getParent().ifPresent(it -> entriesAt(byParentPath, it).add(this));
+				}
+			}
+		}
+	}
+
+	private static Set<Entry> entriesAt(Map<ModelPath, Set<Entry>> index, ModelPath path) {
+		return index.computeIfAbsent(path, __ -> new LinkedHashSet<>());
+	}
+
+	private static final class Archetype {
+		private final Bits bits;
+		private final Collection<Entry> entities = new LinkedHashSet<>();
+
+		private Archetype(Bits bits) {
+			this.bits = bits;
+		}
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.model.internal.tasks;
+
+import dev.nokee.model.internal.registry.ModelConfigurationProfiler;
+import lombok.val;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.internal.logging.text.TreeFormatter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports the configuration rules profile recorded by {@link ModelConfigurationProfiler}.
+ * It writes a Chrome trace ({@code model-profile.json}, open with {@code chrome://tracing} or Perfetto)
+ * and collapsed stacks ({@code model-profile.collapsed}, input of {@code flamegraph.pl} or speedscope).
+ */
+public abstract class ModelProfileTask extends DefaultTask {
+	private static final int SUMMARY_RULE_COUNT = 20;
+
+	@OutputDirectory
+	public abstract DirectoryProperty getOutputDirectory();
+
+	public ModelProfileTask() {
+		// The profile is recorded during configuration, it is never up-to-date
+		getOutputs().upToDateWhen(it -> false);
+	}
+
+	@TaskAction
+	private void doExport() throws IOException {
+		val profiler = getProject().getExtensions().findByType(ModelConfigurationProfiler.class);
+		if (profiler == null || !profiler.isEnabled()) {
+			getLogger().warn("Model configuration profiling is disabled, run the build with -Pnokee.model-profile=true to record the profile.");
+			return;
+		}
+
+		val outputDirectory = getOutputDirectory().get().getAsFile();
+		writeChromeTrace(new File(outputDirectory, "model-profile.json"), profiler);
+		writeCollapsedStacks(new File(outputDirectory, "model-profile.collapsed"), profiler);
+
+		TreeFormatter formatter = new TreeFormatter();
+		printSummary(formatter, profiler);
+		System.out.println(formatter.toString());
+		if (profiler.getDroppedTraceEventCount() > 0) {
+			getLogger().warn("Model configuration trace only contains the most recent rule executions, " + profiler.getDroppedTraceEventCount() + " older executions were dropped.");
+		}
+		getLogger().lifecycle("Model configuration profile written to " + outputDirectory);
+	}
+
+	private static void writeChromeTrace(File file, ModelConfigurationProfiler profiler) throws IOException {
+		try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+			out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+			boolean first = true;
+			for (ModelConfigurationProfiler.TraceEvent event : profiler.getTraceEvents()) {
+				if (!first) {
+					out.write(",\n");
+				}
+				first = false;
+				out.write("{\"name\":");
+				writeJsonString(out, event.getName());
+				out.write(",\"cat\":\"rule\",\"ph\":\"X\",\"pid\":1,\"tid\":1");
+				out.write(",\"ts\":" + toMicros(event.getStartNanos()));
+				out.write(",\"dur\":" + toMicros(event.getDurationNanos()));
+				out.write(",\"args\":{\"entity\":");
+				writeJsonString(out, event.getEntity());
+				out.write(",\"depth\":" + event.getDepth() + "}}");
+			}
+			out.write("]}\n");
+		}
+	}
+
+	private static void writeCollapsedStacks(File file, ModelConfigurationProfiler profiler) throws IOException {
+		try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+			for (Map.Entry<String, Long> stack : profiler.getCollapsedStacks().entrySet()) {
+				// Flame graph tools expect space-separated stack and sample count, we use microseconds as sample count
+				out.write(stack.getKey().replace(' ', '_') + " " + Math.max(1, TimeUnit.NANOSECONDS.toMicros(stack.getValue())) + "\n");
+			}
+		}
+	}
+
+	private static void printSummary(TreeFormatter formatter, ModelConfigurationProfiler profiler) {
+		formatter.node("Configuration rules profile (top " + SUMMARY_RULE_COUNT + " by self time)");
+		formatter.startChildren();
+		profiler.getRuleProfiles().stream().limit(SUMMARY_RULE_COUNT).forEach(rule -> {
+			formatter.node(rule.getName());
+			formatter.startChildren();
+			formatter.node("invocations: " + rule.getInvocationCount());
+			formatter.node("cumulative time: " + TimeUnit.NANOSECONDS.toMillis(rule.getCumulativeTimeNanos()) + "ms");
+			formatter.node("self time: " + TimeUnit.NANOSECONDS.toMillis(rule.getSelfTimeNanos()) + "ms");
+			formatter.node("allocated: " + rule.getAllocatedBytes() + " bytes");
+			formatter.endChildren();
+		});
+		formatter.endChildren();
+	}
+
+	private static String toMicros(long nanos) {
+		return String.format(Locale.ROOT, "%.3f", nanos / 1000.0d);
+	}
+
+	private static void writeJsonString(Writer out, String value) throws IOException {
+		out.write('"');
+		for (int i = 0; i < value.length(); ++i) {
+			final char c = value.charAt(i);
+			switch (c) {
+				case '"': out.write("\\\""); break;
+				case '\\': out.write("\\\\"); break;
+				case '\n': out.write("\\n"); break;
+				case '\r': out.write("\\r"); break;
+				case '\t': out.write("\\t"); break;
+				default:
+					if (c < 0x20) {
+						out.write(String.format("\\u%04x", (int) c));
+					} else {
+						out.write(c);
+					}
+			}
+		}
+		out.write('"');
+	}
+}
@@ -16,6 +16,7 @@
 package dev.nokee.model.internal.tasks;
 
 import dev.nokee.model.internal.core.*;
+import dev.nokee.model.internal.registry.ModelConfigurationStatistics;
 import dev.nokee.model.internal.registry.ModelLookup;
 import lombok.val;
 import org.gradle.api.DefaultTask;
@@ -30,6 +31,23 @@ public class ModelReportTask extends DefaultTask {
 		TreeFormatter formatter = new TreeFormatter();
 		printNode(formatter, rootNode);
 		System.out.println(formatter.toString());
+
+		val statistics = getProject().getExtensions().findByType(ModelConfigurationStatistics.class);
+		if (statistics != null) {
+			TreeFormatter statisticsFormatter = new TreeFormatter();
+			printStatistics(statisticsFormatter, statistics);
+			System.out.println(statisticsFormatter.toString());
+		}
+	}
+
+	private void printStatistics(TreeFormatter formatter, ModelConfigurationStatistics statistics) {
+		formatter.node("Configuration rules");
+		formatter.startChildren();
+		formatter.node("registered: " + statistics.getRegisteredRuleCount());
+		formatter.node("component added events: " + statistics.getComponentAddedCount());
+		formatter.node("evaluated: " + statistics.getEvaluatedRuleCount());
+		formatter.node("executed: " + statistics.getExecutedRuleCount());
+		formatter.endChildren();
 	}
 
 	private void printNode(TreeFormatter formatter, ModelNode node) {
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.internal;
+
+import dev.nokee.model.internal.core.Bits;
+import org.junit.jupiter.api.Test;
+
+import static dev.nokee.model.internal.core.Bits.empty;
+import static dev.nokee.model.internal.core.Bits.nthBit;
+import static dev.nokee.model.internal.core.Bits.ofBits;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BitsBuilderTest {
+	private final Bits.Builder subject = Bits.builder();
+
+	@Test
+	void buildsEmptyBitsByDefault() {
+		assertSame(empty(), subject.build());
+	}
+
+	@Test
+	void canSetBitsWithinInlineWords() {
+		assertEquals(ofBits(0b1001), subject.set(0).set(3).build());
+		assertEquals(nthBit(127), Bits.builder().set(127).build());
+	}
+
+	@Test
+	void canSetBitsBeyondInlineWords() {
+		assertEquals(nthBit(200).or(nthBit(2)), subject.set(2).set(200).build());
+	}
+
+	@Test
+	void accumulatesBitsInPlace() {
+		assertEquals(ofBits(0xC0FFEEL, 0xBABEL), subject.or(ofBits(0xBABEL)).or(ofBits(0xC0FFEEL, 0L)).build());
+	}
+
+	@Test
+	void checksContainedBits() {
+		subject.or(ofBits(0b1011));
+		assertTrue(subject.containsAll(ofBits(0b11)));
+		assertTrue(subject.containsAll(empty()));
+		assertFalse(subject.containsAll(ofBits(0b100)));
+		assertFalse(subject.containsAll(nthBit(300)));
+	}
+
+	@Test
+	void canClearBits() {
+		assertSame(empty(), subject.or(ofBits(0b1011)).clear().build());
+	}
+
+	@Test
+	void canReuseBuilderAfterBuild() {
+		Bits first = subject.set(1).build();
+		Bits second = subject.set(2).build();
+		assertEquals(ofBits(0b10), first);
+		assertEquals(ofBits(0b110), second);
+	}
+
+	@Test
+	void internsEqualBits() {
+		assertSame(ofBits(0xBABEL).intern(), Bits.builder().or(ofBits(0xBABE)).build().intern());
+		assertSame(empty(), ofBits(0L).intern());
+	}
+}
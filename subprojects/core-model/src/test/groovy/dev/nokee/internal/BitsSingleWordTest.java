@@ -66,11 +66,11 @@ class BitsSingleWordTest implements BitsTester {
 		);
 	}
 
-//	@Test
-//	void returnsSameBitsWhenOrOperationOnSameBits() {
-//		val bits = ofBits(0b1);
-//		assertSame(bits, bits.or(bits));
-//	}
+	@Test
+	void returnsSameBitsWhenOrOperationOnSameBits() {
+		val bits = ofBits(0b1);
+		assertSame(bits, bits.or(bits));
+	}
 
 	@Test
 	void returnsAllActivatedBitsFromBothBitsDuringOrOperation() {
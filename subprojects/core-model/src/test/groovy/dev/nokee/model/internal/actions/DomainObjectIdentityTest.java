@@ -16,6 +16,7 @@
 package dev.nokee.model.internal.actions;
 
 import com.google.common.testing.NullPointerTester;
+import lombok.val;
 import org.junit.jupiter.api.Test;
 
 import static com.spotify.hamcrest.optional.OptionalMatchers.emptyOptional;
@@ -25,6 +26,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.emptyIterable;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class DomainObjectIdentityTest {
@@ -121,6 +123,27 @@ class DomainObjectIdentityTest {
 		assertThat(subject.plus(VALUE).getAll(MyValue.class), containsInAnyOrder(VALUE));
 	}
 
+	@Test
+	void containsOnlyItsEntries() {
+		assertThat(subject.contains(VALUE), is(true));
+		assertThat(subject.contains(ALTERNATE_VALUE), is(false));
+		assertThat(subject.contains(OTHER_VALUE), is(false));
+	}
+
+	@Test
+	void canBuildIdentityWithMultipleChanges() {
+		val result = subject.toBuilder().with(ALTERNATE_VALUE).plus(OTHER_VALUE).build();
+		assertThat(result.getAll(MyValue.class), containsInAnyOrder(ALTERNATE_VALUE));
+		assertThat(result.getAll(MyOtherValue.class), containsInAnyOrder(OTHER_VALUE));
+		assertThat(subject.getAll(MyValue.class), containsInAnyOrder(VALUE));
+	}
+
+	@Test
+	void canBuildIdentityFromIterable() {
+		assertThat(DomainObjectIdentity.builder().with(singletonList(ALTERNATE_VALUE)).build().getAll(MyValue.class),
+			containsInAnyOrder(ALTERNATE_VALUE));
+	}
+
 	private static final class MyValue {}
 	private static final class MyOtherValue {}
 }
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.model.internal.actions;
+
+import dev.nokee.model.internal.core.ModelEntityId;
+import dev.nokee.model.internal.state.ModelState;
+import org.gradle.api.specs.Spec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static dev.nokee.model.internal.actions.ModelSpec.descendantOf;
+import static dev.nokee.model.internal.actions.ModelSpec.isEqual;
+import static dev.nokee.model.internal.actions.ModelSpec.ownedBy;
+import static dev.nokee.model.internal.actions.ModelSpec.self;
+import static dev.nokee.model.internal.actions.ModelSpec.stateAtLeast;
+import static dev.nokee.model.internal.actions.ModelSpec.subtypeOf;
+import static dev.nokee.model.internal.type.ModelType.of;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the index returns the same matching elements, in the same order, as the linear scan it replaces.
+ */
+class SelectorIndexTest {
+	private static final ModelState[] STATES = new ModelState[] {ModelState.Created, ModelState.Registered, ModelState.Realized, ModelState.Finalized};
+	private final Random random = new Random(42);
+	private final Map<String, DomainObjectIdentity> identities = new LinkedHashMap<>();
+	private final Map<String, ModelSpec> specs = new LinkedHashMap<>();
+	private final SelectorIndex<String> identityIndex = new SelectorIndex<>();
+	private final SelectorIndex<String> specIndex = new SelectorIndex<>();
+
+	@BeforeEach
+	void givenRandomIdentitiesAndSpecs() {
+		for (int i = 0; i < 200; ++i) {
+			putIdentity("entity" + i, randomIdentity(i));
+		}
+		for (int i = 0; i < 200; ++i) {
+			putSpec("action" + i, randomSpec());
+		}
+	}
+
+	@Test
+	void matchesLinearScanOfSpecsForEachIdentity() {
+		assertIdentityLookupsMatchLinearScan();
+	}
+
+	@Test
+	void matchesLinearScanOfIdentitiesForEachSpec() {
+		assertSpecLookupsMatchLinearScan();
+	}
+
+	@Test
+	void staysCorrectWhenIdentitiesGainEntries() {
+		for (String name : new ArrayList<>(identities.keySet())) {
+			DomainObjectIdentity identity = identities.get(name);
+			switch (random.nextInt(3)) {
+				case 0: identity = identity.with(STATES[random.nextInt(STATES.length)]); break;
+				case 1: identity = identity.plus(of(random.nextBoolean() ? MyChildType.class : OtherType.class)); break;
+				default: identity = identity.with(isEqualValue()); break;
+			}
+			putIdentity(name, identity);
+		}
+
+		assertIdentityLookupsMatchLinearScan();
+		assertSpecLookupsMatchLinearScan();
+	}
+
+	@Test
+	void staysCorrectWhenIdentitiesLoseEntries() {
+		for (String name : new ArrayList<>(identities.keySet())) {
+			if (random.nextBoolean()) {
+				putIdentity(name, DomainObjectIdentity.of(new SelfRef(ModelEntityId.ofId(random.nextInt(20)))));
+			} else {
+				putIdentity(name, DomainObjectIdentity.of(Collections.emptyList()));
+			}
+		}
+
+		assertIdentityLookupsMatchLinearScan();
+		assertSpecLookupsMatchLinearScan();
+	}
+
+	@Test
+	void keepsInsertionOrderOfRekeyedElements() {
+		putIdentity("entity0", DomainObjectIdentity.of(new SelfRef(ModelEntityId.ofId(1000))));
+		putIdentity("entity1", DomainObjectIdentity.of(new SelfRef(ModelEntityId.ofId(1000))));
+
+		assertEquals(asList("entity0", "entity1"), identityIndex.get(SelectorKey.keyOf(self(ModelEntityId.ofId(1000)))));
+	}
+
+	private void assertIdentityLookupsMatchLinearScan() {
+		for (DomainObjectIdentity identity : identities.values()) {
+			final List<String> expected = specs.entrySet().stream().filter(it -> isSatisfiedBy(it.getValue(), identity)).map(Map.Entry::getKey).collect(Collectors.toList());
+			final List<String> actual = specIndex.getAny(SelectorKey.keysOf(identity)).stream().filter(it -> isSatisfiedBy(specs.get(it), identity)).collect(Collectors.toList());
+			assertEquals(expected, actual, () -> "actions matching " + identity);
+		}
+	}
+
+	private void assertSpecLookupsMatchLinearScan() {
+		for (ModelSpec spec : specs.values()) {
+			final SelectorKey key = SelectorKey.keyOf(spec);
+			final List<String> candidates = key == null ? identityIndex.getAll() : identityIndex.get(key);
+			final List<String> expected = identities.entrySet().stream().filter(it -> isSatisfiedBy(spec, it.getValue())).map(Map.Entry::getKey).collect(Collectors.toList());
+			final List<String> actual = candidates.stream().filter(it -> isSatisfiedBy(spec, identities.get(it))).collect(Collectors.toList());
+			assertEquals(expected, actual, () -> "entities matching " + spec);
+		}
+	}
+
+	private void putIdentity(String name, DomainObjectIdentity identity) {
+		identities.put(name, identity);
+		identityIndex.put(name, SelectorKey.keysOf(identity));
+	}
+
+	private void putSpec(String name, ModelSpec spec) {
+		specs.put(name, spec);
+		final SelectorKey key = SelectorKey.keyOf(spec);
+		specIndex.put(name, key == null ? Collections.emptySet() : Collections.singleton(key));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static boolean isSatisfiedBy(ModelSpec spec, DomainObjectIdentity identity) {
+		return ((Spec<DomainObjectIdentity>) spec).isSatisfiedBy(identity);
+	}
+
+	private DomainObjectIdentity randomIdentity(int id) {
+		final ModelEntityId parent = ModelEntityId.ofId(random.nextInt(20));
+		DomainObjectIdentity result = DomainObjectIdentity.of(new SelfRef(ModelEntityId.ofId(100 + id)))
+			.with(new ParentRef(parent))
+			.with(asList(new AncestorRef(parent), new AncestorRef(ModelEntityId.ofId(random.nextInt(5)))))
+			.with(STATES[random.nextInt(STATES.length)]);
+		if (random.nextBoolean()) {
+			result = result.plus(of(random.nextBoolean() ? MyChildType.class : MyType.class));
+		}
+		if (random.nextInt(4) == 0) {
+			result = result.with(isEqualValue());
+		}
+		return result;
+	}
+
+	private ModelSpec randomSpec() {
+		switch (random.nextInt(8)) {
+			case 0: return self(ModelEntityId.ofId(100 + random.nextInt(200)));
+			case 1: return ownedBy(ModelEntityId.ofId(random.nextInt(20)));
+			case 2: return descendantOf(ModelEntityId.ofId(random.nextInt(20)));
+			case 3: return subtypeOf(of(random.nextBoolean() ? MyType.class : MyChildType.class));
+			case 4: return stateAtLeast(STATES[random.nextInt(STATES.length)]);
+			case 5: return stateAtLeast(STATES[random.nextInt(STATES.length)]).and(subtypeOf(of(MyType.class)));
+			case 6: return ownedBy(ModelEntityId.ofId(random.nextInt(20))).and(isEqual(isEqualValue()));
+			default: return new OpaqueSpec(random.nextInt(20));
+		}
+	}
+
+	private String isEqualValue() {
+		return "value" + random.nextInt(3);
+	}
+
+	private static final class OpaqueSpec implements ModelSpec, Spec<DomainObjectIdentity> {
+		private final int parentId;
+
+		private OpaqueSpec(int parentId) {
+			this.parentId = parentId;
+		}
+
+		@Override
+		public boolean isSatisfiedBy(DomainObjectIdentity identity) {
+			return identity.contains(new ParentRef(ModelEntityId.ofId(parentId)));
+		}
+	}
+
+	private interface MyType {}
+	private interface MyChildType extends MyType {}
+	private interface OtherType {}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.model.internal.actions;
+
+import dev.nokee.model.internal.core.ModelEntityId;
+import dev.nokee.model.internal.state.ModelState;
+import org.junit.jupiter.api.Test;
+
+import static dev.nokee.model.internal.actions.ModelSpec.descendantOf;
+import static dev.nokee.model.internal.actions.ModelSpec.isEqual;
+import static dev.nokee.model.internal.actions.ModelSpec.ownedBy;
+import static dev.nokee.model.internal.actions.ModelSpec.self;
+import static dev.nokee.model.internal.actions.ModelSpec.stateAtLeast;
+import static dev.nokee.model.internal.actions.ModelSpec.subtypeOf;
+import static dev.nokee.model.internal.type.ModelType.of;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SelectorKeyTest {
+	private static final ModelEntityId ID = ModelEntityId.ofId(42);
+	private final DomainObjectIdentity identity = DomainObjectIdentity.of(new SelfRef(ID))
+		.with(new ParentRef(ModelEntityId.ofId(2)))
+		.with(asList(new AncestorRef(ModelEntityId.ofId(2)), new AncestorRef(ModelEntityId.ofId(1))))
+		.with(ModelState.Registered)
+		.plus(of(MyChildType.class));
+
+	@Test
+	void identityHasKeysOfSatisfiedEntrySpecs() {
+		assertThat(SelectorKey.keysOf(identity), hasItem(SelectorKey.keyOf(self(ID))));
+		assertThat(SelectorKey.keysOf(identity), hasItem(SelectorKey.keyOf(ownedBy(ModelEntityId.ofId(2)))));
+		assertThat(SelectorKey.keysOf(identity), hasItem(SelectorKey.keyOf(descendantOf(ModelEntityId.ofId(1)))));
+		assertThat(SelectorKey.keysOf(identity), not(hasItem(SelectorKey.keyOf(self(ModelEntityId.ofId(2))))));
+	}
+
+	@Test
+	void identityHasKeysOfSatisfiedTypeSpecs() {
+		assertThat(SelectorKey.keysOf(identity), hasItem(SelectorKey.keyOf(subtypeOf(of(MyChildType.class)))));
+		assertThat(SelectorKey.keysOf(identity), hasItem(SelectorKey.keyOf(subtypeOf(of(MyType.class)))));
+		assertThat(SelectorKey.keysOf(identity), hasItem(SelectorKey.keyOf(subtypeOf(of(Object.class)))));
+		assertThat(SelectorKey.keysOf(identity), not(hasItem(SelectorKey.keyOf(subtypeOf(of(WrongType.class))))));
+	}
+
+	@Test
+	void identityHasKeysOfSatisfiedStateSpecs() {
+		assertThat(SelectorKey.keysOf(identity), hasItem(SelectorKey.keyOf(stateAtLeast(ModelState.Created))));
+		assertThat(SelectorKey.keysOf(identity), hasItem(SelectorKey.keyOf(stateAtLeast(ModelState.Registered))));
+		assertThat(SelectorKey.keysOf(identity), not(hasItem(SelectorKey.keyOf(stateAtLeast(ModelState.Realized)))));
+	}
+
+	@Test
+	void prefersEntryKeyOfIntersectingSpecs() {
+		assertEquals(SelectorKey.keyOf(isEqual("foo")), SelectorKey.keyOf(stateAtLeast(ModelState.Realized).and(subtypeOf(of(MyType.class))).and(isEqual("foo"))));
+		assertEquals(SelectorKey.keyOf(subtypeOf(of(MyType.class))), SelectorKey.keyOf(stateAtLeast(ModelState.Realized).and(subtypeOf(of(MyType.class)))));
+	}
+
+	@Test
+	void returnsNullKeyForOpaqueSpecs() {
+		assertNull(SelectorKey.keyOf(new ModelSpec() {}));
+	}
+
+	private interface MyType {}
+	private interface MyChildType extends MyType {}
+	private interface WrongType {}
+}
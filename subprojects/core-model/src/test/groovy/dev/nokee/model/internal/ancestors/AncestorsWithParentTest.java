@@ -0,0 +1,45 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.model.internal.ancestors;
+
+import dev.nokee.model.internal.core.ModelNode;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+class AncestorsWithParentTest {
+	private final ModelNode grandParent = new ModelNode();
+	private final ModelNode parent = new ModelNode();
+	private final Ancestors subject = Ancestors.of(AncestorRef.of(grandParent));
+
+	@Test
+	void returnsParentFollowedByParentAncestors() {
+		assertThat(subject.withParent(AncestorRef.of(parent)), contains(AncestorRef.of(parent), AncestorRef.of(grandParent)));
+	}
+
+	@Test
+	void doesNotChangeParentAncestors() {
+		subject.withParent(AncestorRef.of(parent));
+		assertThat(subject, contains(AncestorRef.of(grandParent)));
+	}
+
+	@Test
+	void isEqualToAncestorsComputedFromWholeHierarchy() {
+		assertThat(subject.withParent(AncestorRef.of(parent)), is(Ancestors.of(AncestorRef.of(parent), AncestorRef.of(grandParent))));
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.model.internal.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+class ModelComponentStorageTest {
+	private static final List<ModelComponentType<?>> TYPES = Arrays.asList(String.class, Integer.class, Long.class, Short.class, Byte.class, Character.class, Boolean.class, Float.class, Double.class, Number.class, Object.class, CharSequence.class, Runnable.class, Comparable.class, Iterable.class, List.class, ArrayList.class, Thread.class, Class.class, Exception.class, RuntimeException.class, Error.class, StringBuilder.class, Math.class, System.class)
+		.stream().<ModelComponentType<?>>map(ModelComponentType::projectionOf).collect(Collectors.toList());
+	private final ModelComponentStorage subject = new ModelComponentStorage();
+
+	@Test
+	void returnsNullForAbsentComponentTypes() {
+		subject.put(TYPES.get(0), new TestComponent("a"));
+		assertThat(subject.get(TYPES.get(1)), nullValue());
+		assertThat(subject.contains(TYPES.get(1)), equalTo(false));
+	}
+
+	@Test
+	void canRetrieveComponentsPastTableGrowth() {
+		final List<TestComponent> components = new ArrayList<>();
+		for (ModelComponentType<?> type : TYPES) {
+			final TestComponent component = new TestComponent(type.toString());
+			components.add(component);
+			subject.put(type, component);
+		}
+
+		for (int i = 0; i < TYPES.size(); ++i) {
+			assertThat(subject.get(TYPES.get(i)), sameInstance(components.get(i)));
+		}
+		assertThat(subject.size(), equalTo(TYPES.size()));
+	}
+
+	@Test
+	void replacingComponentKeepsInsertionOrder() {
+		final TestComponent replacement = new TestComponent("replacement");
+		subject.put(TYPES.get(0), new TestComponent("a"));
+		subject.put(TYPES.get(1), new TestComponent("b"));
+		subject.put(TYPES.get(0), replacement);
+
+		assertThat(subject.get(TYPES.get(0)), sameInstance(replacement));
+		assertThat(subject.size(), equalTo(2));
+		final List<ModelComponentType<?>> visitedTypes = new ArrayList<>();
+		subject.forEachType(visitedTypes::add);
+		assertThat(visitedTypes, contains(TYPES.get(0), TYPES.get(1)));
+	}
+
+	private static final class TestComponent implements ModelComponent {
+		private final String name;
+
+		private TestComponent(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof TestComponent && ((TestComponent) o).name.equals(name);
+		}
+
+		@Override
+		public int hashCode() {
+			return name.hashCode();
+		}
+	}
+}
@@ -26,6 +26,7 @@ import static dev.nokee.model.internal.core.ModelComponentType.projectionOf;
 import static dev.nokee.model.internal.type.ModelType.of;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -63,6 +64,19 @@ class ModelComponentTypeTest {
 		assertFalse(componentOf(MyComponent.class).isSupertypeOf(projectionOf(IMyType.class)));
 	}
 
+	@Test
+	void componentAndProjectionOfSameTypeAreDistinctRegardlessOfLookupOrder() {
+		assertAll(
+			() -> assertThat(componentOf(ComponentFirst.class), not(equalTo(projectionOf(ComponentFirst.class)))),
+			() -> assertTrue(projectionOf(ComponentFirst.class).isSupertypeOf(projectionOf(ComponentFirst.class))),
+			() -> assertThat(projectionOf(ProjectionFirst.class), not(equalTo(componentOf(ProjectionFirst.class)))),
+			() -> assertTrue(componentOf(ProjectionFirst.class).isSupertypeOf(componentOf(ProjectionFirst.class)))
+		);
+	}
+
+	private interface ComponentFirst extends ModelComponent {}
+	private interface ProjectionFirst extends ModelComponent {}
+
 	public interface IMyType {}
 	public static class MyType implements IMyType {}
 	public static class MyComponent implements ModelComponent {}
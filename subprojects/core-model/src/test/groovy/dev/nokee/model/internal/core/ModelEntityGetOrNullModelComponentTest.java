@@ -0,0 +1,70 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.model.internal.core;
+
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+class ModelEntityGetOrNullModelComponentTest {
+	private final ModelNode subject = new ModelNode();
+	private final ModelComponent component = new MyComponent();
+
+	@BeforeEach
+	void setUp() {
+		subject.addComponent(component);
+	}
+
+	@Test
+	void canGetModelComponentByClass() {
+		assertThat(subject.getOrNull(MyComponent.class), is(component));
+	}
+
+	@Test
+	void canGetModelComponentByType() {
+		assertThat(subject.getComponentOrNull(ModelComponentType.componentOf(MyComponent.class)), is(component));
+	}
+
+	@Test
+	void returnsNullWhenModelComponentByTypeDoesNotExistsOnEntity() {
+		assertThat(subject.getComponentOrNull(ModelComponentType.componentOf(MyOtherComponent.class)), nullValue());
+	}
+
+	@Test
+	void returnsNullWhenModelComponentByClassDoesNotExistsOnEntity() {
+		assertThat(subject.getOrNull(MyOtherComponent.class), nullValue());
+	}
+
+	@Test
+	void replacingModelComponentKeepsComponentOrder() {
+		val otherComponent = new MyOtherComponentImpl();
+		subject.addComponent(otherComponent);
+		val newComponent = new MyComponent();
+		subject.addComponent(newComponent);
+		assertThat(subject.getComponents().collect(Collectors.toList()), contains(newComponent, otherComponent));
+	}
+
+	private static final class MyComponent implements ModelComponent {}
+	private interface MyOtherComponent extends ModelComponent {}
+	private static final class MyOtherComponentImpl implements ModelComponent {}
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.model.internal.registry;
+
+import dev.nokee.internal.reflect.Instantiator;
+import dev.nokee.internal.testing.util.ProjectTestUtils;
+import dev.nokee.model.internal.core.ModelActionWithInputs;
+import dev.nokee.model.internal.core.ModelComponent;
+import dev.nokee.model.internal.core.ModelComponentReference;
+import dev.nokee.model.internal.core.ModelComponentType;
+import dev.nokee.model.internal.core.ModelEntityId;
+import dev.nokee.model.internal.core.ModelPathComponent;
+import dev.nokee.model.internal.core.ModelRegistration;
+import dev.nokee.model.internal.core.ModelSpecs;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static dev.nokee.model.internal.core.ModelNodes.withType;
+import static dev.nokee.model.internal.type.ModelType.of;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.iterableWithSize;
+
+class DefaultModelRegistryParallelConfigurationTest {
+	private static final int PROJECT_COUNT = 64;
+	private static final int THREAD_COUNT = 8;
+	private final Instantiator instantiator = ProjectTestUtils.objectFactory()::newInstance;
+	private final ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void configuringProjectsInParallelMatchesSerialConfiguration() throws Exception {
+		val expected = new ArrayList<List<String>>();
+		for (int i = 0; i < PROJECT_COUNT; ++i) {
+			expected.add(configureProject(i));
+		}
+
+		val start = new CountDownLatch(1);
+		val futures = new ArrayList<Future<List<String>>>();
+		for (int i = 0; i < PROJECT_COUNT; ++i) {
+			val projectIndex = i;
+			futures.add(executor.submit(() -> {
+				start.await();
+				return configureProject(projectIndex);
+			}));
+		}
+		start.countDown();
+
+		val actual = new ArrayList<List<String>>();
+		for (Future<List<String>> future : futures) {
+			actual.add(future.get());
+		}
+		assertThat(actual, equalTo(expected));
+	}
+
+	@Test
+	void allocatesUniqueEntityIdsAcrossThreads() throws Exception {
+		val tasks = new ArrayList<Callable<List<ModelEntityId>>>();
+		for (int i = 0; i < THREAD_COUNT; ++i) {
+			tasks.add(() -> {
+				val result = new ArrayList<ModelEntityId>();
+				for (int j = 0; j < 10_000; ++j) {
+					result.add(ModelEntityId.nextId());
+				}
+				return result;
+			});
+		}
+
+		val ids = new HashSet<ModelEntityId>();
+		for (Future<List<ModelEntityId>> future : executor.invokeAll(tasks)) {
+			ids.addAll(future.get());
+		}
+		assertThat(ids, iterableWithSize(THREAD_COUNT * 10_000));
+	}
+
+	@Test
+	void returnsSameComponentTypeAcrossThreads() throws Exception {
+		val tasks = new ArrayList<Callable<Set<Object>>>();
+		for (int i = 0; i < THREAD_COUNT; ++i) {
+			tasks.add(() -> {
+				val result = new HashSet<Object>();
+				result.add(ModelComponentType.componentOf(MyComponent.class));
+				result.add(ModelComponentType.componentOf(MyComponent.class).id());
+				result.add(ModelComponentType.componentOf(MyComponent.class).familyBits());
+				result.add(ModelComponentType.projectionOf(MyType.class).familyBits());
+				return result;
+			});
+		}
+
+		val results = new ArrayList<Set<Object>>();
+		for (Future<Set<Object>> future : executor.invokeAll(tasks)) {
+			results.add(future.get());
+		}
+		assertThat(results, everyItem(is(results.get(0))));
+	}
+
+	// Configures a project model the same way regardless of the thread, returns an observable summary of the model
+	private List<String> configureProject(int projectIndex) {
+		val registry = new DefaultModelRegistry(instantiator);
+		val executedRules = new ArrayList<String>();
+		registry.configure(ModelActionWithInputs.of(ModelComponentReference.of(ModelPathComponent.class), (node, path) -> {
+			executedRules.add(path.get().toString());
+		}));
+		for (int i = 0; i < 10; ++i) {
+			registry.register(ModelRegistration.of("p" + projectIndex + "c" + i, i % 2 == 0 ? MyType.class : MyOtherType.class));
+			for (int j = 0; j < 5; ++j) {
+				registry.register(ModelRegistration.of("p" + projectIndex + "c" + i + ".c" + j, MyType.class));
+			}
+		}
+
+		val result = new ArrayList<String>(executedRules);
+		result.add(registry.query(ModelSpecs.of(withType(of(MyType.class)))).get().stream().map(Object::toString).collect(Collectors.joining(",")));
+		result.add(registry.query(ModelSpecs.of(withType(of(MyOtherType.class)))).get().stream().map(Object::toString).collect(Collectors.joining(",")));
+		return result;
+	}
+
+	interface MyType {}
+	interface MyOtherType {}
+	private static final class MyComponent implements ModelComponent {}
+}
@@ -25,6 +25,7 @@ import dev.nokee.model.internal.core.ModelNode;
 import dev.nokee.model.internal.core.ModelNodeUtils;
 import dev.nokee.model.internal.core.ModelPath;
 import dev.nokee.model.internal.core.ModelPathComponent;
+import dev.nokee.model.internal.core.ModelProjections;
 import dev.nokee.model.internal.core.ModelRegistration;
 import dev.nokee.model.internal.core.ModelSpecs;
 import dev.nokee.model.internal.state.ModelState;
@@ -44,6 +45,7 @@ import static dev.nokee.model.internal.core.ModelPath.path;
 import static dev.nokee.model.internal.core.ModelPath.root;
 import static dev.nokee.model.internal.type.ModelType.of;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -219,6 +221,60 @@ public class DefaultModelRegistryTest {
 		assertTrue(subject.get(path("kled")).has(DescendantNodes.class));
 	}
 
+	@Nested
+	class IndexedQueryTest {
+		@BeforeEach
+		void setUp() {
+			modelRegistry.register(ModelRegistration.of("wldk", MyType.class));
+			modelRegistry.register(ModelRegistration.of("wldk.ekrj", WrongType.class));
+			modelRegistry.register(ModelRegistration.of("pwer", WrongType.class));
+			modelRegistry.register(ModelRegistration.of("wldk.poiu", MyType.class));
+			modelRegistry.register(ModelRegistration.of("wldk.poiu.qwer", MyType.class));
+		}
+
+		@Test
+		void returnsDirectDescendantsInRegistrationOrder() {
+			assertThat(subject.get(path("wldk")).get(DescendantNodes.class).getDirectDescendants(),
+				contains(subject.get(path("wldk.ekrj")), subject.get(path("wldk.poiu"))));
+			assertThat(subject.get(root()).get(DescendantNodes.class).getDirectDescendants(),
+				contains(subject.get(path("wldk")), subject.get(path("pwer"))));
+		}
+
+		@Test
+		void returnsMatchingEntitiesAcrossArchetypesInRegistrationOrder() {
+			assertThat(subject.query(ModelSpecs.of(withType(of(MyType.class)))).get(),
+				contains(subject.get(path("wldk")), subject.get(path("wldk.poiu")), subject.get(path("wldk.poiu.qwer"))));
+			assertThat(subject.query(ModelSpecs.of(withType(of(WrongType.class)))).get(),
+				contains(subject.get(path("wldk.ekrj")), subject.get(path("pwer"))));
+		}
+
+		@Test
+		void reindexesEntitiesWhenComponentsAreAdded() {
+			assertFalse(subject.anyMatch(ModelSpecs.of(withType(of(MyOtherType.class)))));
+			subject.get(path("pwer")).addComponent(ModelProjections.ofInstance(new MyOtherType() {}));
+			assertThat(subject.query(ModelSpecs.of(withType(of(MyOtherType.class)))).get(), contains(subject.get(path("pwer"))));
+		}
+	}
+
+	@Test
+	void countsDispatchedConfigurationRules() {
+		val registeredRuleCount = subject.getStatistics().getRegisteredRuleCount();
+		val executedRuleCount = subject.getStatistics().getExecutedRuleCount();
+		val action = Mockito.mock(ModelAction.class);
+		subject.configure(ModelActionWithInputs.of(ModelComponentReference.of(ModelPathComponent.class), (node, path) -> {
+			if (path.get().equals(path("oiuy"))) {
+				action.execute(node);
+			}
+		}));
+		modelRegistry.register(ModelRegistration.of("oiuy", MyType.class));
+
+		verify(action, times(1)).execute(any());
+		assertEquals(registeredRuleCount + 1, subject.getStatistics().getRegisteredRuleCount());
+		assertTrue(subject.getStatistics().getExecutedRuleCount() > executedRuleCount);
+		assertTrue(subject.getStatistics().getEvaluatedRuleCount() >= subject.getStatistics().getExecutedRuleCount());
+	}
+
 	interface MyType {}
 	interface WrongType {}
+	interface MyOtherType {}
 }
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.model.internal.registry;
+
+import dev.nokee.model.internal.core.ModelAction;
+import dev.nokee.model.internal.core.ModelNode;
+import lombok.val;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.emptyIterable;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.verify;
+
+class ModelConfigurationProfilerTest {
+	private final ModelNode entity = new ModelNode();
+
+	@Nested
+	class DisabledTest {
+		private final ModelConfigurationProfiler subject = ModelConfigurationProfiler.disabled();
+
+		@Test
+		void executesRule() {
+			val rule = Mockito.mock(ModelAction.class);
+			subject.execute(rule, entity);
+			verify(rule).execute(entity);
+		}
+
+		@Test
+		void doesNotRecordExecutions() {
+			subject.execute(new NamedRule("foo", it -> {}), entity);
+			assertThat(subject.isEnabled(), is(false));
+			assertThat(subject.getRuleProfiles(), emptyIterable());
+			assertThat(subject.getTraceEvents(), emptyIterable());
+		}
+	}
+
+	@Nested
+	class EnabledTest {
+		private final ModelConfigurationProfiler subject = ModelConfigurationProfiler.enabled();
+
+		@Test
+		void executesRule() {
+			val rule = Mockito.mock(ModelAction.class);
+			subject.execute(rule, entity);
+			verify(rule).execute(entity);
+		}
+
+		@Test
+		void countsInvocationsByRuleDisplayName() {
+			subject.execute(new NamedRule("foo", it -> {}), entity);
+			subject.execute(new NamedRule("foo", it -> {}), entity);
+			subject.execute(new NamedRule("bar", it -> {}), entity);
+
+			assertThat(profileOf("foo").getInvocationCount(), is(2L));
+			assertThat(profileOf("bar").getInvocationCount(), is(1L));
+		}
+
+		@Test
+		void excludesNestedRulesFromSelfTime() {
+			subject.execute(new NamedRule("outer", it -> subject.execute(new NamedRule("inner", this::sleep), it)), entity);
+
+			val outer = profileOf("outer");
+			val inner = profileOf("inner");
+			assertThat(outer.getCumulativeTimeNanos(), greaterThanOrEqualTo(inner.getCumulativeTimeNanos()));
+			assertThat(outer.getCumulativeTimeNanos() - outer.getSelfTimeNanos(), is(inner.getCumulativeTimeNanos()));
+		}
+
+		@Test
+		void recordsCollapsedStacks() {
+			subject.execute(new NamedRule("outer", it -> subject.execute(new NamedRule("in;ner", t -> {}), it)), entity);
+
+			assertThat(subject.getCollapsedStacks(), hasKey("outer"));
+			assertThat(subject.getCollapsedStacks(), hasKey("outer;in,ner"));
+		}
+
+		@Test
+		void recordsTraceEventsInCompletionOrder() {
+			subject.execute(new NamedRule("outer", it -> subject.execute(new NamedRule("inner", t -> {}), it)), entity);
+
+			assertThat(subject.getTraceEvents().stream().map(ModelConfigurationProfiler.TraceEvent::getName).toArray(), is(new Object[] {"inner", "outer"}));
+			assertThat(subject.getTraceEvents().stream().map(ModelConfigurationProfiler.TraceEvent::getDepth).toArray(), is(new Object[] {1, 0}));
+		}
+
+		@Test
+		void ordersRuleProfilesBySelfTime() {
+			subject.execute(new NamedRule("fast", it -> {}), entity);
+			subject.execute(new NamedRule("slow", this::sleep), entity);
+
+			assertThat(subject.getRuleProfiles().stream().map(ModelConfigurationProfiler.RuleProfile::getName).toArray(), is(new Object[] {"slow", "fast"}));
+		}
+
+		@Test
+		void keepsOnlyMostRecentTraceEvents() {
+			val subject = ModelConfigurationProfiler.enabled(2);
+			subject.execute(new NamedRule("first", it -> {}), entity);
+			subject.execute(new NamedRule("second", it -> {}), entity);
+			subject.execute(new NamedRule("third", it -> {}), entity);
+
+			assertThat(subject.getTraceEvents().stream().map(ModelConfigurationProfiler.TraceEvent::getName).toArray(), is(new Object[] {"second", "third"}));
+			assertThat(subject.getDroppedTraceEventCount(), is(1L));
+			assertThat(subject.getRuleProfiles().size(), is(3));
+		}
+
+		@Test
+		void computesDisplayNamesOnlyWhenQueried() {
+			val rule = new CountingDisplayNameRule();
+			subject.execute(rule, entity);
+			subject.execute(rule, entity);
+			assertThat(rule.displayNameCount, is(0));
+
+			assertThat(profileOf("counting").getInvocationCount(), is(2L));
+		}
+
+		private ModelConfigurationProfiler.RuleProfile profileOf(String name) {
+			return subject.getRuleProfiles().stream().filter(it -> it.getName().equals(name)).findFirst().orElseThrow(AssertionError::new);
+		}
+
+		private void sleep(ModelNode entity) {
+			try {
+				Thread.sleep(5);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+	private static final class CountingDisplayNameRule implements ModelAction {
+		private int displayNameCount = 0;
+
+		@Override
+		public void execute(ModelNode node) {}
+
+		@Override
+		public String toString() {
+			++displayNameCount;
+			return "counting";
+		}
+	}
+
+	private static final class NamedRule implements ModelAction {
+		private final String name;
+		private final ModelAction action;
+
+		private NamedRule(String name, ModelAction action) {
+			this.name = name;
+			this.action = action;
+		}
+
+		@Override
+		public void execute(ModelNode node) {
+			action.execute(node);
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+}
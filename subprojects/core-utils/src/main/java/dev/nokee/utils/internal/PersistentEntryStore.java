@@ -0,0 +1,186 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.utils.internal;
+
+import com.google.common.hash.Hashing;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Directory of persistent entries keyed by string, usually under {@code <gradle-user-home>/caches/nokee}.
+ * Each entry is a file named after the hash of its key, so concurrent builds can share the directory.
+ *
+ * Entries are written to a temporary file and moved in place, readers never see a partial entry.
+ * Reading an entry marks it as used and entries unused for a while are deleted by {@link #deleteUnusedEntries(Duration)}.
+ * The entries are an optimization, failing to read or write an entry is reported as a missing entry.
+ */
+public final class PersistentEntryStore {
+	private static final String CLEANUP_MARKER_FILE_NAME = "cleanup.marker";
+	private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+	private static final Duration CLEANUP_INTERVAL = Duration.ofDays(1);
+	private static final Duration MARK_USED_INTERVAL = Duration.ofHours(1);
+	private final Path directory;
+	private final String extension;
+	private final Clock clock;
+
+	PersistentEntryStore(Path directory, String extension, Clock clock) {
+		this.directory = Objects.requireNonNull(directory);
+		this.extension = Objects.requireNonNull(extension);
+		this.clock = clock;
+	}
+
+	/**
+	 * Returns a store keeping its entries in the specified directory.
+	 *
+	 * @param directory  the store directory, created on first write, must not be null
+	 * @param extension  the entry file extension including the dot, e.g. {@code .bin}, must not be null
+	 * @return a persistent entry store, never null
+	 */
+	public static PersistentEntryStore inDirectory(Path directory, String extension) {
+		return new PersistentEntryStore(directory, extension, Clock.systemUTC());
+	}
+
+	/**
+	 * Reads the entry of the specified key.
+	 *
+	 * @param key  the entry key, must not be null
+	 * @param reader  reads the entry content, returns null when the content is stale or incompatible, must not be null
+	 * @param <T>  the entry type
+	 * @return the entry or null if the entry is missing, stale or corrupted
+	 */
+	@Nullable
+	public <T> T read(String key, EntryReader<? extends T> reader) {
+		final Path entryFile = entryFile(key);
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(entryFile))) {
+			final T result = reader.read(in);
+			if (result != null) {
+				markUsed(entryFile);
+			}
+			return result;
+		} catch (IOException | RuntimeException e) {
+			// Missing, corrupted or incompatible entry, the caller recreates it
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the entry of the specified key, replacing any existing entry.
+	 *
+	 * @param key  the entry key, must not be null
+	 * @param writer  writes the entry content, must not be null
+	 * @return {@code true} if the entry was written or {@code false} otherwise
+	 */
+	public boolean write(String key, EntryWriter writer) {
+		final Path entryFile = entryFile(key);
+		try {
+			Files.createDirectories(directory);
+			final Path temporaryFile = Files.createTempFile(directory, entryFile.getFileName().toString(), TEMPORARY_FILE_SUFFIX);
+			try {
+				try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporaryFile))) {
+					writer.write(out);
+				}
+				Files.move(temporaryFile, entryFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temporaryFile);
+			}
+			return true;
+		} catch (IOException | RuntimeException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Deletes the entries, and leftover temporary files, unused for longer than the specified duration.
+	 * The directory is scanned at most once a day across all builds sharing it.
+	 *
+	 * @param maxUnusedAge  the maximum time since an entry was last read or written, must not be null
+	 */
+	public void deleteUnusedEntries(Duration maxUnusedAge) {
+		if (!Files.isDirectory(directory)) {
+			return;
+		}
+
+		try {
+			final Path markerFile = directory.resolve(CLEANUP_MARKER_FILE_NAME);
+			final long now = clock.millis();
+			if (Files.exists(markerFile) && now - Files.getLastModifiedTime(markerFile).toMillis() < CLEANUP_INTERVAL.toMillis()) {
+				return;
+			}
+			if (!Files.exists(markerFile)) {
+				Files.createFile(markerFile);
+			}
+			Files.setLastModifiedTime(markerFile, FileTime.fromMillis(now));
+
+			final long threshold = now - maxUnusedAge.toMillis();
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, it -> isEntryOrTemporaryFile(it.getFileName().toString()))) {
+				for (Path file : files) {
+					try {
+						if (Files.getLastModifiedTime(file).toMillis() < threshold) {
+							Files.deleteIfExists(file);
+						}
+					} catch (IOException e) {
+						// Concurrently deleted or in use, the next cleanup will retry
+					}
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			// Cleanup is best effort, the next build will retry
+		}
+	}
+
+	private boolean isEntryOrTemporaryFile(String fileName) {
+		return fileName.endsWith(extension) || fileName.endsWith(TEMPORARY_FILE_SUFFIX);
+	}
+
+	// Only update the modification time hourly, most reads don't write to the file system
+	private void markUsed(Path entryFile) {
+		try {
+			final long now = clock.millis();
+			if (now - Files.getLastModifiedTime(entryFile).toMillis() > MARK_USED_INTERVAL.toMillis()) {
+				Files.setLastModifiedTime(entryFile, FileTime.fromMillis(now));
+			}
+		} catch (IOException | RuntimeException e) {
+			// Read-only or concurrently deleted entry, it may be deleted earlier than expected
+		}
+	}
+
+	private Path entryFile(String key) {
+		return directory.resolve(Hashing.sha256().hashString(key, StandardCharsets.UTF_8) + extension);
+	}
+
+	public interface EntryReader<T> {
+		@Nullable
+		T read(InputStream in) throws IOException;
+	}
+
+	public interface EntryWriter {
+		void write(OutputStream out) throws IOException;
+	}
+}
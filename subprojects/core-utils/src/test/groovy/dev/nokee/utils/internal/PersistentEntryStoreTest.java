@@ -0,0 +1,138 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.utils.internal;
+
+import net.nokeedev.testing.junit.jupiter.io.TestDirectory;
+import net.nokeedev.testing.junit.jupiter.io.TestDirectoryExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+@ExtendWith(TestDirectoryExtension.class)
+class PersistentEntryStoreTest {
+	private static final Instant NOW = Instant.parse("2022-06-01T00:00:00Z");
+	@TestDirectory Path testDirectory;
+
+	@Test
+	void returnsNullForMissingEntries() {
+		assertThat(storeAt(NOW).read("missing", this::readString), nullValue());
+	}
+
+	@Test
+	void canReadWrittenEntries() {
+		final PersistentEntryStore subject = storeAt(NOW);
+		assertThat(subject.write("key", out -> writeString(out, "first")), is(true));
+		assertThat(subject.write("key", out -> writeString(out, "second")), is(true));
+		assertThat(subject.read("key", this::readString), equalTo("second"));
+		assertThat(subject.read("other-key", this::readString), nullValue());
+	}
+
+	@Test
+	void returnsNullForCorruptedEntries() throws IOException {
+		final PersistentEntryStore subject = storeAt(NOW);
+		subject.write("key", out -> out.write(1));
+		assertThat(subject.read("key", this::readString), nullValue());
+	}
+
+	@Test
+	void doesNotLeaveTemporaryFilesWhenWriteFails() throws IOException {
+		final PersistentEntryStore subject = storeAt(NOW);
+		assertThat(subject.write("key", out -> { throw new IOException("failing"); }), is(false));
+		assertThat(subject.read("key", this::readString), nullValue());
+		assertThat(fileCount(), is(0L));
+	}
+
+	@Test
+	void deletesEntriesUnusedForLongerThanSpecifiedDuration() throws IOException {
+		final PersistentEntryStore subject = storeAt(NOW);
+		subject.write("old", out -> writeString(out, "old"));
+		subject.write("recent", out -> writeString(out, "recent"));
+		setAllLastModifiedTime(NOW.minus(Duration.ofDays(10)));
+		storeAt(NOW.plus(Duration.ofDays(5))).read("recent", this::readString);
+
+		storeAt(NOW.plus(Duration.ofDays(5))).deleteUnusedEntries(Duration.ofDays(7));
+
+		assertThat(subject.read("old", this::readString), nullValue());
+		assertThat(subject.read("recent", this::readString), equalTo("recent"));
+	}
+
+	@Test
+	void scansDirectoryAtMostOnceADay() throws IOException {
+		final PersistentEntryStore subject = storeAt(NOW);
+		subject.write("key", out -> writeString(out, "value"));
+		subject.deleteUnusedEntries(Duration.ofDays(7));
+		setAllLastModifiedTime(NOW.minus(Duration.ofDays(10)));
+		Files.setLastModifiedTime(testDirectory.resolve("cleanup.marker"), FileTime.from(NOW));
+
+		storeAt(NOW.plus(Duration.ofHours(1))).deleteUnusedEntries(Duration.ofDays(7));
+		assertThat(entryCount(), is(1L));
+
+		storeAt(NOW.plus(Duration.ofDays(2))).deleteUnusedEntries(Duration.ofDays(7));
+		assertThat(entryCount(), is(0L));
+	}
+
+	private PersistentEntryStore storeAt(Instant now) {
+		return new PersistentEntryStore(testDirectory, ".bin", Clock.fixed(now, ZoneOffset.UTC));
+	}
+
+	private String readString(InputStream in) throws IOException {
+		return new DataInputStream(in).readUTF();
+	}
+
+	private static void writeString(OutputStream out, String value) throws IOException {
+		final DataOutputStream dataOut = new DataOutputStream(out);
+		dataOut.writeUTF(value);
+		dataOut.flush();
+	}
+
+	private void setAllLastModifiedTime(Instant time) throws IOException {
+		try (Stream<Path> files = Files.list(testDirectory)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				Files.setLastModifiedTime(file, FileTime.from(time));
+			}
+		}
+	}
+
+	private long fileCount() throws IOException {
+		try (Stream<Path> files = Files.list(testDirectory)) {
+			return files.count();
+		}
+	}
+
+	private long entryCount() throws IOException {
+		try (Stream<Path> files = Files.list(testDirectory)) {
+			return files.filter(it -> it.getFileName().toString().endsWith(".bin")).count();
+		}
+	}
+}
@@ -19,9 +19,6 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import dev.nokee.ide.visualstudio.VisualStudioIdeProject;
-import dev.nokee.ide.visualstudio.VisualStudioIdeProjectConfiguration;
-import dev.nokee.ide.visualstudio.VisualStudioIdeTarget;
-import dev.nokee.ide.visualstudio.internal.DefaultVisualStudioIdeGuid;
 import dev.nokee.ide.visualstudio.internal.DefaultVisualStudioIdeProject;
 import dev.nokee.ide.visualstudio.internal.VisualStudioIdePropertyAdapter;
 import dev.nokee.ide.visualstudio.internal.vcxproj.*;
@@ -29,9 +26,13 @@ import lombok.val;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.MapProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+import org.gradle.workers.WorkerExecutor;
 import org.simpleframework.xml.Serializer;
 import org.simpleframework.xml.convert.Registry;
 import org.simpleframework.xml.convert.RegistryStrategy;
@@ -46,6 +47,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public abstract class GenerateVisualStudioIdeProjectTask extends DefaultTask {
@@ -66,6 +68,9 @@ public abstract class GenerateVisualStudioIdeProjectTask extends DefaultTask {
 	@Internal
 	public abstract Property<String> getBridgeTaskPath();
 
+	@Inject
+	protected abstract WorkerExecutor getWorkerExecutor();
+
 	@Inject
 	public GenerateVisualStudioIdeProjectTask(VisualStudioIdeProject visualStudioProject) {
 		this.visualStudioProject = (DefaultVisualStudioIdeProject) visualStudioProject;
@@ -73,128 +78,162 @@ public abstract class GenerateVisualStudioIdeProjectTask extends DefaultTask {
 		getFiltersLocation().fileProvider(getProjectLocation().map(it -> new File(it.getAsFile().getAbsolutePath() + ".filters")));
 	}
 
+	// The Gradle model is only resolved here, building and rendering the XML documents happen in a worker.
+	// It allows the projects of a multi-project build to be generated in parallel.
 	@TaskAction
-	private void doGenerate() throws Exception {
-		Style style = new CamelCaseStyle(true, true);
-		Format format = new Format(3, "<?xml version=\"1.0\" encoding=\"utf-8\"?>", style);
-		Registry registry = new Registry();
-		Strategy strategy = new RegistryStrategy(registry);
-		Serializer serializer = new Persister(strategy, format);
-		registry.bind(VCXProperty.class, VCXProperty.Serializer.class);
-
-		serializer.write(getVcxProject(), getProjectLocation().get().getAsFile());
-		serializer.write(getVcxFilters(), getFiltersLocation().get().getAsFile());
-	}
-
-	private VCXProject getVcxProject() {
-		val nodes = ImmutableList.builder();
-		nodes.add(getItemGroupProjectConfigurations());
-		nodes.add(getPropertyGroupGlobals());
-		nodes.add(VCXImport.of("$(VCTargetsPath)\\Microsoft.Cpp.Default.props"));
-		nodes.addAll(getPropertyGroupConfiguration());
-		nodes.add(VCXImport.of("$(VCTargetsPath)\\Microsoft.Cpp.props"));
-		nodes.addAll(getImportGroupPropertySheets());
-		nodes.addAll(getItemDefinitionGroupConfiguration());
-		nodes.add(getItemGroupSourceFiles());
-		nodes.add(getItemGroupHeaderFiles());
-		nodes.add(getItemGroupBuildFiles());
-		nodes.add(VCXImport.of("$(VCTargetsPath)\\Microsoft.Cpp.targets"));
-		nodes.add(getBuildTarget());
-		nodes.add(getCleanTarget());
-		nodes.add(new VCXTarget("PrepareForBuild", "$(PrepareForBuildDependsOn)", null));
-		return new VCXProject("Build", null, nodes.build());
-	}
-
-	private VCXItemGroup getItemGroupProjectConfigurations() {
-		return VCXItemGroup.of(visualStudioProject.getTargets().stream().map(VisualStudioIdeTarget::getProjectConfiguration).map(VCXProjectConfiguration::of).collect(Collectors.toList())).withLabel("ProjectConfigurations");
-	}
-
-	private VCXPropertyGroup getPropertyGroupGlobals() {
-		return VCXPropertyGroup.of(
-			VCXProperty.of("VCProjectVersion", "16.0"),
-			VCXProperty.of("Keyword", "Win32Proj"),
-			VCXProperty.of("ProjectGuid", visualStudioProject.getProjectGuid().get().toString()),
-			VCXProperty.of("WindowsTargetPlatformVersion", "10.0"),
-			VCXProperty.of("NokeeUniqueIdentifier", ((DefaultVisualStudioIdeGuid)visualStudioProject.getProjectGuid().get()).getAsBase64())
-		).withLabel("Globals");
-	}
-
-	private List<VCXPropertyGroup> getPropertyGroupConfiguration() {
-		return visualStudioProject.getTargets().stream().map(target -> {
-			return VCXPropertyGroup.of(target.getProperties().getElements().get().entrySet().stream().map(it -> VCXProperty.of(it.getKey(), it.getValue().toString())).collect(Collectors.toList())).withCondition(conditionOf(target.getProjectConfiguration()));
-		}).collect(Collectors.toList());
-	}
-
-	private List<VCXImportGroup> getImportGroupPropertySheets() {
-		return visualStudioProject.getTargets().stream().map(target -> {
-			return VCXImportGroup.of(
-				VCXImport.of("$(UserRootDir)\\Microsoft.Cpp.$(Platform).user.props").withCondition("exists('$(UserRootDir)\\Microsoft.Cpp.$(Platform).user.props')").withLabel("LocalAppDataPlatform")
-			).withLabel("PropertySheets").withCondition(conditionOf(target.getProjectConfiguration()));
-		}).collect(Collectors.toList());
-	}
-
-	private String conditionOf(VisualStudioIdeProjectConfiguration projectConfiguration) {
-		return String.format("'$(Configuration)|$(Platform)'=='%s|%s'", projectConfiguration.getConfiguration().getIdentifier(), projectConfiguration.getPlatform().getIdentifier());
-	}
-
-	private List<VCXItemDefinitionGroup> getItemDefinitionGroupConfiguration() {
-		return visualStudioProject.getTargets().stream().map(target -> {
-			val names = new HashSet<String>(target.getItemProperties().getNames());
-			names.removeAll(ImmutableSet.of("ClCompile", "Link", "BuildLog"));
-			if (!names.isEmpty()) {
-				throw new UnsupportedOperationException();
-			}
-
-			List<VCXItemDefinition> definitions = new ArrayList<>();
-			val clCompile = target.getItemProperties().findByName("ClCompile");
-			if (clCompile != null) {
-				definitions.add(VCXClCompile.Definition.of(clCompile.getElements().get().entrySet().stream().map(it -> VCXProperty.of(it.getKey(), it.getValue().toString())).collect(Collectors.toList())));
-			}
-
-			val link = target.getItemProperties().findByName("Link");
-			if (link != null) {
-				definitions.add(VCXLink.Definition.of(link.getElements().get().entrySet().stream().map(it -> VCXProperty.of(it.getKey(), it.getValue().toString())).collect(Collectors.toList())));
-			}
-
-			val buildLog = target.getItemProperties().findByName("BuildLog");
-			if (buildLog != null && buildLog.getElements().get().containsKey("Path")) {
-				definitions.add(new VCXBuildLog.Definition(buildLog.getElements().get().get("Path").toString()));
-			}
-
-			return VCXItemDefinitionGroup.of(definitions).withCondition(conditionOf(target.getProjectConfiguration()));
-		}).collect(Collectors.toList());
-	}
-
-	private VCXItemGroup getItemGroupSourceFiles() {
-		return VCXItemGroup.of(visualStudioProject.getSourceFiles().getFiles().stream().map(it -> VCXClCompile.Item.of(it.getAbsolutePath())).collect(Collectors.toList())).withLabel("Sources");
-	}
-
-	private VCXItemGroup getItemGroupHeaderFiles() {
-		return VCXItemGroup.of(visualStudioProject.getHeaderFiles().getFiles().stream().map(it -> VCXClInclude.Item.of(it.getAbsolutePath())).collect(Collectors.toList())).withLabel("Headers");
-	}
-
-	private VCXItemGroup getItemGroupBuildFiles() {
-		return VCXItemGroup.of(visualStudioProject.getBuildFiles().getFiles().stream().map(it -> new VCXNone(it.getAbsolutePath())).collect(Collectors.toList())).withLabel("Builds");
-	}
-
-	private VCXTarget getBuildTarget() {
-		return new VCXTarget("Build", null, ImmutableList.of(new VCXExec(String.format("\"%s\" %s", getGradleCommand().get(), getGradleBuildArgumentsString("build")), "", ".")));
-	}
-
-	private VCXTarget getCleanTarget() {
-		return new VCXTarget("Clean", null, ImmutableList.of(new VCXExec(String.format("\"%s\" %s", getGradleCommand().get(), getGradleBuildArgumentsString("clean")), "", ".")));
+	private void doGenerate() {
+		val snapshot = VisualStudioIdeProjectSnapshot.of(visualStudioProject);
+		getWorkerExecutor().noIsolation().submit(GenerateVisualStudioIdeProjectWorkAction.class, parameters -> {
+			parameters.getProject().set(snapshot);
+			parameters.getProjectLocation().set(getProjectLocation());
+			parameters.getFiltersLocation().set(getFiltersLocation());
+			parameters.getGradleCommand().set(getGradleCommand());
+			parameters.getGradleBuildArguments().put("build", getGradleBuildArgumentsString("build"));
+			parameters.getGradleBuildArguments().put("clean", getGradleBuildArgumentsString("clean"));
+		});
 	}
 
 	private String getGradleBuildArgumentsString(String action) {
 		return String.join(" ", Iterables.concat(VisualStudioIdePropertyAdapter.getAdapterCommandLine(action), getAdditionalGradleArguments().get())) + " " + VisualStudioIdePropertyAdapter.adapt("GRADLE_IDE_PROJECT_NAME", visualStudioProject.getName()) + " " + String.format(getBridgeTaskPath().get(), action);
 	}
 
-	private VCXProject getVcxFilters() {
-		val nodes = ImmutableList.builder();
-		nodes.add(VCXItemGroup.of(VCXFilter.DEFAULT_FILTERS));
-		nodes.add(VCXItemGroup.of(visualStudioProject.getSourceFiles().getFiles().stream().map(it -> VCXClCompile.Item.of(it.getAbsolutePath()).withFilter("Source Files")).collect(Collectors.toList())));
-		nodes.add(VCXItemGroup.of(visualStudioProject.getHeaderFiles().getFiles().stream().map(it -> VCXClCompile.Item.of(it.getAbsolutePath()).withFilter("Header Files")).collect(Collectors.toList())));
-		nodes.add(VCXItemGroup.of(visualStudioProject.getBuildFiles().getFiles().stream().map(it -> new VCXNone(it.getAbsolutePath())).collect(Collectors.toList())));
-		return new VCXProject(null, "4.0", nodes.build());
+	public interface GenerateVisualStudioIdeProjectParameters extends WorkParameters {
+		Property<VisualStudioIdeProjectSnapshot> getProject();
+		RegularFileProperty getProjectLocation();
+		RegularFileProperty getFiltersLocation();
+		Property<String> getGradleCommand();
+		MapProperty<String, String> getGradleBuildArguments();
+	}
+
+	public static abstract class GenerateVisualStudioIdeProjectWorkAction implements WorkAction<GenerateVisualStudioIdeProjectParameters> {
+		@Override
+		public void execute() {
+			Style style = new CamelCaseStyle(true, true);
+			Format format = new Format(3, "<?xml version=\"1.0\" encoding=\"utf-8\"?>", style);
+			Registry registry = new Registry();
+			Strategy strategy = new RegistryStrategy(registry);
+			Serializer serializer = new Persister(strategy, format);
+			try {
+				registry.bind(VCXProperty.class, VCXProperty.Serializer.class);
+
+				val visualStudioProject = getParameters().getProject().get();
+				serializer.write(getVcxProject(visualStudioProject), getParameters().getProjectLocation().get().getAsFile());
+				serializer.write(getVcxFilters(visualStudioProject), getParameters().getFiltersLocation().get().getAsFile());
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		private VCXProject getVcxProject(VisualStudioIdeProjectSnapshot visualStudioProject) {
+			val nodes = ImmutableList.builder();
+			nodes.add(getItemGroupProjectConfigurations(visualStudioProject));
+			nodes.add(getPropertyGroupGlobals(visualStudioProject));
+			nodes.add(VCXImport.of("$(VCTargetsPath)\\Microsoft.Cpp.Default.props"));
+			nodes.addAll(getPropertyGroupConfiguration(visualStudioProject));
+			nodes.add(VCXImport.of("$(VCTargetsPath)\\Microsoft.Cpp.props"));
+			nodes.addAll(getImportGroupPropertySheets(visualStudioProject));
+			nodes.addAll(getItemDefinitionGroupConfiguration(visualStudioProject));
+			nodes.add(getItemGroupSourceFiles(visualStudioProject));
+			nodes.add(getItemGroupHeaderFiles(visualStudioProject));
+			nodes.add(getItemGroupBuildFiles(visualStudioProject));
+			nodes.add(VCXImport.of("$(VCTargetsPath)\\Microsoft.Cpp.targets"));
+			nodes.add(getBuildTarget());
+			nodes.add(getCleanTarget());
+			nodes.add(new VCXTarget("PrepareForBuild", "$(PrepareForBuildDependsOn)", null));
+			return new VCXProject("Build", null, nodes.build());
+		}
+
+		private VCXItemGroup getItemGroupProjectConfigurations(VisualStudioIdeProjectSnapshot visualStudioProject) {
+			return VCXItemGroup.of(visualStudioProject.getTargets().stream().map(it -> VCXProjectConfiguration.of(it.getConfiguration(), it.getPlatform())).collect(Collectors.toList())).withLabel("ProjectConfigurations");
+		}
+
+		private VCXPropertyGroup getPropertyGroupGlobals(VisualStudioIdeProjectSnapshot visualStudioProject) {
+			return VCXPropertyGroup.of(
+				VCXProperty.of("VCProjectVersion", "16.0"),
+				VCXProperty.of("Keyword", "Win32Proj"),
+				VCXProperty.of("ProjectGuid", visualStudioProject.getProjectGuid()),
+				VCXProperty.of("WindowsTargetPlatformVersion", "10.0"),
+				VCXProperty.of("NokeeUniqueIdentifier", visualStudioProject.getProjectGuidAsBase64())
+			).withLabel("Globals");
+		}
+
+		private List<VCXPropertyGroup> getPropertyGroupConfiguration(VisualStudioIdeProjectSnapshot visualStudioProject) {
+			return visualStudioProject.getTargets().stream().map(target -> {
+				return VCXPropertyGroup.of(toProperties(target.getProperties())).withCondition(conditionOf(target));
+			}).collect(Collectors.toList());
+		}
+
+		private List<VCXImportGroup> getImportGroupPropertySheets(VisualStudioIdeProjectSnapshot visualStudioProject) {
+			return visualStudioProject.getTargets().stream().map(target -> {
+				return VCXImportGroup.of(
+					VCXImport.of("$(UserRootDir)\\Microsoft.Cpp.$(Platform).user.props").withCondition("exists('$(UserRootDir)\\Microsoft.Cpp.$(Platform).user.props')").withLabel("LocalAppDataPlatform")
+				).withLabel("PropertySheets").withCondition(conditionOf(target));
+			}).collect(Collectors.toList());
+		}
+
+		private String conditionOf(VisualStudioIdeProjectSnapshot.Target target) {
+			return String.format("'$(Configuration)|$(Platform)'=='%s|%s'", target.getConfiguration(), target.getPlatform());
+		}
+
+		private List<VCXItemDefinitionGroup> getItemDefinitionGroupConfiguration(VisualStudioIdeProjectSnapshot visualStudioProject) {
+			return visualStudioProject.getTargets().stream().map(target -> {
+				val names = new HashSet<String>(target.getItemProperties().keySet());
+				names.removeAll(ImmutableSet.of("ClCompile", "Link", "BuildLog"));
+				if (!names.isEmpty()) {
+					throw new UnsupportedOperationException();
+				}
+
+				List<VCXItemDefinition> definitions = new ArrayList<>();
+				val clCompile = target.getItemProperties().get("ClCompile");
+				if (clCompile != null) {
+					definitions.add(VCXClCompile.Definition.of(toProperties(clCompile)));
+				}
+
+				val link = target.getItemProperties().get("Link");
+				if (link != null) {
+					definitions.add(VCXLink.Definition.of(toProperties(link)));
+				}
+
+				val buildLog = target.getItemProperties().get("BuildLog");
+				if (buildLog != null && buildLog.containsKey("Path")) {
+					definitions.add(new VCXBuildLog.Definition(buildLog.get("Path")));
+				}
+
+				return VCXItemDefinitionGroup.of(definitions).withCondition(conditionOf(target));
+			}).collect(Collectors.toList());
+		}
+
+		private static List<VCXProperty> toProperties(Map<String, String> properties) {
+			return properties.entrySet().stream().map(it -> VCXProperty.of(it.getKey(), it.getValue())).collect(Collectors.toList());
+		}
+
+		private VCXItemGroup getItemGroupSourceFiles(VisualStudioIdeProjectSnapshot visualStudioProject) {
+			return VCXItemGroup.of(visualStudioProject.getSourceFiles().stream().map(it -> VCXClCompile.Item.of(it.getAbsolutePath())).collect(Collectors.toList())).withLabel("Sources");
+		}
+
+		private VCXItemGroup getItemGroupHeaderFiles(VisualStudioIdeProjectSnapshot visualStudioProject) {
+			return VCXItemGroup.of(visualStudioProject.getHeaderFiles().stream().map(it -> VCXClInclude.Item.of(it.getAbsolutePath())).collect(Collectors.toList())).withLabel("Headers");
+		}
+
+		private VCXItemGroup getItemGroupBuildFiles(VisualStudioIdeProjectSnapshot visualStudioProject) {
+			return VCXItemGroup.of(visualStudioProject.getBuildFiles().stream().map(it -> new VCXNone(it.getAbsolutePath())).collect(Collectors.toList())).withLabel("Builds");
+		}
+
+		private VCXTarget getBuildTarget() {
+			return new VCXTarget("Build", null, ImmutableList.of(new VCXExec(String.format("\"%s\" %s", getParameters().getGradleCommand().get(), getParameters().getGradleBuildArguments().getting("build").get()), "", ".")));
+		}
+
+		private VCXTarget getCleanTarget() {
+			return new VCXTarget("Clean", null, ImmutableList.of(new VCXExec(String.format("\"%s\" %s", getParameters().getGradleCommand().get(), getParameters().getGradleBuildArguments().getting("clean").get()), "", ".")));
+		}
+
+		private VCXProject getVcxFilters(VisualStudioIdeProjectSnapshot visualStudioProject) {
+			val nodes = ImmutableList.builder();
+			nodes.add(VCXItemGroup.of(VCXFilter.DEFAULT_FILTERS));
+			nodes.add(VCXItemGroup.of(visualStudioProject.getSourceFiles().stream().map(it -> VCXClCompile.Item.of(it.getAbsolutePath()).withFilter("Source Files")).collect(Collectors.toList())));
+			nodes.add(VCXItemGroup.of(visualStudioProject.getHeaderFiles().stream().map(it -> VCXClCompile.Item.of(it.getAbsolutePath()).withFilter("Header Files")).collect(Collectors.toList())));
+			nodes.add(VCXItemGroup.of(visualStudioProject.getBuildFiles().stream().map(it -> new VCXNone(it.getAbsolutePath())).collect(Collectors.toList())));
+			return new VCXProject(null, "4.0", nodes.build());
+		}
 	}
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.ide.visualstudio.internal.tasks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import dev.nokee.ide.visualstudio.VisualStudioIdePropertyGroup;
+import dev.nokee.ide.visualstudio.VisualStudioIdeTarget;
+import dev.nokee.ide.visualstudio.internal.DefaultVisualStudioIdeGuid;
+import dev.nokee.ide.visualstudio.internal.DefaultVisualStudioIdeProject;
+import lombok.EqualsAndHashCode;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of a Visual Studio project with all providers and file collections resolved.
+ * It's safe to hand over to a worker thread, the Gradle model is never accessed during the generation.
+ */
+@EqualsAndHashCode
+public final class VisualStudioIdeProjectSnapshot implements Serializable {
+	private final String name;
+	private final String projectGuid;
+	private final String projectGuidAsBase64;
+	private final List<Target> targets;
+	private final List<File> sourceFiles;
+	private final List<File> headerFiles;
+	private final List<File> buildFiles;
+
+	private VisualStudioIdeProjectSnapshot(String name, String projectGuid, String projectGuidAsBase64, List<Target> targets, List<File> sourceFiles, List<File> headerFiles, List<File> buildFiles) {
+		this.name = name;
+		this.projectGuid = projectGuid;
+		this.projectGuidAsBase64 = projectGuidAsBase64;
+		this.targets = targets;
+		this.sourceFiles = sourceFiles;
+		this.headerFiles = headerFiles;
+		this.buildFiles = buildFiles;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getProjectGuid() {
+		return projectGuid;
+	}
+
+	public String getProjectGuidAsBase64() {
+		return projectGuidAsBase64;
+	}
+
+	public List<Target> getTargets() {
+		return targets;
+	}
+
+	public List<File> getSourceFiles() {
+		return sourceFiles;
+	}
+
+	public List<File> getHeaderFiles() {
+		return headerFiles;
+	}
+
+	public List<File> getBuildFiles() {
+		return buildFiles;
+	}
+
+	public static VisualStudioIdeProjectSnapshot of(DefaultVisualStudioIdeProject visualStudioProject) {
+		final DefaultVisualStudioIdeGuid projectGuid = (DefaultVisualStudioIdeGuid) visualStudioProject.getProjectGuid().get();
+		return new VisualStudioIdeProjectSnapshot(visualStudioProject.getName(), projectGuid.toString(), projectGuid.getAsBase64(),
+			visualStudioProject.getTargets().stream().map(Target::of).collect(ImmutableList.toImmutableList()),
+			ImmutableList.copyOf(visualStudioProject.getSourceFiles().getFiles()),
+			ImmutableList.copyOf(visualStudioProject.getHeaderFiles().getFiles()),
+			ImmutableList.copyOf(visualStudioProject.getBuildFiles().getFiles()));
+	}
+
+	@EqualsAndHashCode
+	public static final class Target implements Serializable {
+		private final String configuration;
+		private final String platform;
+		private final Map<String, String> properties;
+		private final Map<String, Map<String, String>> itemProperties;
+
+		private Target(String configuration, String platform, Map<String, String> properties, Map<String, Map<String, String>> itemProperties) {
+			this.configuration = configuration;
+			this.platform = platform;
+			this.properties = properties;
+			this.itemProperties = itemProperties;
+		}
+
+		public String getConfiguration() {
+			return configuration;
+		}
+
+		public String getPlatform() {
+			return platform;
+		}
+
+		public Map<String, String> getProperties() {
+			return properties;
+		}
+
+		public Map<String, Map<String, String>> getItemProperties() {
+			return itemProperties;
+		}
+
+		static Target of(VisualStudioIdeTarget target) {
+			final ImmutableMap.Builder<String, Map<String, String>> itemProperties = ImmutableMap.builder();
+			target.getItemProperties().getNames().forEach(name -> itemProperties.put(name, toProperties(target.getItemProperties().getByName(name))));
+			return new Target(target.getProjectConfiguration().getConfiguration().getIdentifier(), target.getProjectConfiguration().getPlatform().getIdentifier(),
+				toProperties(target.getProperties()), itemProperties.build());
+		}
+
+		private static Map<String, String> toProperties(VisualStudioIdePropertyGroup properties) {
+			final ImmutableMap.Builder<String, String> result = ImmutableMap.builder();
+			properties.getElements().get().forEach((key, value) -> result.put(key, value.toString()));
+			return result.build();
+		}
+	}
+}
@@ -19,7 +19,6 @@ import dev.nokee.ide.base.internal.*;
 import dev.nokee.ide.base.internal.plugins.AbstractIdePlugin;
 import dev.nokee.ide.xcode.XcodeIdeProject;
 import dev.nokee.ide.xcode.internal.*;
-import dev.nokee.ide.xcode.internal.services.XcodeIdeGidGeneratorService;
 import dev.nokee.ide.xcode.internal.tasks.GenerateXcodeIdeWorkspaceTask;
 import org.gradle.api.Rule;
 import org.gradle.api.Task;
@@ -27,7 +26,6 @@ import org.gradle.api.file.FileSystemLocation;
 import org.gradle.api.file.ProjectLayout;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.TaskContainer;
-import org.gradle.internal.Actions;
 import org.gradle.plugins.ide.internal.IdeProjectMetadata;
 
 import javax.inject.Inject;
@@ -41,14 +39,11 @@ public abstract class XcodeIdeBasePlugin extends AbstractIdePlugin<XcodeIdeProje
 	public void doProjectApply(IdeProjectExtension<XcodeIdeProject> extension) {
 		DefaultXcodeIdeProjectExtension projectExtension = (DefaultXcodeIdeProjectExtension) extension;
 
-		Provider<XcodeIdeGidGeneratorService> xcodeIdeGidGeneratorService = getProject().getGradle().getSharedServices().registerIfAbsent("xcodeIdeGidGeneratorService", XcodeIdeGidGeneratorService.class, Actions.doNothing());
 		projectExtension.getProjects().withType(DefaultXcodeIdeProject.class).configureEach(xcodeProject -> {
 			xcodeProject.getSources().from(getBuildFiles());
 			xcodeProject.getGeneratorTask().configure( task -> {
 				FileSystemLocation projectLocation = getLayout().getProjectDirectory().dir(xcodeProject.getName() + ".xcodeproj");
 				task.getProjectLocation().convention(projectLocation);
-				task.usesService(xcodeIdeGidGeneratorService);
-				task.getGidGenerator().set(xcodeIdeGidGeneratorService);
 				task.getGradleCommand().set(toGradleCommand(getProject().getGradle()));
 				task.getBridgeTaskPath().set(getBridgeTaskPath());
 				task.getAdditionalGradleArguments().set(getAdditionalBuildArguments());
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.ide.xcode.internal.tasks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Files generated in memory and synchronized to a directory.
+ * Only the files whose bytes changed are written, so Xcode doesn't reload or re-index untouched files.
+ * Files under {@code xcuserdata} directories are user state and are never deleted.
+ */
+final class GeneratedFiles {
+	private final Path baseDirectory;
+	private final Map<Path, byte[]> files = new LinkedHashMap<>();
+
+	GeneratedFiles(Path baseDirectory) {
+		this.baseDirectory = baseDirectory;
+	}
+
+	/**
+	 * Renders a file in memory using UTF-8.
+	 *
+	 * @param relativePath  the path of the file relative to the base directory, must not be null
+	 * @param writerFactory  creates the format writer from the in-memory writer, must not be null
+	 * @param action  writes the content, must not be null
+	 * @param <W>  the format writer type
+	 */
+	public <W extends Closeable> void generate(String relativePath, Function<? super Writer, ? extends W> writerFactory, IOConsumer<? super W> action) {
+		final ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		try (W writer = writerFactory.apply(new OutputStreamWriter(outStream, StandardCharsets.UTF_8))) {
+			action.accept(writer);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		files.put(baseDirectory.resolve(relativePath), outStream.toByteArray());
+	}
+
+	/**
+	 * Writes the changed files, deletes the files that are no longer generated.
+	 *
+	 * @return the synchronization statistics, never null
+	 * @throws IOException if a file cannot be written or deleted
+	 */
+	public Result sync() throws IOException {
+		int writtenCount = 0;
+		int skippedCount = 0;
+		for (Map.Entry<Path, byte[]> file : files.entrySet()) {
+			if (hasContent(file.getKey(), file.getValue())) {
+				skippedCount++;
+			} else {
+				write(file.getKey(), file.getValue());
+				writtenCount++;
+			}
+		}
+		return new Result(writtenCount, skippedCount, deleteStaleFiles());
+	}
+
+	private static boolean hasContent(Path file, byte[] content) throws IOException {
+		return Files.isRegularFile(file) && Files.size(file) == content.length && Arrays.equals(Files.readAllBytes(file), content);
+	}
+
+	// Write next to the destination and rename so Xcode never observes a partially written file
+	private static void write(Path file, byte[] content) throws IOException {
+		Files.createDirectories(file.getParent());
+		final Path temporaryFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+		try {
+			Files.write(temporaryFile, content);
+			try {
+				Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+
+	private int deleteStaleFiles() throws IOException {
+		if (!Files.isDirectory(baseDirectory)) {
+			return 0;
+		}
+
+		final List<Path> paths;
+		try (Stream<Path> stream = Files.walk(baseDirectory)) {
+			paths = stream.filter(it -> !isUserData(it)).sorted(Comparator.reverseOrder()).collect(Collectors.toCollection(ArrayList::new));
+		}
+
+		int result = 0;
+		for (Path path : paths) {
+			if (Files.isDirectory(path)) {
+				if (!path.equals(baseDirectory) && isEmptyDirectory(path)) {
+					Files.delete(path);
+				}
+			} else if (!files.containsKey(path)) {
+				Files.delete(path);
+				result++;
+			}
+		}
+		return result;
+	}
+
+	private boolean isUserData(Path path) {
+		for (Path segment : baseDirectory.relativize(path)) {
+			if (segment.toString().equals("xcuserdata")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isEmptyDirectory(Path directory) throws IOException {
+		try (Stream<Path> children = Files.list(directory)) {
+			return !children.findAny().isPresent();
+		}
+	}
+
+	public interface IOConsumer<T> {
+		void accept(T t) throws IOException;
+	}
+
+	public static final class Result {
+		private final int writtenCount;
+		private final int skippedCount;
+		private final int deletedCount;
+
+		Result(int writtenCount, int skippedCount, int deletedCount) {
+			this.writtenCount = writtenCount;
+			this.skippedCount = skippedCount;
+			this.deletedCount = deletedCount;
+		}
+
+		public int getWrittenCount() {
+			return writtenCount;
+		}
+
+		public int getSkippedCount() {
+			return skippedCount;
+		}
+
+		public int getDeletedCount() {
+			return deletedCount;
+		}
+	}
+}
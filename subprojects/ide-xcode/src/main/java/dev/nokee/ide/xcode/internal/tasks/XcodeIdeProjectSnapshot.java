@@ -0,0 +1,185 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.ide.xcode.internal.tasks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import dev.nokee.ide.xcode.XcodeIdeBuildConfiguration;
+import dev.nokee.ide.xcode.XcodeIdeGroup;
+import dev.nokee.ide.xcode.XcodeIdeProductType;
+import dev.nokee.ide.xcode.XcodeIdeProject;
+import dev.nokee.ide.xcode.XcodeIdeTarget;
+import lombok.EqualsAndHashCode;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of a {@link XcodeIdeProject} with all providers and file collections resolved.
+ * It's safe to hand over to a worker thread, the Gradle model is never accessed during the generation.
+ */
+@EqualsAndHashCode
+public final class XcodeIdeProjectSnapshot implements Serializable {
+	private final String name;
+	private final List<Target> targets;
+	private final List<File> sources;
+	private final List<Group> groups;
+
+	private XcodeIdeProjectSnapshot(String name, List<Target> targets, List<File> sources, List<Group> groups) {
+		this.name = name;
+		this.targets = targets;
+		this.sources = sources;
+		this.groups = groups;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public List<Target> getTargets() {
+		return targets;
+	}
+
+	public List<File> getSources() {
+		return sources;
+	}
+
+	public List<Group> getGroups() {
+		return groups;
+	}
+
+	public static XcodeIdeProjectSnapshot of(XcodeIdeProject xcodeProject) {
+		return new XcodeIdeProjectSnapshot(xcodeProject.getName(),
+			xcodeProject.getTargets().stream().map(Target::of).collect(ImmutableList.toImmutableList()),
+			ImmutableList.copyOf(xcodeProject.getSources().getFiles()),
+			xcodeProject.getGroups().stream().map(Group::of).collect(ImmutableList.toImmutableList()));
+	}
+
+	@EqualsAndHashCode
+	public static final class Target implements Serializable {
+		private final String name;
+		private final String productType;
+		private final String productName;
+		private final String productReference;
+		private final List<BuildConfiguration> buildConfigurations;
+		private final List<File> sources;
+
+		private Target(String name, String productType, String productName, String productReference, List<BuildConfiguration> buildConfigurations, List<File> sources) {
+			this.name = name;
+			this.productType = productType;
+			this.productName = productName;
+			this.productReference = productReference;
+			this.buildConfigurations = buildConfigurations;
+			this.sources = sources;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public XcodeIdeProductType getProductType() {
+			return XcodeIdeProductType.of(productType);
+		}
+
+		public String getProductName() {
+			return productName;
+		}
+
+		public String getProductReference() {
+			return productReference;
+		}
+
+		public List<BuildConfiguration> getBuildConfigurations() {
+			return buildConfigurations;
+		}
+
+		public List<File> getSources() {
+			return sources;
+		}
+
+		static Target of(XcodeIdeTarget xcodeTarget) {
+			return new Target(xcodeTarget.getName(), xcodeTarget.getProductType().get().getIdentifier(),
+				xcodeTarget.getProductName().get(), xcodeTarget.getProductReference().get(),
+				xcodeTarget.getBuildConfigurations().stream().map(BuildConfiguration::of).collect(ImmutableList.toImmutableList()),
+				ImmutableList.copyOf(xcodeTarget.getSources().getFiles()));
+		}
+	}
+
+	@EqualsAndHashCode
+	public static final class BuildConfiguration implements Serializable {
+		private final String name;
+		private final Map<String, Object> buildSettings;
+
+		private BuildConfiguration(String name, Map<String, Object> buildSettings) {
+			this.name = name;
+			this.buildSettings = buildSettings;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Map<String, Object> getBuildSettings() {
+			return buildSettings;
+		}
+
+		static BuildConfiguration of(XcodeIdeBuildConfiguration buildConfiguration) {
+			final ImmutableMap.Builder<String, Object> buildSettings = ImmutableMap.builder();
+			buildConfiguration.getBuildSettings().getElements().get().forEach((key, value) -> buildSettings.put(key, toBuildSettingValue(value)));
+			return new BuildConfiguration(buildConfiguration.getName(), buildSettings.build());
+		}
+
+		// Keeps the values the PBXProj format understands, anything else fails like the project writer would
+		private static Object toBuildSettingValue(Object value) {
+			if (value instanceof String || value instanceof Number || value instanceof Boolean) {
+				return value;
+			} else if (value instanceof Collection) {
+				return ((Collection<?>) value).stream().map(BuildConfiguration::toBuildSettingValue).collect(ImmutableList.toImmutableList());
+			} else if (value instanceof Map) {
+				final ImmutableMap.Builder<String, Object> result = ImmutableMap.builder();
+				((Map<?, ?>) value).forEach((k, v) -> result.put(k.toString(), toBuildSettingValue(v)));
+				return result.build();
+			}
+			throw new UnsupportedOperationException(String.format("Unknown object of type %s", value == null ? "null" : value.getClass().getSimpleName()));
+		}
+	}
+
+	@EqualsAndHashCode
+	public static final class Group implements Serializable {
+		private final String name;
+		private final List<File> sources;
+
+		private Group(String name, List<File> sources) {
+			this.name = name;
+			this.sources = sources;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public List<File> getSources() {
+			return sources;
+		}
+
+		static Group of(XcodeIdeGroup group) {
+			return new Group(group.getName(), ImmutableList.copyOf(group.getSources().getFiles()));
+		}
+	}
+}
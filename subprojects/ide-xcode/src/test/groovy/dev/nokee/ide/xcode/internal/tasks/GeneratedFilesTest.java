@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.ide.xcode.internal.tasks;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeneratedFilesTest {
+	@TempDir Path testDirectory;
+
+	private GeneratedFiles generatedFiles(String... contents) {
+		val result = new GeneratedFiles(testDirectory.resolve("App.xcodeproj"));
+		for (int i = 0; i < contents.length; ++i) {
+			final String content = contents[i];
+			result.generate("xcshareddata/xcschemes/Scheme" + i + ".xcscheme", Writer.class::cast, writer -> writer.write(content));
+		}
+		return result;
+	}
+
+	@Test
+	void writesAllFilesOnFirstGeneration() throws IOException {
+		val result = generatedFiles("a", "b").sync();
+		assertThat(result.getWrittenCount(), equalTo(2));
+		assertThat(result.getSkippedCount(), equalTo(0));
+		assertThat(new String(Files.readAllBytes(testDirectory.resolve("App.xcodeproj/xcshareddata/xcschemes/Scheme1.xcscheme")), StandardCharsets.UTF_8), equalTo("b"));
+	}
+
+	@Test
+	void skipsFilesWithSameContent() throws IOException {
+		generatedFiles("a", "b").sync();
+		val unchangedFile = testDirectory.resolve("App.xcodeproj/xcshareddata/xcschemes/Scheme0.xcscheme");
+		Files.setLastModifiedTime(unchangedFile, FileTime.fromMillis(0));
+
+		val result = generatedFiles("a", "c").sync();
+		assertThat(result.getWrittenCount(), equalTo(1));
+		assertThat(result.getSkippedCount(), equalTo(1));
+		assertThat(Files.getLastModifiedTime(unchangedFile), equalTo(FileTime.fromMillis(0)));
+	}
+
+	@Test
+	void deletesFilesNoLongerGeneratedButKeepsUserData() throws IOException {
+		generatedFiles("a", "b").sync();
+		val userDataFile = testDirectory.resolve("App.xcodeproj/xcuserdata/me.xcuserdatad/xcschemes/xcschememanagement.plist");
+		Files.createDirectories(userDataFile.getParent());
+		Files.write(userDataFile, new byte[0]);
+
+		val result = generatedFiles("a").sync();
+		assertThat(result.getDeletedCount(), equalTo(1));
+		assertFalse(Files.exists(testDirectory.resolve("App.xcodeproj/xcshareddata/xcschemes/Scheme1.xcscheme")));
+		assertTrue(Files.exists(userDataFile));
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.platform.cpp;
+
+import dev.nokee.platform.cpp.results.DefaultOutputDirSelector;
+import dev.nokee.platform.cpp.results.GradleProfilerReporter;
+import dev.nokee.platform.cpp.results.PerformanceTestResult;
+import dev.nokee.platform.cpp.results.XmlScenarioDataReporter;
+import lombok.SneakyThrows;
+import lombok.val;
+import net.nokeedev.testing.file.TestDirectoryProvider;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static dev.nokee.platform.cpp.BuildExperimentExecutor.gradleProfiler;
+import static dev.nokee.platform.cpp.BuildExperimentRunner.create;
+
+/**
+ * Measures the wall time of the {@literal xcode} and {@literal visualStudio} lifecycle tasks on a wide multi-project build.
+ * Each subproject contributes one IDE project, the generation work should spread across the available cores.
+ */
+class IdeProjectGenerationPerformanceTest {
+	private static final int PROJECT_COUNT = 300;
+	static TestDirectoryProvider testDirectory = new PerformanceTestDirectoryProvider(IdeProjectGenerationPerformanceTest.class);
+
+	static PerformanceTestResult results;
+
+	@BeforeAll
+	static void setup() throws IOException {
+		int runIndex = 0;
+		val builder = PerformanceTestResult.builder()
+			.testProject("generated/" + PROJECT_COUNT + "-cpp-libraries").testClass(IdeProjectGenerationPerformanceTest.class.getCanonicalName()).testCase("IDE lifecycle tasks");
+
+		for (String lifecycleTaskName : Arrays.asList("xcode", "visualStudio")) {
+			val workingDirectory = perVersionWorkingDirectory(runIndex++);
+			final BuildExperimentRunner<GradleInvocationSpec> runner = create(gradleProfiler(it -> {
+				it.displayName(lifecycleTaskName);
+				it.outputDirectory(testDirectory.getTestDirectory().resolve(lifecycleTaskName));
+			}))
+				.inDirectory(workingDirectory)
+				.withWarmUpRuns(5).withInvocationRuns(10)
+				.withBuildAction(GradleBuildExperimentActions.runTasks(lifecycleTaskName))
+				.invocation(it -> it.withArguments("--parallel"))
+				;
+
+			writeMultiProjectBuild(workingDirectory);
+
+			builder.experiment(lifecycleTaskName, runner.run());
+		}
+
+		results = builder.build();
+	}
+
+	private static void writeMultiProjectBuild(Path workingDirectory) throws IOException {
+		val projectNames = IntStream.range(0, PROJECT_COUNT).mapToObj(it -> String.format("lib%03d", it)).collect(Collectors.toList());
+
+		Files.createDirectories(workingDirectory.resolve("buildSrc"));
+		Files.write(workingDirectory.resolve("buildSrc/build.gradle"), Arrays.asList(
+			"repositories {",
+			"	maven { url = '" + System.getProperty("dev.nokee.performance.localRepository.url") + "' }",
+			"	mavenCentral()",
+			"}",
+			"dependencies {",
+			"	implementation platform('dev.nokee:nokee-gradle-plugins:0.5.0')",
+			"}"));
+		Files.write(workingDirectory.resolve("settings.gradle"), Arrays.asList(
+			"rootProject.name = 'ide-generation'",
+			projectNames.stream().map(it -> "'" + it + "'").collect(Collectors.joining(", ", "include ", ""))));
+		Files.write(workingDirectory.resolve("build.gradle"), Arrays.asList(
+			"plugins {",
+			"	id 'dev.nokee.xcode-ide'",
+			"	id 'dev.nokee.visual-studio-ide'",
+			"}"));
+
+		for (String projectName : projectNames) {
+			val projectDirectory = workingDirectory.resolve(projectName);
+			Files.createDirectories(projectDirectory.resolve("src/main/cpp"));
+			Files.createDirectories(projectDirectory.resolve("src/main/public"));
+			Files.write(projectDirectory.resolve("build.gradle"), Arrays.asList(
+				"plugins {",
+				"	id 'dev.nokee.cpp-library'",
+				"	id 'dev.nokee.xcode-ide'",
+				"	id 'dev.nokee.visual-studio-ide'",
+				"}"));
+			Files.write(projectDirectory.resolve("src/main/public/" + projectName + ".h"), Arrays.asList(
+				"int " + projectName + "();"));
+			Files.write(projectDirectory.resolve("src/main/cpp/" + projectName + ".cpp"), Arrays.asList(
+				"#include \"" + projectName + ".h\"",
+				"int " + projectName + "() { return 42; }"));
+		}
+	}
+
+	@SneakyThrows
+	private static Path perVersionWorkingDirectory(int runIndex) {
+		val versionWorkingDirName = String.format("%03d", runIndex);
+		val perVersion = testDirectory.getTestDirectory().resolve(versionWorkingDirName);
+		if (!Files.exists(perVersion)) {
+			FileUtils.createParentDirectories(perVersion.toFile());
+		} else {
+			FileUtils.cleanDirectory(perVersion.toFile());
+		}
+		return perVersion;
+	}
+
+	@AfterAll
+	static void report() {
+		val outputDirSelector = new DefaultOutputDirSelector(testDirectory.getTestDirectory().toFile());
+		val gradleProfileReporter = new GradleProfilerReporter(outputDirSelector);
+
+		val reporter = gradleProfileReporter
+			.reportAlso(new XmlScenarioDataReporter());
+		reporter.report(results);
+	}
+
+	@Test
+	void performanceHistory() {
+		// empty test case to ensure performance test was executed
+	}
+}
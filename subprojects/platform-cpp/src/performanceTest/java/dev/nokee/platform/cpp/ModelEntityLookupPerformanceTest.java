@@ -0,0 +1,132 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.platform.cpp;
+
+import dev.nokee.platform.cpp.results.DefaultOutputDirSelector;
+import dev.nokee.platform.cpp.results.GradleProfilerReporter;
+import dev.nokee.platform.cpp.results.PerformanceTestResult;
+import dev.nokee.platform.cpp.results.XmlScenarioDataReporter;
+import lombok.SneakyThrows;
+import lombok.val;
+import net.nokeedev.testing.file.TestDirectoryProvider;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static dev.nokee.platform.cpp.BuildExperimentExecutor.gradleProfiler;
+import static dev.nokee.platform.cpp.BuildExperimentRunner.create;
+
+/**
+ * Measures the configuration of a multi-project build whose components realize many variants and tasks.
+ * Realizing every task exercises the model registry entity lookups by archetype, path and parent path.
+ */
+class ModelEntityLookupPerformanceTest {
+	private static final int PROJECT_COUNT = 100;
+	static TestDirectoryProvider testDirectory = new PerformanceTestDirectoryProvider(ModelEntityLookupPerformanceTest.class);
+
+	static PerformanceTestResult results;
+
+	@BeforeAll
+	static void setup() throws IOException {
+		val workingDirectory = perVersionWorkingDirectory(0);
+		final BuildExperimentRunner<GradleInvocationSpec> runner = create(gradleProfiler(it -> {
+			it.displayName("tasks --all");
+			it.outputDirectory(testDirectory.getTestDirectory().resolve("tasks-all"));
+		}))
+			.inDirectory(workingDirectory)
+			.withWarmUpRuns(5).withInvocationRuns(10)
+			.withBuildAction(GradleBuildExperimentActions.runTasks("tasks"))
+			.invocation(it -> it.withArguments("--all"))
+			;
+
+		writeMultiProjectBuild(workingDirectory);
+
+		results = PerformanceTestResult.builder()
+			.testProject("generated/" + PROJECT_COUNT + "-cpp-libraries-6-variants").testClass(ModelEntityLookupPerformanceTest.class.getCanonicalName()).testCase("realize all tasks")
+			.experiment("tasks --all", runner.run())
+			.build();
+	}
+
+	private static void writeMultiProjectBuild(Path workingDirectory) throws IOException {
+		val projectNames = IntStream.range(0, PROJECT_COUNT).mapToObj(it -> String.format("lib%03d", it)).collect(Collectors.toList());
+
+		Files.createDirectories(workingDirectory.resolve("buildSrc"));
+		Files.write(workingDirectory.resolve("buildSrc/build.gradle"), Arrays.asList(
+			"repositories {",
+			"	maven { url = '" + System.getProperty("dev.nokee.performance.localRepository.url") + "' }",
+			"	mavenCentral()",
+			"}",
+			"dependencies {",
+			"	implementation platform('dev.nokee:nokee-gradle-plugins:0.5.0')",
+			"}"));
+		Files.write(workingDirectory.resolve("settings.gradle"), Arrays.asList(
+			"rootProject.name = 'model-entity-lookup'",
+			projectNames.stream().map(it -> "'" + it + "'").collect(Collectors.joining(", ", "include ", ""))));
+		for (String projectName : projectNames) {
+			val projectDirectory = workingDirectory.resolve(projectName);
+			Files.createDirectories(projectDirectory.resolve("src/main/cpp"));
+			Files.createDirectories(projectDirectory.resolve("src/main/public"));
+			Files.write(projectDirectory.resolve("build.gradle"), Arrays.asList(
+				"plugins {",
+				"	id 'dev.nokee.cpp-library'",
+				"}",
+				"library {",
+				"	targetMachines = [machines.linux.x86_64, machines.macOS.x86_64, machines.windows.x86_64]",
+				"	targetLinkages = [linkages.shared, linkages.static]",
+				"}"));
+			Files.write(projectDirectory.resolve("src/main/public/" + projectName + ".h"), Arrays.asList(
+				"int " + projectName + "();"));
+			Files.write(projectDirectory.resolve("src/main/cpp/" + projectName + ".cpp"), Arrays.asList(
+				"#include \"" + projectName + ".h\"",
+				"int " + projectName + "() { return 42; }"));
+		}
+	}
+
+	@SneakyThrows
+	private static Path perVersionWorkingDirectory(int runIndex) {
+		val versionWorkingDirName = String.format("%03d", runIndex);
+		val perVersion = testDirectory.getTestDirectory().resolve(versionWorkingDirName);
+		if (!Files.exists(perVersion)) {
+			FileUtils.createParentDirectories(perVersion.toFile());
+		} else {
+			FileUtils.cleanDirectory(perVersion.toFile());
+		}
+		return perVersion;
+	}
+
+	@AfterAll
+	static void report() {
+		val outputDirSelector = new DefaultOutputDirSelector(testDirectory.getTestDirectory().toFile());
+		val gradleProfileReporter = new GradleProfilerReporter(outputDirSelector);
+
+		val reporter = gradleProfileReporter
+			.reportAlso(new XmlScenarioDataReporter());
+		reporter.report(results);
+	}
+
+	@Test
+	void performanceHistory() {
+		// empty test case to ensure performance test was executed
+	}
+}
@@ -16,12 +16,14 @@
 package dev.nokee.platform.ios.tasks.internal;
 
 import dev.nokee.core.exec.CommandLineTool;
-import dev.nokee.core.exec.GradleWorkerExecutorEngine;
+import dev.nokee.core.exec.ExternalProcessService;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
 import org.gradle.api.tasks.*;
 
 import javax.inject.Inject;
@@ -33,6 +35,7 @@ public class AssetCatalogCompileTask extends DefaultTask {
 	private final Property<String> identifier;
 	private final Property<CommandLineTool> assetCompilerTool;
 	private final ObjectFactory objects;
+	private final Provider<ExternalProcessService> processService;
 
 	@OutputDirectory
 	public DirectoryProperty getDestinationDirectory() {
@@ -57,12 +60,14 @@ public class AssetCatalogCompileTask extends DefaultTask {
 	}
 
 	@Inject
-	public AssetCatalogCompileTask(ObjectFactory objects) {
+	public AssetCatalogCompileTask(ObjectFactory objects, ProviderFactory providers) {
 		this.destinationDirectory = objects.directoryProperty();
 		this.source = objects.fileProperty();
 		this.identifier = objects.property(String.class);
 		this.assetCompilerTool = objects.property(CommandLineTool.class);
 		this.objects = objects;
+		this.processService = ExternalProcessService.registerIfAbsent(getProject().getGradle(), providers);
+		usesService(processService);
 	}
 
 	@TaskAction
@@ -86,6 +91,6 @@ public class AssetCatalogCompileTask extends DefaultTask {
 				"--compile", getDestinationDirectory().get().getAsFile().getAbsolutePath(), getSource().get().getAsFile().getAbsolutePath())
 			.newInvocation()
 			.appendStandardStreamToFile(new File(getTemporaryDir(), "outputs.txt"))
-			.buildAndSubmit(objects.newInstance(GradleWorkerExecutorEngine.class));
+			.buildAndSubmit(ExternalProcessService.newEngine(objects, processService));
 	}
 }
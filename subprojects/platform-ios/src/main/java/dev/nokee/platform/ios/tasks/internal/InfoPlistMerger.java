@@ -0,0 +1,139 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.platform.ios.tasks.internal;
+
+import dev.nokee.xcode.JavaPropertyListReader;
+import dev.nokee.xcode.PropertyListReaders;
+import dev.nokee.xcode.PropertyListVersion;
+import dev.nokee.xcode.PropertyListWriter;
+import lombok.val;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Merges property list files into a single Info.plist, in-process.
+ * It follows {@code PlistBuddy} semantic: the first occurrence of a top-level key wins, later entries are skipped.
+ * Dictionaries are written with sorted keys so the output only depends on the content of the sources.
+ */
+final class InfoPlistMerger {
+	private final Map<String, Object> entries = new LinkedHashMap<>();
+	private final Map<String, String> variables = new LinkedHashMap<>();
+
+	/**
+	 * Merges the top-level entries of the specified property list file, in any format.
+	 *
+	 * @param source  the property list file to merge, must not be null
+	 * @return this merger, never null
+	 * @throws IOException if the file cannot be read
+	 */
+	public InfoPlistMerger merge(Path source) throws IOException {
+		final Object[] root = new Object[1];
+		try (val reader = new JavaPropertyListReader(PropertyListReaders.newReader(source))) {
+			reader.readDocument(it -> root[0] = it.readObject());
+		}
+		if (!(root[0] instanceof Map)) {
+			throw new IllegalArgumentException(String.format("Property list '%s' must have a dictionary as root object.", source));
+		}
+		return merge((Map<?, ?>) root[0]);
+	}
+
+	/**
+	 * Merges the specified entries, only the keys not already present are added.
+	 *
+	 * @param values  the entries to merge, must not be null
+	 * @return this merger, never null
+	 */
+	public InfoPlistMerger merge(Map<?, ?> values) {
+		values.forEach((key, value) -> entries.putIfAbsent(key.toString(), value));
+		return this;
+	}
+
+	/**
+	 * Replaces {@code $(NAME)} references in keys and string values when writing.
+	 *
+	 * @param name  the build setting name, must not be null
+	 * @param value  the replacement value, must not be null
+	 * @return this merger, never null
+	 */
+	public InfoPlistMerger substitute(String name, String value) {
+		variables.put("$(" + name + ")", value);
+		return this;
+	}
+
+	public void writeTo(PropertyListWriter writer) {
+		writer.writeStartDocument(PropertyListVersion.VERSION_00);
+		writeValue(writer, entries);
+		writer.writeEndDocument();
+		writer.flush();
+	}
+
+	private void writeValue(PropertyListWriter writer, Object value) {
+		if (value instanceof Map) {
+			final Map<String, Object> sortedEntries = new TreeMap<>();
+			((Map<?, ?>) value).forEach((k, v) -> sortedEntries.put(substitute(k.toString()), v));
+			if (sortedEntries.isEmpty()) {
+				writer.writeEmptyDictionary();
+			} else {
+				writer.writeStartDictionary(sortedEntries.size());
+				sortedEntries.forEach((k, v) -> {
+					writer.writeDictionaryKey(k);
+					writeValue(writer, v);
+				});
+				writer.writeEndDictionary();
+			}
+		} else if (value instanceof Collection) {
+			final Collection<?> values = (Collection<?>) value;
+			if (values.isEmpty()) {
+				writer.writeEmptyArray();
+			} else {
+				writer.writeStartArray(values.size());
+				values.forEach(it -> writeValue(writer, it));
+				writer.writeEndArray();
+			}
+		} else if (value instanceof String) {
+			writer.writeString(substitute((String) value));
+		} else if (value instanceof Boolean) {
+			writer.writeBoolean((Boolean) value);
+		} else if (value instanceof Float) {
+			writer.writeReal((Float) value);
+		} else if (value instanceof Number) {
+			writer.writeInteger(((Number) value).longValue());
+		} else if (value instanceof byte[]) {
+			writer.writeData((byte[]) value);
+		} else if (value instanceof LocalDateTime) {
+			writer.writeDate((LocalDateTime) value);
+		} else {
+			throw new IllegalArgumentException(String.format("Unsupported property list value of type '%s'.", value == null ? "null" : value.getClass().getName()));
+		}
+	}
+
+	private String substitute(String value) {
+		if (value.indexOf("$(") < 0) {
+			return value;
+		}
+		String result = value;
+		for (Map.Entry<String, String> variable : variables.entrySet()) {
+			result = result.replace(variable.getKey(), variable.getValue());
+		}
+		return result;
+	}
+}
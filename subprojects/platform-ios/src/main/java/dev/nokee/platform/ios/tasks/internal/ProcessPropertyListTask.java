@@ -15,35 +15,68 @@
  */
 package dev.nokee.platform.ios.tasks.internal;
 
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import dev.nokee.xcode.BinaryPropertyListWriter;
+import dev.nokee.xcode.PropertyListWriter;
+import dev.nokee.xcode.XmlPropertyListWriter;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
 import org.gradle.api.tasks.*;
-import org.gradle.process.ExecOperations;
 
 import javax.inject.Inject;
-import java.io.*;
-import java.nio.charset.Charset;
-
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@CacheableTask
 public class ProcessPropertyListTask extends DefaultTask {
+	// Information automatically added by Xcode
+	private static final ImmutableMap<String, Object> XCODE_ENTRIES = ImmutableMap.<String, Object>builder()
+		.put("DTSDKName", "iphonesimulator13.2")
+		.put("DTXcode", "1130")
+		.put("DTSDKBuild", "17B102")
+		.put("BuildMachineOSBuild", "19D76")
+		.put("DTPlatformName", "iphonesimulator")
+		.put("CFBundleSupportedPlatforms", ImmutableList.of("iPhoneSimulator"))
+		.put("DTCompiler", "com.apple.compilers.llvm.clang.1_0")
+		.put("MinimumOSVersion", "13.2")
+		.put("DTPlatformVersion", "13.2")
+		.put("UIDeviceFamily", ImmutableList.of(1L, 2L))
+		.put("DTXcodeBuild", "11C504")
+		.put("DTPlatformBuild", "")
+		.build();
 	private final ConfigurableFileCollection sources;
+	private final Provider<List<String>> sourceOrder;
 	private final Property<String> module;
 	private final Property<String> identifier;
+	private final Property<OutputFormat> outputFormat;
 	private final RegularFileProperty outputFile;
-	private final ExecOperations execOperations;
 
 	@Optional
 	@SkipWhenEmpty // TODO: Test no source
 	@IgnoreEmptyDirectories
 	@InputFiles
+	@PathSensitive(PathSensitivity.RELATIVE)
 	public ConfigurableFileCollection getSources() {
 		return sources;
 	}
 
+	// The first source defining a key wins, the relative sources fingerprint doesn't capture their order
+	@Input
+	public Provider<List<String>> getSourceOrder() {
+		return sourceOrder;
+	}
+
 	@Input
 	public Property<String> getModule() {
 		return module;
@@ -54,6 +87,11 @@ public class ProcessPropertyListTask extends DefaultTask {
 		return identifier;
 	}
 
+	@Input
+	public Property<OutputFormat> getOutputFormat() {
+		return outputFormat;
+	}
+
 	// TODO: Find a better name
 	@OutputFile
 	public RegularFileProperty getOutputFile() {
@@ -61,108 +99,51 @@ public class ProcessPropertyListTask extends DefaultTask {
 	}
 
 	@Inject
-	public ProcessPropertyListTask(ObjectFactory objects, ExecOperations execOperations) {
+	public ProcessPropertyListTask(ObjectFactory objects, ProviderFactory providers) {
 		this.sources = objects.fileCollection();
+		final Path projectDirectory = getProject().getProjectDir().toPath();
+		this.sourceOrder = providers.provider(() -> sources.getFiles().stream().map(it -> relativePath(projectDirectory, it)).collect(Collectors.toList()));
 		this.module = objects.property(String.class);
 		this.identifier = objects.property(String.class);
+		this.outputFormat = objects.property(OutputFormat.class).convention(OutputFormat.BINARY);
 		this.outputFile = objects.fileProperty();
-		this.execOperations = execOperations;
 	}
 
 	@TaskAction
 	private void process() throws IOException {
-		File xmlPlist = new File(getTemporaryDir(), "Info.plist");
-		xmlPlist.delete();
-
-		// Note: There seems to be a limit of how many command can be passed to the tool so we are using several invocation
-
-		// Merge plist files
-		execOperations.exec(spec -> {
-			spec.executable(getPlistBuddyExecutable().getAbsolutePath());
-			for (File source : getSources()) {
-				spec.args("-c", "Merge \"" + source.getAbsolutePath() + "\"");
-			}
-			spec.args("-c", "Save");
-			spec.args(xmlPlist.getAbsolutePath());
-			try {
-				spec.setStandardOutput(new FileOutputStream(new File(getTemporaryDir(), "outputs.txt")));
-			} catch (FileNotFoundException e) {
-				throw new UncheckedIOException(e);
-			}
-		});
-
-		// Add information automatically added by Xcode, part 1
-		execOperations.exec(spec -> {
-			spec.executable(getPlistBuddyExecutable().getAbsolutePath());
-			spec.args("-c", "Add :DTSDKName string iphonesimulator13.2");
-			spec.args("-c", "Add :DTXcode string 1130");
-			spec.args("-c", "Add :DTSDKBuild string 17B102");
-			spec.args("-c", "Add :BuildMachineOSBuild string 19D76");
-			spec.args("-c", "Add :DTPlatformName string iphonesimulator");
-			spec.args("-c", "Add :CFBundleSupportedPlatforms array");
-			spec.args("-c", "Add :CFBundleSupportedPlatforms:0 string iPhoneSimulator");
-			spec.args("-c", "Add :DTCompiler string com.apple.compilers.llvm.clang.1_0");
-			spec.args("-c", "Save");
-			spec.args(xmlPlist.getAbsolutePath());
-			try {
-				spec.setStandardOutput(new FileOutputStream(new File(getTemporaryDir(), "outputs.txt"), true));
-			} catch (FileNotFoundException e) {
-				throw new UncheckedIOException(e);
-			}
-		});
-
-		// Add information automatically added by Xcode, part 2
-		execOperations.exec(spec -> {
-			spec.executable(getPlistBuddyExecutable().getAbsolutePath());
-			spec.args("-c", "Add :MinimumOSVersion string 13.2");
-			spec.args("-c", "Add :DTPlatformVersion string 13.2");
-			spec.args("-c", "Add :UIDeviceFamily array");
-			spec.args("-c", "Add :UIDeviceFamily:0 integer 1");
-			spec.args("-c", "Add :UIDeviceFamily:1 integer 2");
-			spec.args("-c", "Add :DTXcodeBuild string 11C504");
-			spec.args("-c", "Add :DTPlatformBuild string");
-			spec.args("-c", "Save");
-			spec.args(xmlPlist.getAbsolutePath());
-			try {
-				spec.setStandardOutput(new FileOutputStream(new File(getTemporaryDir(), "outputs.txt"), true));
-			} catch (FileNotFoundException e) {
-				throw new UncheckedIOException(e);
-			}
-		});
+		final InfoPlistMerger merger = new InfoPlistMerger();
+		for (File source : getSources()) {
+			merger.merge(source.toPath());
+		}
+		merger.merge(XCODE_ENTRIES);
 
 		// Ex: Product name: objective-c-ios-app
 		// Ex: Product module name: objective_c_ios_app
-		String data = FileUtils.readFileToString(xmlPlist, Charset.defaultCharset()).replace("$(PRODUCT_NAME)", getModule().get()).replace("$(EXECUTABLE_NAME)", getModule().get()).replace("$(PRODUCT_BUNDLE_IDENTIFIER)", getIdentifier().get()).replace("$(DEVELOPMENT_LANGUAGE)", "en").replace("$(PRODUCT_BUNDLE_PACKAGE_TYPE)", "APPL").replace("$(PRODUCT_MODULE_NAME)", getModule().get());
-		FileUtils.write(xmlPlist, data, Charset.defaultCharset());
-
-		execOperations.exec(spec -> {
-			spec.executable(getPlutilExecutable().getAbsolutePath());
-			spec.args("-convert", "binary1", "-o", getOutputFile().get().getAsFile().getAbsolutePath(), xmlPlist.getAbsolutePath());
-			try {
-				spec.setStandardOutput(new FileOutputStream(new File(getTemporaryDir(), "outputs.txt"), true));
-			} catch (FileNotFoundException e) {
-				throw new UncheckedIOException(e);
-			}
-		});
+		merger.substitute("PRODUCT_NAME", getModule().get())
+			.substitute("EXECUTABLE_NAME", getModule().get())
+			.substitute("PRODUCT_BUNDLE_IDENTIFIER", getIdentifier().get())
+			.substitute("DEVELOPMENT_LANGUAGE", "en")
+			.substitute("PRODUCT_BUNDLE_PACKAGE_TYPE", "APPL")
+			.substitute("PRODUCT_MODULE_NAME", getModule().get());
+
+		try (PropertyListWriter writer = newWriter(getOutputFile().get().getAsFile().toPath(), getOutputFormat().get())) {
+			merger.writeTo(writer);
+		}
 	}
 
-	@InputFile
-	protected File getPlistBuddyExecutable() {
-		return new File("/usr/libexec/PlistBuddy");
+	private static String relativePath(Path baseDirectory, File file) {
+		return baseDirectory.relativize(file.toPath()).toString().replace(File.separatorChar, '/');
 	}
 
-	@InputFile
-	protected File getPlutilExecutable() {
-		return new File(getPlutilPath());
+	private static PropertyListWriter newWriter(Path outputFile, OutputFormat format) throws IOException {
+		switch (format) {
+			case XML: return new XmlPropertyListWriter(Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8));
+			case BINARY: return new BinaryPropertyListWriter(Files.newOutputStream(outputFile));
+			default: throw new UnsupportedOperationException(String.format("Unsupported property list format '%s'.", format));
+		}
 	}
 
-	private static String getPlutilPath() {
-		try {
-			Process process = new ProcessBuilder("xcrun", "--sdk", "iphonesimulator", "--find", "plutil").start();
-			process.waitFor();
-			return IOUtils.toString(process.getInputStream(), Charset.defaultCharset()).trim();
-		} catch (InterruptedException | IOException e) {
-			throw new RuntimeException(e);
-		}
+	public enum OutputFormat {
+		XML, BINARY
 	}
 }
@@ -16,12 +16,14 @@
 package dev.nokee.platform.ios.tasks.internal;
 
 import dev.nokee.core.exec.CommandLineTool;
-import dev.nokee.core.exec.GradleWorkerExecutorEngine;
+import dev.nokee.core.exec.ExternalProcessService;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.FileSystemLocation;
 import org.gradle.api.file.FileSystemOperations;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
 import org.gradle.api.tasks.*;
 
 import javax.inject.Inject;
@@ -33,6 +35,7 @@ public class SignIosApplicationBundleTask extends DefaultTask {
 	private final Property<CommandLineTool> codeSignatureTool;
 	private final FileSystemOperations fileOperations;
 	private final ObjectFactory objects;
+	private final Provider<ExternalProcessService> processService;
 
 	@SkipWhenEmpty
 	@IgnoreEmptyDirectories
@@ -52,12 +55,14 @@ public class SignIosApplicationBundleTask extends DefaultTask {
 	}
 
 	@Inject
-	public SignIosApplicationBundleTask(ObjectFactory objects, FileSystemOperations fileOperations) {
+	public SignIosApplicationBundleTask(ObjectFactory objects, FileSystemOperations fileOperations, ProviderFactory providers) {
 		this.unsignedApplicationBundle = objects.property(FileSystemLocation.class);
 		this.signedApplicationBundle = objects.property(FileSystemLocation.class);
 		this.codeSignatureTool = objects.property(CommandLineTool.class);
 		this.fileOperations = fileOperations;
 		this.objects = objects;
+		this.processService = ExternalProcessService.registerIfAbsent(getProject().getGradle(), providers);
+		usesService(processService);
 	}
 
 	@TaskAction
@@ -75,6 +80,6 @@ public class SignIosApplicationBundleTask extends DefaultTask {
 				getSignedApplicationBundle().get().getAsFile().getAbsolutePath())
 			.newInvocation()
 			.appendStandardStreamToFile(new File(getTemporaryDir(), "outputs.txt"))
-			.buildAndSubmit(objects.newInstance(GradleWorkerExecutorEngine.class));
+			.buildAndSubmit(ExternalProcessService.newEngine(objects, processService));
 	}
 }
@@ -16,6 +16,7 @@
 package dev.nokee.platform.ios.tasks.internal;
 
 import dev.nokee.core.exec.CommandLineTool;
+import dev.nokee.core.exec.ExternalProcessService;
 import dev.nokee.core.exec.GradleWorkerExecutorEngine;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
@@ -25,6 +26,8 @@ import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.FileType;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
 import org.gradle.api.tasks.*;
 import org.gradle.work.ChangeType;
 import org.gradle.work.FileChange;
@@ -42,6 +45,7 @@ public class StoryboardCompileTask extends DefaultTask {
 	private final ConfigurableFileCollection sources;
 	private final Property<CommandLineTool> interfaceBuilderTool;
 	private final ObjectFactory objects;
+	private final Provider<ExternalProcessService> processService;
 
 	@OutputDirectory
 	public DirectoryProperty getDestinationDirectory() {
@@ -67,17 +71,20 @@ public class StoryboardCompileTask extends DefaultTask {
 	}
 
 	@Inject
-	public StoryboardCompileTask(ObjectFactory objects) {
+	public StoryboardCompileTask(ObjectFactory objects, ProviderFactory providers) {
 		this.destinationDirectory = objects.directoryProperty();
 		this.module = objects.property(String.class);
 		this.sources = objects.fileCollection();
 		this.interfaceBuilderTool = objects.property(CommandLineTool.class);
 		this.objects = objects;
+		this.processService = ExternalProcessService.registerIfAbsent(getProject().getGradle(), providers);
+		usesService(processService);
 	}
 
 	@TaskAction
 	private void compile(InputChanges inputChanges) throws IOException {
 		new File(getTemporaryDir(), "outputs.txt").delete();
+		GradleWorkerExecutorEngine engine = ExternalProcessService.newEngine(objects, processService);
 		if (inputChanges.isIncremental()) {
 			for (FileChange it : inputChanges.getFileChanges(getSources())) {
 				if (it.getChangeType().equals(ChangeType.REMOVED)) {
@@ -87,7 +94,7 @@ public class StoryboardCompileTask extends DefaultTask {
 						FileUtils.deleteDirectory(new File(getDestinationDirectory().get().getAsFile().getAbsolutePath() + "/" + it.getFile().getName()));
 					}
 				} else {
-					build(it.getFile());
+					build(it.getFile(), engine);
 				}
 			}
 		} else {
@@ -96,12 +103,12 @@ public class StoryboardCompileTask extends DefaultTask {
 				return;
 			}
 			for (File source : getSources()) {
-				build(source);
+				build(source, engine);
 			}
 		}
 	}
 
-	private void build(File source) {
+	private void build(File source, GradleWorkerExecutorEngine engine) {
 		getInterfaceBuilderTool().get()
 			.withArguments(
 				"--errors", "--warnings",
@@ -116,6 +123,6 @@ public class StoryboardCompileTask extends DefaultTask {
 				source.getAbsolutePath())
 			.newInvocation()
 			.appendStandardStreamToFile(new File(getTemporaryDir(), "outputs.txt"))
-			.buildAndSubmit(objects.newInstance(GradleWorkerExecutorEngine.class));
+			.buildAndSubmit(engine);
 	}
 }
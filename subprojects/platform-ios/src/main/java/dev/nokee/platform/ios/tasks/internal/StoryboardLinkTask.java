@@ -16,12 +16,14 @@
 package dev.nokee.platform.ios.tasks.internal;
 
 import dev.nokee.core.exec.CommandLineTool;
-import dev.nokee.core.exec.GradleWorkerExecutorEngine;
+import dev.nokee.core.exec.ExternalProcessService;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
 import org.gradle.api.tasks.*;
 
 import javax.inject.Inject;
@@ -37,6 +39,7 @@ public class StoryboardLinkTask extends DefaultTask {
 	private final ConfigurableFileCollection sources;
 	private final Property<CommandLineTool> interfaceBuilderTool;
 	private final ObjectFactory objects;
+	private final Provider<ExternalProcessService> processService;
 
 	@OutputDirectory
 	public DirectoryProperty getDestinationDirectory() {
@@ -73,12 +76,14 @@ public class StoryboardLinkTask extends DefaultTask {
 	}
 
 	@Inject
-	public StoryboardLinkTask(ObjectFactory objects) {
+	public StoryboardLinkTask(ObjectFactory objects, ProviderFactory providers) {
 		this.destinationDirectory = objects.directoryProperty();
 		this.module = objects.property(String.class);
 		this.sources = objects.fileCollection();
 		this.interfaceBuilderTool = objects.property(CommandLineTool.class);
 		this.objects = objects;
+		this.processService = ExternalProcessService.registerIfAbsent(getProject().getGradle(), providers);
+		usesService(processService);
 		dependsOn(getSources()); // TODO: Test dependencies are followed via the source
 	}
 
@@ -95,6 +100,6 @@ public class StoryboardLinkTask extends DefaultTask {
 				"--link", getDestinationDirectory().get().getAsFile().getAbsolutePath(), getInputFiles().stream().map(File::getAbsolutePath).collect(Collectors.joining(" ")))
 			.newInvocation()
 			.appendStandardStreamToFile(new File(getTemporaryDir(), "outputs.txt"))
-			.buildAndSubmit(objects.newInstance(GradleWorkerExecutorEngine.class));
+			.buildAndSubmit(ExternalProcessService.newEngine(objects, processService));
 	}
 }
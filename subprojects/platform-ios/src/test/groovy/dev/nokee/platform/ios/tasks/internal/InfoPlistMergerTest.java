@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.platform.ios.tasks.internal;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import dev.nokee.xcode.BinaryPropertyListWriter;
+import dev.nokee.xcode.JavaPropertyListReader;
+import dev.nokee.xcode.PropertyListReaders;
+import dev.nokee.xcode.XmlPropertyListWriter;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+class InfoPlistMergerTest {
+	@TempDir Path testDirectory;
+
+	private Path file(String name, String content) throws IOException {
+		return Files.write(testDirectory.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static Map<String, Object> read(byte[] content) throws IOException {
+		final Object[] result = new Object[1];
+		try (val reader = new JavaPropertyListReader(PropertyListReaders.newReader(ByteBuffer.wrap(content)))) {
+			reader.readDocument(it -> result[0] = it.readObject());
+		}
+		@SuppressWarnings("unchecked")
+		final Map<String, Object> map = (Map<String, Object>) result[0];
+		return map;
+	}
+
+	private static byte[] toBinary(InfoPlistMerger merger) throws IOException {
+		val outStream = new ByteArrayOutputStream();
+		try (val writer = new BinaryPropertyListWriter(outStream)) {
+			merger.writeTo(writer);
+		}
+		return outStream.toByteArray();
+	}
+
+	@Test
+	void firstOccurrenceOfTopLevelKeyWins() throws IOException {
+		val merger = new InfoPlistMerger()
+			.merge(file("First.plist", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<plist version=\"1.0\"><dict><key>CFBundleName</key><string>first</string></dict></plist>"))
+			.merge(file("Second.plist", "{ CFBundleName = second; CFBundleVersion = 1; }"))
+			.merge(ImmutableMap.of("CFBundleVersion", "injected", "DTPlatformName", "iphonesimulator"));
+
+		val result = read(toBinary(merger));
+		assertThat(result.get("CFBundleName"), equalTo("first"));
+		assertThat(result.get("CFBundleVersion"), equalTo("1"));
+		assertThat(result.get("DTPlatformName"), equalTo("iphonesimulator"));
+	}
+
+	@Test
+	void writesDictionaryKeysInSortedOrder() throws IOException {
+		val merger = new InfoPlistMerger().merge(ImmutableMap.of("b", 1L, "c", ImmutableMap.of("z", true, "y", false), "a", ImmutableList.of("x")));
+
+		val result = read(toBinary(merger));
+		assertThat(new ArrayList<>(result.keySet()), contains("a", "b", "c"));
+		@SuppressWarnings("unchecked")
+		val nested = (Map<String, Object>) result.get("c");
+		assertThat(new ArrayList<>(nested.keySet()), contains("y", "z"));
+	}
+
+	@Test
+	void writesSameBytesRegardlessOfMergeOrder() throws IOException {
+		val first = new InfoPlistMerger().merge(ImmutableMap.of("a", "1", "b", "2"));
+		val second = new InfoPlistMerger().merge(ImmutableMap.of("b", "2", "a", "1"));
+		assertThat(toBinary(first), equalTo(toBinary(second)));
+	}
+
+	@Test
+	void substitutesBuildSettingReferences() throws IOException {
+		val merger = new InfoPlistMerger()
+			.merge(ImmutableMap.of("CFBundleExecutable", "$(EXECUTABLE_NAME)", "CFBundleIdentifier", "com.example.$(PRODUCT_NAME)"))
+			.substitute("EXECUTABLE_NAME", "App")
+			.substitute("PRODUCT_NAME", "app");
+
+		val result = read(toBinary(merger));
+		assertThat(result.get("CFBundleExecutable"), equalTo("App"));
+		assertThat(result.get("CFBundleIdentifier"), equalTo("com.example.app"));
+	}
+
+	@Test
+	void canWriteXmlFormat() throws IOException {
+		val outWriter = new StringWriter();
+		try (val writer = new XmlPropertyListWriter(outWriter)) {
+			new InfoPlistMerger().merge(ImmutableMap.of("UIDeviceFamily", ImmutableList.of(1L, 2L))).writeTo(writer);
+		}
+
+		val result = read(outWriter.toString().getBytes(StandardCharsets.UTF_8));
+		assertThat(result.get("UIDeviceFamily"), equalTo(ImmutableList.of(1L, 2L)));
+	}
+}
@@ -18,15 +18,19 @@ package dev.nokee.runtime.base.internal.plugins;
 import dev.nokee.gradle.AdhocArtifactRepository;
 import dev.nokee.gradle.AdhocArtifactRepositoryFactory;
 import dev.nokee.runtime.base.internal.tools.ToolHandler;
+import dev.nokee.runtime.base.internal.tools.ToolProbeCacheService;
 import dev.nokee.runtime.base.internal.tools.ToolRepository;
 import lombok.val;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 
+import static dev.nokee.utils.ProviderUtils.forUseAtConfigurationTime;
+
 public class FakeMavenRepositoryPlugin implements Plugin<Project> {
 	@Override
 	public void apply(Project project) {
-		val toolRepository = new ToolRepository();
+		val toolProbeCache = forUseAtConfigurationTime(ToolProbeCacheService.registerIfAbsent(project.getGradle(), project.getProviders())).get().getCache();
+		val toolRepository = new ToolRepository(toolProbeCache);
 		project.getExtensions().add("__nokee_toolRepository", toolRepository);
 		project.getRepositories().add(createToolRepository(project));
 	}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.runtime.base.internal.tools;
+
+import com.google.common.base.Strings;
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.gson.Gson;
+import dev.nokee.utils.internal.PersistentEntryStore;
+import lombok.val;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Caches the result of tool probing, e.g. locating a tool and forking it to query its version.
+ * Results are memoized for the lifetime of the cache, usually a build, and optionally persisted across builds.
+ *
+ * Persisted results are keyed by the probing key and the environment affecting tool lookup, i.e. {@code PATH}, {@code DEVELOPER_DIR} and the {@code xcode-select} target.
+ * A persisted result is reused only while all located tools have the same path, size, modification time and file key (inode) as when probed.
+ * The time-to-live is a backstop for changes the fingerprints miss.
+ * Empty results are never persisted, a tool installed later is found by the next build.
+ */
+public final class ToolProbeCache {
+	private static final Duration MAX_UNUSED_ENTRY_AGE = Duration.ofDays(7);
+	private final Cache<String, Set<CommandLineToolDescriptor>> results = CacheBuilder.newBuilder().build();
+	@Nullable private final PersistentEntryStore store;
+	private final Duration timeToLive;
+	private final boolean refresh;
+	private final Clock clock;
+	private final Supplier<String> environment;
+
+	ToolProbeCache(@Nullable PersistentEntryStore store, Duration timeToLive, boolean refresh, Clock clock, Supplier<String> environment) {
+		this.store = store;
+		this.timeToLive = timeToLive;
+		this.refresh = refresh;
+		this.clock = clock;
+		this.environment = Suppliers.memoize(environment::get);
+	}
+
+	/**
+	 * Returns a cache memoizing the probing results in memory only.
+	 *
+	 * @return a cache without persistence, never null
+	 */
+	public static ToolProbeCache inMemory() {
+		return new ToolProbeCache(null, Duration.ZERO, false, Clock.systemUTC(), () -> "");
+	}
+
+	/**
+	 * Returns a cache persisting the probing results in the specified directory.
+	 *
+	 * @param directory  the cache directory, created when missing, must not be null
+	 * @param timeToLive  the maximum age of a persisted result, must not be null
+	 * @param refresh  {@code true} to ignore the persisted results, they are overwritten by the new probing results
+	 * @return a persistent cache, never null
+	 */
+	public static ToolProbeCache inDirectory(Path directory, Duration timeToLive, boolean refresh) {
+		return new ToolProbeCache(PersistentEntryStore.inDirectory(directory, ".json"), timeToLive, refresh, Clock.systemUTC(), ToolProbeCache::currentEnvironment);
+	}
+
+	// Locators search the PATH while Xcode tools resolve through DEVELOPER_DIR or the xcode-select link
+	private static String currentEnvironment() {
+		return String.join(File.pathSeparator + File.pathSeparator, Strings.nullToEmpty(System.getenv("PATH")), Strings.nullToEmpty(System.getenv("DEVELOPER_DIR")), xcodeSelectTarget());
+	}
+
+	private static String xcodeSelectTarget() {
+		try {
+			return Files.readSymbolicLink(Paths.get("/var/db/xcode_select_link")).toString();
+		} catch (IOException | UnsupportedOperationException | SecurityException e) {
+			return ""; // not macOS or xcode-select was never used
+		}
+	}
+
+	/**
+	 * Returns the cached probing result for the specified key or probes the tools.
+	 *
+	 * @param key  the probing key, must not be null
+	 * @param probe  locates the tools, must not be null
+	 * @return the located tools, never null
+	 */
+	public Set<CommandLineToolDescriptor> findAll(String key, Supplier<? extends Set<CommandLineToolDescriptor>> probe) {
+		try {
+			// Guava coalesces concurrent loads of the same key and allows a probe to look up other keys
+			return results.get(key, () -> load(key, probe));
+		} catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	private Set<CommandLineToolDescriptor> load(String key, Supplier<? extends Set<CommandLineToolDescriptor>> probe) {
+		if (store == null) {
+			return ImmutableSet.copyOf(probe.get());
+		}
+
+		final String persistentKey = key + "|" + environment.get();
+		if (!refresh) {
+			final Set<CommandLineToolDescriptor> persistedResult = store.read(persistentKey, in -> readEntry(new InputStreamReader(in, StandardCharsets.UTF_8), persistentKey));
+			if (persistedResult != null) {
+				return persistedResult;
+			}
+		}
+
+		final Set<CommandLineToolDescriptor> result = ImmutableSet.copyOf(probe.get());
+		if (!result.isEmpty()) {
+			final Entry entry = newEntry(persistentKey, result);
+			if (entry != null) {
+				store.write(persistentKey, out -> {
+					final Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+					new Gson().toJson(entry, writer);
+					writer.flush();
+				});
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Deletes the persisted results unused for a week.
+	 */
+	public void close() {
+		if (store != null) {
+			store.deleteUnusedEntries(MAX_UNUSED_ENTRY_AGE);
+		}
+	}
+
+	@Nullable
+	private Set<CommandLineToolDescriptor> readEntry(Reader reader, String persistentKey) {
+		final Entry entry = new Gson().fromJson(reader, Entry.class);
+		if (entry == null || !persistentKey.equals(entry.key) || entry.tools == null || entry.tools.isEmpty() || clock.millis() - entry.probedAt > timeToLive.toMillis()) {
+			return null;
+		}
+
+		val result = ImmutableSet.<CommandLineToolDescriptor>builder();
+		for (Tool tool : entry.tools) {
+			final File path = new File(tool.path);
+			if (!Objects.equals(Fingerprint.of(path.toPath()), tool.fingerprint)) {
+				return null; // the tool was updated, moved or removed
+			}
+			result.add(new DefaultCommandLineToolDescriptor(path, tool.version));
+		}
+		return result.build();
+	}
+
+	@Nullable
+	private Entry newEntry(String persistentKey, Set<CommandLineToolDescriptor> tools) {
+		final Entry entry = new Entry();
+		entry.key = persistentKey;
+		entry.probedAt = clock.millis();
+		entry.tools = new ArrayList<>();
+		for (CommandLineToolDescriptor descriptor : tools) {
+			final Tool tool = new Tool();
+			tool.path = descriptor.getPath().getAbsolutePath();
+			tool.version = descriptor.getVersion();
+			tool.fingerprint = Fingerprint.of(descriptor.getPath().toPath());
+			if (tool.fingerprint == null) {
+				return null; // cannot detect changes to a missing tool, don't persist
+			}
+			entry.tools.add(tool);
+		}
+		return entry;
+	}
+
+	// Persisted JSON entries, the fields are set by Gson
+	private static final class Entry {
+		@Nullable String key;
+		long probedAt;
+		@Nullable List<Tool> tools;
+	}
+
+	private static final class Tool {
+		String path;
+		String version;
+		@Nullable Fingerprint fingerprint;
+	}
+
+	private static final class Fingerprint {
+		long size;
+		long lastModified;
+		@Nullable String fileKey;
+
+		@Nullable
+		static Fingerprint of(Path file) {
+			try {
+				val attributes = Files.readAttributes(file, BasicFileAttributes.class);
+				final Fingerprint result = new Fingerprint();
+				result.size = attributes.size();
+				result.lastModified = attributes.lastModifiedTime().toMillis();
+				result.fileKey = attributes.fileKey() == null ? null : attributes.fileKey().toString();
+				return result;
+			} catch (IOException e) {
+				return null;
+			}
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Fingerprint)) {
+				return false;
+			}
+			final Fingerprint that = (Fingerprint) o;
+			return size == that.size && lastModified == that.lastModified && Objects.equals(fileKey, that.fileKey);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(size, lastModified, fileKey);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.runtime.base.internal.tools;
+
+import lombok.val;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import java.io.File;
+import java.time.Duration;
+
+import static dev.nokee.utils.BuildServiceUtils.registerBuildServiceIfAbsent;
+import static dev.nokee.utils.ProviderUtils.forUseAtConfigurationTime;
+
+/**
+ * Shares the tool probing results between all projects of a build and persists them in the Gradle user home.
+ * Use {@code --refresh-dependencies} or {@code -Pnokee.refresh-tools=true} to probe the tools again,
+ * and {@code -Pnokee.tools-cache-ttl=PT1H} (ISO-8601 duration) to change how long the results are trusted at most.
+ */
+public abstract class ToolProbeCacheService implements BuildService<ToolProbeCacheService.Parameters>, AutoCloseable {
+	public static final String REFRESH_PROPERTY_NAME = "nokee.refresh-tools";
+	public static final String TIME_TO_LIVE_PROPERTY_NAME = "nokee.tools-cache-ttl";
+	private static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofDays(1);
+	private final ToolProbeCache cache;
+
+	public interface Parameters extends BuildServiceParameters {
+		DirectoryProperty getCacheDirectory();
+		Property<Duration> getTimeToLive();
+		Property<Boolean> getRefresh();
+	}
+
+	public ToolProbeCacheService() {
+		val cacheDirectory = getParameters().getCacheDirectory();
+		if (cacheDirectory.isPresent()) {
+			cache = ToolProbeCache.inDirectory(cacheDirectory.get().getAsFile().toPath(), getParameters().getTimeToLive().getOrElse(DEFAULT_TIME_TO_LIVE), getParameters().getRefresh().getOrElse(false));
+		} else {
+			cache = ToolProbeCache.inMemory();
+		}
+	}
+
+	public ToolProbeCache getCache() {
+		return cache;
+	}
+
+	@Override
+	public void close() {
+		cache.close();
+	}
+
+	public static Provider<ToolProbeCacheService> registerIfAbsent(Gradle gradle, ProviderFactory providers) {
+		return registerBuildServiceIfAbsent(gradle, ToolProbeCacheService.class, it -> {
+			it.getCacheDirectory().set(new File(gradle.getGradleUserHomeDir(), "caches/nokee/tools"));
+			it.getTimeToLive().set(property(providers, TIME_TO_LIVE_PROPERTY_NAME).map(Duration::parse));
+			it.getRefresh().set(property(providers, REFRESH_PROPERTY_NAME).map(Boolean::parseBoolean)
+				.orElse(gradle.getStartParameter().isRefreshDependencies()));
+		});
+	}
+
+	private static Provider<String> property(ProviderFactory providers, String name) {
+		return forUseAtConfigurationTime(providers.systemProperty(name)).orElse(forUseAtConfigurationTime(providers.gradleProperty(name)));
+	}
+}
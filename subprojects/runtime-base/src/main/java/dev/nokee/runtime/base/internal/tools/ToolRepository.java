@@ -23,13 +23,22 @@ import java.util.stream.Collectors;
 
 public class ToolRepository {
 	private final Multimap<String, CommandLineToolLocator> toolLocators = MultimapBuilder.hashKeys().arrayListValues().build();
+	private final ToolProbeCache cache;
+
+	public ToolRepository() {
+		this(ToolProbeCache.inMemory());
+	}
+
+	public ToolRepository(ToolProbeCache cache) {
+		this.cache = cache;
+	}
 
 	public void register(String toolName, CommandLineToolLocator locator) {
 		toolLocators.put(toolName, locator);
 	}
 
 	public Set<CommandLineToolDescriptor> findAll(String toolName) {
-		return toolLocators.get(toolName).stream().flatMap(it -> it.findAll(toolName).stream()).collect(Collectors.toSet());
+		return toolLocators.get(toolName).stream().flatMap(it -> cache.findAll(it.getClass().getName() + ":" + toolName, () -> it.findAll(toolName)).stream()).collect(Collectors.toSet());
 	}
 
 	public Set<String> getKnownTools() {
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.runtime.base.internal.tools;
+
+import com.google.common.collect.ImmutableSet;
+import dev.nokee.utils.internal.PersistentEntryStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.equalTo;
+
+class ToolProbeCacheTest {
+	static final Instant NOW = Instant.parse("2022-06-01T10:00:00Z");
+	@TempDir Path testDirectory;
+	Path cacheDirectory;
+	Path tool;
+	String environment = "/usr/bin::::/Applications/Xcode.app/Contents/Developer";
+	AtomicInteger probeCount = new AtomicInteger();
+	Supplier<Set<CommandLineToolDescriptor>> probe = () -> {
+		probeCount.incrementAndGet();
+		return ImmutableSet.of(new DefaultCommandLineToolDescriptor(tool.toFile(), "13.4"));
+	};
+
+	@BeforeEach
+	void createTool() throws IOException {
+		cacheDirectory = testDirectory.resolve("cache");
+		tool = Files.write(testDirectory.resolve("xcodebuild"), "#!/bin/sh".getBytes());
+	}
+
+	private ToolProbeCache newCache(Instant now, boolean refresh) {
+		return new ToolProbeCache(PersistentEntryStore.inDirectory(cacheDirectory, ".json"), Duration.ofHours(1), refresh, Clock.fixed(now, ZoneOffset.UTC), () -> environment);
+	}
+
+	@Test
+	void memoizesProbingResult() {
+		final ToolProbeCache subject = ToolProbeCache.inMemory();
+		subject.findAll("xcodebuild", probe);
+		assertThat(subject.findAll("xcodebuild", probe), contains(new DefaultCommandLineToolDescriptor(tool.toFile(), "13.4")));
+		assertThat(probeCount.get(), equalTo(1));
+	}
+
+	@Test
+	void doesNotPersistInMemoryCache() {
+		ToolProbeCache.inMemory().findAll("xcodebuild", probe);
+		assertThat(Files.exists(cacheDirectory), equalTo(false));
+	}
+
+	@Test
+	void reusesPersistedResultAcrossBuilds() {
+		newCache(NOW, false).findAll("xcodebuild", probe);
+		assertThat(newCache(NOW.plusSeconds(60), false).findAll("xcodebuild", probe), contains(new DefaultCommandLineToolDescriptor(tool.toFile(), "13.4")));
+		assertThat(probeCount.get(), equalTo(1));
+	}
+
+	@Test
+	void probesAgainWhenToolChanged() throws IOException {
+		newCache(NOW, false).findAll("xcodebuild", probe);
+		Files.write(tool, "#!/bin/bash -e".getBytes());
+		Files.setLastModifiedTime(tool, FileTime.fromMillis(Files.getLastModifiedTime(tool).toMillis() + 5000));
+		newCache(NOW, false).findAll("xcodebuild", probe);
+		assertThat(probeCount.get(), equalTo(2));
+	}
+
+	@Test
+	void probesAgainWhenToolRemoved() throws IOException {
+		newCache(NOW, false).findAll("xcodebuild", probe);
+		Files.delete(tool);
+		newCache(NOW, false).findAll("xcodebuild", probe);
+		assertThat(probeCount.get(), equalTo(2));
+	}
+
+	@Test
+	void probesAgainWhenResultExpired() {
+		newCache(NOW, false).findAll("xcodebuild", probe);
+		newCache(NOW.plus(Duration.ofHours(2)), false).findAll("xcodebuild", probe);
+		assertThat(probeCount.get(), equalTo(2));
+	}
+
+	@Test
+	void probesAgainWhenEnvironmentChanged() {
+		newCache(NOW, false).findAll("xcodebuild", probe);
+		environment = "/usr/bin::::/Applications/Xcode-beta.app/Contents/Developer";
+		newCache(NOW, false).findAll("xcodebuild", probe);
+		assertThat(probeCount.get(), equalTo(2));
+	}
+
+	@Test
+	void doesNotPersistEmptyResults() {
+		final Supplier<Set<CommandLineToolDescriptor>> notFound = () -> {
+			probeCount.incrementAndGet();
+			return ImmutableSet.of();
+		};
+		newCache(NOW, false).findAll("xcodebuild", notFound);
+		newCache(NOW, false).findAll("xcodebuild", notFound);
+		assertThat(probeCount.get(), equalTo(2));
+		assertThat(Files.exists(cacheDirectory), equalTo(false));
+	}
+
+	@Test
+	void probesAgainOnRefresh() {
+		newCache(NOW, false).findAll("xcodebuild", probe);
+		newCache(NOW, true).findAll("xcodebuild", probe);
+		newCache(NOW, false).findAll("xcodebuild", probe);
+		assertThat(probeCount.get(), equalTo(2));
+	}
+
+	@Test
+	void probesAgainWhenEntryIsCorrupted() throws IOException {
+		newCache(NOW, false).findAll("xcodebuild", probe);
+		try (Stream<Path> entries = Files.list(cacheDirectory)) {
+			entries.forEach(it -> {
+				try {
+					Files.write(it, "{ not json".getBytes());
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			});
+		}
+		newCache(NOW, false).findAll("xcodebuild", probe);
+		assertThat(probeCount.get(), equalTo(2));
+	}
+
+	@Test
+	void keepsResultsOfDifferentKeysSeparately() {
+		final ToolProbeCache subject = newCache(NOW, false);
+		subject.findAll("xcodebuild", probe);
+		subject.findAll("xcrun", probe);
+		assertThat(probeCount.get(), equalTo(2));
+		assertThat(cacheDirectory.toFile().list((dir, name) -> name.endsWith(".tmp")), emptyArray());
+	}
+
+	@Test
+	void repositoryProbesEachLocatorOncePerCache() {
+		final AtomicInteger locateCount = new AtomicInteger();
+		final ToolRepository subject = new ToolRepository(newCache(NOW, false));
+		subject.register("xcodebuild", new CommandLineToolLocator() {
+			@Override
+			public Set<CommandLineToolDescriptor> findAll(String toolName) {
+				locateCount.incrementAndGet();
+				return probe.get();
+			}
+
+			@Override
+			public Set<String> getKnownTools() {
+				return ImmutableSet.of("xcodebuild");
+			}
+		});
+
+		subject.findAll("xcodebuild");
+		subject.findAll("xcodebuild");
+		assertThat(locateCount.get(), equalTo(1));
+	}
+}
@@ -21,18 +21,13 @@ import com.google.common.hash.Hashing;
 import dev.nokee.core.exec.CachingProcessBuilderEngine;
 import dev.nokee.core.exec.CommandLineTool;
 import dev.nokee.core.exec.CommandLineToolExecutionEngine;
-import dev.nokee.core.exec.LoggingEngine;
-import dev.nokee.core.exec.ProcessBuilderEngine;
 import dev.nokee.gradle.AdhocComponentLister;
 import dev.nokee.gradle.AdhocComponentListerDetails;
 import dev.nokee.gradle.AdhocComponentSupplier;
 import dev.nokee.gradle.AdhocComponentSupplierDetails;
 import dev.nokee.publishing.internal.metadata.GradleModuleMetadata;
 import dev.nokee.runtime.base.internal.tools.CommandLineToolDescriptor;
-import dev.nokee.runtime.base.internal.tools.ToolRepository;
-import dev.nokee.runtime.darwin.internal.parsers.TextAPI;
 import dev.nokee.runtime.darwin.internal.parsers.XcodebuildParsers;
-import dev.nokee.runtime.darwin.internal.plugins.DarwinFrameworkResolutionSupportPlugin;
 import dev.nokee.runtime.nativebase.MachineArchitecture;
 import dev.nokee.runtime.nativebase.OperatingSystemFamily;
 import lombok.val;
@@ -40,34 +35,28 @@ import org.gradle.api.Action;
 import org.gradle.api.attributes.LibraryElements;
 import org.gradle.api.attributes.Usage;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.FileVisitOption;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 import static dev.nokee.publishing.internal.metadata.GradleModuleMetadata.Attribute.ofAttribute;
 import static dev.nokee.publishing.internal.metadata.GradleModuleMetadata.Capability.ofCapability;
 import static dev.nokee.publishing.internal.metadata.GradleModuleMetadata.Component.ofComponent;
-import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
-import static org.apache.commons.io.FilenameUtils.removeExtension;
 
 public final class FrameworkHandler implements AdhocComponentSupplier, AdhocComponentLister {
 	private static final Logger LOGGER = Logger.getLogger(FrameworkHandler.class.getCanonicalName());
-	private final ToolRepository toolRepository;
-	private final CommandLineToolExecutionEngine<CachingProcessBuilderEngine.Handle> engine = new CachingProcessBuilderEngine(LoggingEngine.wrap(new ProcessBuilderEngine()));
+	private final Supplier<XcodeSdkSnapshot> sdk;
 
-	public FrameworkHandler(ToolRepository toolRepository) {
-		this.toolRepository = toolRepository;
+	public FrameworkHandler(Supplier<XcodeSdkSnapshot> sdk) {
+		this.sdk = sdk;
 	}
 
 	@Override
@@ -78,28 +67,26 @@ public final class FrameworkHandler implements AdhocComponentSupplier, AdhocComp
 	}
 
 	public List<String> findVersions(String moduleName) {
-		XcodeSdk sdk = findMacOsSdks();
-		return singletonList(findSdkVersion(sdk));
+		return singletonList(sdk.get().getVersion());
 	}
 
 	@Override
 	public void execute(AdhocComponentSupplierDetails details) {
 		if (isKnownVersion(details.getId().getModule(), details.getId().getVersion())) {
-			val frameworkPath = getLocalPath(details.getId().getModule()).toPath();
-			details.metadata(metadata(details.getId().getModule(), details.getId().getVersion()));
+			val framework = sdk.get().findFramework(details.getId().getModule()).get();
+			details.metadata(metadata(framework, details.getId().getVersion()));
 			details.file(details.getId().getModule() + ".framework.localpath", outStream -> {
-				final File localPath = getLocalPath(details.getId().getModule());
 				try {
-					outStream.write(frameworkPath.toString().getBytes(StandardCharsets.UTF_8));
+					outStream.write(framework.getPath().toString().getBytes(StandardCharsets.UTF_8));
 				} catch (
 					IOException e) {
 					throw new UncheckedIOException(e);
 				}
 			});
-			findSubFrameworks(frameworkPath).forEach(it -> {
-				details.file(it.getFileName() + ".localpath", outStream -> {
+			framework.getSubFrameworks().forEach(it -> {
+				details.file(it.getPath().getFileName() + ".localpath", outStream -> {
 					try {
-						outStream.write(it.toString().getBytes(StandardCharsets.UTF_8));
+						outStream.write(it.getPath().toString().getBytes(StandardCharsets.UTF_8));
 					} catch (
 						IOException e) {
 						throw new UncheckedIOException(e);
@@ -111,19 +98,6 @@ public final class FrameworkHandler implements AdhocComponentSupplier, AdhocComp
 		}
 	}
 
-	private String findSdkVersion(XcodeSdk sdk) {
-		return CommandLineTool.of(toolRepository.findAll("xcrun").iterator().next().getPath()).withArguments("-sdk", sdk.getIdentifier(), "--show-sdk-version").execute(engine).getResult().getStandardOutput().getAsString().trim();
-	}
-
-	private File findSdkPath(XcodeSdk sdk) {
-		return CommandLineTool.of(toolRepository.findAll("xcrun").iterator().next().getPath()).withArguments("-sdk", sdk.getIdentifier(), "--show-sdk-path").execute(engine).getResult().getStandardOutput().parse(it -> new File(it.trim()));
-	}
-
-	private XcodeSdk findMacOsSdks() {
-		CommandLineToolDescriptor xcodebuilt = toolRepository.findAll("xcodebuild").iterator().next();
-		return findMacOsSdks(xcodebuilt, engine);
-	}
-
 	public static XcodeSdk findMacOsSdks(CommandLineToolDescriptor xcodebuild, CommandLineToolExecutionEngine<CachingProcessBuilderEngine.Handle> engine) {
 		return CommandLineTool.of(xcodebuild.getPath())
 			.withArguments("-showsdks")
@@ -135,69 +109,49 @@ public final class FrameworkHandler implements AdhocComponentSupplier, AdhocComp
 			.orElseThrow(() -> new RuntimeException(String.format("MacOS SDK not found using '%s' version %s", xcodebuild.getPath().getAbsolutePath(), xcodebuild.getVersion())));
 	}
 
-	File getLocalPath(String frameworkName) {
-		return new File(findSdkPath(findMacOsSdks()), "System/Library/Frameworks/" + frameworkName + ".framework");
-	}
-
 	public boolean isKnownModule(String moduleName) {
-		if (getLocalPath(moduleName).exists()) {
+		if (sdk.get().findFramework(moduleName).isPresent()) {
 			return true;
 		}
-		LOGGER.info(String.format("The requested framework '%s' wasn't found at in '%s/System/Library/Frameworks/'.", moduleName, findSdkPath(findMacOsSdks()).getPath()));
+		LOGGER.info(String.format("The requested framework '%s' wasn't found at in '%s/System/Library/Frameworks/'.", moduleName, sdk.get().getPath().getPath()));
 		return false;
 	}
 
 	public boolean isKnownVersion(String moduleName, String version) {
-		XcodeSdk sdk = findMacOsSdks();
-		if (!findSdkVersion(sdk).equals(version)) {
-			LOGGER.info(String.format("The requested framework '%s' version '%s' doesn't match current SDK version '%s'.", moduleName, version, findSdkVersion(sdk)));
+		val snapshot = sdk.get();
+		if (!snapshot.getVersion().equals(version)) {
+			LOGGER.info(String.format("The requested framework '%s' version '%s' doesn't match current SDK version '%s'.", moduleName, version, snapshot.getVersion()));
 			return false;
 		}
 
-		if (!getLocalPath(moduleName).exists()) {
+		if (!snapshot.findFramework(moduleName).isPresent()) {
 			// TODO: List frameworks?
-			LOGGER.info(String.format("The requested framework '%s' wasn't found at in '%s/System/Library/Frameworks/'.", moduleName, findSdkPath(sdk).getPath()));
+			LOGGER.info(String.format("The requested framework '%s' wasn't found at in '%s/System/Library/Frameworks/'.", moduleName, snapshot.getPath().getPath()));
 			return false;
 		}
 		return true;
 	}
 
-	Action<GradleModuleMetadata.Builder> metadata(String frameworkName, String version) {
+	Action<GradleModuleMetadata.Builder> metadata(XcodeSdkSnapshot.Framework framework, String version) {
 		return builder -> {
-			val frameworkPath = getLocalPath(frameworkName).toPath();
+			val frameworkName = framework.getName();
 			builder.formatVersion("1.1");
 			builder.component(ofComponent("dev.nokee.framework", frameworkName, version, singletonList(ofAttribute("org.gradle.status", "release"))));
 
-			forEachSupportedArchitectures(frameworkPath, supportedArchitecture -> {
-				builder.localVariant(framework("default" + supportedArchitecture, frameworkPath, ImmutableList.of(), platformAttributes(supportedArchitecture)));
+			framework.getArchitectures().forEach(supportedArchitecture -> {
+				builder.localVariant(framework("default" + supportedArchitecture, framework.getPath(), ImmutableList.of(), platformAttributes(supportedArchitecture)));
 				builder.localVariant(runtimeEntry("default" + supportedArchitecture, ImmutableList.of(), platformAttributes(supportedArchitecture)));
 			});
 
-			findSubFrameworks(frameworkPath).forEach(it -> {
-				forEachSupportedArchitectures(it, supportedArchitecture -> {
-					builder.localVariant(framework(frameworkName(it) + supportedArchitecture, it, toCapabilities(frameworkName, it), platformAttributes(supportedArchitecture)));
-					builder.localVariant(runtimeEntry(frameworkName(it) + supportedArchitecture, toCapabilities(frameworkName, it), platformAttributes(supportedArchitecture)));
+			framework.getSubFrameworks().forEach(it -> {
+				it.getArchitectures().forEach(supportedArchitecture -> {
+					builder.localVariant(framework(it.getName() + supportedArchitecture, it.getPath(), toCapabilities(frameworkName, it), platformAttributes(supportedArchitecture)));
+					builder.localVariant(runtimeEntry(it.getName() + supportedArchitecture, toCapabilities(frameworkName, it), platformAttributes(supportedArchitecture)));
 				});
 			});
 		};
 	}
 
-	private static void forEachSupportedArchitectures(Path frameworkPath, Consumer<? super String> action) {
-		List<String> supportedArchitectures = ImmutableList.of(MachineArchitecture.X86_64);
-		val tbdPath = frameworkPath.resolve(frameworkName(frameworkPath) + ".tbd");
-		if (Files.exists(tbdPath)) {
-			try {
-				val tbd = TextAPI.read(tbdPath);
-				supportedArchitectures = tbd.getTargets().stream().filter(it -> "macos".equals(it.getOperatingSystem())).map(TextAPI.Target::getArchitecture).collect(ImmutableList.toImmutableList());
-			} catch (
-				IOException e) {
-				throw new UncheckedIOException(e);
-			}
-		}
-
-		supportedArchitectures.forEach(action);
-	}
-
 	private static Map<String, Object> platformAttributes(String architecture) {
 		val canonicalArchitecture = MachineArchitecture.forName(architecture).getCanonicalName();
 		return ImmutableMap.<String, Object>builder()
@@ -208,10 +162,6 @@ public final class FrameworkHandler implements AdhocComponentSupplier, AdhocComp
 			.build();
 	}
 
-	private static String frameworkName(Path frameworkPath) {
-		return removeExtension(frameworkPath.getFileName().toString());
-	}
-
 	private static final String FRAMEWORK_USAGE = Usage.C_PLUS_PLUS_API + "+" + Usage.NATIVE_LINK;
 
 	@SuppressWarnings("deprecation")
@@ -240,20 +190,8 @@ public final class FrameworkHandler implements AdhocComponentSupplier, AdhocComp
 		};
 	}
 
-	List<GradleModuleMetadata.Capability> toCapabilities(String frameworkName, Path subframework) {
-		val subframeworkName = frameworkName(subframework);
-		return singletonList(ofCapability(frameworkName, subframeworkName.substring(0, subframeworkName.lastIndexOf(".")), findSdkVersion(findMacOsSdks())));
-	}
-
-	List<Path> findSubFrameworks(Path frameworkPath) {
-		if (!Files.exists(frameworkPath.resolve("Frameworks"))) {
-			return emptyList();
-		}
-		try {
-			return Files.walk(frameworkPath.resolve("Frameworks"), 1, FileVisitOption.FOLLOW_LINKS).filter(it -> Files.isDirectory(it) && it.getFileName().toString().endsWith(".framework")).collect(Collectors.toList());
-		} catch (
-			IOException e) {
-			throw new UncheckedIOException(e);
-		}
+	List<GradleModuleMetadata.Capability> toCapabilities(String frameworkName, XcodeSdkSnapshot.Framework subframework) {
+		val subframeworkName = subframework.getName();
+		return singletonList(ofCapability(frameworkName, subframeworkName.substring(0, subframeworkName.lastIndexOf(".")), sdk.get().getVersion()));
 	}
 }
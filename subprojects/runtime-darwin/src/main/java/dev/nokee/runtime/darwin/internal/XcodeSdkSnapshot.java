@@ -0,0 +1,260 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.runtime.darwin.internal;
+
+import com.google.common.collect.ImmutableList;
+import dev.nokee.core.exec.CachingProcessBuilderEngine;
+import dev.nokee.core.exec.CommandLineTool;
+import dev.nokee.core.exec.LoggingEngine;
+import dev.nokee.core.exec.ProcessBuilderEngine;
+import dev.nokee.runtime.base.internal.tools.CommandLineToolDescriptor;
+import dev.nokee.runtime.darwin.internal.parsers.TextAPI;
+import dev.nokee.runtime.nativebase.MachineArchitecture;
+import lombok.EqualsAndHashCode;
+import lombok.val;
+
+import javax.annotation.Nullable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.apache.commons.io.FilenameUtils.removeExtension;
+
+/**
+ * Snapshot of the macOS SDK selected by the Xcode toolchain: its path, version and the frameworks it provides.
+ * The SDK is probed once, the frameworks are inspected on first request and kept in memory.
+ */
+public final class XcodeSdkSnapshot {
+	private static final int FORMAT_VERSION = 1;
+	private final String identifier;
+	private final File path;
+	private final String version;
+	private final Map<String, Optional<Framework>> frameworks = new ConcurrentHashMap<>();
+	private volatile boolean changed = false;
+
+	XcodeSdkSnapshot(String identifier, File path, String version) {
+		this.identifier = identifier;
+		this.path = path;
+		this.version = version;
+	}
+
+	/**
+	 * Probes the macOS SDK selected by the specified tools.
+	 *
+	 * @param xcodebuild  the {@code xcodebuild} tool listing the SDKs, must not be null
+	 * @param xcrun  the {@code xcrun} tool querying the SDK path and version, must not be null
+	 * @return a new snapshot, never null
+	 */
+	public static XcodeSdkSnapshot probe(CommandLineToolDescriptor xcodebuild, File xcrun) {
+		// Only used for the probing, each command runs once
+		val engine = new CachingProcessBuilderEngine(LoggingEngine.wrap(new ProcessBuilderEngine()));
+		val sdk = FrameworkHandler.findMacOsSdks(xcodebuild, engine);
+		val path = CommandLineTool.of(xcrun).withArguments("-sdk", sdk.getIdentifier(), "--show-sdk-path").execute(engine).getResult().getStandardOutput().parse(it -> new File(it.trim()));
+		val version = CommandLineTool.of(xcrun).withArguments("-sdk", sdk.getIdentifier(), "--show-sdk-version").execute(engine).getResult().getStandardOutput().getAsString().trim();
+		return new XcodeSdkSnapshot(sdk.getIdentifier(), path, version);
+	}
+
+	public String getIdentifier() {
+		return identifier;
+	}
+
+	public File getPath() {
+		return path;
+	}
+
+	public String getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns the framework of the specified name provided by this SDK.
+	 *
+	 * @param frameworkName  the framework name, without the {@code .framework} extension, must not be null
+	 * @return the framework, or empty if this SDK doesn't provide it
+	 */
+	public Optional<Framework> findFramework(String frameworkName) {
+		return frameworks.computeIfAbsent(frameworkName, it -> {
+			val frameworkPath = new File(path, "System/Library/Frameworks/" + it + ".framework").toPath();
+			if (!Files.exists(frameworkPath)) {
+				return Optional.empty();
+			}
+			changed = true;
+			return Optional.of(Framework.inspect(frameworkPath));
+		});
+	}
+
+	/**
+	 * Returns the fingerprint of the SDK content, it changes when the SDK is updated or removed.
+	 *
+	 * @return the SDK fingerprint, never null
+	 */
+	String getFingerprint() {
+		return fingerprint(path);
+	}
+
+	private static String fingerprint(File sdkPath) {
+		Path file = sdkPath.toPath().resolve("SDKSettings.plist");
+		if (!Files.exists(file)) {
+			file = sdkPath.toPath();
+		}
+		try {
+			val attributes = Files.readAttributes(file, BasicFileAttributes.class);
+			return attributes.size() + ":" + attributes.lastModifiedTime().toMillis() + ":" + attributes.fileKey();
+		} catch (IOException e) {
+			return "missing";
+		}
+	}
+
+	boolean hasChanged() {
+		return changed;
+	}
+
+	void writeTo(DataOutputStream out) throws IOException {
+		out.writeInt(FORMAT_VERSION);
+		out.writeUTF(identifier);
+		out.writeUTF(path.getPath());
+		out.writeUTF(version);
+		out.writeUTF(getFingerprint());
+		val entries = frameworks.entrySet().stream().filter(it -> it.getValue().isPresent()).collect(Collectors.toList());
+		out.writeInt(entries.size());
+		for (Map.Entry<String, Optional<Framework>> entry : entries) {
+			out.writeUTF(entry.getKey());
+			entry.getValue().get().writeTo(out);
+		}
+	}
+
+	/**
+	 * Reads a snapshot previously written, only if the SDK is unchanged.
+	 *
+	 * @param in  the persisted snapshot, must not be null
+	 * @return the snapshot, or null if the SDK changed since it was written
+	 * @throws IOException if the snapshot cannot be read
+	 */
+	@Nullable
+	static XcodeSdkSnapshot readFrom(DataInputStream in) throws IOException {
+		if (in.readInt() != FORMAT_VERSION) {
+			return null;
+		}
+		val result = new XcodeSdkSnapshot(in.readUTF(), new File(in.readUTF()), in.readUTF());
+		if (!in.readUTF().equals(result.getFingerprint())) {
+			return null;
+		}
+		final int count = in.readInt();
+		for (int i = 0; i < count; ++i) {
+			result.frameworks.put(in.readUTF(), Optional.of(Framework.readFrom(in)));
+		}
+		return result;
+	}
+
+	@EqualsAndHashCode
+	public static final class Framework {
+		private final Path path;
+		private final List<String> architectures;
+		private final List<Framework> subFrameworks;
+
+		private Framework(Path path, List<String> architectures, List<Framework> subFrameworks) {
+			this.path = path;
+			this.architectures = architectures;
+			this.subFrameworks = subFrameworks;
+		}
+
+		public String getName() {
+			return removeExtension(path.getFileName().toString());
+		}
+
+		public Path getPath() {
+			return path;
+		}
+
+		/**
+		 * Returns the macOS architectures of this framework, as declared by its text-based stub ({@code .tbd}).
+		 *
+		 * @return the supported architectures, never null
+		 */
+		public List<String> getArchitectures() {
+			return architectures;
+		}
+
+		public List<Framework> getSubFrameworks() {
+			return subFrameworks;
+		}
+
+		private static Framework inspect(Path frameworkPath) {
+			return new Framework(frameworkPath, findSupportedArchitectures(frameworkPath), findSubFrameworks(frameworkPath).map(Framework::inspect).collect(ImmutableList.toImmutableList()));
+		}
+
+		private static List<String> findSupportedArchitectures(Path frameworkPath) {
+			val tbdPath = frameworkPath.resolve(removeExtension(frameworkPath.getFileName().toString()) + ".tbd");
+			if (!Files.exists(tbdPath)) {
+				return ImmutableList.of(MachineArchitecture.X86_64);
+			}
+			try {
+				val tbd = TextAPI.read(tbdPath);
+				return tbd.getTargets().stream().filter(it -> "macos".equals(it.getOperatingSystem())).map(TextAPI.Target::getArchitecture).collect(ImmutableList.toImmutableList());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private static Stream<Path> findSubFrameworks(Path frameworkPath) {
+			if (!Files.exists(frameworkPath.resolve("Frameworks"))) {
+				return Stream.empty();
+			}
+			try (Stream<Path> stream = Files.walk(frameworkPath.resolve("Frameworks"), 1, FileVisitOption.FOLLOW_LINKS)) {
+				return stream.filter(it -> Files.isDirectory(it) && it.getFileName().toString().endsWith(".framework")).collect(Collectors.toList()).stream();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private void writeTo(DataOutputStream out) throws IOException {
+			out.writeUTF(path.toString());
+			out.writeInt(architectures.size());
+			for (String architecture : architectures) {
+				out.writeUTF(architecture);
+			}
+			out.writeInt(subFrameworks.size());
+			for (Framework subFramework : subFrameworks) {
+				subFramework.writeTo(out);
+			}
+		}
+
+		private static Framework readFrom(DataInputStream in) throws IOException {
+			val path = new File(in.readUTF()).toPath();
+			val architectures = ImmutableList.<String>builder();
+			for (int i = in.readInt(); i > 0; --i) {
+				architectures.add(in.readUTF());
+			}
+			val subFrameworks = ImmutableList.<Framework>builder();
+			for (int i = in.readInt(); i > 0; --i) {
+				subFrameworks.add(readFrom(in));
+			}
+			return new Framework(path, architectures.build(), subFrameworks.build());
+		}
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.runtime.darwin.internal;
+
+import dev.nokee.runtime.base.internal.tools.CommandLineToolDescriptor;
+import dev.nokee.runtime.base.internal.tools.ToolRepository;
+import dev.nokee.utils.internal.PersistentEntryStore;
+import lombok.val;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import javax.annotation.Nullable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.time.Duration;
+
+/**
+ * Probes the macOS SDK once per build and shares the snapshot between all framework repositories.
+ * The snapshot is persisted in the Gradle user home, keyed by the Xcode tools, and reused while the SDK is unchanged.
+ * Snapshots unused for a week are deleted when the service is closed.
+ */
+public abstract class XcodeSdkSnapshotService implements BuildService<XcodeSdkSnapshotService.Parameters>, AutoCloseable {
+	private static final Duration MAX_UNUSED_ENTRY_AGE = Duration.ofDays(7);
+	@Nullable private volatile XcodeSdkSnapshot snapshot;
+	@Nullable private PersistentEntryStore store;
+	@Nullable private String snapshotKey;
+
+	public interface Parameters extends BuildServiceParameters {
+		DirectoryProperty getCacheDirectory();
+	}
+
+	/**
+	 * Returns the macOS SDK snapshot, probing the SDK using the specified tools on first call.
+	 *
+	 * @param tools  the repository locating {@code xcodebuild} and {@code xcrun}, must not be null
+	 * @return the macOS SDK snapshot, never null
+	 */
+	public XcodeSdkSnapshot getMacOsSdk(ToolRepository tools) {
+		XcodeSdkSnapshot result = snapshot;
+		if (result == null) {
+			synchronized (this) {
+				result = snapshot;
+				if (result == null) {
+					result = snapshot = load(tools);
+				}
+			}
+		}
+		return result;
+	}
+
+	private XcodeSdkSnapshot load(ToolRepository tools) {
+		final CommandLineToolDescriptor xcodebuild = tools.findAll("xcodebuild").iterator().next();
+		final CommandLineToolDescriptor xcrun = tools.findAll("xcrun").iterator().next();
+		if (!getParameters().getCacheDirectory().isPresent()) {
+			return XcodeSdkSnapshot.probe(xcodebuild, xcrun.getPath());
+		}
+
+		store = PersistentEntryStore.inDirectory(getParameters().getCacheDirectory().get().getAsFile().toPath(), ".bin");
+		snapshotKey = String.join("|", xcodebuild.getPath().getAbsolutePath(), xcodebuild.getVersion(), xcrun.getPath().getAbsolutePath(), xcrun.getVersion());
+		final XcodeSdkSnapshot persistedResult = store.read(snapshotKey, in -> XcodeSdkSnapshot.readFrom(new DataInputStream(in)));
+		if (persistedResult != null) {
+			return persistedResult;
+		}
+
+		val result = XcodeSdkSnapshot.probe(xcodebuild, xcrun.getPath());
+		write(store, snapshotKey, result);
+		return result;
+	}
+
+	private static void write(PersistentEntryStore store, String snapshotKey, XcodeSdkSnapshot snapshot) {
+		store.write(snapshotKey, out -> {
+			final DataOutputStream dataOut = new DataOutputStream(out);
+			snapshot.writeTo(dataOut);
+			dataOut.flush();
+		});
+	}
+
+	@Override
+	public synchronized void close() {
+		// Persist the frameworks inspected during this build
+		val result = snapshot;
+		if (store != null && snapshotKey != null) {
+			if (result != null && result.hasChanged()) {
+				write(store, snapshotKey, result);
+			}
+			store.deleteUnusedEntries(MAX_UNUSED_ENTRY_AGE);
+		}
+	}
+}
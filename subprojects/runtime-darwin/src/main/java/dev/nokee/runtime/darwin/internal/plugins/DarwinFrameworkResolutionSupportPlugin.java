@@ -18,9 +18,11 @@ package dev.nokee.runtime.darwin.internal.plugins;
 import dev.nokee.gradle.AdhocArtifactRepository;
 import dev.nokee.gradle.AdhocArtifactRepositoryFactory;
 import dev.nokee.runtime.base.internal.plugins.FakeMavenRepositoryPlugin;
+import dev.nokee.runtime.base.internal.tools.ToolProbeCacheService;
 import dev.nokee.runtime.base.internal.tools.ToolRepository;
 import dev.nokee.runtime.darwin.internal.DarwinRuntimePlugin;
 import dev.nokee.runtime.darwin.internal.FrameworkHandler;
+import dev.nokee.runtime.darwin.internal.XcodeSdkSnapshotService;
 import dev.nokee.runtime.darwin.internal.locators.XcodebuildLocator;
 import dev.nokee.runtime.darwin.internal.locators.XcrunLocator;
 import lombok.AccessLevel;
@@ -54,7 +56,9 @@ import static dev.nokee.runtime.darwin.internal.DarwinLibraryElements.FRAMEWORK_
 import static dev.nokee.runtime.nativebase.internal.ArtifactSerializationTypes.ARTIFACT_SERIALIZATION_TYPES_ATTRIBUTE;
 import static dev.nokee.runtime.nativebase.internal.ArtifactSerializationTypes.DESERIALIZED;
 import static dev.nokee.runtime.nativebase.internal.ArtifactSerializationTypes.SERIALIZED;
+import static dev.nokee.utils.BuildServiceUtils.registerBuildServiceIfAbsent;
 import static dev.nokee.utils.ConfigurationUtils.ARTIFACT_TYPE_ATTRIBUTE;
+import static dev.nokee.utils.ProviderUtils.forUseAtConfigurationTime;
 
 public class DarwinFrameworkResolutionSupportPlugin implements Plugin<Project> {
 	private static final Logger LOGGER = Logging.getLogger(DarwinFrameworkResolutionSupportPlugin.class);
@@ -89,11 +93,15 @@ public class DarwinFrameworkResolutionSupportPlugin implements Plugin<Project> {
 		repository.getCacheDirectory().set(project.getLayout().getBuildDirectory().dir("m2/framework"));
 		repository.content(content -> content.includeGroup("dev.nokee.framework"));
 
-		val toolRepository = new ToolRepository();
+		val toolRepository = new ToolRepository(forUseAtConfigurationTime(ToolProbeCacheService.registerIfAbsent(project.getGradle(), project.getProviders())).get().getCache());
 		toolRepository.register("xcrun", new XcrunLocator());
 		toolRepository.register("xcodebuild", new XcodebuildLocator());
 
-		val handler = new FrameworkHandler(toolRepository);
+		// The macOS SDK is probed once per build, on the first framework request
+		val sdkSnapshotService = registerBuildServiceIfAbsent(project, XcodeSdkSnapshotService.class, it -> {
+			it.getCacheDirectory().set(new File(project.getGradle().getGradleUserHomeDir(), "caches/nokee/xcode-sdks"));
+		});
+		val handler = new FrameworkHandler(() -> sdkSnapshotService.get().getMacOsSdk(toolRepository));
 		repository.setComponentSupplier(handler);
 		repository.setComponentVersionLister(handler);
 		return repository;
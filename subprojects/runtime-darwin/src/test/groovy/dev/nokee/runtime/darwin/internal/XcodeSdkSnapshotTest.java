@@ -0,0 +1,171 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.runtime.darwin.internal;
+
+import dev.nokee.runtime.base.internal.tools.DefaultCommandLineToolDescriptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+@DisabledOnOs(OS.WINDOWS)
+class XcodeSdkSnapshotTest {
+	@TempDir Path testDirectory;
+	Path sdkDirectory;
+	Path invocationLog;
+	File xcodebuild;
+	File xcrun;
+
+	@BeforeEach
+	void createFakeXcode() throws IOException {
+		sdkDirectory = Files.createDirectories(testDirectory.resolve("MacOSX.sdk"));
+		Files.write(sdkDirectory.resolve("SDKSettings.plist"), "<plist/>".getBytes(StandardCharsets.UTF_8));
+		invocationLog = testDirectory.resolve("invocations.log");
+
+		xcodebuild = script("xcodebuild",
+			"echo \"xcodebuild $*\" >> '" + invocationLog + "'",
+			"printf 'macOS SDKs:\\n\\tmacOS 12.3                     \\t-sdk macosx12.3\\n'");
+		xcrun = script("xcrun",
+			"echo \"xcrun $*\" >> '" + invocationLog + "'",
+			"case \"$3\" in",
+			"  --show-sdk-path) echo '" + sdkDirectory + "' ;;",
+			"  --show-sdk-version) echo '12.3' ;;",
+			"esac");
+	}
+
+	private File script(String name, String... lines) throws IOException {
+		final Path result = testDirectory.resolve(name);
+		Files.write(result, ("#!/bin/sh\n" + String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+		result.toFile().setExecutable(true);
+		return result.toFile();
+	}
+
+	private List<String> invocations() throws IOException {
+		return Files.readAllLines(invocationLog);
+	}
+
+	private XcodeSdkSnapshot probe() {
+		return XcodeSdkSnapshot.probe(new DefaultCommandLineToolDescriptor(xcodebuild, "13.3"), xcrun);
+	}
+
+	private Path framework(String name) throws IOException {
+		return Files.createDirectories(sdkDirectory.resolve("System/Library/Frameworks/" + name + ".framework"));
+	}
+
+	private static byte[] write(XcodeSdkSnapshot snapshot) throws IOException {
+		final ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(outStream)) {
+			snapshot.writeTo(out);
+		}
+		return outStream.toByteArray();
+	}
+
+	private static XcodeSdkSnapshot read(byte[] bytes) throws IOException {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+			return XcodeSdkSnapshot.readFrom(in);
+		}
+	}
+
+	@Test
+	void probesSdkIdentifierPathAndVersion() throws IOException {
+		final XcodeSdkSnapshot subject = probe();
+		assertThat(subject.getIdentifier(), equalTo("macosx12.3"));
+		assertThat(subject.getPath(), equalTo(sdkDirectory.toFile()));
+		assertThat(subject.getVersion(), equalTo("12.3"));
+		assertThat(invocations(), contains("xcodebuild -showsdks", "xcrun -sdk macosx12.3 --show-sdk-path", "xcrun -sdk macosx12.3 --show-sdk-version"));
+	}
+
+	@Test
+	void answersFrameworkQueriesWithoutProbingAgain() throws IOException {
+		framework("Foundation");
+		final XcodeSdkSnapshot subject = probe();
+
+		assertThat(subject.findFramework("Foundation").isPresent(), equalTo(true));
+		assertThat(subject.findFramework("Foundation").isPresent(), equalTo(true));
+		assertThat(subject.findFramework("Missing").isPresent(), equalTo(false));
+		assertThat(subject.getVersion(), equalTo("12.3"));
+		assertThat(invocations().size(), equalTo(3));
+	}
+
+	@Test
+	void defaultsToIntelArchitectureWithoutTextBasedStub() throws IOException {
+		framework("Foundation");
+		assertThat(probe().findFramework("Foundation").get().getArchitectures(), contains("x86_64"));
+	}
+
+	@Test
+	void readsArchitecturesFromTextBasedStub() throws IOException {
+		Files.write(framework("Foundation").resolve("Foundation.tbd"), Arrays.asList(
+			"--- !tapi-tbd",
+			"tbd-version:     4",
+			"targets:         [ x86_64-macos, x86_64-maccatalyst, arm64-macos ]",
+			"install-name:    '/System/Library/Frameworks/Foundation.framework/Versions/C/Foundation'"));
+		assertThat(probe().findFramework("Foundation").get().getArchitectures(), contains("x86_64", "arm64"));
+	}
+
+	@Test
+	void inspectsSubFrameworks() throws IOException {
+		Files.createDirectories(framework("CoreServices").resolve("Frameworks/CarbonCore.framework"));
+		final List<String> subFrameworks = probe().findFramework("CoreServices").get().getSubFrameworks().stream()
+			.map(XcodeSdkSnapshot.Framework::getName).collect(Collectors.toList());
+		assertThat(subFrameworks, contains("CarbonCore"));
+	}
+
+	@Test
+	void persistsSdkAndInspectedFrameworks() throws IOException {
+		framework("Foundation");
+		final XcodeSdkSnapshot snapshot = probe();
+		snapshot.findFramework("Foundation");
+		assertThat(snapshot.hasChanged(), equalTo(true));
+
+		final XcodeSdkSnapshot subject = read(write(snapshot));
+		assertThat(subject.getIdentifier(), equalTo("macosx12.3"));
+		assertThat(subject.getPath(), equalTo(sdkDirectory.toFile()));
+		assertThat(subject.getVersion(), equalTo("12.3"));
+		assertThat(subject.findFramework("Foundation"), equalTo(snapshot.findFramework("Foundation")));
+		assertThat(subject.hasChanged(), equalTo(false));
+	}
+
+	@Test
+	void discardsPersistedSnapshotWhenSdkChanged() throws IOException {
+		final byte[] snapshot = write(probe());
+		final Path sdkSettings = sdkDirectory.resolve("SDKSettings.plist");
+		Files.write(sdkSettings, "<plist version=\"1.0\"/>".getBytes(StandardCharsets.UTF_8));
+		Files.setLastModifiedTime(sdkSettings, FileTime.fromMillis(Files.getLastModifiedTime(sdkSettings).toMillis() + 5000));
+
+		assertThat(read(snapshot), nullValue());
+	}
+}
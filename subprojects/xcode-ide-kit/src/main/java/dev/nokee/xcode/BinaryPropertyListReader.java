@@ -0,0 +1,300 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+
+/**
+ * Pull reader for binary property lists ({@code bplist00}).
+ * The objects are read on demand through the offset table, so the buffer can be a memory-mapped file.
+ * Sets are reported as arrays and UIDs as integers.
+ *
+ * @see <a href="https://opensource.apple.com/source/CF/CF-1153.18/CFBinaryPList.c">CFBinaryPList.c</a>
+ */
+public final class BinaryPropertyListReader implements PropertyListReader {
+	static final byte[] MAGIC = new byte[] { 'b', 'p', 'l', 'i', 's', 't' };
+	static final int TRAILER_SIZE = 32;
+	static final long EPOCH_2001_SECONDS = 978307200L; // 2001-01-01T00:00:00Z, the reference date of binary property lists
+
+	private final ByteBuffer buffer;
+	private final int offsetIntSize;
+	private final int objectRefSize;
+	private final long objectCount;
+	private final long topObject;
+	private final int offsetTableOffset;
+	private final Deque<Frame> frames = new ArrayDeque<>();
+	private boolean started = false;
+	private boolean topObjectRead = false;
+	private boolean ended = false;
+	private Event event;
+	private int currentObjectOffset;
+
+	public BinaryPropertyListReader(ByteBuffer buffer) {
+		this.buffer = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+		if (this.buffer.limit() < MAGIC.length + 2 + TRAILER_SIZE) {
+			throw new IllegalArgumentException("not a binary property list, too small");
+		}
+		for (int i = 0; i < MAGIC.length; ++i) {
+			if (this.buffer.get(i) != MAGIC[i]) {
+				throw new IllegalArgumentException("not a binary property list, missing 'bplist' header");
+			}
+		}
+		if (this.buffer.get(6) != '0') {
+			throw new IllegalArgumentException(String.format("unsupported binary property list version 'bplist%c%c'", (char) this.buffer.get(6), (char) this.buffer.get(7)));
+		}
+
+		final int trailer = this.buffer.limit() - TRAILER_SIZE;
+		this.offsetIntSize = this.buffer.get(trailer + 6);
+		this.objectRefSize = this.buffer.get(trailer + 7);
+		this.objectCount = this.buffer.getLong(trailer + 8);
+		this.topObject = this.buffer.getLong(trailer + 16);
+		this.offsetTableOffset = Math.toIntExact(this.buffer.getLong(trailer + 24));
+		if (objectCount < 0 || (objectCount > 0 && topObject >= objectCount) || offsetTableOffset + objectCount * offsetIntSize > trailer) {
+			throw new IllegalArgumentException("malformed binary property list trailer");
+		}
+	}
+
+	@Override
+	public Event next() {
+		if (ended) {
+			throw new NoSuchElementException("DOCUMENT_END reached: no more elements on the stream.");
+		}
+		event = advance();
+		return event;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return !ended;
+	}
+
+	private Event advance() {
+		if (!started) {
+			started = true;
+			return Event.DOCUMENT_START;
+		}
+
+		final Frame frame = frames.peek();
+		if (frame == null) {
+			if (topObjectRead || objectCount == 0) {
+				ended = true;
+				return Event.DOCUMENT_END;
+			}
+			topObjectRead = true;
+			return enter(topObject);
+		} else if (frame.index == frame.count) {
+			frames.pop();
+			return frame.dictionary ? Event.DICTIONARY_END : Event.ARRAY_END;
+		} else if (frame.dictionary && frame.keyNext) {
+			frame.keyNext = false;
+			currentObjectOffset = objectOffset(readSizedInt(frame.refsOffset + frame.index * objectRefSize, objectRefSize));
+			return Event.DICTIONARY_KEY;
+		} else {
+			final int refsOffset = frame.dictionary ? frame.refsOffset + (frame.count + frame.index) * objectRefSize : frame.refsOffset + frame.index * objectRefSize;
+			frame.index++;
+			frame.keyNext = true;
+			return enter(readSizedInt(refsOffset, objectRefSize));
+		}
+	}
+
+	private Event enter(long objectRef) {
+		currentObjectOffset = objectOffset(objectRef);
+		final int marker = buffer.get(currentObjectOffset) & 0xFF;
+		switch (marker >> 4) {
+			case 0x0:
+				if (marker == 0x08 || marker == 0x09) {
+					return Event.BOOLEAN;
+				}
+				throw new UnsupportedOperationException(String.format("unsupported binary property list object marker 0x%02x", marker));
+			case 0x1:
+			case 0x8: // UID
+				return Event.INTEGER;
+			case 0x2:
+				return Event.REAL;
+			case 0x3:
+				return Event.DATE;
+			case 0x4:
+				return Event.DATA;
+			case 0x5:
+			case 0x6:
+			case 0x7:
+				return Event.STRING;
+			case 0xA:
+			case 0xB: // ordset
+			case 0xC: // set
+				frames.push(new Frame(false, length(currentObjectOffset), contentOffset(currentObjectOffset)));
+				return Event.ARRAY_START;
+			case 0xD:
+				frames.push(new Frame(true, length(currentObjectOffset), contentOffset(currentObjectOffset)));
+				return Event.DICTIONARY_START;
+			default:
+				throw new UnsupportedOperationException(String.format("unsupported binary property list object marker 0x%02x", marker));
+		}
+	}
+
+	private int objectOffset(long objectRef) {
+		if (objectRef < 0 || objectRef >= objectCount) {
+			throw new IllegalStateException(String.format("object reference %d out of bound", objectRef));
+		}
+		return Math.toIntExact(readSizedInt(offsetTableOffset + (int) objectRef * offsetIntSize, offsetIntSize));
+	}
+
+	// Returns the element count of the object, large counts are stored as an integer object following the marker
+	private int length(int objectOffset) {
+		final int count = buffer.get(objectOffset) & 0x0F;
+		if (count != 0x0F) {
+			return count;
+		}
+		final int intMarker = buffer.get(objectOffset + 1) & 0xFF;
+		if ((intMarker >> 4) != 0x1) {
+			throw new IllegalStateException("malformed object length");
+		}
+		return Math.toIntExact(readSizedInt(objectOffset + 2, 1 << (intMarker & 0x0F)));
+	}
+
+	private int contentOffset(int objectOffset) {
+		if ((buffer.get(objectOffset) & 0x0F) != 0x0F) {
+			return objectOffset + 1;
+		}
+		return objectOffset + 2 + (1 << (buffer.get(objectOffset + 1) & 0x0F));
+	}
+
+	// Integers of 1, 2 and 4 bytes are unsigned, 8 bytes are signed and 16 bytes are truncated to their lower 8 bytes
+	private long readSizedInt(int offset, int size) {
+		switch (size) {
+			case 1: return buffer.get(offset) & 0xFFL;
+			case 2: return buffer.getShort(offset) & 0xFFFFL;
+			case 4: return buffer.getInt(offset) & 0xFFFFFFFFL;
+			case 8: return buffer.getLong(offset);
+			case 16: return buffer.getLong(offset + 8);
+			default:
+				long result = 0;
+				for (int i = 0; i < size; ++i) {
+					result = (result << 8) | (buffer.get(offset + i) & 0xFF);
+				}
+				return result;
+		}
+	}
+
+	private String readStringObject() {
+		final int marker = buffer.get(currentObjectOffset) & 0xFF;
+		final int length = length(currentObjectOffset);
+		final int offset = contentOffset(currentObjectOffset);
+		switch (marker >> 4) {
+			case 0x5: return decode(offset, length, StandardCharsets.US_ASCII);
+			case 0x6: return decode(offset, length * 2, StandardCharsets.UTF_16BE);
+			case 0x7: return decode(offset, length, StandardCharsets.UTF_8);
+			default: throw new IllegalStateException("not a string object");
+		}
+	}
+
+	private String decode(int offset, int byteCount, Charset charset) {
+		final ByteBuffer bytes = buffer.duplicate();
+		bytes.position(offset).limit(offset + byteCount);
+		return charset.decode(bytes).toString();
+	}
+
+	private void assertEvent(Event expected) {
+		if (event != expected) {
+			throw new UnsupportedOperationException(String.format("cannot read %s value for %s event", expected, event));
+		}
+	}
+
+	@Override
+	public String readDictionaryKey() {
+		assertEvent(Event.DICTIONARY_KEY);
+		return readStringObject();
+	}
+
+	@Override
+	public byte[] readData() {
+		assertEvent(Event.DATA);
+		final byte[] result = new byte[length(currentObjectOffset)];
+		final ByteBuffer bytes = buffer.duplicate();
+		bytes.position(contentOffset(currentObjectOffset));
+		bytes.get(result);
+		return result;
+	}
+
+	@Override
+	public LocalDateTime readDate() {
+		assertEvent(Event.DATE);
+		final double seconds = buffer.getDouble(currentObjectOffset + 1);
+		final double wholeSeconds = Math.floor(seconds);
+		final int nanos = (int) Math.min(999_999_999L, Math.round((seconds - wholeSeconds) * 1_000_000_000L));
+		return LocalDateTime.ofEpochSecond(EPOCH_2001_SECONDS + (long) wholeSeconds, nanos, ZoneOffset.UTC);
+	}
+
+	@Override
+	public boolean readBoolean() {
+		assertEvent(Event.BOOLEAN);
+		return buffer.get(currentObjectOffset) == 0x09;
+	}
+
+	@Override
+	public String readString() {
+		assertEvent(Event.STRING);
+		return readStringObject();
+	}
+
+	@Override
+	public long readInteger() {
+		assertEvent(Event.INTEGER);
+		final int marker = buffer.get(currentObjectOffset) & 0xFF;
+		if ((marker >> 4) == 0x8) { // UID
+			return readSizedInt(currentObjectOffset + 1, (marker & 0x0F) + 1);
+		}
+		return readSizedInt(currentObjectOffset + 1, 1 << (marker & 0x0F));
+	}
+
+	@Override
+	public float readReal() {
+		assertEvent(Event.REAL);
+		final int marker = buffer.get(currentObjectOffset) & 0xFF;
+		switch (marker & 0x0F) {
+			case 2: return buffer.getFloat(currentObjectOffset + 1);
+			case 3: return (float) buffer.getDouble(currentObjectOffset + 1);
+			default: throw new IllegalStateException(String.format("unsupported real of %d bytes", 1 << (marker & 0x0F)));
+		}
+	}
+
+	@Override
+	public void close() {
+		// nothing to close, the buffer is owned by the caller
+	}
+
+	private static final class Frame {
+		private final boolean dictionary;
+		private final int count;
+		private final int refsOffset;
+		private int index = 0;
+		private boolean keyNext = true;
+
+		private Frame(boolean dictionary, int count, int refsOffset) {
+			this.dictionary = dictionary;
+			this.count = count;
+			this.refsOffset = refsOffset;
+		}
+	}
+}
@@ -0,0 +1,359 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static dev.nokee.xcode.BinaryPropertyListReader.EPOCH_2001_SECONDS;
+import static dev.nokee.xcode.BinaryPropertyListReader.MAGIC;
+
+/**
+ * Writer for binary property lists ({@code bplist00}).
+ * The binary format references objects by index, so the document is buffered and encoded on {@link #writeEndDocument()}.
+ * Equal scalar values are written once, the same way {@code plutil} and Python's {@code plistlib} do.
+ */
+public final class BinaryPropertyListWriter implements PropertyListWriter {
+	private final OutputStream outStream;
+	private final Deque<Object> containers = new ArrayDeque<>();
+	private PropertyListVersion version;
+	private Object rootObject;
+	private boolean hasRootObject = false;
+
+	public BinaryPropertyListWriter(OutputStream outStream) {
+		this.outStream = outStream;
+	}
+
+	@Override
+	public void writeStartDocument(PropertyListVersion version) {
+		if (version != PropertyListVersion.VERSION_00) {
+			throw new UnsupportedOperationException(String.format("Binary property list version '%s' is not supported.", version));
+		}
+		this.version = version;
+	}
+
+	@Override
+	public void writeEndDocument() {
+		if (!containers.isEmpty()) {
+			throw new IllegalStateException("Unclosed array or dictionary at the end of the document.");
+		}
+		try {
+			writeDocument();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void writeStartDictionary(long elementCount) {
+		final DictionaryNode node = new DictionaryNode((int) elementCount);
+		add(node);
+		containers.push(node);
+	}
+
+	@Override
+	public void writeDictionaryKey(String key) {
+		if (!(containers.peek() instanceof DictionaryNode)) {
+			throw new IllegalStateException("Dictionary key written outside of a dictionary.");
+		}
+		((DictionaryNode) containers.peek()).keys.add(key);
+	}
+
+	@Override
+	public void writeEndDictionary() {
+		if (!(containers.pop() instanceof DictionaryNode)) {
+			throw new IllegalStateException("Dictionary end written outside of a dictionary.");
+		}
+	}
+
+	@Override
+	public void writeEmptyDictionary() {
+		add(new DictionaryNode(0));
+	}
+
+	@Override
+	public void writeStartArray(long elementCount) {
+		final ArrayNode node = new ArrayNode((int) elementCount);
+		add(node);
+		containers.push(node);
+	}
+
+	@Override
+	public void writeEndArray() {
+		if (!(containers.pop() instanceof ArrayNode)) {
+			throw new IllegalStateException("Array end written outside of an array.");
+		}
+	}
+
+	@Override
+	public void writeEmptyArray() {
+		add(new ArrayNode(0));
+	}
+
+	@Override
+	public void writeData(byte[] bytes) {
+		add(ByteBuffer.wrap(bytes.clone()));
+	}
+
+	@Override
+	public void writeDate(LocalDateTime date) {
+		add(date);
+	}
+
+	@Override
+	public void writeBoolean(boolean b) {
+		add(b);
+	}
+
+	@Override
+	public void writeString(CharSequence s) {
+		add(s.toString());
+	}
+
+	@Override
+	public void writeInteger(long n) {
+		add(n);
+	}
+
+	@Override
+	public void writeReal(float n) {
+		add(n);
+	}
+
+	@Override
+	public void flush() {
+		try {
+			outStream.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		outStream.close();
+	}
+
+	private void add(Object value) {
+		final Object container = containers.peek();
+		if (container == null) {
+			if (hasRootObject) {
+				throw new IllegalStateException("Property list documents can only have one root object.");
+			}
+			rootObject = value;
+			hasRootObject = true;
+		} else if (container instanceof ArrayNode) {
+			((ArrayNode) container).values.add(value);
+		} else {
+			final DictionaryNode dictionary = (DictionaryNode) container;
+			if (dictionary.keys.size() != dictionary.values.size() + 1) {
+				throw new IllegalStateException("Dictionary value written without a key.");
+			}
+			dictionary.values.add(value);
+		}
+	}
+
+	private void writeDocument() throws IOException {
+		final List<Object> objects = new ArrayList<>();
+		if (hasRootObject) {
+			flatten(rootObject, objects, new HashMap<>());
+		}
+		final int objectRefSize = sizeOf(objects.size());
+
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(buffer);
+		out.write(MAGIC);
+		out.write(version == null ? PropertyListVersion.VERSION_00.versionBytes : version.versionBytes);
+
+		final long[] offsets = new long[objects.size()];
+		for (int i = 0; i < objects.size(); ++i) {
+			offsets[i] = out.size();
+			writeObject(objects.get(i), objectRefSize, out);
+		}
+
+		final long offsetTableOffset = out.size();
+		final int offsetIntSize = sizeOf(offsetTableOffset);
+		for (long offset : offsets) {
+			writeSizedInt(offset, offsetIntSize, out);
+		}
+
+		out.write(new byte[6]); // unused and sort version
+		out.writeByte(offsetIntSize);
+		out.writeByte(objectRefSize);
+		out.writeLong(objects.size());
+		out.writeLong(0); // top object is always the first object
+		out.writeLong(offsetTableOffset);
+		out.flush();
+
+		buffer.writeTo(outStream);
+		outStream.flush();
+	}
+
+	// Assigns object indices in depth-first order, containers before their elements and dictionary keys before values
+	private static int flatten(Object value, List<Object> objects, Map<Object, Integer> uniqueObjects) {
+		if (value instanceof ArrayNode) {
+			final ArrayNode node = (ArrayNode) value;
+			final int result = objects.size();
+			objects.add(node);
+			node.refs = new int[node.values.size()];
+			for (int i = 0; i < node.values.size(); ++i) {
+				node.refs[i] = flatten(node.values.get(i), objects, uniqueObjects);
+			}
+			return result;
+		} else if (value instanceof DictionaryNode) {
+			final DictionaryNode node = (DictionaryNode) value;
+			if (node.keys.size() != node.values.size()) {
+				throw new IllegalStateException("Dictionary key written without a value.");
+			}
+			final int result = objects.size();
+			objects.add(node);
+			node.refs = new int[node.keys.size() * 2];
+			for (int i = 0; i < node.keys.size(); ++i) {
+				node.refs[i] = flatten(node.keys.get(i), objects, uniqueObjects);
+			}
+			for (int i = 0; i < node.values.size(); ++i) {
+				node.refs[node.keys.size() + i] = flatten(node.values.get(i), objects, uniqueObjects);
+			}
+			return result;
+		} else {
+			return uniqueObjects.computeIfAbsent(value, it -> {
+				objects.add(it);
+				return objects.size() - 1;
+			});
+		}
+	}
+
+	private static void writeObject(Object value, int objectRefSize, DataOutputStream out) throws IOException {
+		if (value instanceof ArrayNode) {
+			final int[] refs = ((ArrayNode) value).refs;
+			writeMarker(0xA0, refs.length, out);
+			for (int ref : refs) {
+				writeSizedInt(ref, objectRefSize, out);
+			}
+		} else if (value instanceof DictionaryNode) {
+			final int[] refs = ((DictionaryNode) value).refs;
+			writeMarker(0xD0, refs.length / 2, out);
+			for (int ref : refs) {
+				writeSizedInt(ref, objectRefSize, out);
+			}
+		} else if (value instanceof Boolean) {
+			out.writeByte((Boolean) value ? 0x09 : 0x08);
+		} else if (value instanceof Long) {
+			writeInteger((Long) value, out);
+		} else if (value instanceof Float) {
+			out.writeByte(0x23);
+			out.writeDouble((Float) value);
+		} else if (value instanceof LocalDateTime) {
+			final LocalDateTime date = (LocalDateTime) value;
+			out.writeByte(0x33);
+			out.writeDouble((date.toEpochSecond(ZoneOffset.UTC) - EPOCH_2001_SECONDS) + date.getNano() / 1_000_000_000.0d);
+		} else if (value instanceof ByteBuffer) {
+			final ByteBuffer bytes = (ByteBuffer) value;
+			writeMarker(0x40, bytes.remaining(), out);
+			out.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+		} else if (value instanceof String) {
+			final String s = (String) value;
+			if (s.chars().allMatch(it -> it < 0x80)) {
+				writeMarker(0x50, s.length(), out);
+				out.write(s.getBytes(StandardCharsets.US_ASCII));
+			} else {
+				writeMarker(0x60, s.length(), out); // count of UTF-16 code units
+				out.write(s.getBytes(StandardCharsets.UTF_16BE));
+			}
+		} else {
+			throw new IllegalStateException(String.format("Unsupported property list value of type '%s'.", value.getClass().getName()));
+		}
+	}
+
+	private static void writeMarker(int type, int count, DataOutputStream out) throws IOException {
+		if (count < 0x0F) {
+			out.writeByte(type | count);
+		} else {
+			out.writeByte(type | 0x0F);
+			writeInteger(count, out);
+		}
+	}
+
+	private static void writeInteger(long value, DataOutputStream out) throws IOException {
+		if (value < 0) {
+			out.writeByte(0x13);
+			out.writeLong(value);
+		} else if (value < (1L << 8)) {
+			out.writeByte(0x10);
+			out.writeByte((int) value);
+		} else if (value < (1L << 16)) {
+			out.writeByte(0x11);
+			out.writeShort((int) value);
+		} else if (value < (1L << 32)) {
+			out.writeByte(0x12);
+			out.writeInt((int) value);
+		} else {
+			out.writeByte(0x13);
+			out.writeLong(value);
+		}
+	}
+
+	private static void writeSizedInt(long value, int size, DataOutputStream out) throws IOException {
+		for (int i = size - 1; i >= 0; --i) {
+			out.writeByte((int) (value >>> (i * 8)));
+		}
+	}
+
+	private static int sizeOf(long count) {
+		if (count < (1L << 8)) {
+			return 1;
+		} else if (count < (1L << 16)) {
+			return 2;
+		} else if (count < (1L << 32)) {
+			return 4;
+		} else {
+			return 8;
+		}
+	}
+
+	private static final class ArrayNode {
+		private final List<Object> values;
+		private int[] refs;
+
+		private ArrayNode(int expectedSize) {
+			this.values = new ArrayList<>(expectedSize);
+		}
+	}
+
+	private static final class DictionaryNode {
+		private final List<String> keys;
+		private final List<Object> values;
+		private int[] refs;
+
+		private DictionaryNode(int expectedSize) {
+			this.keys = new ArrayList<>(expectedSize);
+			this.values = new ArrayList<>(expectedSize);
+		}
+	}
+}
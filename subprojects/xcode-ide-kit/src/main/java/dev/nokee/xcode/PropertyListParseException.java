@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode;
+
+/**
+ * Thrown when a property list document is malformed.
+ * The message starts with the line and column of the error, e.g. {@code line 1:16 extraneous input '<EOF>'}.
+ */
+public final class PropertyListParseException extends RuntimeException {
+	private final int line;
+	private final int column;
+	private final long offset;
+
+	public PropertyListParseException(String message, int line, int column, long offset) {
+		super("line " + line + ":" + column + " " + message);
+		this.line = line;
+		this.column = column;
+		this.offset = offset;
+	}
+
+	/**
+	 * Returns the line of the error, starting at 1.
+	 *
+	 * @return the error line
+	 */
+	public int getLine() {
+		return line;
+	}
+
+	/**
+	 * Returns the column of the error within its line, starting at 0.
+	 *
+	 * @return the error column
+	 */
+	public int getColumn() {
+		return column;
+	}
+
+	/**
+	 * Returns the offset of the error from the start of the document, in UTF-16 code units.
+	 *
+	 * @return the error offset
+	 */
+	public long getOffset() {
+		return offset;
+	}
+}
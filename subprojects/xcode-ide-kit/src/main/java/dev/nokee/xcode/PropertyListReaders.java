@@ -0,0 +1,129 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Creates {@link PropertyListReader} for any property list format by sniffing the first bytes of the content.
+ */
+public final class PropertyListReaders {
+	private PropertyListReaders() {}
+
+	public enum Format {
+		ASCII, XML, BINARY
+	}
+
+	/**
+	 * Opens a reader for the specified property list file.
+	 * The file is memory-mapped, the binary format reads only the objects visited.
+	 *
+	 * @param file  the property list file, must not be null
+	 * @return a reader matching the file format, never null
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public static PropertyListReader newReader(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			// The mapping stays valid after closing the channel
+			return newReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * Creates a reader for the specified property list content.
+	 *
+	 * @param buffer  the property list content, must not be null
+	 * @return a reader matching the content format, never null
+	 */
+	public static PropertyListReader newReader(ByteBuffer buffer) {
+		switch (detectFormat(buffer)) {
+			case BINARY: return new BinaryPropertyListReader(buffer);
+			case XML: return new XmlPropertyListReader(new ByteBufferInputStream(buffer.slice()));
+			default: return new StreamingAsciiPropertyListReader(buffer);
+		}
+	}
+
+	/**
+	 * Detects the format of the specified property list content without consuming the buffer.
+	 *
+	 * @param buffer  the property list content, must not be null
+	 * @return the detected format, {@link Format#ASCII} when unknown, never null
+	 */
+	public static Format detectFormat(ByteBuffer buffer) {
+		int position = buffer.position();
+		if (startsWith(buffer, position, "bplist")) {
+			return Format.BINARY;
+		}
+
+		// Skip UTF-8 BOM and leading whitespaces
+		if (startsWith(buffer, position, "\u00EF\u00BB\u00BF")) {
+			position += 3;
+		}
+		while (position < buffer.limit() && Character.isWhitespace(buffer.get(position))) {
+			position++;
+		}
+		if (startsWith(buffer, position, "<?xml") || startsWith(buffer, position, "<!DOCTYPE") || startsWith(buffer, position, "<plist")) {
+			return Format.XML;
+		}
+		return Format.ASCII;
+	}
+
+	// The prefix is compared byte per char, it must only contain ISO-8859-1 characters
+	private static boolean startsWith(ByteBuffer buffer, int position, String prefix) {
+		if (buffer.limit() - position < prefix.length()) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length(); ++i) {
+			if ((buffer.get(position + i) & 0xFF) != prefix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static final class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+
+		private ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			final int result = Math.min(len, buffer.remaining());
+			buffer.get(b, off, result);
+			return result;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
+}
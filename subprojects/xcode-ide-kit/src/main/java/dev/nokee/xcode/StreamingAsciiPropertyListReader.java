@@ -0,0 +1,484 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Single-pass pull reader for old-style ASCII property lists.
+ * Contrary to {@link AsciiPropertyListReader}, it never materializes the document nor a parse tree,
+ * each {@link #next()} call tokenizes only what is required to produce the next event.
+ * It accepts the same documents as {@link AsciiPropertyListReader} which stays available as the reference implementation.
+ * Like its lexer, characters that cannot start a token are skipped, e.g. a stray {@code #} or {@code >}.
+ * It is only stricter on unterminated quoted strings, unterminated comments and malformed data, which are reported instead of being skipped.
+ * Errors are reported as {@link PropertyListParseException}.
+ *
+ * The document can be read from a {@link Reader} or from a UTF-8 encoded {@link ByteBuffer}, e.g. a memory-mapped {@code project.pbxproj}.
+ */
+public final class StreamingAsciiPropertyListReader implements PropertyListReader {
+	private static final int EOF = -1;
+
+	// Parsing state of each nested level, the top is the innermost level
+	private static final byte DOCUMENT = 0;
+	private static final byte DOCUMENT_VALUE = 1;
+	private static final byte ARRAY_VALUE_OR_END = 2;
+	private static final byte ARRAY_SEPARATOR_OR_END = 3;
+	private static final byte DICTIONARY_KEY_OR_END = 4;
+	private static final byte DICTIONARY_VALUE = 5;
+	private static final byte DICTIONARY_SEPARATOR = 6;
+
+	private final CharInput input;
+	private final StringBuilder text = new StringBuilder();
+	private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+	private byte[] states = new byte[16];
+	private int depth = 0;
+	private boolean started = false;
+	private boolean ended = false;
+	private Event event;
+
+	// Two characters look-ahead is required to distinguish comments from unquoted strings starting with a slash
+	private int peek0;
+	private int peek1;
+	private int line = 1;
+	private int column = 0;
+	private long offset = 0;
+
+	public StreamingAsciiPropertyListReader(Reader delegate) {
+		this(new ReaderInput(delegate));
+	}
+
+	public StreamingAsciiPropertyListReader(ByteBuffer buffer) {
+		this(new Utf8BufferInput(buffer));
+	}
+
+	private StreamingAsciiPropertyListReader(CharInput input) {
+		this.input = input;
+		this.peek0 = input.read();
+		this.peek1 = peek0 == EOF ? EOF : input.read();
+	}
+
+	@Override
+	public Event next() {
+		if (ended) {
+			throw new NoSuchElementException("DOCUMENT_END reached: no more elements on the stream.");
+		}
+		event = advance();
+		return event;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return !ended;
+	}
+
+	private Event advance() {
+		if (!started) {
+			started = true;
+			push(DOCUMENT);
+			return Event.DOCUMENT_START;
+		}
+
+		while (true) {
+			final int c = skipWhitespacesAndComments();
+			switch (states[depth - 1]) {
+				case DOCUMENT:
+					if (c == EOF) {
+						return endDocument();
+					}
+					replace(DOCUMENT_VALUE);
+					return readValue(c);
+				case DOCUMENT_VALUE:
+					if (c == EOF) {
+						return endDocument();
+					}
+					throw error("extraneous input '" + (char) c + "' expecting <EOF>");
+				case ARRAY_VALUE_OR_END:
+					if (c == ')') {
+						consume();
+						pop();
+						return Event.ARRAY_END;
+					}
+					replace(ARRAY_SEPARATOR_OR_END);
+					return readValue(c);
+				case ARRAY_SEPARATOR_OR_END:
+					if (c == ')') {
+						consume();
+						pop();
+						return Event.ARRAY_END;
+					} else if (c == ',') {
+						consume();
+						replace(ARRAY_VALUE_OR_END);
+						continue;
+					}
+					throw error(unexpected(c) + " expecting {',', ')'}");
+				case DICTIONARY_KEY_OR_END:
+					if (c == '}') {
+						consume();
+						pop();
+						return Event.DICTIONARY_END;
+					}
+					readStringToken(c, "{'}', StringLiteral}");
+					if (skipWhitespacesAndComments() != '=') {
+						throw error(unexpected(peek0) + " expecting '='");
+					}
+					consume();
+					replace(DICTIONARY_VALUE);
+					return Event.DICTIONARY_KEY;
+				case DICTIONARY_VALUE:
+					replace(DICTIONARY_SEPARATOR);
+					return readValue(c);
+				case DICTIONARY_SEPARATOR:
+					if (c != ';') {
+						throw error(unexpected(c) + " expecting ';'");
+					}
+					consume();
+					replace(DICTIONARY_KEY_OR_END);
+					continue;
+				default:
+					throw new IllegalStateException("unknown parsing state");
+			}
+		}
+	}
+
+	private Event endDocument() {
+		pop();
+		ended = true;
+		return Event.DOCUMENT_END;
+	}
+
+	private Event readValue(int c) {
+		switch (c) {
+			case '{':
+				consume();
+				push(DICTIONARY_KEY_OR_END);
+				return Event.DICTIONARY_START;
+			case '(':
+				consume();
+				push(ARRAY_VALUE_OR_END);
+				return Event.ARRAY_START;
+			case '<':
+				readDataToken();
+				return Event.DATA;
+			default:
+				readStringToken(c, "{'{', '(', DataLiteral, StringLiteral}");
+				return Event.STRING;
+		}
+	}
+
+	private void readStringToken(int c, String expecting) {
+		text.setLength(0);
+		if (c == '"') {
+			consume();
+			while (true) {
+				final int ch = consume();
+				if (ch == '"') {
+					return;
+				} else if (ch == '\\') {
+					readEscapeSequence();
+				} else if (ch == EOF) {
+					throw error("unterminated quoted string");
+				} else {
+					text.append((char) ch);
+				}
+			}
+		} else if (isUnquotedStringCharacter(c)) {
+			do {
+				text.append((char) consume());
+			} while (isUnquotedStringCharacter(peek0));
+		} else {
+			throw error(unexpected(c) + " expecting " + expecting);
+		}
+	}
+
+	// See CFOldStylePList.c, escape sequences are decoded into UTF-16 code units
+	private void readEscapeSequence() {
+		final int c = consume();
+		switch (c) {
+			case '\\':
+			case '"':
+			case '\'': // defensive only, according to CFOldStylePList.c, single quote escaping are not supported
+				text.append((char) c);
+				return;
+			case 'u': // defensive only, according to CFOldStylePList.c, we should always use capital u
+			case 'U':
+				text.append((char) (hexDigit(consume()) << 12 | hexDigit(consume()) << 8 | hexDigit(consume()) << 4 | hexDigit(consume())));
+				return;
+			case 'a': text.append('\u0007'); return; // alert bell
+			case 'b': text.append('\b'); return; // backspace
+			case 'f': text.append('\f'); return; // form feed
+			case 'n': text.append('\n'); return; // new line
+			case 'r': text.append('\r'); return; // carriage return
+			case 't': text.append('\t'); return; // horizontal tab
+			case 'v': text.append('\u000b'); return; // vertical tab
+			default:
+				if (c >= '0' && c <= '7') {
+					int value = c - '0';
+					for (int i = 0; i < 2 && peek0 >= '0' && peek0 <= '7'; ++i) {
+						value = value * 8 + (consume() - '0');
+					}
+					text.append((char) value);
+					return;
+				}
+				throw error("invalid escape sequence \\" + (c == EOF ? "<EOF>" : String.valueOf((char) c)));
+		}
+	}
+
+	// Each hex digit is a byte, like AsciiPropertyListReader
+	private void readDataToken() {
+		consume(); // '<'
+		data.reset();
+		while (true) {
+			final int c = consume();
+			if (c == '>') {
+				return;
+			} else if (c == EOF) {
+				throw error("unterminated data");
+			} else if (!Character.isWhitespace(c)) {
+				data.write(hexDigit(c));
+			}
+		}
+	}
+
+	private int hexDigit(int c) {
+		final int result = c == EOF ? -1 : Character.digit(c, 16);
+		if (result < 0) {
+			throw error("invalid hex digit " + unexpected(c));
+		}
+		return result;
+	}
+
+	private static boolean isUnquotedStringCharacter(int c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+			|| c == '.' || c == '/' || c == '_' || c == '$' || c == '-' || c == ':';
+	}
+
+	private static boolean isTokenStart(int c) {
+		switch (c) {
+			case '{': case '}': case '(': case ')': case '=': case ';': case ',': case '<': case '"':
+				return true;
+			default:
+				return isUnquotedStringCharacter(c);
+		}
+	}
+
+	private int skipWhitespacesAndComments() {
+		while (true) {
+			if (peek0 == '/' && peek1 == '*') {
+				consume();
+				consume();
+				while (!(peek0 == '*' && peek1 == '/')) {
+					if (consume() == EOF) {
+						throw error("unterminated comment");
+					}
+				}
+				consume();
+				consume();
+			} else if (peek0 == '/' && peek1 == '/') {
+				while (peek0 != '\n' && peek0 != '\r' && peek0 != EOF) {
+					consume();
+				}
+			} else if (peek0 != EOF && !isTokenStart(peek0)) { // whitespaces, byte order mark and unrecognized characters
+				consume();
+			} else {
+				return peek0;
+			}
+		}
+	}
+
+	private int consume() {
+		final int result = peek0;
+		if (result != EOF) {
+			++offset;
+			peek0 = peek1;
+			peek1 = peek0 == EOF ? EOF : input.read();
+			if (result == '\n') {
+				++line;
+				column = 0;
+			} else {
+				++column;
+			}
+		}
+		return result;
+	}
+
+	private void push(byte state) {
+		if (depth == states.length) {
+			states = Arrays.copyOf(states, depth * 2);
+		}
+		states[depth++] = state;
+	}
+
+	private void replace(byte state) {
+		states[depth - 1] = state;
+	}
+
+	private void pop() {
+		--depth;
+	}
+
+	private static String unexpected(int c) {
+		return c == EOF ? "extraneous input '<EOF>'" : "extraneous input '" + (char) c + "'";
+	}
+
+	private PropertyListParseException error(String message) {
+		return new PropertyListParseException(message, line, column, offset);
+	}
+
+	@Override
+	public String readDictionaryKey() {
+		if (event != Event.DICTIONARY_KEY) {
+			throw new UnsupportedOperationException();
+		}
+		return text.toString();
+	}
+
+	@Override
+	public byte[] readData() {
+		if (event != Event.DATA) {
+			throw new UnsupportedOperationException();
+		}
+		return data.toByteArray();
+	}
+
+	@Override
+	public LocalDateTime readDate() {
+		return LocalDateTime.parse(readString());
+	}
+
+	@Override
+	public boolean readBoolean() {
+		return Boolean.parseBoolean(readString());
+	}
+
+	@Override
+	public String readString() {
+		if (event == Event.DICTIONARY_KEY) {
+			throw new UnsupportedOperationException("Use readDictionaryKey instead of readString because although a dictionary key in ASCII format are string, both differ in meaning.");
+		} else if (event != Event.STRING) {
+			throw new UnsupportedOperationException();
+		}
+		return text.toString();
+	}
+
+	@Override
+	public long readInteger() {
+		return Long.parseLong(readString());
+	}
+
+	@Override
+	public float readReal() {
+		return Float.parseFloat(readString());
+	}
+
+	@Override
+	public void close() throws IOException {
+		input.close();
+	}
+
+	private interface CharInput {
+		int read();
+		void close() throws IOException;
+	}
+
+	private static final class ReaderInput implements CharInput {
+		private final Reader delegate;
+		private final char[] buffer = new char[8192];
+		private int position = 0;
+		private int limit = 0;
+
+		private ReaderInput(Reader delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public int read() {
+			if (position == limit) {
+				try {
+					do {
+						limit = delegate.read(buffer, 0, buffer.length);
+					} while (limit == 0);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				position = 0;
+				if (limit < 0) {
+					limit = 0;
+					return EOF;
+				}
+			}
+			return buffer[position++];
+		}
+
+		@Override
+		public void close() throws IOException {
+			delegate.close();
+		}
+	}
+
+	// Decodes UTF-8 into UTF-16 code units, code points outside the BMP yield their surrogate pair
+	private static final class Utf8BufferInput implements CharInput {
+		private final ByteBuffer buffer;
+		private int pendingLowSurrogate = EOF;
+
+		private Utf8BufferInput(ByteBuffer buffer) {
+			this.buffer = buffer.slice();
+		}
+
+		@Override
+		public int read() {
+			if (pendingLowSurrogate != EOF) {
+				final int result = pendingLowSurrogate;
+				pendingLowSurrogate = EOF;
+				return result;
+			}
+			if (!buffer.hasRemaining()) {
+				return EOF;
+			}
+
+			final int b0 = buffer.get() & 0xFF;
+			if (b0 < 0x80) {
+				return b0;
+			} else if (b0 < 0xE0) {
+				return (b0 & 0x1F) << 6 | continuation();
+			} else if (b0 < 0xF0) {
+				return (b0 & 0x0F) << 12 | continuation() << 6 | continuation();
+			} else {
+				final int codePoint = (b0 & 0x07) << 18 | continuation() << 12 | continuation() << 6 | continuation();
+				pendingLowSurrogate = Character.lowSurrogate(codePoint);
+				return Character.highSurrogate(codePoint);
+			}
+		}
+
+		private int continuation() {
+			if (!buffer.hasRemaining()) {
+				throw new IllegalStateException("truncated UTF-8 sequence");
+			}
+			return buffer.get() & 0x3F;
+		}
+
+		@Override
+		public void close() {
+			// nothing to close, the buffer is owned by the caller
+		}
+	}
+}
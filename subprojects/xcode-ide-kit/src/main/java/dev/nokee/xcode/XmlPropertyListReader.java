@@ -0,0 +1,195 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.NoSuchElementException;
+
+/**
+ * Pull reader for XML property lists backed by StAX.
+ * DTD processing is disabled, the Apple DOCTYPE is skipped without resolving it.
+ */
+public final class XmlPropertyListReader implements PropertyListReader {
+	private final Closeable source;
+	private final XMLStreamReader delegate;
+	private boolean ended = false;
+	private Event event;
+	private String text;
+
+	public XmlPropertyListReader(Reader reader) {
+		this.source = reader;
+		this.delegate = run(() -> newFactory().createXMLStreamReader(reader));
+	}
+
+	public XmlPropertyListReader(InputStream inStream) {
+		this.source = inStream;
+		this.delegate = run(() -> newFactory().createXMLStreamReader(inStream));
+	}
+
+	private static XMLInputFactory newFactory() {
+		final XMLInputFactory result = XMLInputFactory.newFactory();
+		result.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		result.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		result.setProperty(XMLInputFactory.IS_COALESCING, true);
+		return result;
+	}
+
+	@Override
+	public Event next() {
+		if (ended) {
+			throw new NoSuchElementException("DOCUMENT_END reached: no more elements on the stream.");
+		}
+		event = run(this::advance);
+		return event;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return !ended;
+	}
+
+	private Event advance() throws XMLStreamException {
+		while (delegate.hasNext()) {
+			switch (delegate.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					return startElement(delegate.getLocalName());
+				case XMLStreamConstants.END_ELEMENT:
+					switch (delegate.getLocalName()) {
+						case "plist":
+							ended = true;
+							return Event.DOCUMENT_END;
+						case "dict": return Event.DICTIONARY_END;
+						case "array": return Event.ARRAY_END;
+						default: throw unexpected("end of element '" + delegate.getLocalName() + "'");
+					}
+				default:
+					// whitespaces, comments, DOCTYPE and processing instructions
+					break;
+			}
+		}
+		throw new IllegalStateException("Unexpected end of XML property list, missing </plist>.");
+	}
+
+	private Event startElement(String name) throws XMLStreamException {
+		switch (name) {
+			case "plist": return Event.DOCUMENT_START;
+			case "dict": return Event.DICTIONARY_START;
+			case "array": return Event.ARRAY_START;
+			case "key": return elementText(Event.DICTIONARY_KEY);
+			case "string": return elementText(Event.STRING);
+			case "integer": return elementText(Event.INTEGER);
+			case "real": return elementText(Event.REAL);
+			case "date": return elementText(Event.DATE);
+			case "data": return elementText(Event.DATA);
+			case "true":
+			case "false":
+				delegate.getElementText(); // consume the end element
+				text = name;
+				return Event.BOOLEAN;
+			default: throw unexpected("element '" + name + "'");
+		}
+	}
+
+	private Event elementText(Event result) throws XMLStreamException {
+		text = delegate.getElementText();
+		return result;
+	}
+
+	private IllegalStateException unexpected(String what) {
+		return new IllegalStateException(String.format("Unexpected %s at line %d:%d.", what, delegate.getLocation().getLineNumber(), delegate.getLocation().getColumnNumber()));
+	}
+
+	private void assertEvent(Event expected) {
+		if (event != expected) {
+			throw new UnsupportedOperationException(String.format("cannot read %s value for %s event", expected, event));
+		}
+	}
+
+	@Override
+	public String readDictionaryKey() {
+		assertEvent(Event.DICTIONARY_KEY);
+		return text;
+	}
+
+	@Override
+	public byte[] readData() {
+		assertEvent(Event.DATA);
+		return Base64.getMimeDecoder().decode(text);
+	}
+
+	@Override
+	public LocalDateTime readDate() {
+		assertEvent(Event.DATE);
+		return LocalDateTime.parse(text.trim(), DateTimeFormatter.ISO_DATE_TIME);
+	}
+
+	@Override
+	public boolean readBoolean() {
+		assertEvent(Event.BOOLEAN);
+		return Boolean.parseBoolean(text);
+	}
+
+	@Override
+	public String readString() {
+		assertEvent(Event.STRING);
+		return text;
+	}
+
+	@Override
+	public long readInteger() {
+		assertEvent(Event.INTEGER);
+		return Long.parseLong(text.trim());
+	}
+
+	@Override
+	public float readReal() {
+		assertEvent(Event.REAL);
+		return Float.parseFloat(text.trim());
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			delegate.close();
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
+		} finally {
+			source.close();
+		}
+	}
+
+	private static <T> T run(XmlStreamCallable<T> callable) {
+		try {
+			return callable.call();
+		} catch (XMLStreamException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private interface XmlStreamCallable<T> {
+		T call() throws XMLStreamException;
+	}
+}
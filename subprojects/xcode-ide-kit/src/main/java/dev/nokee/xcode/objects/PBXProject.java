@@ -15,6 +15,7 @@
  */
 package dev.nokee.xcode.objects;
 
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import dev.nokee.xcode.objects.configuration.XCConfigurationList;
 import dev.nokee.xcode.objects.files.GroupChild;
@@ -24,10 +25,15 @@ import dev.nokee.xcode.objects.files.PBXSourceTree;
 import dev.nokee.xcode.objects.swiftpackage.XCRemoteSwiftPackageReference;
 import dev.nokee.xcode.objects.targets.PBXTarget;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Streams.stream;
 
 /**
  * The root object representing the project itself.
@@ -35,12 +41,12 @@ import java.util.function.Consumer;
 public final class PBXProject extends PBXContainer implements PBXContainerItemProxy.ContainerPortal {
 	private final PBXGroup mainGroup;
 	private final List<PBXTarget> targets;
-	private final XCConfigurationList buildConfigurationList;
+	private final Supplier<XCConfigurationList> buildConfigurationList;
 	private final String compatibilityVersion;
 	private final List<ProjectReference> projectReferences;
-	private final List<XCRemoteSwiftPackageReference> packageReferences;
+	private final Supplier<ImmutableList<XCRemoteSwiftPackageReference>> packageReferences;
 
-	private PBXProject(ImmutableList<PBXTarget> targets, XCConfigurationList buildConfigurationList, PBXGroup mainGroup, List<ProjectReference> projectReferences, List<XCRemoteSwiftPackageReference> packageReferences) {
+	private PBXProject(ImmutableList<PBXTarget> targets, Supplier<XCConfigurationList> buildConfigurationList, PBXGroup mainGroup, List<ProjectReference> projectReferences, Supplier<ImmutableList<XCRemoteSwiftPackageReference>> packageReferences) {
 		this.mainGroup = mainGroup;
 		this.targets = targets;
 		this.buildConfigurationList = buildConfigurationList;
@@ -58,7 +64,7 @@ public final class PBXProject extends PBXContainer implements PBXContainerItemPr
 	}
 
 	public XCConfigurationList getBuildConfigurationList() {
-		return buildConfigurationList;
+		return buildConfigurationList.get();
 	}
 
 	public String getCompatibilityVersion() {
@@ -70,7 +76,7 @@ public final class PBXProject extends PBXContainer implements PBXContainerItemPr
 	}
 
 	public List<XCRemoteSwiftPackageReference> getPackageReferences() {
-		return packageReferences;
+		return packageReferences.get();
 	}
 
 	@Override
@@ -125,11 +131,12 @@ public final class PBXProject extends PBXContainer implements PBXContainerItemPr
 
 	public static final class Builder {
 		private final List<PBXTarget> targets = new ArrayList<>();
-		private XCConfigurationList buildConfigurations = XCConfigurationList.builder().build();
+		private Supplier<XCConfigurationList> buildConfigurations = Suppliers.ofInstance(XCConfigurationList.builder().build());
 		private final List<GroupChild> mainGroupChildren = new ArrayList<>();
 		private PBXGroup mainGroup;
 		private final List<ProjectReference> projectReferences = new ArrayList<>();
 		private final List<XCRemoteSwiftPackageReference> packageReferences = new ArrayList<>();
+		@Nullable private Supplier<? extends Iterable<? extends XCRemoteSwiftPackageReference>> lazyPackageReferences = null;
 
 		public Builder target(PBXTarget target) {
 			targets.add(target);
@@ -145,12 +152,26 @@ public final class PBXProject extends PBXContainer implements PBXContainerItemPr
 		public Builder buildConfigurations(Consumer<? super XCConfigurationList.Builder> builderConsumer) {
 			final XCConfigurationList.Builder builder = XCConfigurationList.builder();
 			builderConsumer.accept(builder);
-			this.buildConfigurations = builder.build();
+			final XCConfigurationList result = builder.build();
+			this.buildConfigurations = () -> result;
 			return this;
 		}
 
 		public Builder buildConfigurations(XCConfigurationList buildConfigurations) {
-			this.buildConfigurations = Objects.requireNonNull(buildConfigurations);
+			Objects.requireNonNull(buildConfigurations);
+			this.buildConfigurations = () -> buildConfigurations;
+			return this;
+		}
+
+		/**
+		 * Sets the build configurations resolved on first access of {@link PBXProject#getBuildConfigurationList()}.
+		 *
+		 * @param buildConfigurations  the build configurations supplier, must not be null
+		 * @return this builder, never null
+		 */
+		public Builder buildConfigurations(Supplier<? extends XCConfigurationList> buildConfigurations) {
+			Objects.requireNonNull(buildConfigurations);
+			this.buildConfigurations = Suppliers.memoize(buildConfigurations::get);
 			return this;
 		}
 
@@ -185,21 +206,47 @@ public final class PBXProject extends PBXContainer implements PBXContainerItemPr
 		}
 
 		public Builder packageReference(XCRemoteSwiftPackageReference packageReference) {
+			if (lazyPackageReferences != null) {
+				lazyPackageReferences.get().forEach(this.packageReferences::add);
+				lazyPackageReferences = null;
+			}
 			this.packageReferences.add(packageReference);
 			return this;
 		}
 
 		public Builder packageReferences(Iterable<? extends XCRemoteSwiftPackageReference> packageReferences) {
 			this.packageReferences.clear();
+			this.lazyPackageReferences = null;
 			packageReferences.forEach(this.packageReferences::add);
 			return this;
 		}
 
+		/**
+		 * Sets the package references resolved on first access of {@link PBXProject#getPackageReferences()}.
+		 *
+		 * @param packageReferences  the package references supplier, must not be null
+		 * @return this builder, never null
+		 */
+		public Builder packageReferences(Supplier<? extends Iterable<? extends XCRemoteSwiftPackageReference>> packageReferences) {
+			this.packageReferences.clear();
+			this.lazyPackageReferences = Objects.requireNonNull(packageReferences);
+			return this;
+		}
+
 		public PBXProject build() {
 			if (mainGroup == null) {
 				this.mainGroup = PBXGroup.builder().name("mainGroup").sourceTree(PBXSourceTree.GROUP).children(mainGroupChildren).build();
 			}
-			return new PBXProject(ImmutableList.copyOf(targets), buildConfigurations, mainGroup, ImmutableList.copyOf(projectReferences), ImmutableList.copyOf(packageReferences));
+			return new PBXProject(ImmutableList.copyOf(targets), buildConfigurations, mainGroup, ImmutableList.copyOf(projectReferences), packageReferences());
+		}
+
+		private Supplier<ImmutableList<XCRemoteSwiftPackageReference>> packageReferences() {
+			if (lazyPackageReferences == null) {
+				final ImmutableList<XCRemoteSwiftPackageReference> result = ImmutableList.copyOf(packageReferences);
+				return () -> result;
+			}
+			final Supplier<? extends Iterable<? extends XCRemoteSwiftPackageReference>> supplier = lazyPackageReferences;
+			return Suppliers.memoize(() -> stream(supplier.get()).collect(toImmutableList()));
 		}
 	}
 }
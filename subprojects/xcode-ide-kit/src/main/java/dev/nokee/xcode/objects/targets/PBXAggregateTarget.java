@@ -15,6 +15,7 @@
  */
 package dev.nokee.xcode.objects.targets;
 
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import dev.nokee.xcode.objects.buildphase.PBXBuildPhase;
 import dev.nokee.xcode.objects.buildphase.PBXCopyFilesBuildPhase;
@@ -25,6 +26,7 @@ import dev.nokee.xcode.objects.files.PBXFileReference;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 import static com.google.common.collect.Streams.stream;
 
@@ -36,7 +38,7 @@ public final class PBXAggregateTarget extends PBXTarget {
 	private static final String NEVER_HAS_PRODUCT_NAME = null;
 	private static final PBXFileReference NEVER_HAS_PRODUCT_REFERENCE = null;
 
-	private PBXAggregateTarget(String name, ImmutableList<PBXBuildPhase> buildPhases, XCConfigurationList buildConfigurationList, ImmutableList<PBXTargetDependency> dependencies) {
+	private PBXAggregateTarget(String name, ImmutableList<PBXBuildPhase> buildPhases, Supplier<XCConfigurationList> buildConfigurationList, ImmutableList<PBXTargetDependency> dependencies) {
 		super(name, NEVER_HAS_PRODUCT_TYPE, buildPhases, buildConfigurationList, NEVER_HAS_PRODUCT_NAME, NEVER_HAS_PRODUCT_REFERENCE, dependencies);
 	}
 
@@ -52,7 +54,7 @@ public final class PBXAggregateTarget extends PBXTarget {
 	public static final class Builder {
 		private String name;
 		private String productName;
-		private XCConfigurationList buildConfigurations;
+		private Supplier<XCConfigurationList> buildConfigurations;
 		private final List<PBXBuildPhase> buildPhases = new ArrayList<>();
 		private final List<PBXTargetDependency> dependencies = new ArrayList<>();
 
@@ -62,7 +64,20 @@ public final class PBXAggregateTarget extends PBXTarget {
 		}
 
 		public Builder buildConfigurations(XCConfigurationList buildConfigurations) {
-			this.buildConfigurations = Objects.requireNonNull(buildConfigurations);
+			Objects.requireNonNull(buildConfigurations);
+			this.buildConfigurations = () -> buildConfigurations;
+			return this;
+		}
+
+		/**
+		 * Sets the build configurations resolved on first access of {@link PBXTarget#getBuildConfigurationList()}.
+		 *
+		 * @param buildConfigurations  the build configurations supplier, must not be null
+		 * @return this builder, never null
+		 */
+		public Builder buildConfigurations(Supplier<? extends XCConfigurationList> buildConfigurations) {
+			Objects.requireNonNull(buildConfigurations);
+			this.buildConfigurations = Suppliers.memoize(buildConfigurations::get);
 			return this;
 		}
 
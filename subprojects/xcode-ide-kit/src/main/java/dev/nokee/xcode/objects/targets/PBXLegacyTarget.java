@@ -15,6 +15,7 @@
  */
 package dev.nokee.xcode.objects.targets;
 
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import dev.nokee.xcode.objects.buildphase.PBXBuildPhase;
 import dev.nokee.xcode.objects.configuration.XCConfigurationList;
@@ -24,6 +25,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static com.google.common.collect.Streams.stream;
 
@@ -37,7 +39,7 @@ public final class PBXLegacyTarget extends PBXTarget {
 	private final String buildWorkingDirectory;
 	private final boolean passBuildSettingsInEnvironment;
 
-	private PBXLegacyTarget(String name, ProductType productType, String productName, PBXFileReference productReference, XCConfigurationList buildConfigurationList, ImmutableList<PBXTargetDependency> dependencies, String buildArgumentsString, String buildToolPath, String buildWorkingDirectory, boolean passBuildSettingsInEnvironment) {
+	private PBXLegacyTarget(String name, ProductType productType, String productName, PBXFileReference productReference, Supplier<XCConfigurationList> buildConfigurationList, ImmutableList<PBXTargetDependency> dependencies, String buildArgumentsString, String buildToolPath, String buildWorkingDirectory, boolean passBuildSettingsInEnvironment) {
 		super(name, productType, ALWAYS_NO_BUILD_PHASES, buildConfigurationList, productName, productReference, dependencies);
 		this.buildArgumentsString = buildArgumentsString;
 		this.buildToolPath = buildToolPath;
@@ -77,7 +79,7 @@ public final class PBXLegacyTarget extends PBXTarget {
 		private String buildToolPath = "/usr/bin/make";
 		private String buildWorkingDirectory;
 		private boolean passBuildSettingsInEnvironment = true;
-		private XCConfigurationList buildConfigurationList;
+		private Supplier<XCConfigurationList> buildConfigurationList = () -> null;
 		private String productName;
 		private PBXFileReference productReference;
 		private final List<PBXTargetDependency> dependencies = new ArrayList<>();
@@ -95,12 +97,26 @@ public final class PBXLegacyTarget extends PBXTarget {
 		public Builder buildConfigurations(Consumer<? super XCConfigurationList.Builder> builderConsumer) {
 			final XCConfigurationList.Builder builder = XCConfigurationList.builder();
 			builderConsumer.accept(builder);
-			this.buildConfigurationList = builder.build();
+			final XCConfigurationList result = builder.build();
+			this.buildConfigurationList = () -> result;
 			return this;
 		}
 
 		public Builder buildConfigurations(XCConfigurationList buildConfigurationList) {
-			this.buildConfigurationList = Objects.requireNonNull(buildConfigurationList);
+			Objects.requireNonNull(buildConfigurationList);
+			this.buildConfigurationList = () -> buildConfigurationList;
+			return this;
+		}
+
+		/**
+		 * Sets the build configurations resolved on first access of {@link PBXTarget#getBuildConfigurationList()}.
+		 *
+		 * @param buildConfigurationList  the build configurations supplier, must not be null
+		 * @return this builder, never null
+		 */
+		public Builder buildConfigurations(Supplier<? extends XCConfigurationList> buildConfigurationList) {
+			Objects.requireNonNull(buildConfigurationList);
+			this.buildConfigurationList = Suppliers.memoize(buildConfigurationList::get);
 			return this;
 		}
 
@@ -15,6 +15,7 @@
  */
 package dev.nokee.xcode.objects.targets;
 
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import dev.nokee.xcode.objects.buildphase.PBXBuildPhase;
 import dev.nokee.xcode.objects.configuration.XCConfigurationList;
@@ -25,22 +26,24 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Streams.stream;
 
 /**
  * Concrete target type representing targets built by xcode itself, rather than an external build system.
  */
 public final class PBXNativeTarget extends PBXTarget {
-	private final ImmutableList<XCSwiftPackageProductDependency> packageProductDependencies;
+	private final Supplier<ImmutableList<XCSwiftPackageProductDependency>> packageProductDependencies;
 
-	private PBXNativeTarget(String name, ProductType productType, ImmutableList<PBXBuildPhase> buildPhases, XCConfigurationList buildConfigurationList, String productName, PBXFileReference productReference, ImmutableList<PBXTargetDependency> dependencies, ImmutableList<XCSwiftPackageProductDependency> packageProductDependencies) {
+	private PBXNativeTarget(String name, ProductType productType, ImmutableList<PBXBuildPhase> buildPhases, Supplier<XCConfigurationList> buildConfigurationList, String productName, PBXFileReference productReference, ImmutableList<PBXTargetDependency> dependencies, Supplier<ImmutableList<XCSwiftPackageProductDependency>> packageProductDependencies) {
 		super(name, productType, buildPhases, buildConfigurationList, productName, productReference, dependencies);
 		this.packageProductDependencies = packageProductDependencies;
 	}
 
 	public List<XCSwiftPackageProductDependency> getPackageProductDependencies() {
-		return packageProductDependencies;
+		return packageProductDependencies.get();
 	}
 
 	@Override
@@ -56,11 +59,11 @@ public final class PBXNativeTarget extends PBXTarget {
 		private String name;
 		private ProductType productType;
 		private final List<PBXBuildPhase> buildPhases = new ArrayList<>();
-		private XCConfigurationList buildConfigurationList;
+		private Supplier<XCConfigurationList> buildConfigurationList;
 		private String productName;
 		private PBXFileReference productReference;
 		private final List<PBXTargetDependency> dependencies = new ArrayList<>();
-		private final List<XCSwiftPackageProductDependency> packageProductDependencies = new ArrayList<>();
+		private Supplier<ImmutableList<XCSwiftPackageProductDependency>> packageProductDependencies = ImmutableList::of;
 
 		public Builder name(String name) {
 			this.name = Objects.requireNonNull(name);
@@ -86,12 +89,26 @@ public final class PBXNativeTarget extends PBXTarget {
 		public Builder buildConfigurations(Consumer<? super XCConfigurationList.Builder> builderConsumer) {
 			final XCConfigurationList.Builder builder = XCConfigurationList.builder();
 			builderConsumer.accept(builder);
-			this.buildConfigurationList = builder.build();
+			final XCConfigurationList result = builder.build();
+			this.buildConfigurationList = () -> result;
 			return this;
 		}
 
 		public Builder buildConfigurations(XCConfigurationList buildConfigurationList) {
-			this.buildConfigurationList = Objects.requireNonNull(buildConfigurationList);
+			Objects.requireNonNull(buildConfigurationList);
+			this.buildConfigurationList = () -> buildConfigurationList;
+			return this;
+		}
+
+		/**
+		 * Sets the build configurations resolved on first access of {@link PBXTarget#getBuildConfigurationList()}.
+		 *
+		 * @param buildConfigurationList  the build configurations supplier, must not be null
+		 * @return this builder, never null
+		 */
+		public Builder buildConfigurations(Supplier<? extends XCConfigurationList> buildConfigurationList) {
+			Objects.requireNonNull(buildConfigurationList);
+			this.buildConfigurationList = Suppliers.memoize(buildConfigurationList::get);
 			return this;
 		}
 
@@ -112,13 +129,25 @@ public final class PBXNativeTarget extends PBXTarget {
 		}
 
 		public Builder packageProductDependencies(Iterable<? extends XCSwiftPackageProductDependency> packageProductDependencies) {
-			this.packageProductDependencies.clear();
-			stream(packageProductDependencies).map(Objects::requireNonNull).forEach(this.packageProductDependencies::add);
+			final ImmutableList<XCSwiftPackageProductDependency> result = stream(packageProductDependencies).map(Objects::requireNonNull).collect(toImmutableList());
+			this.packageProductDependencies = () -> result;
+			return this;
+		}
+
+		/**
+		 * Sets the package product dependencies resolved on first access of {@link PBXNativeTarget#getPackageProductDependencies()}.
+		 *
+		 * @param packageProductDependencies  the package product dependencies supplier, must not be null
+		 * @return this builder, never null
+		 */
+		public Builder packageProductDependencies(Supplier<? extends Iterable<? extends XCSwiftPackageProductDependency>> packageProductDependencies) {
+			Objects.requireNonNull(packageProductDependencies);
+			this.packageProductDependencies = Suppliers.memoize(() -> stream(packageProductDependencies.get()).map(Objects::requireNonNull).collect(toImmutableList()));
 			return this;
 		}
 
 		public PBXNativeTarget build() {
-			return new PBXNativeTarget(Objects.requireNonNull(name, "'name' must not be null"), Objects.requireNonNull(productType, "'productType' must not be null"), ImmutableList.copyOf(buildPhases), Objects.requireNonNull(buildConfigurationList, "'buildConfigurations' must not be null"), Objects.requireNonNull(productName, "'productName' must not be null"), Objects.requireNonNull(productReference, "'productReference' must not be null"), ImmutableList.copyOf(dependencies), ImmutableList.copyOf(packageProductDependencies));
+			return new PBXNativeTarget(Objects.requireNonNull(name, "'name' must not be null"), Objects.requireNonNull(productType, "'productType' must not be null"), ImmutableList.copyOf(buildPhases), Objects.requireNonNull(buildConfigurationList, "'buildConfigurations' must not be null"), Objects.requireNonNull(productName, "'productName' must not be null"), Objects.requireNonNull(productReference, "'productReference' must not be null"), ImmutableList.copyOf(dependencies), packageProductDependencies);
 		}
 	}
 }
@@ -24,6 +24,7 @@ import dev.nokee.xcode.objects.files.PBXFileReference;
 import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Information for building a specific artifact (a library, binary, or test).
@@ -32,12 +33,12 @@ public abstract class PBXTarget extends PBXProjectItem {
 	private final String name;
 	@Nullable private final ProductType productType;
 	private final ImmutableList<PBXBuildPhase> buildPhases;
-	private final XCConfigurationList buildConfigurationList;
+	private final Supplier<XCConfigurationList> buildConfigurationList;
 	@Nullable private final String productName;
 	@Nullable private final PBXFileReference productReference;
 	private final ImmutableList<PBXTargetDependency> dependencies;
 
-	protected PBXTarget(String name, @Nullable ProductType productType, ImmutableList<PBXBuildPhase> buildPhases, XCConfigurationList buildConfigurationList, @Nullable String productName, @Nullable PBXFileReference productReference, ImmutableList<PBXTargetDependency> dependencies) {
+	protected PBXTarget(String name, @Nullable ProductType productType, ImmutableList<PBXBuildPhase> buildPhases, Supplier<XCConfigurationList> buildConfigurationList, @Nullable String productName, @Nullable PBXFileReference productReference, ImmutableList<PBXTargetDependency> dependencies) {
 		this.name = name;
 		this.productType = productType;
 		this.buildPhases = buildPhases;
@@ -60,7 +61,7 @@ public abstract class PBXTarget extends PBXProjectItem {
 	}
 
 	public XCConfigurationList getBuildConfigurationList() {
-		return buildConfigurationList;
+		return buildConfigurationList.get();
 	}
 
 	public List<PBXTargetDependency> getDependencies() {
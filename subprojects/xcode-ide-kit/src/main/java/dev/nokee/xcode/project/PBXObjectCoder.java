@@ -18,6 +18,7 @@ package dev.nokee.xcode.project;
 import java.lang.reflect.Type;
 import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 interface PBXObjectCoder<T/* extends PBXObject*/> {
 	Class<T> getType();
@@ -42,5 +43,16 @@ interface PBXObjectCoder<T/* extends PBXObject*/> {
 		}
 
 		<S> void decodeIfPresent(String key, Type type, Consumer<? super S> action);
+
+		/**
+		 * Calls the action with a supplier of the decoded value, only if the key is present.
+		 * When decoding lazily, the value is decoded on the first call to the supplier.
+		 * Use for values rarely queried, e.g. build configurations.
+		 */
+		default <S> void decodeLazilyIfPresent(String key, Class<S> type, Consumer<? super Supplier<S>> action) {
+			decodeLazilyIfPresent(key, (Type) type, action);
+		}
+
+		<S> void decodeLazilyIfPresent(String key, Type type, Consumer<? super Supplier<S>> action);
 	}
 }
@@ -135,9 +135,9 @@ final class PBXObjectCoders {
 			val builder = PBXProject.builder();
 			decoder.decodeIfPresent("mainGroup", builder::mainGroup);
 			decoder.decodeIfPresent("targets", builder::targets);
-			decoder.decodeIfPresent("buildConfigurationList", XCConfigurationList.class, builder::buildConfigurations);
+			decoder.decodeLazilyIfPresent("buildConfigurationList", XCConfigurationList.class, builder::buildConfigurations);
 			decoder.decodeIfPresent("projectReferences", new TypeToken<Iterable<PBXProject.ProjectReference>>() {}.getType(), builder::projectReferences);
-			decoder.decodeIfPresent("packageReferences", new TypeToken<Iterable<XCRemoteSwiftPackageReference>>() {}.getType(), builder::packageReferences);
+			decoder.<Iterable<XCRemoteSwiftPackageReference>>decodeLazilyIfPresent("packageReferences", new TypeToken<Iterable<XCRemoteSwiftPackageReference>>() {}.getType(), builder::packageReferences);
 			return builder.build();
 		}
 
@@ -403,7 +403,7 @@ final class PBXObjectCoders {
 			decoder.decodeIfPresent("productType", String.class, ProductTypes::valueOf);
 			decoder.decodeIfPresent("productName", String.class, builder::productName);
 			decoder.decodeIfPresent("productReference", builder::productReference);
-			decoder.decodeIfPresent("buildConfigurationList", XCConfigurationList.class, builder::buildConfigurations);
+			decoder.decodeLazilyIfPresent("buildConfigurationList", XCConfigurationList.class, builder::buildConfigurations);
 			decoder.decodeIfPresent("dependencies", new TypeToken<Iterable<PBXTargetDependency>>() {}.getType(), builder::dependencies);
 			decoder.decodeIfPresent("buildArgumentsString", String.class, builder::buildArguments);
 			decoder.decodeIfPresent("buildToolPath", String.class, builder::buildToolPath);
@@ -462,9 +462,9 @@ final class PBXObjectCoders {
 			decoder.decodeIfPresent("productName", String.class, builder::productName);
 			decoder.decodeIfPresent("productReference", builder::productReference);
 			decoder.decodeIfPresent("buildPhases", builder::buildPhases);
-			decoder.decodeIfPresent("buildConfigurationList", XCConfigurationList.class, builder::buildConfigurations);
+			decoder.decodeLazilyIfPresent("buildConfigurationList", XCConfigurationList.class, builder::buildConfigurations);
 			decoder.decodeIfPresent("dependencies", new TypeToken<Iterable<PBXTargetDependency>>() {}.getType(), builder::dependencies);
-			decoder.decodeIfPresent("packageProductDependencies", new TypeToken<Iterable<XCSwiftPackageProductDependency>>() {}.getType(), builder::packageProductDependencies);
+			decoder.<Iterable<XCSwiftPackageProductDependency>>decodeLazilyIfPresent("packageProductDependencies", new TypeToken<Iterable<XCSwiftPackageProductDependency>>() {}.getType(), builder::packageProductDependencies);
 			return builder.build();
 		}
 
@@ -501,7 +501,7 @@ final class PBXObjectCoders {
 			val builder = PBXAggregateTarget.builder();
 			decoder.decodeIfPresent("name", String.class, builder::name);
 			decoder.decodeIfPresent("buildPhases", builder::buildPhases);
-			decoder.decodeIfPresent("buildConfigurationList", XCConfigurationList.class, builder::buildConfigurations);
+			decoder.decodeLazilyIfPresent("buildConfigurationList", XCConfigurationList.class, builder::buildConfigurations);
 			decoder.decodeIfPresent("dependencies", new TypeToken<Iterable<PBXTargetDependency>>() {}.getType(), builder::dependencies);
 			return builder.build();
 		}
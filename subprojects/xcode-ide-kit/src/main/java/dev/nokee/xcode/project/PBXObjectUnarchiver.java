@@ -15,6 +15,7 @@
  */
 package dev.nokee.xcode.project;
 
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Streams;
@@ -29,6 +30,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Streams.stream;
@@ -46,19 +48,37 @@ public final class PBXObjectUnarchiver {
 	}
 
 	public PBXProject decode(PBXProj proj) {
-		return new PBXObjectDecoder(proj.getObjects()).decode(proj.getRootObject());
+		return new PBXObjectDecoder(proj.getObjects(), false).decode(proj.getRootObject());
+	}
+
+	/**
+	 * Decodes the project while deferring the decoding of rarely used values, i.e. build configurations and Swift packages, until first queried.
+	 * The returned project keeps a reference to the {@link PBXProj} until all deferred values are decoded.
+	 *
+	 * @param proj  the project to decode, must not be null
+	 * @return the decoded project, never null
+	 */
+	public PBXProject decodeLazily(PBXProj proj) {
+		return new PBXObjectDecoder(proj.getObjects(), true).decode(proj.getRootObject());
 	}
 
 	private final class PBXObjectDecoder {
 		private final Map<String, PBXObject> decodedObjects = new HashMap<>();
 		private final PBXObjects objects;
+		private final boolean lazy;
 
-		public PBXObjectDecoder(PBXObjects objects) {
+		public PBXObjectDecoder(PBXObjects objects, boolean lazy) {
 			this.objects = objects;
+			this.lazy = lazy;
 		}
 
 		public <T extends PBXObject> T decode(String gid) {
 			assert gid != null;
+			@SuppressWarnings("unchecked")
+			final T result = (T) decodedObjects.get(gid);
+			if (result != null) {
+				return result;
+			}
 			return decode(objects.getById(gid));
 		}
 
@@ -147,6 +167,25 @@ public final class PBXObjectUnarchiver {
 			});
 		}
 
+		@Override
+		public <S> void decodeLazilyIfPresent(String key, Type type, Consumer<? super Supplier<S>> action) {
+			if (object.get(key) == null) {
+				return;
+			}
+
+			if (delegate.lazy) {
+				// Deferred values can be queried from any thread, serialize the access to the decoded objects
+				action.accept(Suppliers.memoize(() -> {
+					synchronized (delegate) {
+						return this.<S>decode(key, type).get();
+					}
+				}));
+			} else {
+				final S value = this.<S>decode(key, type).get();
+				action.accept(Suppliers.ofInstance(value));
+			}
+		}
+
 		@SuppressWarnings("unchecked")
 		private <S> S decode(Object value, Type type) {
 			if (type.equals(String.class)) {
@@ -15,17 +15,30 @@
  */
 package dev.nokee.xcode.project;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.MoreCollectors;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Multimaps;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.stream.Stream;
 
+/**
+ * Objects of a {@link PBXProj} indexed by global ID and by {@code isa}.
+ * The global ID index is built eagerly as the unarchiver resolves every object reference through {@link #getById(String)}.
+ * The {@code isa} index is built on first use as it requires every object to have an {@code isa} field.
+ */
 public final class PBXObjects implements Iterable<PBXObjectReference> {
 	private final ImmutableList<PBXObjectReference> objects;
+	private final ImmutableListMultimap<String, PBXObjectReference> objectsById;
+	private final Supplier<ImmutableListMultimap<String, PBXObjectReference>> objectsByIsa;
 
 	private PBXObjects(ImmutableList<PBXObjectReference> objects) {
 		this.objects = objects;
+		this.objectsById = Multimaps.index(objects, PBXObjectReference::getGlobalID);
+		this.objectsByIsa = Suppliers.memoize(() -> Multimaps.index(objects, PBXObjectReference::isa));
 	}
 
 	@Override
@@ -38,7 +51,7 @@ public final class PBXObjects implements Iterable<PBXObjectReference> {
 	}
 
 	public Stream<PBXObjectReference> get(String isa) {
-		return objects.stream().filter(it -> it.isa().equals(isa));
+		return objectsByIsa.get().get(isa).stream();
 	}
 
 	public Stream<PBXObjectReference> stream() {
@@ -50,7 +63,13 @@ public final class PBXObjects implements Iterable<PBXObjectReference> {
 	}
 
 	public PBXObjectReference getById(String gid) {
-		return objects.stream().filter(it -> it.getGlobalID().equals(gid)).collect(MoreCollectors.onlyElement());
+		final ImmutableList<PBXObjectReference> result = objectsById.get(gid);
+		if (result.isEmpty()) {
+			throw new NoSuchElementException();
+		} else if (result.size() > 1) {
+			throw new IllegalArgumentException("expected one element but was: <" + result.get(0) + ", " + result.get(1) + (result.size() > 2 ? ", ..." : "") + ">");
+		}
+		return result.get(0);
 	}
 
 	public static final class Builder {
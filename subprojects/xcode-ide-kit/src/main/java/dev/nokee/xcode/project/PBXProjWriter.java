@@ -15,68 +15,375 @@
  */
 package dev.nokee.xcode.project;
 
-import dev.nokee.xcode.AsciiPropertyListWriter;
-import dev.nokee.xcode.JavaPropertyListWriter;
-import dev.nokee.xcode.PropertyListVersion;
+import com.google.common.collect.ImmutableSet;
 
+import javax.annotation.Nullable;
+import java.io.BufferedWriter;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.Writer;
-import java.util.Collections;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Consumer;
+import java.util.TreeMap;
 
+/**
+ * Writes {@link PBXProj} the way Xcode saves {@code project.pbxproj}.
+ * Objects are grouped in {@code Begin/End section} by isa, sorted by global ID, and references are annotated with their name.
+ * Only the values of reference fields are annotated, a string that happens to equal a global ID is written as-is.
+ * The output is streamed to the writer without intermediate property list events.
+ */
 public final class PBXProjWriter implements Closeable {
-	private final JavaPropertyListWriter writer;
+	private static final int OBJECT_VERSION = 46;
+	private static final Comparator<String> FIELD_ORDER = Comparator.comparing((String it) -> !it.equals("isa")).thenComparing(Comparator.naturalOrder());
+	// Fields holding a global ID or a list of global IDs, Xcode doesn't annotate remoteGlobalIDString
+	private static final ImmutableSet<String> REFERENCE_FIELDS = ImmutableSet.of(
+		"baseConfigurationReference", "buildConfigurationList", "buildConfigurations", "buildPhases", "buildRules", "children",
+		"containerPortal", "currentVersion", "dependencies", "fileRef", "files", "mainGroup", "package", "packageProductDependencies",
+		"packageReferences", "ProductGroup", "productRef", "productRefGroup", "productReference", "ProjectRef", "remoteRef",
+		"target", "targetProxy", "targets");
+	private final Writer out;
+	private Map<String, String> comments = new HashMap<>();
 
 	public PBXProjWriter(Writer writer) {
-		this.writer = new JavaPropertyListWriter(new AsciiPropertyListWriter(writer, true), PBXProjWriter::writePBXObjectReferenceAsGlobalID);
+		this.out = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+	}
+
+	public PBXProjWriter(WritableByteChannel channel) {
+		this.out = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), 64 * 1024); // already buffered
+	}
+
+	/**
+	 * Writes the specified project, the project build configuration list is annotated without project name.
+	 *
+	 * @param o  the project to write, must not be null
+	 */
+	public void write(PBXProj o) {
+		write(o, null);
+	}
+
+	/**
+	 * Writes the specified project.
+	 *
+	 * @param o  the project to write, must not be null
+	 * @param projectName  the project name, i.e. the {@code .xcodeproj} bundle name without extension, used to annotate the project build configuration list
+	 */
+	public void write(PBXProj o, @Nullable String projectName) {
+		try {
+			comments = commentsOf(o.getObjects(), projectName);
+
+			out.write("// !$*UTF8*$!\n{\n");
+			out.write("\tarchiveVersion = 1;\n");
+			out.write("\tclasses = {\n\t};\n");
+			out.write("\tobjectVersion = " + OBJECT_VERSION + ";\n");
+			out.write("\tobjects = {\n");
+			writeObjects(o.getObjects());
+			out.write("\t};\n");
+			if (o.getRootObject() != null) {
+				out.write("\trootObject = ");
+				writeReference(o.getRootObject());
+				out.write(";\n");
+			}
+			out.write("}\n");
+			out.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void writeObjects(PBXObjects objects) throws IOException {
+		final Map<String, List<PBXObjectReference>> sections = new TreeMap<>();
+		for (PBXObjectReference object : objects) {
+			sections.computeIfAbsent(object.isa(), it -> new ArrayList<>()).add(object);
+		}
+
+		for (Map.Entry<String, List<PBXObjectReference>> section : sections.entrySet()) {
+			final boolean inline = isInlineSection(section.getKey());
+			section.getValue().sort(Comparator.comparing(PBXObjectReference::getGlobalID));
+			out.write("\n/* Begin " + section.getKey() + " section */\n");
+			for (PBXObjectReference object : section.getValue()) {
+				out.write("\t\t");
+				writeReference(object.getGlobalID());
+				out.write(" = ");
+				writeFields(object.getFields(), inline);
+				out.write(";\n");
+			}
+			out.write("/* End " + section.getKey() + " section */\n");
+		}
+	}
+
+	// Xcode writes build files and file references on a single line
+	private static boolean isInlineSection(String isa) {
+		return isa.equals("PBXBuildFile") || isa.equals("PBXFileReference");
 	}
 
-	private static void writePBXObjectReferenceAsGlobalID(JavaPropertyListWriter.ValueWriter writer, Object obj) {
-		if (obj instanceof PBXObjectReference) {
-			writer.writeObject(((PBXObjectReference) obj).getGlobalID());
+	private void writeFields(PBXObjectFields fields, boolean inline) throws IOException {
+		final Map<String, Object> sortedFields = new TreeMap<>(FIELD_ORDER);
+		for (Map.Entry<String, Object> field : fields.entrySet()) {
+			sortedFields.put(field.getKey(), field.getValue());
+		}
+		writeDictionary(sortedFields, 2, inline);
+	}
+
+	private void writeReference(String globalId) throws IOException {
+		writeString(globalId);
+		final String comment = comments.get(globalId);
+		if (comment != null) {
+			out.write(" /* ");
+			out.write(comment.replace("*/", "* /")); // the comment must not end early
+			out.write(" */");
+		}
+	}
+
+	private void writeValue(Object value, int level, boolean inline, boolean reference) throws IOException {
+		if (value instanceof PBXObjectReference) {
+			writeReference(((PBXObjectReference) value).getGlobalID());
+		} else if (value instanceof String) {
+			if (reference) {
+				writeReference((String) value);
+			} else {
+				writeString((String) value);
+			}
+		} else if (value instanceof Map) {
+			final Map<String, Object> sortedEntries = new TreeMap<>();
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				sortedEntries.put(entry.getKey().toString(), entry.getValue());
+			}
+			writeDictionary(sortedEntries, level, inline);
+		} else if (value instanceof Collection) {
+			writeArray((Collection<?>) value, level, inline, reference);
+		} else if (value instanceof byte[]) {
+			out.write('<');
+			for (byte b : (byte[]) value) {
+				out.write(Character.forDigit((b >> 4) & 0xF, 16));
+				out.write(Character.forDigit(b & 0xF, 16));
+			}
+			out.write('>');
+		} else if (value instanceof Number || value instanceof Boolean) {
+			writeString(value.toString());
 		} else {
-			throw new UnsupportedOperationException(String.format("Unknown object of type %s", obj.getClass().getSimpleName()));
+			throw new UnsupportedOperationException(String.format("Unknown object of type %s", value == null ? "null" : value.getClass().getSimpleName()));
 		}
 	}
 
-	public void write(PBXProj o) {
-		writer.writeDocument(PropertyListVersion.VERSION_00, doc -> {
-			doc.writeDict(5, dict -> {
-				dict.writeKey("archiveVersion", 1);
-				dict.writeKey("classes", Collections.emptyMap());
-				dict.writeKey("objectVersion",46);
-				dict.writeKey("objects", writeObjects(o.getObjects()));
-				dict.writeKey("rootObject", o.getRootObject());
-			});
-		});
-
-		writer.flush();
-	}
-
-	private static Consumer<JavaPropertyListWriter.ValueWriter> writeObjects(PBXObjects objects) {
-		return writer -> {
-			writer.writeDict(objects.size(), entryWriter -> {
-				for (PBXObjectReference object : objects) {
-					entryWriter.writeKey(object.getGlobalID(), writeObject(object.getFields()));
+	private void writeDictionary(Map<String, Object> entries, int level, boolean inline) throws IOException {
+		out.write('{');
+		if (!inline) {
+			out.write('\n');
+		}
+		for (Map.Entry<String, Object> entry : entries.entrySet()) {
+			if (!inline) {
+				indent(level + 1);
+			}
+			writeString(entry.getKey());
+			out.write(" = ");
+			writeValue(entry.getValue(), level + 1, inline, REFERENCE_FIELDS.contains(entry.getKey()));
+			out.write(inline ? "; " : ";\n");
+		}
+		if (!inline) {
+			indent(level);
+		}
+		out.write('}');
+	}
+
+	private void writeArray(Collection<?> values, int level, boolean inline, boolean references) throws IOException {
+		out.write('(');
+		if (!inline) {
+			out.write('\n');
+		}
+		for (Object value : values) {
+			if (!inline) {
+				indent(level + 1);
+			}
+			writeValue(value, level + 1, inline, references);
+			out.write(inline ? ", " : ",\n");
+		}
+		if (!inline) {
+			indent(level);
+		}
+		out.write(')');
+	}
+
+	private void indent(int level) throws IOException {
+		for (int i = 0; i < level; ++i) {
+			out.write('\t');
+		}
+	}
+
+	private void writeString(String s) throws IOException {
+		if (!requiresQuotes(s)) {
+			out.write(s);
+			return;
+		}
+
+		out.write('"');
+		for (int i = 0; i < s.length(); ++i) {
+			final char c = s.charAt(i);
+			switch (c) {
+				case '\\': out.write("\\\\"); break;
+				case '"': out.write("\\\""); break;
+				case '\n': out.write("\\n"); break;
+				case '\r': out.write("\\r"); break;
+				case '\t': out.write("\\t"); break;
+				case '\u0007': out.write("\\a"); break;
+				case '\b': out.write("\\b"); break;
+				case '\u000b': out.write("\\v"); break;
+				case '\f': out.write("\\f"); break;
+				default:
+					if (c < 0x20) {
+						out.write(String.format("\\U%04x", (int) c));
+					} else {
+						out.write(c); // Xcode writes non-ASCII characters as-is, the file is UTF-8
+					}
+			}
+		}
+		out.write('"');
+	}
+
+	// see https://opensource.apple.com/source/CF/CF-1153.18/CFOldStylePList.c, Xcode also quotes strings that could be mistaken for comments
+	private static boolean requiresQuotes(String s) {
+		if (s.isEmpty() || s.contains("//") || s.contains("___")) {
+			return true;
+		}
+		for (int i = 0; i < s.length(); ++i) {
+			final char c = s.charAt(i);
+			final boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '$' || c == '/' || c == ':' || c == '.';
+			if (!valid) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	//region Comments
+	private static Map<String, String> commentsOf(PBXObjects objects, @Nullable String projectName) {
+		final Map<String, PBXObjectReference> objectsById = new HashMap<>();
+		final Map<String, String> buildPhaseOfBuildFiles = new HashMap<>();
+		final Map<String, PBXObjectReference> ownerOfConfigurationLists = new HashMap<>();
+		for (PBXObjectReference object : objects) {
+			objectsById.put(object.getGlobalID(), object);
+			final String buildPhaseName = buildPhaseName(object);
+			if (buildPhaseName != null && object.getFields().get("files") instanceof Collection) {
+				for (Object buildFile : (Collection<?>) object.getFields().get("files")) {
+					buildPhaseOfBuildFiles.put(globalIdOf(buildFile), buildPhaseName);
 				}
-			});
-		};
+			}
+			final Object configurationList = object.getFields().get("buildConfigurationList");
+			if (configurationList != null) {
+				ownerOfConfigurationLists.put(globalIdOf(configurationList), object);
+			}
+		}
+
+		final Map<String, String> result = new HashMap<>();
+		for (PBXObjectReference object : objects) {
+			final String comment = commentOf(object, objectsById, buildPhaseOfBuildFiles, ownerOfConfigurationLists, projectName);
+			if (comment != null) {
+				result.put(object.getGlobalID(), comment);
+			}
+		}
+		return result;
 	}
 
-	private static Consumer<JavaPropertyListWriter.ValueWriter> writeObject(PBXObjectFields fields) {
-		return writer -> {
-			writer.writeDict(fields.size(), tt -> {
-				for (Map.Entry<String, Object> field : fields.entrySet()) {
-					tt.writeKey(field.getKey(), field.getValue());
+	private static String commentOf(PBXObjectReference object, Map<String, PBXObjectReference> objectsById, Map<String, String> buildPhaseOfBuildFiles, Map<String, PBXObjectReference> ownerOfConfigurationLists, @Nullable String projectName) {
+		final String buildPhaseName = buildPhaseName(object);
+		if (buildPhaseName != null) {
+			return buildPhaseName;
+		}
+
+		switch (object.isa()) {
+			case "PBXProject":
+				return "Project object";
+			case "PBXBuildFile": {
+				String fileName = null;
+				if (object.getFields().get("fileRef") != null) {
+					fileName = nameOf(objectsById.get(globalIdOf(object.getFields().get("fileRef"))));
+				} else if (object.getFields().get("productRef") != null) {
+					fileName = nameOf(objectsById.get(globalIdOf(object.getFields().get("productRef"))));
 				}
-			});
-		};
+				final String buildPhase = buildPhaseOfBuildFiles.get(object.getGlobalID());
+				if (fileName == null) {
+					return buildPhase;
+				}
+				return buildPhase == null ? fileName : fileName + " in " + buildPhase;
+			}
+			case "XCConfigurationList": {
+				final PBXObjectReference owner = ownerOfConfigurationLists.get(object.getGlobalID());
+				if (owner == null) {
+					return null;
+				}
+				// The project name isn't part of the PBXProject, Xcode uses the .xcodeproj bundle name
+				final String ownerName = owner.isa().equals("PBXProject") ? projectName : nameOf(owner);
+				if (ownerName == null) {
+					return owner.isa().equals("PBXProject") ? "Build configuration list for PBXProject" : null;
+				}
+				return "Build configuration list for " + owner.isa() + " \"" + ownerName + "\"";
+			}
+			case "PBXContainerItemProxy":
+			case "PBXTargetDependency":
+				return object.isa();
+			case "XCRemoteSwiftPackageReference": {
+				final String name = nameOf(object);
+				return name == null ? object.isa() : object.isa() + " \"" + name + "\"";
+			}
+			default:
+				return nameOf(object);
+		}
+	}
+
+	private static String buildPhaseName(PBXObjectReference object) {
+		switch (object.isa()) {
+			case "PBXSourcesBuildPhase": return "Sources";
+			case "PBXFrameworksBuildPhase": return "Frameworks";
+			case "PBXResourcesBuildPhase": return "Resources";
+			case "PBXHeadersBuildPhase": return "Headers";
+			case "PBXRezBuildPhase": return "Rez";
+			case "PBXCopyFilesBuildPhase": return nameOrDefault(object, "CopyFiles");
+			case "PBXShellScriptBuildPhase": return nameOrDefault(object, "ShellScript");
+			default: return null;
+		}
+	}
+
+	private static String nameOrDefault(PBXObjectReference object, String defaultName) {
+		final Object name = object.getFields().get("name");
+		return name == null ? defaultName : name.toString();
+	}
+
+	private static String nameOf(PBXObjectReference object) {
+		if (object == null) {
+			return null;
+		}
+		for (String key : new String[] { "name", "path", "productName" }) {
+			final Object value = object.getFields().get(key);
+			if (value != null) {
+				return value.toString();
+			}
+		}
+		final Object repositoryUrl = object.getFields().get("repositoryURL");
+		if (repositoryUrl != null) {
+			String result = repositoryUrl.toString();
+			result = result.substring(result.lastIndexOf('/') + 1);
+			return result.endsWith(".git") ? result.substring(0, result.length() - 4) : result;
+		}
+		return null;
+	}
+
+	private static String globalIdOf(Object reference) {
+		if (reference instanceof PBXObjectReference) {
+			return ((PBXObjectReference) reference).getGlobalID();
+		}
+		return reference.toString();
 	}
+	//endregion
 
 	@Override
 	public void close() throws IOException {
-		writer.close();
+		out.close();
 	}
 }
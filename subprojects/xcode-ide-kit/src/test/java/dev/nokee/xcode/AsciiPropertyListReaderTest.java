@@ -43,11 +43,11 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class AsciiPropertyListReaderTest extends PropertyListReaderTester {
-	private static AsciiPropertyListReader newReader(String... lines) {
+	PropertyListReader newReader(String... lines) {
 		return new AsciiPropertyListReader(new InputStreamReader(new ByteArrayInputStream(content(lines))));
 	}
 
-	private static byte[] content(String... lines) {
+	static byte[] content(String... lines) {
 		return Arrays.stream(lines).collect(Collectors.joining(System.lineSeparator())).getBytes(StandardCharsets.UTF_8);
 	}
 
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import static dev.nokee.xcode.PropertyListReader.Event.ARRAY_END;
+import static dev.nokee.xcode.PropertyListReader.Event.ARRAY_START;
+import static dev.nokee.xcode.PropertyListReader.Event.DATE;
+import static dev.nokee.xcode.PropertyListReader.Event.DICTIONARY_END;
+import static dev.nokee.xcode.PropertyListReader.Event.DICTIONARY_KEY;
+import static dev.nokee.xcode.PropertyListReader.Event.DICTIONARY_START;
+import static dev.nokee.xcode.PropertyListReader.Event.DOCUMENT_END;
+import static dev.nokee.xcode.PropertyListReader.Event.DOCUMENT_START;
+import static dev.nokee.xcode.PropertyListReader.Event.INTEGER;
+import static dev.nokee.xcode.PropertyListReader.Event.REAL;
+import static dev.nokee.xcode.PropertyListReader.Event.STRING;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class BinaryPropertyListReaderTest extends PropertyListReaderTester {
+	static byte[] document(Consumer<? super PropertyListWriter> action) {
+		final ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		try (val writer = new BinaryPropertyListWriter(outStream)) {
+			writer.writeStartDocument(PropertyListVersion.VERSION_00);
+			action.accept(writer);
+			writer.writeEndDocument();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return outStream.toByteArray();
+	}
+
+	private static PropertyListReader newReader(Consumer<? super PropertyListWriter> action) {
+		return new BinaryPropertyListReader(ByteBuffer.wrap(document(action)));
+	}
+
+	private static Consumer<PropertyListWriter> dictionaryWithKey(String key) {
+		return writer -> {
+			writer.writeStartDictionary(1);
+			writer.writeDictionaryKey(key);
+			writer.writeString("test");
+			writer.writeEndDictionary();
+		};
+	}
+
+	@Test
+	void writesSameBytesAsPythonPlistlib() {
+		// plistlib.dumps({'a': 1}, fmt=plistlib.FMT_BINARY)
+		final byte[] expected = new byte[] {
+			'b', 'p', 'l', 'i', 's', 't', '0', '0',
+			(byte) 0xd1, 0x01, 0x02, 0x51, 'a', 0x10, 0x01,
+			0x08, 0x0b, 0x0d,
+			0, 0, 0, 0, 0, 0, 0x01, 0x01,
+			0, 0, 0, 0, 0, 0, 0, 0x03,
+			0, 0, 0, 0, 0, 0, 0, 0x00,
+			0, 0, 0, 0, 0, 0, 0, 0x0f,
+		};
+		assertArrayEquals(expected, document(writer -> {
+			writer.writeStartDictionary(1);
+			writer.writeDictionaryKey("a");
+			writer.writeInteger(1);
+			writer.writeEndDictionary();
+		}));
+	}
+
+	@Test
+	void canReadLargeArrayWithWideObjectReferences() {
+		val subject = newReader(writer -> {
+			writer.writeStartArray(1000);
+			for (int i = 0; i < 1000; ++i) {
+				writer.writeInteger(i * 1000L);
+			}
+			writer.writeEndArray();
+		});
+		assertThat(subject.next(), is(DOCUMENT_START));
+		assertThat(subject.next(), is(ARRAY_START));
+		for (int i = 0; i < 1000; ++i) {
+			assertThat(subject.next(), is(INTEGER));
+			assertThat(subject.readInteger(), equalTo(i * 1000L));
+		}
+		assertThat(subject.next(), is(ARRAY_END));
+		assertThat(subject.next(), is(DOCUMENT_END));
+	}
+
+	@Test
+	void canReadNonAsciiAndRepeatedStrings() {
+		val subject = newReader(writer -> {
+			writer.writeStartDictionary(2);
+			writer.writeDictionaryKey("caf\u00e9");
+			writer.writeString("same");
+			writer.writeDictionaryKey("same");
+			writer.writeString("\u2603 snowman");
+			writer.writeEndDictionary();
+		});
+		assertThat(subject.next(), is(DOCUMENT_START));
+		assertThat(subject.next(), is(DICTIONARY_START));
+		assertThat(subject.next(), is(DICTIONARY_KEY));
+		assertThat(subject.readDictionaryKey(), equalTo("caf\u00e9"));
+		assertThat(subject.next(), is(STRING));
+		assertThat(subject.readString(), equalTo("same"));
+		assertThat(subject.next(), is(DICTIONARY_KEY));
+		assertThat(subject.readDictionaryKey(), equalTo("same"));
+		assertThat(subject.next(), is(STRING));
+		assertThat(subject.readString(), equalTo("\u2603 snowman"));
+		assertThat(subject.next(), is(DICTIONARY_END));
+		assertThat(subject.next(), is(DOCUMENT_END));
+	}
+
+	@Test
+	void canReadNegativeIntegerRealAndFractionalDate() {
+		val date = LocalDateTime.of(2022, 3, 14, 15, 9, 26, 500_000_000);
+		val subject = newReader(writer -> {
+			writer.writeStartArray(3);
+			writer.writeInteger(-42);
+			writer.writeReal(3.5f);
+			writer.writeDate(date);
+			writer.writeEndArray();
+		});
+		assertThat(subject.next(), is(DOCUMENT_START));
+		assertThat(subject.next(), is(ARRAY_START));
+		assertThat(subject.next(), is(INTEGER));
+		assertThat(subject.readInteger(), equalTo(-42L));
+		assertThat(subject.next(), is(REAL));
+		assertThat(subject.readReal(), equalTo(3.5f));
+		assertThat(subject.next(), is(DATE));
+		assertThat(subject.readDate(), equalTo(date));
+		assertThat(subject.next(), is(ARRAY_END));
+		assertThat(subject.next(), is(DOCUMENT_END));
+	}
+
+	@Override
+	PropertyListReader newDocument__empty() {
+		return newReader(writer -> {});
+	}
+
+	@Override
+	PropertyListReader newDocumentWithBoolean__true() {
+		return newReader(writer -> writer.writeBoolean(true));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithBoolean__false() {
+		return newReader(writer -> writer.writeBoolean(false));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithInteger__26() {
+		return newReader(writer -> writer.writeInteger(26));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithInteger__12612() {
+		return newReader(writer -> writer.writeInteger(12612));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithInteger__272760970() {
+		return newReader(writer -> writer.writeInteger(272760970));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithInteger__2380154602107442436() {
+		return newReader(writer -> writer.writeInteger(2380154602107442436L));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithString__beta456() {
+		return newReader(writer -> writer.writeString("beta456"));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithString__beta_special_456(char special) {
+		return newReader(writer -> writer.writeString("beta" + special + "456"));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithString__beta_slash_456() {
+		return newReader(writer -> writer.writeString("beta/456"));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithString__beta_dot_456() {
+		return newReader(writer -> writer.writeString("beta.456"));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithString__beta_underscore_456() {
+		return newReader(writer -> writer.writeString("beta_456"));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithString__beta_dollarSign_456() {
+		return newReader(writer -> writer.writeString("beta$456"));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithString__beta_dash_456() {
+		return newReader(writer -> writer.writeString("beta-456"));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithString__beta_colon_456() {
+		return newReader(writer -> writer.writeString("beta:456"));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithString__beta_space_456() {
+		return newReader(writer -> writer.writeString("beta 456"));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithString__empty() {
+		return newReader(writer -> writer.writeString(""));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithArray__empty() {
+		return newReader(PropertyListWriter::writeEmptyArray);
+	}
+
+	@Override
+	PropertyListReader newDocumentWithArray__8706() {
+		return newReader(writer -> {
+			writer.writeStartArray(1);
+			writer.writeInteger(8706);
+			writer.writeEndArray();
+		});
+	}
+
+	@Override
+	PropertyListReader newDocumentWithArray__myString_9762() {
+		return newReader(writer -> {
+			writer.writeStartArray(2);
+			writer.writeString("myString");
+			writer.writeInteger(9762);
+			writer.writeEndArray();
+		});
+	}
+
+	@Override
+	PropertyListReader newDocumentWithArray__arrayOf_4_5_6() {
+		return newReader(writer -> {
+			writer.writeStartArray(1);
+			writer.writeStartArray(3);
+			writer.writeInteger(4);
+			writer.writeInteger(5);
+			writer.writeInteger(6);
+			writer.writeEndArray();
+			writer.writeEndArray();
+		});
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionary__empty() {
+		return newReader(PropertyListWriter::writeEmptyDictionary);
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionary__myKey_to_2098176() {
+		return newReader(writer -> {
+			writer.writeStartDictionary(1);
+			writer.writeDictionaryKey("myKey");
+			writer.writeInteger(2098176);
+			writer.writeEndDictionary();
+		});
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionary__myKey_to_aValue() {
+		return newReader(writer -> {
+			writer.writeStartDictionary(1);
+			writer.writeDictionaryKey("myKey");
+			writer.writeString("aValue");
+			writer.writeEndDictionary();
+		});
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionary__k0_to_true__k1_to_second__k2_to_3() {
+		return newReader(writer -> {
+			writer.writeStartDictionary(3);
+			writer.writeDictionaryKey("k0");
+			writer.writeBoolean(true);
+			writer.writeDictionaryKey("k1");
+			writer.writeString("second");
+			writer.writeDictionaryKey("k2");
+			writer.writeInteger(3);
+			writer.writeEndDictionary();
+		});
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionaryKey__beta456() {
+		return newReader(dictionaryWithKey("beta456"));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionaryKey__beta_special_456(char specialChar) {
+		return newReader(dictionaryWithKey("beta" + specialChar + "456"));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionaryKey__beta_slash_456() {
+		return newReader(dictionaryWithKey("beta/456"));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionaryKey__beta_dot_456() {
+		return newReader(dictionaryWithKey("beta.456"));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionaryKey__beta_underscore_456() {
+		return newReader(dictionaryWithKey("beta_456"));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionaryKey__beta_dollarSign_456() {
+		return newReader(dictionaryWithKey("beta$456"));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionaryKey__beta_dash_456() {
+		return newReader(dictionaryWithKey("beta-456"));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionaryKey__beta_colon_456() {
+		return newReader(dictionaryWithKey("beta:456"));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionaryKey__beta_space_456() {
+		return newReader(dictionaryWithKey("beta 456"));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDate__epoch() {
+		return newReader(writer -> writer.writeDate(LocalDateTime.of(1970, 1, 1, 0, 0)));
+	}
+
+	@Override
+	PropertyListReader newDocumentWithData__c0ffee() {
+		return newReader(writer -> writer.writeData(new byte[] { 0xc, 0x0, 0xf, 0xf, 0xe, 0xe }));
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static dev.nokee.xcode.PropertyListReader.Event.DOCUMENT_START;
+import static dev.nokee.xcode.PropertyListReader.Event.STRING;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+class PropertyListReadersTest {
+	private static ByteBuffer content(String s) {
+		return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void detectsBinaryFormat() {
+		val content = ByteBuffer.wrap(BinaryPropertyListReaderTest.document(writer -> writer.writeString("foo")));
+		assertThat(PropertyListReaders.detectFormat(content), is(PropertyListReaders.Format.BINARY));
+		assertThat(PropertyListReaders.newReader(content), instanceOf(BinaryPropertyListReader.class));
+	}
+
+	@Test
+	void detectsXmlFormat() {
+		assertThat(PropertyListReaders.detectFormat(content("<?xml version=\"1.0\"?><plist/>")), is(PropertyListReaders.Format.XML));
+		assertThat(PropertyListReaders.detectFormat(content("\uFEFF\n  <!DOCTYPE plist><plist/>")), is(PropertyListReaders.Format.XML));
+		assertThat(PropertyListReaders.detectFormat(content("<plist version=\"1.0\"/>")), is(PropertyListReaders.Format.XML));
+	}
+
+	@Test
+	void detectsAsciiFormatByDefault() {
+		assertThat(PropertyListReaders.detectFormat(content("// !$*UTF8*$!\n{ a = b; }")), is(PropertyListReaders.Format.ASCII));
+		assertThat(PropertyListReaders.detectFormat(content("<c0ffee>")), is(PropertyListReaders.Format.ASCII));
+		assertThat(PropertyListReaders.detectFormat(content("")), is(PropertyListReaders.Format.ASCII));
+	}
+
+	@Test
+	void canReadMemoryMappedFile(@TempDir Path testDirectory) throws IOException {
+		val file = testDirectory.resolve("Info.plist");
+		Files.write(file, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<plist version=\"1.0\"><string>foo</string></plist>".getBytes(StandardCharsets.UTF_8));
+		try (val subject = PropertyListReaders.newReader(file)) {
+			assertThat(subject.next(), is(DOCUMENT_START));
+			assertThat(subject.next(), is(STRING));
+			assertThat(subject.readString(), equalTo("foo"));
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Compares {@link StreamingAsciiPropertyListReader} against the ANTLR-based {@link AsciiPropertyListReader}.
+ */
+class StreamingAsciiPropertyListReaderConformanceTest {
+	private static List<String> events(PropertyListReader reader) {
+		final List<String> result = new ArrayList<>();
+		while (reader.hasNext()) {
+			final PropertyListReader.Event event = reader.next();
+			switch (event) {
+				case DICTIONARY_KEY: result.add(event + ":" + reader.readDictionaryKey()); break;
+				case STRING: result.add(event + ":" + reader.readString()); break;
+				case DATA: result.add(event + ":" + Arrays.toString(reader.readData())); break;
+				default: result.add(event.toString());
+			}
+		}
+		return result;
+	}
+
+	private static void assertConforms(String content) {
+		assertThat(events(new StreamingAsciiPropertyListReader(new StringReader(content))),
+			equalTo(events(new AsciiPropertyListReader(new StringReader(content)))));
+	}
+
+	@Test
+	void conformsOnProjectFile() {
+		final StringBuilder builder = new StringBuilder();
+		builder.append("// !$*UTF8*$!\n{\n\tarchiveVersion = 1;\n\tclasses = {\n\t};\n\tobjectVersion = 55;\n\tobjects = {\n");
+		for (int i = 0; i < 2000; ++i) {
+			final String gid = String.format("%024X", i);
+			builder.append("\t\t").append(gid).append(" /* File").append(i).append(".swift */ = {isa = PBXFileReference; lastKnownFileType = sourcecode.swift; path = \"File").append(i).append(".swift\"; sourceTree = \"<group>\"; };\n");
+			builder.append("\t\t").append(gid).append("1 = {\n\t\t\tisa = PBXShellScriptBuildPhase;\n\t\t\tbuildActionMask = 2147483647;\n\t\t\tfiles = (\n\t\t\t\t").append(gid).append(" /* File */,\n\t\t\t);\n");
+			builder.append("\t\t\tshellScript = \"echo \\\"step ").append(i).append("\\\"\\n\\tcd $SRCROOT/..\\n\";\n\t\t\tdata = <0a1b 2c>;\n\t\t};\n");
+		}
+		builder.append("\t};\n\trootObject = 000000000000000000000000 /* Project object */;\n}\n");
+		assertConforms(builder.toString());
+	}
+
+	@Test
+	void conformsOnEdgeCases() {
+		assertConforms("");
+		assertConforms("// !$*UTF8*$!\n");
+		assertConforms("( )");
+		assertConforms("( a, b, )");
+		assertConforms("( ( 4, 5, 6 ), { k = v; } )");
+		assertConforms("{ \"quoted key\" = \"\\U00b1 \\101 \\\\\"; empty = \"\"; }");
+		assertConforms("/* leading */ { a = b; /* inner */ c = d; } // trailing");
+	}
+
+	@Test
+	void conformsOnUnrecognizedCharacters() {
+		assertConforms("{ a = b; # c = d; }");
+		assertConforms("( a, ^b, 'c' ) @");
+		assertConforms("{ key = value; > } ! \\");
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import static dev.nokee.xcode.PropertyListReader.Event.DICTIONARY_KEY;
+import static dev.nokee.xcode.PropertyListReader.Event.STRING;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Reads {@code project.pbxproj} documents of increasing sizes, up to about a hundred megabytes.
+ * The largest document is generated while it's read and never held in memory, the reader must not buffer its input.
+ */
+class StreamingAsciiPropertyListReaderLargeInputTest {
+	private static final String GID_PADDING = "000000000000000000000000";
+
+	private static String header() {
+		return "// !$*UTF8*$!\n{\n\tarchiveVersion = 1;\n\tclasses = {\n\t};\n\tobjectVersion = 46;\n\tobjects = {\n";
+	}
+
+	private static String fileReference(int i) {
+		final String gid = Integer.toHexString(i).toUpperCase(Locale.ROOT);
+		return "\t\t" + GID_PADDING.substring(gid.length()) + gid + " /* File" + i + ".swift */ = {isa = PBXFileReference; lastKnownFileType = sourcecode.swift; path = \"File" + i + ".swift\"; sourceTree = \"<group>\"; };\n";
+	}
+
+	private static String footer() {
+		return "\t};\n\trootObject = 000000000000000000000000 /* Project object */;\n}\n";
+	}
+
+	private static String projectWithFiles(int fileCount) {
+		val result = new StringBuilder(header());
+		for (int i = 0; i < fileCount; ++i) {
+			result.append(fileReference(i));
+		}
+		return result.append(footer()).toString();
+	}
+
+	// Checks every path is read in order, returns the number of paths read
+	private static int readPaths(PropertyListReader reader) throws IOException {
+		try (val subject = reader) {
+			int result = 0;
+			boolean path = false;
+			while (subject.hasNext()) {
+				val event = subject.next();
+				if (event == DICTIONARY_KEY) {
+					path = subject.readDictionaryKey().equals("path");
+				} else if (event == STRING && path) {
+					assertThat(subject.readString(), equalTo("File" + result++ + ".swift"));
+					path = false;
+				}
+			}
+			return result;
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {10, 1000, 100000})
+	void canReadProjectOfSizeFromBuffer(int fileCount) throws IOException {
+		val content = projectWithFiles(fileCount).getBytes(StandardCharsets.UTF_8);
+		assertThat(readPaths(new StreamingAsciiPropertyListReader(ByteBuffer.wrap(content))), equalTo(fileCount));
+	}
+
+	@Test
+	void canReadGeneratedProjectLargerThanItsBuffers() throws IOException {
+		final int fileCount = 1_000_000; // about 120 MB of text
+		assertThat(readPaths(new StreamingAsciiPropertyListReader(new GeneratedProjectReader(fileCount))), equalTo(fileCount));
+	}
+
+	// Produces the project one file reference at a time
+	private static final class GeneratedProjectReader extends Reader {
+		private final int fileCount;
+		private int nextFile = -1;
+		private String chunk = "";
+		private int position = 0;
+
+		GeneratedProjectReader(int fileCount) {
+			this.fileCount = fileCount;
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) {
+			while (position == chunk.length()) {
+				if (nextFile == -1) {
+					chunk = header();
+				} else if (nextFile < fileCount) {
+					chunk = fileReference(nextFile);
+				} else if (nextFile == fileCount) {
+					chunk = footer();
+				} else {
+					return -1;
+				}
+				nextFile++;
+				position = 0;
+			}
+			final int length = Math.min(len, chunk.length() - position);
+			chunk.getChars(position, position + length, cbuf, off);
+			position += length;
+			return length;
+		}
+
+		@Override
+		public void close() {}
+	}
+}
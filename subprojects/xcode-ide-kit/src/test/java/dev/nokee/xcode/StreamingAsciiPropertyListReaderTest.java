@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static dev.nokee.xcode.PropertyListReader.Event.DICTIONARY_END;
+import static dev.nokee.xcode.PropertyListReader.Event.DICTIONARY_KEY;
+import static dev.nokee.xcode.PropertyListReader.Event.DICTIONARY_START;
+import static dev.nokee.xcode.PropertyListReader.Event.DOCUMENT_END;
+import static dev.nokee.xcode.PropertyListReader.Event.DOCUMENT_START;
+import static dev.nokee.xcode.PropertyListReader.Event.STRING;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StreamingAsciiPropertyListReaderTest extends AsciiPropertyListReaderTest {
+	// Read from a buffer to also cover the UTF-8 decoding, the reader path is covered by the conformance test
+	@Override
+	PropertyListReader newReader(String... lines) {
+		return new StreamingAsciiPropertyListReader(ByteBuffer.wrap(content(lines)));
+	}
+
+	@Test
+	@Override
+	void throwsExceptionOnParsingError() {
+		val subject = newReader("{ aKey = aValue;");
+		assertThat(subject.next(), is(DOCUMENT_START));
+		assertThat(subject.next(), is(DICTIONARY_START));
+		assertThat(subject.next(), is(DICTIONARY_KEY));
+		assertThat(subject.next(), is(STRING));
+		val ex = assertThrows(PropertyListParseException.class, subject::next);
+		assertThat(ex.getMessage(), equalTo("line 1:16 extraneous input '<EOF>' expecting {'}', StringLiteral}"));
+		assertThat(ex.getOffset(), equalTo(16L));
+	}
+
+	@Test
+	void canReadUnquotedStringStartingWithSlash() {
+		val subject = newReader("/usr/bin/env");
+		assertThat(subject.next(), is(DOCUMENT_START));
+		assertThat(subject.next(), is(STRING));
+		assertThat(subject.readString(), equalTo("/usr/bin/env"));
+		assertThat(subject.next(), is(DOCUMENT_END));
+	}
+
+	@Test
+	void canReadMultiBytesCharacters() {
+		val subject = newReader("{ name = \"caf\u00e9 \ud83d\ude0d\"; /* comment */ }");
+		assertThat(subject.next(), is(DOCUMENT_START));
+		assertThat(subject.next(), is(DICTIONARY_START));
+		assertThat(subject.next(), is(DICTIONARY_KEY));
+		assertThat(subject.readDictionaryKey(), equalTo("name"));
+		assertThat(subject.next(), is(STRING));
+		assertThat(subject.readString(), equalTo("caf\u00e9 \ud83d\ude0d"));
+	}
+
+	@Test
+	void throwsExceptionOnUnterminatedQuotedString() {
+		val subject = newReader("\"abc");
+		assertThat(subject.next(), is(DOCUMENT_START));
+		val ex = assertThrows(PropertyListParseException.class, subject::next);
+		assertThat(ex.getMessage(), equalTo("line 1:4 unterminated quoted string"));
+	}
+
+	@Test
+	void reportsErrorLocation() {
+		val subject = newReader("{ a = b }");
+		assertThat(subject.next(), is(DOCUMENT_START));
+		assertThat(subject.next(), is(DICTIONARY_START));
+		assertThat(subject.next(), is(DICTIONARY_KEY));
+		assertThat(subject.next(), is(STRING));
+		val ex = assertThrows(PropertyListParseException.class, subject::next);
+		assertThat(ex.getLine(), equalTo(1));
+		assertThat(ex.getColumn(), equalTo(8));
+		assertThat(ex.getOffset(), equalTo(8L));
+	}
+
+	@Test
+	void skipsUnrecognizedCharacters() {
+		val subject = newReader("{ # a = b; }");
+		assertThat(subject.next(), is(DOCUMENT_START));
+		assertThat(subject.next(), is(DICTIONARY_START));
+		assertThat(subject.next(), is(DICTIONARY_KEY));
+		assertThat(subject.readDictionaryKey(), equalTo("a"));
+		assertThat(subject.next(), is(STRING));
+		assertThat(subject.next(), is(DICTIONARY_END));
+	}
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static dev.nokee.xcode.PropertyListReader.Event.DATA;
+import static dev.nokee.xcode.PropertyListReader.Event.DICTIONARY_END;
+import static dev.nokee.xcode.PropertyListReader.Event.DICTIONARY_KEY;
+import static dev.nokee.xcode.PropertyListReader.Event.DICTIONARY_START;
+import static dev.nokee.xcode.PropertyListReader.Event.DOCUMENT_END;
+import static dev.nokee.xcode.PropertyListReader.Event.DOCUMENT_START;
+import static dev.nokee.xcode.PropertyListReader.Event.REAL;
+import static dev.nokee.xcode.PropertyListReader.Event.STRING;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class XmlPropertyListReaderTest extends PropertyListReaderTester {
+	private static PropertyListReader newReader(String content) {
+		return new XmlPropertyListReader(new StringReader("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+			+ "<!DOCTYPE plist PUBLIC \"-//Apple//DTD PLIST 1.0//EN\" \"http://www.apple.com/DTDs/PropertyList-1.0.dtd\">\n"
+			+ "<plist version=\"1.0\">\n" + content + "\n</plist>\n"));
+	}
+
+	private static PropertyListReader newDictionaryWithKey(String key) {
+		return newReader("<dict>\n\t<key>" + key + "</key>\n\t<string>test</string>\n</dict>");
+	}
+
+	@Test
+	void canReadInfoPlist() {
+		val subject = newReader("<dict>\n"
+			+ "\t<!-- bundle identifier -->\n"
+			+ "\t<key>CFBundleIdentifier</key>\n"
+			+ "\t<string>dev.nokee.&lt;app&gt;</string>\n"
+			+ "\t<key>LSMinimumSystemVersion</key>\n"
+			+ "\t<real>10.5</real>\n"
+			+ "\t<key>Icon</key>\n"
+			+ "\t<data>\n\tAAEC\n\tAw==\n\t</data>\n"
+			+ "</dict>");
+		assertThat(subject.next(), is(DOCUMENT_START));
+		assertThat(subject.next(), is(DICTIONARY_START));
+		assertThat(subject.next(), is(DICTIONARY_KEY));
+		assertThat(subject.readDictionaryKey(), equalTo("CFBundleIdentifier"));
+		assertThat(subject.next(), is(STRING));
+		assertThat(subject.readString(), equalTo("dev.nokee.<app>"));
+		assertThat(subject.next(), is(DICTIONARY_KEY));
+		assertThat(subject.readDictionaryKey(), equalTo("LSMinimumSystemVersion"));
+		assertThat(subject.next(), is(REAL));
+		assertThat(subject.readReal(), equalTo(10.5f));
+		assertThat(subject.next(), is(DICTIONARY_KEY));
+		assertThat(subject.readDictionaryKey(), equalTo("Icon"));
+		assertThat(subject.next(), is(DATA));
+		assertArrayEquals(new byte[] { 0, 1, 2, 3 }, subject.readData());
+		assertThat(subject.next(), is(DICTIONARY_END));
+		assertThat(subject.next(), is(DOCUMENT_END));
+	}
+
+	@Override
+	PropertyListReader newDocument__empty() {
+		return newReader("");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithBoolean__true() {
+		return newReader("<true/>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithBoolean__false() {
+		return newReader("<false/>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithInteger__26() {
+		return newReader("<integer>26</integer>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithInteger__12612() {
+		return newReader("<integer>12612</integer>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithInteger__272760970() {
+		return newReader("<integer>272760970</integer>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithInteger__2380154602107442436() {
+		return newReader("<integer>2380154602107442436</integer>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithString__beta456() {
+		return newReader("<string>beta456</string>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithString__beta_special_456(char special) {
+		return newReader("<string>beta" + special + "456</string>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithString__beta_slash_456() {
+		return newReader("<string>beta/456</string>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithString__beta_dot_456() {
+		return newReader("<string>beta.456</string>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithString__beta_underscore_456() {
+		return newReader("<string>beta_456</string>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithString__beta_dollarSign_456() {
+		return newReader("<string>beta$456</string>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithString__beta_dash_456() {
+		return newReader("<string>beta-456</string>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithString__beta_colon_456() {
+		return newReader("<string>beta:456</string>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithString__beta_space_456() {
+		return newReader("<string>beta 456</string>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithString__empty() {
+		return newReader("<string/>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithArray__empty() {
+		return newReader("<array/>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithArray__8706() {
+		return newReader("<array>\n\t<integer>8706</integer>\n</array>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithArray__myString_9762() {
+		return newReader("<array>\n\t<string>myString</string>\n\t<integer>9762</integer>\n</array>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithArray__arrayOf_4_5_6() {
+		return newReader("<array>\n\t<array>\n\t\t<integer>4</integer>\n\t\t<integer>5</integer>\n\t\t<integer>6</integer>\n\t</array>\n</array>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionary__empty() {
+		return newReader("<dict/>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionary__myKey_to_2098176() {
+		return newReader("<dict>\n\t<key>myKey</key>\n\t<integer>2098176</integer>\n</dict>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionary__myKey_to_aValue() {
+		return newReader("<dict>\n\t<key>myKey</key>\n\t<string>aValue</string>\n</dict>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionary__k0_to_true__k1_to_second__k2_to_3() {
+		return newReader("<dict>\n\t<key>k0</key>\n\t<true/>\n\t<key>k1</key>\n\t<string>second</string>\n\t<key>k2</key>\n\t<integer>3</integer>\n</dict>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionaryKey__beta456() {
+		return newDictionaryWithKey("beta456");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionaryKey__beta_special_456(char specialChar) {
+		return newDictionaryWithKey("beta" + specialChar + "456");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionaryKey__beta_slash_456() {
+		return newDictionaryWithKey("beta/456");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionaryKey__beta_dot_456() {
+		return newDictionaryWithKey("beta.456");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionaryKey__beta_underscore_456() {
+		return newDictionaryWithKey("beta_456");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionaryKey__beta_dollarSign_456() {
+		return newDictionaryWithKey("beta$456");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionaryKey__beta_dash_456() {
+		return newDictionaryWithKey("beta-456");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionaryKey__beta_colon_456() {
+		return newDictionaryWithKey("beta:456");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDictionaryKey__beta_space_456() {
+		return newDictionaryWithKey("beta 456");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithDate__epoch() {
+		return newReader("<date>1970-01-01T00:00:00Z</date>");
+	}
+
+	@Override
+	PropertyListReader newDocumentWithData__c0ffee() {
+		return newReader("<data>DAAPDw4O</data>");
+	}
+}
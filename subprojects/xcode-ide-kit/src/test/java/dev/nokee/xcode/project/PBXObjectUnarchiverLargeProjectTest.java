@@ -0,0 +1,54 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode.project;
+
+import com.google.common.collect.ImmutableList;
+import lombok.val;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Decodes projects of increasing sizes.
+ * Resolving each object reference used to scan every objects, the largest size would take minutes to decode.
+ */
+class PBXObjectUnarchiverLargeProjectTest {
+	private static PBXProj projectWithFiles(int fileCount) {
+		final GlobalIDs gids = new GlobalIDs();
+		final String rootObjectGid = gids.nextGlobalID();
+		final String mainGroupGid = gids.nextGlobalID();
+		final PBXObjects.Builder objects = PBXObjects.builder();
+		final ImmutableList.Builder<String> children = ImmutableList.builder();
+		for (int i = 0; i < fileCount; ++i) {
+			final String gid = gids.nextGlobalID();
+			final String path = "File" + i + ".swift";
+			children.add(gid);
+			objects.add(PBXObjectReference.of(gid, it -> it.putField("isa", "PBXFileReference").putField("path", path).putField("sourceTree", "<group>")));
+		}
+		objects.add(PBXObjectReference.of(mainGroupGid, it -> it.putField("isa", "PBXGroup").putField("sourceTree", "<group>").putField("children", children.build())));
+		objects.add(PBXObjectReference.of(rootObjectGid, it -> it.putField("isa", "PBXProject").putField("mainGroup", mainGroupGid).putField("targets", ImmutableList.of())));
+		return PBXProj.builder().rootObject(rootObjectGid).objects(objects.build()).build();
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {10, 1000, 100000})
+	void canDecodeProjectOfSize(int fileCount) {
+		val project = new PBXObjectUnarchiver().decode(projectWithFiles(fileCount));
+		assertThat(project.getMainGroup().getChildren().size(), equalTo(fileCount));
+	}
+}
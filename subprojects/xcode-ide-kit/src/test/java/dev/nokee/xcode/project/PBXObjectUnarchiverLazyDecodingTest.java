@@ -0,0 +1,56 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode.project;
+
+import com.google.common.collect.ImmutableList;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PBXObjectUnarchiverLazyDecodingTest {
+	// The build configuration list references an object without coder, decoding it fails
+	private static PBXProj projectWith(String configurationListIsa) {
+		return PBXProj.builder().rootObject("0000").objects(o -> {
+			o.add(PBXObjectReference.of("0000", it -> it.putField("isa", "PBXProject").putField("mainGroup", "0001")
+				.putField("targets", ImmutableList.of()).putField("buildConfigurationList", "0002")));
+			o.add(PBXObjectReference.of("0001", it -> it.putField("isa", "PBXGroup").putField("name", "mainGroup").putField("sourceTree", "<group>").putField("children", ImmutableList.of())));
+			o.add(PBXObjectReference.of("0002", it -> it.putField("isa", configurationListIsa).putField("buildConfigurations", ImmutableList.of()).putField("defaultConfigurationName", "Release")));
+		}).build();
+	}
+
+	@Test
+	void doesNotDecodeBuildConfigurationsUntilQueried() {
+		val project = new PBXObjectUnarchiver().decodeLazily(projectWith("UnknownConfigurationList"));
+		assertThat(project.getMainGroup().getName().orElse(null), equalTo("mainGroup"));
+		assertThrows(NullPointerException.class, project::getBuildConfigurationList);
+	}
+
+	@Test
+	void decodesBuildConfigurationsEagerlyByDefault() {
+		assertThrows(NullPointerException.class, () -> new PBXObjectUnarchiver().decode(projectWith("UnknownConfigurationList")));
+	}
+
+	@Test
+	void decodesBuildConfigurationsOnFirstQuery() {
+		val project = new PBXObjectUnarchiver().decodeLazily(projectWith("XCConfigurationList"));
+		assertThat(project.getBuildConfigurationList().getDefaultConfigurationName().orElse(null), equalTo("Release"));
+		assertThat(project.getBuildConfigurationList(), is(project.getBuildConfigurationList()));
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode.project;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.emptyIterable;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PBXObjectsTest {
+	PBXObjectReference g0 = PBXObjectReference.of("0000", it -> it.putField("isa", "PBXGroup"));
+	PBXObjectReference f1 = PBXObjectReference.of("0001", it -> it.putField("isa", "PBXFileReference"));
+	PBXObjectReference g2 = PBXObjectReference.of("0002", it -> it.putField("isa", "PBXGroup"));
+	PBXObjects subject = PBXObjects.builder().add(g0).add(f1).add(g2).build();
+
+	@Test
+	void canGetObjectById() {
+		assertThat(subject.getById("0000"), is(g0));
+		assertThat(subject.getById("0001"), is(f1));
+		assertThat(subject.getById("0002"), is(g2));
+	}
+
+	@Test
+	void throwsExceptionForUnknownId() {
+		assertThrows(NoSuchElementException.class, () -> subject.getById("0003"));
+	}
+
+	@Test
+	void throwsExceptionForDuplicatedId() {
+		final PBXObjects objects = PBXObjects.builder().add(g0).add(PBXObjectReference.of("0000", it -> it.putField("isa", "PBXVariantGroup"))).build();
+		assertThrows(IllegalArgumentException.class, () -> objects.getById("0000"));
+	}
+
+	@Test
+	void returnsObjectsOfIsaInInsertionOrder() {
+		assertThat(subject.get("PBXGroup").collect(Collectors.toList()), contains(g0, g2));
+		assertThat(subject.get("PBXFileReference").collect(Collectors.toList()), contains(f1));
+		assertThat(subject.get("PBXNativeTarget").collect(Collectors.toList()), emptyIterable());
+	}
+
+	@Test
+	void doesNotRequireIsaUntilQueriedByIsa() {
+		final PBXObjectReference noIsa = PBXObjectReference.of("0003", it -> it.putField("name", "foo"));
+		final PBXObjects objects = PBXObjects.builder().add(g0).add(noIsa).build();
+		assertThat(objects.getById("0003"), is(noIsa));
+		assertThrows(NullPointerException.class, () -> objects.get("PBXGroup"));
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode.project;
+
+import com.google.common.collect.ImmutableList;
+import dev.nokee.xcode.StreamingAsciiPropertyListReader;
+import lombok.val;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Writes and reads back projects of increasing sizes.
+ * The rewritten project must be byte-identical, the largest size used to take seconds going through the property list writer.
+ */
+class PBXProjWriterLargeProjectTest {
+	private static PBXProj projectWithFiles(int fileCount) {
+		final GlobalIDs gids = new GlobalIDs();
+		final String rootObjectGid = gids.nextGlobalID();
+		final String mainGroupGid = gids.nextGlobalID();
+		final String sourcesGid = gids.nextGlobalID();
+		final PBXObjects.Builder objects = PBXObjects.builder();
+		final ImmutableList.Builder<String> children = ImmutableList.builder();
+		final ImmutableList.Builder<String> buildFiles = ImmutableList.builder();
+		for (int i = 0; i < fileCount; ++i) {
+			final String fileGid = gids.nextGlobalID();
+			final String buildFileGid = gids.nextGlobalID();
+			final String path = "File" + i + ".swift";
+			children.add(fileGid);
+			buildFiles.add(buildFileGid);
+			objects.add(PBXObjectReference.of(fileGid, it -> it.putField("isa", "PBXFileReference").putField("path", path).putField("sourceTree", "<group>")));
+			objects.add(PBXObjectReference.of(buildFileGid, it -> it.putField("isa", "PBXBuildFile").putField("fileRef", fileGid)));
+		}
+		objects.add(PBXObjectReference.of(sourcesGid, it -> it.putField("isa", "PBXSourcesBuildPhase").putField("files", buildFiles.build())));
+		objects.add(PBXObjectReference.of(mainGroupGid, it -> it.putField("isa", "PBXGroup").putField("sourceTree", "<group>").putField("children", children.build())));
+		objects.add(PBXObjectReference.of(rootObjectGid, it -> it.putField("isa", "PBXProject").putField("mainGroup", mainGroupGid).putField("targets", ImmutableList.of())));
+		return PBXProj.builder().rootObject(rootObjectGid).objects(objects.build()).build();
+	}
+
+	private static String write(PBXProj pbxproj) {
+		val result = new StringWriter();
+		new PBXProjWriter(result).write(pbxproj);
+		return result.toString();
+	}
+
+	private static PBXProj read(String content) throws IOException {
+		try (val reader = new PBXProjReader(new StreamingAsciiPropertyListReader(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8))))) {
+			return reader.read();
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {10, 1000, 100000})
+	void canRoundTripProjectOfSize(int fileCount) throws IOException {
+		val content = write(projectWithFiles(fileCount));
+		val project = read(content);
+		assertThat(project.getObjects().size(), equalTo(2 * fileCount + 3));
+		assertThat(write(project), equalTo(content));
+	}
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.nokee.xcode.project;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+class PBXProjWriterTest {
+	private static String write(PBXProj pbxproj) {
+		val result = new StringWriter();
+		new PBXProjWriter(result).write(pbxproj);
+		return result.toString();
+	}
+
+	private static PBXProj project() {
+		return PBXProj.builder().rootObject("P0").objects(builder -> {
+			builder.add(PBXObjectReference.of("P0", it -> it.putField("isa", "PBXProject").putField("targets", ImmutableList.of("T0")).putField("mainGroup", "G0")));
+			builder.add(PBXObjectReference.of("G0", it -> it.putField("isa", "PBXGroup").putField("sourceTree", "<group>").putField("children", ImmutableList.of("F0"))));
+			builder.add(PBXObjectReference.of("F0", it -> it.putField("isa", "PBXFileReference").putField("sourceTree", "<group>").putField("path", "main.c").putField("lastKnownFileType", "sourcecode.c.c")));
+			builder.add(PBXObjectReference.of("B0", it -> it.putField("isa", "PBXBuildFile").putField("fileRef", "F0")));
+			builder.add(PBXObjectReference.of("S0", it -> it.putField("isa", "PBXSourcesBuildPhase").putField("files", ImmutableList.of("B0")).putField("buildActionMask", "2147483647").putField("runOnlyForDeploymentPostprocessing", "0")));
+			builder.add(PBXObjectReference.of("T0", it -> it.putField("isa", "PBXNativeTarget").putField("name", "App").putField("buildPhases", ImmutableList.of("S0")).putField("buildConfigurationList", "L0").putField("productType", "com.apple.product-type.tool")));
+			builder.add(PBXObjectReference.of("C0", it -> it.putField("isa", "XCBuildConfiguration").putField("name", "Debug").putField("buildSettings", ImmutableMap.of("PRODUCT_NAME", "$(TARGET_NAME)", "OTHER_LDFLAGS", ImmutableList.of("-ObjC")))));
+			builder.add(PBXObjectReference.of("L0", it -> it.putField("isa", "XCConfigurationList").putField("defaultConfigurationName", "Debug").putField("buildConfigurations", ImmutableList.of("C0"))));
+		}).build();
+	}
+
+	@Test
+	void writesProjectLikeXcode() {
+		assertThat(write(project()), equalTo(String.join("\n",
+			"// !$*UTF8*$!",
+			"{",
+			"\tarchiveVersion = 1;",
+			"\tclasses = {",
+			"\t};",
+			"\tobjectVersion = 46;",
+			"\tobjects = {",
+			"",
+			"/* Begin PBXBuildFile section */",
+			"\t\tB0 /* main.c in Sources */ = {isa = PBXBuildFile; fileRef = F0 /* main.c */; };",
+			"/* End PBXBuildFile section */",
+			"",
+			"/* Begin PBXFileReference section */",
+			"\t\tF0 /* main.c */ = {isa = PBXFileReference; lastKnownFileType = sourcecode.c.c; path = main.c; sourceTree = \"<group>\"; };",
+			"/* End PBXFileReference section */",
+			"",
+			"/* Begin PBXGroup section */",
+			"\t\tG0 = {",
+			"\t\t\tisa = PBXGroup;",
+			"\t\t\tchildren = (",
+			"\t\t\t\tF0 /* main.c */,",
+			"\t\t\t);",
+			"\t\t\tsourceTree = \"<group>\";",
+			"\t\t};",
+			"/* End PBXGroup section */",
+			"",
+			"/* Begin PBXNativeTarget section */",
+			"\t\tT0 /* App */ = {",
+			"\t\t\tisa = PBXNativeTarget;",
+			"\t\t\tbuildConfigurationList = L0 /* Build configuration list for PBXNativeTarget \"App\" */;",
+			"\t\t\tbuildPhases = (",
+			"\t\t\t\tS0 /* Sources */,",
+			"\t\t\t);",
+			"\t\t\tname = App;",
+			"\t\t\tproductType = \"com.apple.product-type.tool\";",
+			"\t\t};",
+			"/* End PBXNativeTarget section */",
+			"",
+			"/* Begin PBXProject section */",
+			"\t\tP0 /* Project object */ = {",
+			"\t\t\tisa = PBXProject;",
+			"\t\t\tmainGroup = G0;",
+			"\t\t\ttargets = (",
+			"\t\t\t\tT0 /* App */,",
+			"\t\t\t);",
+			"\t\t};",
+			"/* End PBXProject section */",
+			"",
+			"/* Begin PBXSourcesBuildPhase section */",
+			"\t\tS0 /* Sources */ = {",
+			"\t\t\tisa = PBXSourcesBuildPhase;",
+			"\t\t\tbuildActionMask = 2147483647;",
+			"\t\t\tfiles = (",
+			"\t\t\t\tB0 /* main.c in Sources */,",
+			"\t\t\t);",
+			"\t\t\trunOnlyForDeploymentPostprocessing = 0;",
+			"\t\t};",
+			"/* End PBXSourcesBuildPhase section */",
+			"",
+			"/* Begin XCBuildConfiguration section */",
+			"\t\tC0 /* Debug */ = {",
+			"\t\t\tisa = XCBuildConfiguration;",
+			"\t\t\tbuildSettings = {",
+			"\t\t\t\tOTHER_LDFLAGS = (",
+			"\t\t\t\t\t\"-ObjC\",",
+			"\t\t\t\t);",
+			"\t\t\t\tPRODUCT_NAME = \"$(TARGET_NAME)\";",
+			"\t\t\t};",
+			"\t\t\tname = Debug;",
+			"\t\t};",
+			"/* End XCBuildConfiguration section */",
+			"",
+			"/* Begin XCConfigurationList section */",
+			"\t\tL0 /* Build configuration list for PBXNativeTarget \"App\" */ = {",
+			"\t\t\tisa = XCConfigurationList;",
+			"\t\t\tbuildConfigurations = (",
+			"\t\t\t\tC0 /* Debug */,",
+			"\t\t\t);",
+			"\t\t\tdefaultConfigurationName = Debug;",
+			"\t\t};",
+			"/* End XCConfigurationList section */",
+			"\t};",
+			"\trootObject = P0 /* Project object */;",
+			"}",
+			"")));
+	}
+
+	@Test
+	void quotesAndEscapesStringsLikeXcode() {
+		val result = write(PBXProj.builder().objects(builder -> {
+			builder.add(PBXObjectReference.of("X0", it -> it.putField("isa", "PBXShellScriptBuildPhase").putField("name", "Run Script").putField("shellPath", "/bin/sh")
+				.putField("shellScript", "echo \"hello\"\n").putField("inputPaths", ImmutableList.of()).putField("comment", "http://example.com")));
+		}).build());
+		assertThat(result, equalTo(String.join("\n",
+			"// !$*UTF8*$!",
+			"{",
+			"\tarchiveVersion = 1;",
+			"\tclasses = {",
+			"\t};",
+			"\tobjectVersion = 46;",
+			"\tobjects = {",
+			"",
+			"/* Begin PBXShellScriptBuildPhase section */",
+			"\t\tX0 /* Run Script */ = {",
+			"\t\t\tisa = PBXShellScriptBuildPhase;",
+			"\t\t\tcomment = \"http://example.com\";",
+			"\t\t\tinputPaths = (",
+			"\t\t\t);",
+			"\t\t\tname = \"Run Script\";",
+			"\t\t\tshellPath = /bin/sh;",
+			"\t\t\tshellScript = \"echo \\\"hello\\\"\\n\";",
+			"\t\t};",
+			"/* End PBXShellScriptBuildPhase section */",
+			"\t};",
+			"}",
+			"")));
+	}
+
+	@Test
+	void annotatesOnlyReferenceFields() {
+		val result = write(PBXProj.builder().objects(builder -> {
+			builder.add(PBXObjectReference.of("F0", it -> it.putField("isa", "PBXFileReference").putField("path", "F1").putField("sourceTree", "<group>")));
+			builder.add(PBXObjectReference.of("F1", it -> it.putField("isa", "PBXFileReference").putField("path", "F0").putField("sourceTree", "<group>")));
+			builder.add(PBXObjectReference.of("G0", it -> it.putField("isa", "PBXGroup").putField("name", "F0").putField("children", ImmutableList.of("F1")).putField("sourceTree", "<group>")));
+		}).build());
+		assertThat(result, equalTo(String.join("\n",
+			"// !$*UTF8*$!",
+			"{",
+			"\tarchiveVersion = 1;",
+			"\tclasses = {",
+			"\t};",
+			"\tobjectVersion = 46;",
+			"\tobjects = {",
+			"",
+			"/* Begin PBXFileReference section */",
+			"\t\tF0 /* F1 */ = {isa = PBXFileReference; path = F1; sourceTree = \"<group>\"; };",
+			"\t\tF1 /* F0 */ = {isa = PBXFileReference; path = F0; sourceTree = \"<group>\"; };",
+			"/* End PBXFileReference section */",
+			"",
+			"/* Begin PBXGroup section */",
+			"\t\tG0 /* F0 */ = {",
+			"\t\t\tisa = PBXGroup;",
+			"\t\t\tchildren = (",
+			"\t\t\t\tF1 /* F0 */,",
+			"\t\t\t);",
+			"\t\t\tname = F0;",
+			"\t\t\tsourceTree = \"<group>\";",
+			"\t\t};",
+			"/* End PBXGroup section */",
+			"\t};",
+			"}",
+			"")));
+	}
+
+	@Test
+	void doesNotEndCommentsEarly() {
+		val result = write(PBXProj.builder().objects(builder -> {
+			builder.add(PBXObjectReference.of("F0", it -> it.putField("isa", "PBXFileReference").putField("path", "a*/b.c").putField("sourceTree", "<group>")));
+		}).build());
+		assertThat(result, containsString("\t\tF0 /* a* /b.c */ = {isa = PBXFileReference; path = \"a*/b.c\"; sourceTree = \"<group>\"; };"));
+	}
+
+	@Test
+	void annotatesProjectBuildConfigurationListWithProjectName() {
+		val pbxproj = PBXProj.builder().rootObject("P0").objects(builder -> {
+			builder.add(PBXObjectReference.of("P0", it -> it.putField("isa", "PBXProject").putField("buildConfigurationList", "L0")));
+			builder.add(PBXObjectReference.of("L0", it -> it.putField("isa", "XCConfigurationList").putField("buildConfigurations", ImmutableList.of())));
+		}).build();
+
+		val result = new StringWriter();
+		new PBXProjWriter(result).write(pbxproj, "MyApp");
+		assertThat(result.toString(), containsString("\t\t\tbuildConfigurationList = L0 /* Build configuration list for PBXProject \"MyApp\" */;"));
+		assertThat(result.toString(), containsString("\t\tL0 /* Build configuration list for PBXProject \"MyApp\" */ = {"));
+		assertThat(write(pbxproj), containsString("\t\tL0 /* Build configuration list for PBXProject */ = {"));
+	}
+}